@@ -3,6 +3,8 @@ package DBHelper;
 import javax.swing.table.DefaultTableModel;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Provides low-level, generic utility functions for connecting to, executing statements against,
@@ -16,6 +18,8 @@ import java.util.ArrayList;
  */
 public class DBHelper {
 	private final String DATABASE_NAME = "C:\\sqlite\\Myprojects\\myproject.db";
+	// Query results shared by all helpers (16 MB budget)
+	private static final ResultCache CACHE = new ResultCache(16L * 1024 * 1024);
 	private Connection connection;
 	private Statement statement;
 	private ResultSet resultSet;
@@ -78,7 +82,8 @@ public class DBHelper {
 
 	/**
 	 * Executes a non-query SQL command (e.g., INSERT, UPDATE, DELETE, CREATE) against the database.
-	 * Handles connection, execution, and cleanup internally.
+	 * Handles connection, execution, and cleanup internally, and invalidates the cached results that read the
+	 * written table (see {@link ResultCache}).
 	 *
 	 * @param sql The SQL command string to execute.
 	 */
@@ -91,62 +96,113 @@ public class DBHelper {
 		}
 		finally {
 			close();
+			// Also after a failure: part of a statement list may have been applied
+			CACHE.invalidate(sql, DATABASE_NAME);
 		}
 	}
 
 	/**
 	 * Executes a SELECT query and formats the results into a {@link DefaultTableModel} for direct use in a {@link javax.swing.JTable}.
+	 * Repeated queries are answered from the {@link ResultCache}.
 	 *
 	 * @param sql The SQL SELECT query string.
 	 * @return A DefaultTableModel containing the query results and column headers.
 	 */
 	protected DefaultTableModel executeQueryToTable(String sql) {
-		ArrayList<ArrayList<Object>> result = new ArrayList<ArrayList<Object>>();
-		ArrayList<Object> columns = new ArrayList<Object>();
-		connect();
-		try {
-			resultSet = statement.executeQuery(sql);
-			int columnCount = resultSet.getMetaData().getColumnCount();
-			for (int i = 1; i <= columnCount; i++)
-				columns.add(resultSet.getMetaData().getColumnName(i));
-			while (resultSet.next()) {
-				ArrayList<Object> subresult = new ArrayList<Object>();
-				for (int i = 1; i <= columnCount; i++)
-					subresult.add(resultSet.getObject(i));
-				result.add(subresult);
-			}
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
-		close();
-		return new DefaultTableModel(arrayListTo2DArray(result), columns.toArray());
+		return executeQueryToTable(sql, new ArrayList<Object>());
+	}
+
+	/**
+	 * Executes a parameterized SELECT query and formats the results into a {@link DefaultTableModel}.
+	 * Values are bound to the {@code ?} placeholders instead of being concatenated into the SQL text.
+	 * Repeated queries are answered from the {@link ResultCache}.
+	 *
+	 * @param sql The SQL SELECT query string with {@code ?} placeholders.
+	 * @param params The values for the placeholders, in order.
+	 * @return A DefaultTableModel containing the query results and column headers.
+	 */
+	protected DefaultTableModel executeQueryToTable(String sql, List<Object> params) {
+		ResultCache.Entry result = load(sql, params);
+		return new DefaultTableModel(arrayListTo2DArray(result.rows), result.columns);
+	}
+
+	/**
+	 * Executes a parameterized SELECT query and returns the results as a raw two-dimensional {@link ArrayList}.
+	 * Values are bound to the {@code ?} placeholders instead of being concatenated into the SQL text.
+	 * Repeated queries are answered from the {@link ResultCache}; the caller always receives its own copy.
+	 *
+	 * @param sql The SQL SELECT query string with {@code ?} placeholders.
+	 * @param params The values for the placeholders, in order.
+	 * @return An ArrayList of ArrayLists containing the query results.
+	 */
+	protected ArrayList<ArrayList<Object>> executeQuery(String sql, List<Object> params) {
+		ArrayList<ArrayList<Object>> rows = load(sql, params).rows;
+		ArrayList<ArrayList<Object>> copy = new ArrayList<ArrayList<Object>>(rows.size());
+		for (ArrayList<Object> row : rows) copy.add(new ArrayList<Object>(row));
+		return copy;
 	}
 
 	/**
 	 * Executes a SELECT query and returns the results as a raw two-dimensional {@link ArrayList}.
 	 * The outer list represents rows, and the inner list represents column data for that row.
+	 * Repeated queries are answered from the {@link ResultCache}; the caller always receives its own copy.
 	 *
 	 * @param sql The SQL SELECT query string.
 	 * @return An ArrayList of ArrayLists containing the query results.
 	 */
 	protected ArrayList<ArrayList<Object>> executeQuery(String sql) {
+		return executeQuery(sql, new ArrayList<Object>());
+	}
+
+	/**
+	 * @return The result cache shared by every DBHelper, for its hit ratio and memory statistics or to change its budget.
+	 */
+	public static ResultCache getResultCache() {
+		return CACHE;
+	}
+
+	/**
+	 * Returns the cached result of a query, or runs it and caches the result. The table generations are read before
+	 * the query runs, so a concurrent write leaves the new entry stale rather than wrong.
+	 */
+	private ResultCache.Entry load(String sql, List<Object> params) {
+		ResultCache.Entry cached = CACHE.get(sql, params, DATABASE_NAME);
+		if (cached != null) return cached;
+
+		Map<String, Long> generations = CACHE.snapshot(sql);
+		long globalGeneration = CACHE.globalGeneration();
 		ArrayList<ArrayList<Object>> result = new ArrayList<ArrayList<Object>>();
+		ArrayList<Object> columns = new ArrayList<Object>();
+		boolean complete = false;
 		connect();
-		try {
-			resultSet = statement.executeQuery(sql);
+		try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+			bind(pstmt, params);
+			resultSet = pstmt.executeQuery();
 			int columnCount = resultSet.getMetaData().getColumnCount();
+			for (int i = 1; i <= columnCount; i++)
+				columns.add(resultSet.getMetaData().getColumnName(i));
 			while (resultSet.next()) {
 				ArrayList<Object> subresult = new ArrayList<Object>();
-				for (int i = 1; i <= columnCount; i++) {
+				for (int i = 1; i <= columnCount; i++)
 					subresult.add(resultSet.getObject(i));
-				}
 				result.add(subresult);
 			}
-		} catch (SQLException e){
+			complete = true;
+		} catch (SQLException e) {
 			e.printStackTrace();
 		}
 		close();
-		return result;
+		if (complete) CACHE.put(sql, params, result, columns.toArray(), generations, globalGeneration);
+		return new ResultCache.Entry(result, columns.toArray(), generations, globalGeneration, 0);
+	}
+
+	/**
+	 * Binds values to the placeholders of a prepared statement, in order.
+	 */
+	private void bind(PreparedStatement pstmt, List<Object> params) throws SQLException {
+		for (int i = 0; i < params.size(); i++) {
+			pstmt.setObject(i + 1, params.get(i));
+		}
 	}
 
 }
\ No newline at end of file
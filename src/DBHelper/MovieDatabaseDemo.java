@@ -77,6 +77,10 @@ public class MovieDatabaseDemo {
             }
             System.out.println();
         }
+
+        // Step 7: The repeated selects above were answered from the result cache
+        System.out.println("\n=== Result Cache ===");
+        System.out.println(DBHelper.getResultCache());
     }
 
     /**
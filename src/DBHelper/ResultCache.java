@@ -0,0 +1,391 @@
+package DBHelper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A read-through cache of query results for {@link DBHelper}, keyed by the normalized SQL text plus the bound
+ * parameter values, bounded by an estimated size in bytes and evicted in least-recently-used order.
+ *
+ * <p>Invalidation is by generation: every table name has a counter that {@link DBHelper#execute(String)} bumps when
+ * it writes to that table, and every cached result remembers the counters of all names its SQL mentions. A result
+ * is only served while none of them has moved, so it is never older than the last write made through DBHelper.
+ * Statements whose target table cannot be recognized (e.g. {@code PRAGMA}, several statements at once) bump a global
+ * generation that invalidates everything. Writes made by other connections (the application itself, another process)
+ * are detected through {@code PRAGMA data_version} on a connection the cache keeps open per file, which changes
+ * whenever another connection commits, and also invalidate everything. Tables changed only by triggers are not
+ * tracked.</p>
+ *
+ * <p>Role in System: Shared by every DBHelper instance (see {@link DBHelper#getResultCache()}), so repeated
+ * selects such as those in {@link MovieDatabaseDemo} skip the connection and the query. All methods are synchronized.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class ResultCache {
+	// Rough JVM sizes used to estimate the memory held by a cached result
+	private static final int ENTRY_OVERHEAD = 128;
+	private static final int ROW_OVERHEAD = 56;
+	private static final int VALUE_OVERHEAD = 24;
+
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*|\"[^\"]*\"|`[^`]*`|\\[[^\\]]*\\]");
+	private static final Pattern WRITE_TARGET = Pattern.compile(
+			"^(?:INSERT(?:\\s+OR\\s+\\w+)?\\s+INTO|REPLACE\\s+INTO|UPDATE(?:\\s+OR\\s+\\w+)?|DELETE\\s+FROM"
+					+ "|(?:CREATE|DROP|ALTER)\\s+TABLE(?:\\s+IF(?:\\s+NOT)?\\s+EXISTS)?)\\s+"
+					+ "(\"[^\"]+\"|`[^`]+`|\\[[^\\]]+\\]|[A-Za-z_][A-Za-z0-9_$.]*)",
+			Pattern.CASE_INSENSITIVE);
+
+	private long maxBytes;
+	private long bytes;
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Long> generations = new HashMap<>();
+	private long globalGeneration;
+	// The database file's data version after the last write or check made through DBHelper
+	private long dataVersion = -1;
+	// Per database file, the connection whose PRAGMA data_version is read (it never writes, so every commit of
+	// another connection moves it)
+	private final Map<String, Connection> versionConnections = new HashMap<>();
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param maxBytes The estimated memory the cached results may hold, in bytes (0 disables caching).
+	 */
+	public ResultCache(long maxBytes) {
+		this.maxBytes = Math.max(0, maxBytes);
+	}
+
+	/**
+	 * A cached result: the rows, the column names (for table models) and the generations it was read at.
+	 */
+	static final class Entry {
+		final ArrayList<ArrayList<Object>> rows;
+		final Object[] columns;
+		final Map<String, Long> readGenerations;
+		final long globalGeneration;
+		final long bytes;
+
+		Entry(ArrayList<ArrayList<Object>> rows, Object[] columns, Map<String, Long> readGenerations, long globalGeneration, long bytes) {
+			this.rows = rows;
+			this.columns = columns;
+			this.readGenerations = readGenerations;
+			this.globalGeneration = globalGeneration;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * The cache key: normalized SQL text plus the parameter values in order.
+	 */
+	private static final class Key {
+		private final String sql;
+		private final List<Object> params;
+		private final int hash;
+
+		private Key(String sql, List<Object> params) {
+			this.sql = sql;
+			this.params = params;
+			this.hash = 31 * sql.hashCode() + params.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return hash == other.hash && sql.equals(other.sql) && params.equals(other.params);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * Looks up a current result. A stale result is dropped and counts as a miss.
+	 *
+	 * @param sql The SQL text.
+	 * @param params The bound values (empty for none).
+	 * @param databaseFile The database file, used to detect writes made outside DBHelper.
+	 * @return The cached entry, or null on a miss. Callers must copy the rows before handing them out.
+	 */
+	synchronized Entry get(String sql, List<Object> params, String databaseFile) {
+		if (maxBytes == 0) return null;
+		checkExternalWrites(databaseFile);
+		Key key = new Key(normalize(sql), new ArrayList<>(params));
+		Entry entry = entries.get(key);
+		if (entry != null && !isCurrent(entry)) {
+			entries.remove(key);
+			bytes -= entry.bytes;
+			invalidations++;
+			entry = null;
+		}
+		if (entry == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return entry;
+	}
+
+	/**
+	 * Records the generations a query will be read at. Call before running the query, so a write that lands between
+	 * the query and {@link #put} makes the new entry stale rather than wrong.
+	 *
+	 * @param sql The SQL text.
+	 * @return The generations of every name the SQL mentions.
+	 */
+	synchronized Map<String, Long> snapshot(String sql) {
+		Map<String, Long> read = new HashMap<>();
+		for (String name : names(sql)) read.put(name, generations.getOrDefault(name, 0L));
+		return read;
+	}
+
+	/**
+	 * @return The current global generation; pair it with {@link #snapshot(String)}.
+	 */
+	synchronized long globalGeneration() {
+		return globalGeneration;
+	}
+
+	/**
+	 * Stores a result read at the given generations, evicting the least recently used results to stay within the budget.
+	 * Results larger than half the budget are not cached.
+	 */
+	synchronized void put(String sql, List<Object> params, ArrayList<ArrayList<Object>> rows, Object[] columns,
+			Map<String, Long> readGenerations, long readGlobalGeneration) {
+		if (maxBytes == 0) return;
+		long size = estimateBytes(sql, rows, columns);
+		if (size > maxBytes / 2) return;
+		Entry entry = new Entry(rows, columns, readGenerations, readGlobalGeneration, size);
+		if (!isCurrent(entry)) return;
+
+		Entry old = entries.put(new Key(normalize(sql), new ArrayList<>(params)), entry);
+		if (old != null) bytes -= old.bytes;
+		bytes += size;
+		evictToBudget();
+	}
+
+	/**
+	 * Records a write: bumps the generation of the statement's target table (or the global generation if the target
+	 * is not recognized) and remembers the database file's new data version.
+	 *
+	 * @param sql The statement that was executed.
+	 * @param databaseFile The database file.
+	 */
+	synchronized void invalidate(String sql, String databaseFile) {
+		String target = writeTarget(sql);
+		if (target == null) {
+			globalGeneration++;
+		} else {
+			generations.merge(target, 1L, Long::sum);
+		}
+		dataVersion = readDataVersion(databaseFile);
+	}
+
+	/**
+	 * Drops every cached result and resets the statistics.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+		globalGeneration++;
+		hits = misses = evictions = invalidations = 0;
+	}
+
+	/**
+	 * Changes the memory budget, evicting results if the cache is now over it.
+	 *
+	 * @param maxBytes The new budget in bytes (0 disables caching).
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = Math.max(0, maxBytes);
+		evictToBudget();
+	}
+
+	/** @return The memory budget in bytes. */
+	public synchronized long getMaxBytes() { return maxBytes; }
+
+	/** @return The estimated memory held by cached results, in bytes. */
+	public synchronized long getBytes() { return bytes; }
+
+	/** @return The number of cached results. */
+	public synchronized int getEntryCount() { return entries.size(); }
+
+	/** @return The number of lookups served from the cache. */
+	public synchronized long getHits() { return hits; }
+
+	/** @return The number of lookups that had to query the database. */
+	public synchronized long getMisses() { return misses; }
+
+	/** @return The number of results evicted to stay within the budget. */
+	public synchronized long getEvictions() { return evictions; }
+
+	/** @return The number of results dropped because a table they read was written. */
+	public synchronized long getInvalidations() { return invalidations; }
+
+	/** @return The fraction of lookups served from the cache (0.0 before the first lookup). */
+	public synchronized double getHitRatio() {
+		long total = hits + misses;
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("entries=%d, %d of %d KB, hits=%d, misses=%d, hit ratio=%.1f%%, evictions=%d, invalidations=%d",
+				entries.size(), bytes / 1024, maxBytes / 1024, hits, misses, getHitRatio() * 100, evictions, invalidations);
+	}
+
+	private boolean isCurrent(Entry entry) {
+		if (entry.globalGeneration != globalGeneration) return false;
+		for (Map.Entry<String, Long> read : entry.readGenerations.entrySet()) {
+			if (!read.getValue().equals(generations.getOrDefault(read.getKey(), 0L))) return false;
+		}
+		return true;
+	}
+
+	private void evictToBudget() {
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (bytes > maxBytes && eldest.hasNext()) {
+			bytes -= eldest.next().bytes;
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Treats a change of the database file that DBHelper did not make as a write to every table.
+	 */
+	private void checkExternalWrites(String databaseFile) {
+		long current = readDataVersion(databaseFile);
+		// An unreadable version proves nothing, so it invalidates too
+		if (current < 0 || current != dataVersion) {
+			globalGeneration++;
+			dataVersion = current;
+		}
+	}
+
+	/**
+	 * Reads {@code PRAGMA data_version} on the connection kept open for the file.
+	 * @return The data version, or -1 if it cannot be read.
+	 */
+	private long readDataVersion(String databaseFile) {
+		try {
+			Connection con = versionConnections.get(databaseFile);
+			if (con == null) {
+				con = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+				versionConnections.put(databaseFile, con);
+			}
+			try (Statement stmt = con.createStatement();
+				 ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+				return rs.next() ? rs.getLong(1) : -1;
+			}
+		} catch (SQLException e) {
+			System.err.println("Could not read data version: " + e.getMessage());
+			return -1;
+		}
+	}
+
+	/**
+	 * Collapses runs of whitespace outside quoted text and drops a trailing semicolon, so formatting differences
+	 * map to one key.
+	 */
+	static String normalize(String sql) {
+		StringBuilder sb = new StringBuilder(sql.length());
+		char quote = 0;
+		boolean space = false;
+		for (int i = 0; i < sql.length(); i++) {
+			char c = sql.charAt(i);
+			if (quote != 0) {
+				sb.append(c);
+				if (c == quote) quote = 0;
+			} else if (Character.isWhitespace(c)) {
+				space = sb.length() > 0;
+			} else {
+				if (space) sb.append(' ');
+				space = false;
+				if (c == '\'' || c == '"' || c == '`') quote = c;
+				sb.append(c);
+			}
+		}
+		int end = sb.length();
+		while (end > 0 && (sb.charAt(end - 1) == ';' || sb.charAt(end - 1) == ' ')) end--;
+		sb.setLength(end);
+		return sb.toString();
+	}
+
+	/**
+	 * Every identifier the SQL mentions outside string literals (lower case, quotes removed). The tables a query reads
+	 * are among them; the other names only cost an occasional unnecessary invalidation.
+	 */
+	private static Set<String> names(String sql) {
+		Set<String> names = new HashSet<>();
+		Matcher m = IDENTIFIER.matcher(withoutStringLiterals(sql));
+		while (m.find()) names.add(unquote(m.group()));
+		return names;
+	}
+
+	/**
+	 * The table a single write statement targets, or null if it is not a recognized single-table write.
+	 */
+	private static String writeTarget(String sql) {
+		String text = normalize(sql);
+		if (withoutStringLiterals(text).indexOf(';') >= 0) return null;
+		Matcher m = WRITE_TARGET.matcher(text);
+		if (!m.find()) return null;
+		String name = m.group(1);
+		int dot = name.lastIndexOf('.');
+		if (dot >= 0 && name.charAt(0) != '"' && name.charAt(0) != '`' && name.charAt(0) != '[') name = name.substring(dot + 1);
+		return unquote(name);
+	}
+
+	private static String withoutStringLiterals(String sql) {
+		return sql.replaceAll("'(?:[^']|'')*'", "''");
+	}
+
+	private static String unquote(String name) {
+		char first = name.charAt(0);
+		if (first == '"' || first == '`' || first == '[') name = name.substring(1, name.length() - 1);
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	private static long estimateBytes(String sql, ArrayList<ArrayList<Object>> rows, Object[] columns) {
+		long size = ENTRY_OVERHEAD + 2L * sql.length();
+		if (columns != null) {
+			for (Object column : columns) size += VALUE_OVERHEAD + 2L * Objects.toString(column, "").length();
+		}
+		for (ArrayList<Object> row : rows) {
+			size += ROW_OVERHEAD + 8L * row.size();
+			for (Object value : row) {
+				if (value instanceof String) {
+					size += 40 + 2L * ((String) value).length();
+				} else if (value instanceof byte[]) {
+					size += 16 + ((byte[]) value).length;
+				} else if (value != null) {
+					size += VALUE_OVERHEAD;
+				}
+			}
+		}
+		return size;
+	}
+}
@@ -2,6 +2,7 @@ package DBHelper;
 
 import javax.swing.table.DefaultTableModel;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A specific Data Access Object (DAO) that extends {@link DBHelper} to provide structured
@@ -23,25 +24,57 @@ public class movies extends DBHelper {
 	public static final String director = "director";
 	public static final String runningTimeMin = "runningTimeMin";
 	public static final String imdbRating = "imdbRating";
+	private static final List<String> COLUMN_NAMES = List.of(id, title, releaseDate, phase, director, runningTimeMin, imdbRating);
 
 	/**
-	 * Constructs a full SQL SELECT query string based on provided filtering and sorting parameters.
+	 * Constructs a parameterized SQL SELECT query based on the provided filtering and sorting parameters.
+	 * Column names are checked against the movie columns and the filter value becomes a {@code ?} placeholder,
+	 * so no caller input is concatenated into the SQL text. (The application itself uses the typed
+	 * {@code MovieQuery} API; this helper keeps the older call signature working.)
 	 *
 	 * @param fields A comma-separated list of column names to select (e.g., "title, director"). Use {@code null} or empty string for all columns (*).
 	 * @param whatField The column name for the WHERE clause (e.g., "phase"). Use {@code null} to skip WHERE clause.
 	 * @param whatValue The value to filter by in the WHERE clause (e.g., "3"). Requires {@code whatField}.
 	 * @param sortField The column name to sort by. Use {@code null} to skip sorting.
 	 * @param sort The sort order ("ASC" or "DESC"). Requires {@code sortField}.
-	 * @return The fully constructed SQL SELECT query string.
+	 * @param params Receives the value to bind for the placeholder, if any.
+	 * @return The SQL SELECT query string with placeholders.
+	 * @throws IllegalArgumentException If a column name or the sort order is not recognized.
 	 */
-	private String prepareSQL(String fields, String whatField, String whatValue, String sortField, String sort) {
+	private String prepareSQL(String fields, String whatField, String whatValue, String sortField, String sort, List<Object> params) {
 		String query = "SELECT ";
-		query += fields == null ? " * FROM " + TABLE_NAME : fields + " FROM " + TABLE_NAME;
-		query += whatField != null && whatValue != null ? " WHERE " + whatField + " = \"" + whatValue + "\"" : "";
-		query += sort != null && sortField != null ? " order by " + sortField + " " + sort : "";
+		if (fields == null || fields.isBlank()) {
+			query += "*";
+		} else {
+			List<String> columns = new ArrayList<>();
+			for (String field : fields.split(",")) columns.add(checkColumn(field.trim()));
+			query += String.join(", ", columns);
+		}
+		query += " FROM " + TABLE_NAME;
+		if (whatField != null && whatValue != null) {
+			query += " WHERE " + checkColumn(whatField) + " = ?";
+			params.add(whatValue);
+		}
+		if (sort != null && sortField != null) {
+			String order = sort.trim().toUpperCase();
+			if (!order.equals("ASC") && !order.equals("DESC")) throw new IllegalArgumentException("Unknown sort order: " + sort);
+			query += " ORDER BY " + checkColumn(sortField) + " " + order;
+		}
 		return query;
 	}
 
+	/**
+	 * Verifies that a name is one of the movie columns, so it is safe to place in SQL text.
+	 *
+	 * @param name The column name.
+	 * @return The column name.
+	 * @throws IllegalArgumentException If the name is not a movie column.
+	 */
+	private static String checkColumn(String name) {
+		if (!COLUMN_NAMES.contains(name)) throw new IllegalArgumentException("Unknown column: " + name);
+		return name;
+	}
+
 	/**
 	 * Inserts a new movie record into the 'movies' table.
 	 * It dynamically builds the INSERT query, safely handling string values and ignoring null inputs.
@@ -113,7 +146,8 @@ public class movies extends DBHelper {
 	 * @return An ArrayList of ArrayLists containing the query results.
 	 */
 	public ArrayList<ArrayList<Object>> select(String fields, String whatField, String whatValue, String sortField, String sort) {
-		return super.executeQuery(prepareSQL(fields, whatField, whatValue, sortField, sort));
+		List<Object> params = new ArrayList<>();
+		return super.executeQuery(prepareSQL(fields, whatField, whatValue, sortField, sort, params), params);
 	}
 
 	/**
@@ -146,7 +180,8 @@ public class movies extends DBHelper {
 	 * @return A DefaultTableModel containing the query results and column headers.
 	 */
 	public DefaultTableModel selectToTable(String fields, String whatField, String whatValue, String sortField, String sort) {
-		return super.executeQueryToTable(prepareSQL(fields, whatField, whatValue, sortField, sort));
+		List<Object> params = new ArrayList<>();
+		return super.executeQueryToTable(prepareSQL(fields, whatField, whatValue, sortField, sort, params), params);
 	}
 
 }
\ No newline at end of file
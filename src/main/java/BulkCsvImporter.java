@@ -0,0 +1,483 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import front end for large CSV files in the export format
+ * ({@code title,releaseDate,phase,director,runningTimeMin,imdbRating}).
+ *
+ * <p>The input file is split into newline-aligned chunks. Each chunk is memory-mapped and parsed
+ * byte-by-byte on a {@link ForkJoinPool} into a compact {@link RowBuffer} (primitive columns plus one
+ * byte arena for the text fields), so no per-line {@code String} splitting or {@code LocalDate} parsing happens;
+ * release dates are validated with {@link IsoDate}.
+ * A single writer stage (the calling thread) consumes the parsed buffers in file order and hands them to
+ * {@link MovieManager#addMovies(java.util.Collection)}, or to {@link MovieManager#mergeMovies(java.util.Collection, MergePolicy)}
+ * when a merge policy is given. Only a bounded window of chunks is in flight at once,
+ * so memory use stays flat for multi-GB files.</p>
+ *
+ * <p>Note: records must not contain line breaks inside quoted fields, because chunk boundaries are placed on raw newlines.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class BulkCsvImporter {
+
+    private static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final byte[] HEADER_PREFIX = "title,".getBytes(StandardCharsets.US_ASCII);
+
+    private final MovieManager manager;
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private final MergePolicy policy;
+
+    /**
+     * Creates an importer that parses on the common fork-join pool.
+     * @param manager The manager that receives parsed rows.
+     */
+    public BulkCsvImporter(MovieManager manager) {
+        this(manager, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Creates an importer that parses on the common fork-join pool and merges rows into existing titles.
+     * @param manager The manager that receives parsed rows.
+     * @param policy What to do with existing titles, or null to insert new titles only.
+     */
+    public BulkCsvImporter(MovieManager manager, MergePolicy policy) {
+        this(manager, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, policy);
+    }
+
+    /**
+     * Creates an importer with an explicit pool and chunk size.
+     * @param manager The manager that receives parsed rows.
+     * @param pool The pool the parse tasks run on.
+     * @param chunkSize The target size of each chunk in bytes (chunks are extended to the next newline).
+     */
+    public BulkCsvImporter(MovieManager manager, ForkJoinPool pool, long chunkSize) {
+        this(manager, pool, chunkSize, null);
+    }
+
+    /**
+     * Creates an importer with an explicit pool, chunk size and merge policy.
+     * @param manager The manager that receives parsed rows.
+     * @param pool The pool the parse tasks run on.
+     * @param chunkSize The target size of each chunk in bytes (chunks are extended to the next newline).
+     * @param policy What to do with existing titles, or null to insert new titles only.
+     */
+    public BulkCsvImporter(MovieManager manager, ForkJoinPool pool, long chunkSize, MergePolicy policy) {
+        this.manager = manager;
+        this.pool = pool;
+        this.chunkSize = Math.max(64 * 1024, Math.min(chunkSize, Integer.MAX_VALUE - 1L));
+        this.policy = policy;
+    }
+
+    /**
+     * Imports every valid row of the file.
+     *
+     * @param file The CSV file to import.
+     * @return The import statistics (bytes, parsed/rejected/inserted rows, throughput).
+     * @throws IOException If the file cannot be read or mapped.
+     */
+    public Result importFile(Path file) throws IOException {
+        Result result = new Result();
+        result.merged = policy != null;
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            result.bytes = size;
+            List<long[]> chunks = splitChunks(channel, size);
+
+            // Keep a bounded window of parse tasks ahead of the single writer.
+            int window = Math.max(2, pool.getParallelism() * 2);
+            Deque<Future<RowBuffer>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            // Wall clock of the parse stage: first chunk submitted to last chunk parsed
+            long parseStart = System.nanoTime();
+            long parseEnd = parseStart;
+
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                while (next < chunks.size() && inFlight.size() < window) {
+                    long[] range = chunks.get(next);
+                    boolean first = next == 0;
+                    inFlight.add(pool.submit(() -> parseChunk(channel, range[0], range[1], first)));
+                    next++;
+                }
+
+                RowBuffer rows = await(inFlight.poll());
+                parseEnd = Math.max(parseEnd, rows.parsedAt);
+                result.rowsParsed += rows.size();
+                result.rowsRejected += rows.rejected;
+
+                // Single writer stage: rows are handed to the manager in file order.
+                if (policy == null) {
+                    result.rowsInserted += manager.addMovies(rows.toMovies());
+                } else {
+                    MergeResult merged = manager.mergeMovies(rows.toMovies(), policy);
+                    if (merged != null) {
+                        result.rowsInserted += merged.getInserted();
+                        result.rowsUpdated += merged.getUpdated();
+                    }
+                }
+            }
+            result.parseNanos = parseEnd - parseStart;
+        }
+
+        result.totalNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Splits the file into {@code [start, end)} ranges of roughly {@code chunkSize} bytes,
+     * moving each boundary forward to just past the next newline.
+     */
+    private List<long[]> splitChunks(FileChannel channel, long size) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            chunks.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Maps and parses one chunk. Runs on the fork-join pool.
+     */
+    private static RowBuffer parseChunk(FileChannel channel, long start, long end, boolean firstChunk) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buf.limit();
+        RowBuffer rows = new RowBuffer(Math.max(16, limit / 48), limit);
+
+        int pos = 0;
+        if (firstChunk && startsWith(buf, HEADER_PREFIX)) {
+            while (pos < limit && buf.get(pos) != '\n') pos++;
+            pos++;
+        }
+
+        while (pos < limit) {
+            int lineEnd = pos;
+            while (lineEnd < limit && buf.get(lineEnd) != '\n') lineEnd++;
+            int end0 = lineEnd;
+            if (end0 > pos && buf.get(end0 - 1) == '\r') end0--;
+            if (end0 > pos && !parseLine(buf, pos, end0, rows)) {
+                rows.rejected++;
+            }
+            pos = lineEnd + 1;
+        }
+
+        rows.parsedAt = System.nanoTime();
+        return rows;
+    }
+
+    /**
+     * Parses a single record into the buffer. Returns false (and appends nothing) if any field is invalid.
+     */
+    private static boolean parseLine(ByteBuffer buf, int from, int to, RowBuffer rows) {
+        int mark = rows.textSize;
+        int[] field = rows.scratch;
+
+        // title
+        int pos = copyField(buf, from, to, rows, field);
+        if (pos < 0 || field[1] == 0) return rows.rollback(mark);
+        int titleOff = field[0], titleLen = field[1];
+
+        // releaseDate (YYYY-MM-DD) -> epoch day
+        int dateEnd = fieldEnd(buf, pos, to);
+        int date = IsoDate.parseEpochDay(buf, pos, dateEnd);
+        if (date < IsoDate.MIN_RELEASE_EPOCH_DAY || date > IsoDate.MAX_RELEASE_EPOCH_DAY || dateEnd >= to) return rows.rollback(mark);
+        pos = dateEnd + 1;
+
+        // phase
+        int phaseEnd = fieldEnd(buf, pos, to);
+        int phase = parseInt(buf, pos, phaseEnd);
+        if (phase <= 0 || phaseEnd >= to) return rows.rollback(mark);
+        pos = phaseEnd + 1;
+
+        // director
+        pos = copyField(buf, pos, to, rows, field);
+        if (pos < 0 || field[1] == 0) return rows.rollback(mark);
+        int dirOff = field[0], dirLen = field[1];
+
+        // runningTimeMin
+        int runtimeEnd = fieldEnd(buf, pos, to);
+        int runtime = parseInt(buf, pos, runtimeEnd);
+        if (runtime < 30 || runtime > 300 || runtimeEnd >= to) return rows.rollback(mark);
+        pos = runtimeEnd + 1;
+
+        // imdbRating (last field)
+        double rating = parseDecimal(buf, pos, to);
+        if (!(rating >= 1.0 && rating <= 10.0)) return rows.rollback(mark);
+
+        rows.add(titleOff, titleLen, date, phase, dirOff, dirLen, runtime, rating);
+        return true;
+    }
+
+    /**
+     * Copies a possibly quoted text field into the buffer's arena (unescaping doubled quotes).
+     * Writes {@code [offset, length]} into {@code out} and returns the position after the delimiter, or -1 if malformed.
+     */
+    private static int copyField(ByteBuffer buf, int from, int to, RowBuffer rows, int[] out) {
+        int offset = rows.textSize;
+        int pos = from;
+        if (pos < to && buf.get(pos) == '"') {
+            pos++;
+            while (true) {
+                if (pos >= to) return -1;
+                byte b = buf.get(pos++);
+                if (b == '"') {
+                    if (pos < to && buf.get(pos) == '"') {
+                        rows.appendText(b);
+                        pos++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    rows.appendText(b);
+                }
+            }
+            if (pos < to && buf.get(pos) != ',') return -1;
+        } else {
+            while (pos < to && buf.get(pos) != ',') rows.appendText(buf.get(pos++));
+        }
+        out[0] = offset;
+        out[1] = rows.textSize - offset;
+        return pos < to ? pos + 1 : to;
+    }
+
+    private static int fieldEnd(ByteBuffer buf, int from, int to) {
+        int pos = from;
+        while (pos < to && buf.get(pos) != ',') pos++;
+        return pos;
+    }
+
+    private static int parseInt(ByteBuffer buf, int from, int to) {
+        if (from >= to || to - from > 9) return -1;
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static double parseDecimal(ByteBuffer buf, int from, int to) {
+        long whole = 0, frac = 0, scale = 1;
+        boolean dot = false, digits = false;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == '.' && !dot) {
+                dot = true;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9 || scale > 1_000_000_000L) return Double.NaN;
+            digits = true;
+            if (dot) {
+                frac = frac * 10 + d;
+                scale *= 10;
+            } else {
+                whole = whole * 10 + d;
+                if (whole > 1_000_000) return Double.NaN;
+            }
+        }
+        return digits ? whole + (double) frac / scale : Double.NaN;
+    }
+
+    private static boolean startsWith(ByteBuffer buf, byte[] prefix) {
+        if (buf.limit() < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf.get(i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static RowBuffer await(Future<RowBuffer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("Parse task failed: " + cause, cause);
+        }
+    }
+
+    /**
+     * Compact, column-oriented buffer of parsed rows for one chunk.
+     * Text fields live in a single UTF-8 byte arena referenced by offset/length.
+     */
+    static final class RowBuffer {
+        private int size;
+        private int[] titleOff, titleLen, dirOff, dirLen, date, phase, runtime;
+        private double[] rating;
+        private byte[] text;
+        private int textSize;
+        private final int[] scratch = new int[2];
+        private int rejected;
+        private long parsedAt;
+
+        RowBuffer(int rowCapacity, int textCapacity) {
+            titleOff = new int[rowCapacity];
+            titleLen = new int[rowCapacity];
+            dirOff = new int[rowCapacity];
+            dirLen = new int[rowCapacity];
+            date = new int[rowCapacity];
+            phase = new int[rowCapacity];
+            runtime = new int[rowCapacity];
+            rating = new double[rowCapacity];
+            text = new byte[Math.max(16, textCapacity)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void appendText(byte b) {
+            if (textSize == text.length) text = Arrays.copyOf(text, text.length * 2);
+            text[textSize++] = b;
+        }
+
+        boolean rollback(int mark) {
+            textSize = mark;
+            return false;
+        }
+
+        void add(int tOff, int tLen, int epochDay, int ph, int dOff, int dLen, int rt, double r) {
+            if (size == phase.length) grow();
+            titleOff[size] = tOff;
+            titleLen[size] = tLen;
+            date[size] = epochDay;
+            phase[size] = ph;
+            dirOff[size] = dOff;
+            dirLen[size] = dLen;
+            runtime[size] = rt;
+            rating[size] = r;
+            size++;
+        }
+
+        private void grow() {
+            int n = phase.length * 2;
+            titleOff = Arrays.copyOf(titleOff, n);
+            titleLen = Arrays.copyOf(titleLen, n);
+            dirOff = Arrays.copyOf(dirOff, n);
+            dirLen = Arrays.copyOf(dirLen, n);
+            date = Arrays.copyOf(date, n);
+            phase = Arrays.copyOf(phase, n);
+            runtime = Arrays.copyOf(runtime, n);
+            rating = Arrays.copyOf(rating, n);
+        }
+
+        /**
+         * Materializes the rows as {@link MarvelMovie} objects for the writer stage.
+         */
+        List<MarvelMovie> toMovies() {
+            List<MarvelMovie> movies = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                movies.add(new MarvelMovie(
+                        new String(text, titleOff[i], titleLen[i], StandardCharsets.UTF_8).trim(),
+                        IsoDate.format(date[i]),
+                        phase[i],
+                        new String(text, dirOff[i], dirLen[i], StandardCharsets.UTF_8).trim(),
+                        runtime[i],
+                        rating[i]));
+            }
+            return movies;
+        }
+    }
+
+    /**
+     * Summary statistics of one import run.
+     */
+    public static final class Result {
+        private long bytes;
+        private long rowsParsed;
+        private long rowsRejected;
+        private long rowsInserted;
+        private long rowsUpdated;
+        private boolean merged;
+        private long parseNanos;
+        private long totalNanos;
+
+        /** @return The size of the input file in bytes. */
+        public long getBytes() { return bytes; }
+
+        /** @return The number of rows that parsed and validated successfully. */
+        public long getRowsParsed() { return rowsParsed; }
+
+        /** @return The number of non-empty lines rejected as malformed or out of range. */
+        public long getRowsRejected() { return rowsRejected; }
+
+        /** @return The number of rows inserted as new titles. */
+        public long getRowsInserted() { return rowsInserted; }
+
+        /** @return The number of existing movies replaced by a merge (0 when importing new titles only). */
+        public long getRowsUpdated() { return rowsUpdated; }
+
+        /** @return The number of parsed rows neither inserted nor used to update an existing movie. */
+        public long getRowsSkipped() { return rowsParsed - rowsInserted - rowsUpdated; }
+
+        /**
+         * @return Parse throughput in MB/s, over the wall-clock time from the first chunk submitted to the last one
+         * parsed. Parsing stays at most a bounded window ahead of the writer, so a slow writer lowers it too.
+         */
+        public double getParseMbPerSecond() { return mbPerSecond(parseNanos); }
+
+        /** @return End-to-end import throughput in MB/s, including the database writer. */
+        public double getTotalMbPerSecond() { return mbPerSecond(totalNanos); }
+
+        private double mbPerSecond(long nanos) {
+            return nanos <= 0 ? 0.0 : (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            if (merged) {
+                return String.format("Merged %d rows (%d rejected) from %.1f MB: %d inserted, %d updated, %d skipped. Parse: %.1f MB/s, total: %.1f MB/s.",
+                        rowsParsed, rowsRejected, bytes / (1024.0 * 1024.0), rowsInserted, rowsUpdated, getRowsSkipped(),
+                        getParseMbPerSecond(), getTotalMbPerSecond());
+            }
+            return String.format("Imported %d of %d rows (%d rejected) from %.1f MB. Parse: %.1f MB/s, total: %.1f MB/s.",
+                    rowsInserted, rowsParsed, rowsRejected, bytes / (1024.0 * 1024.0),
+                    getParseMbPerSecond(), getTotalMbPerSecond());
+        }
+    }
+}
@@ -0,0 +1,344 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, column-oriented copy of the movie catalog for fast analytical scans.
+ * Each attribute is stored in its own primitive array ({@code int[] phase}, {@code int[] runtime},
+ * {@code double[] rating}, {@code int[] releaseEpochDay}) and directors are dictionary-encoded as
+ * {@code int} IDs through a {@link StringDictionary}, so scans touch contiguous memory instead of chasing
+ * {@link MarvelMovie} object pointers. Titles are packed into a single {@link TitleArena}.
+ *
+ * <p>Role in System: Read-only analytics structure produced by {@link MovieManager#snapshot()}.
+ * The kernels below are plain counted loops over primitive arrays, which the JIT can unroll and vectorize.
+ * Row {@code i} in every column belongs to the same movie; rows keep the title order of the source.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class CatalogSnapshot {
+    private final int size;
+    private final TitleArena titles;
+    private final int[] phase;
+    private final int[] runtime;
+    private final double[] rating;
+    private final int[] releaseEpochDay;
+    private final int[] directorId;
+    private final StringDictionary directors;
+    private final String[] directorNames;
+
+    private CatalogSnapshot(Builder b) {
+        this.size = b.size;
+        this.titles = b.titles.trim();
+        this.phase = Arrays.copyOf(b.phase, b.size);
+        this.runtime = Arrays.copyOf(b.runtime, b.size);
+        this.rating = Arrays.copyOf(b.rating, b.size);
+        this.releaseEpochDay = Arrays.copyOf(b.releaseEpochDay, b.size);
+        this.directorId = Arrays.copyOf(b.directorId, b.size);
+        this.directors = b.directors;
+        this.directorNames = b.directors.toArray();
+    }
+
+    /**
+     * Builds a snapshot from an already loaded list of movies.
+     * @param movies The source movies.
+     * @return The columnar snapshot.
+     */
+    public static CatalogSnapshot of(List<MarvelMovie> movies) {
+        Builder b = new Builder(movies.size());
+        for (MarvelMovie m : movies) {
+            b.add(m.getTitle(), m.getReleaseEpochDay(), m.getPhase(), m.getDirector(), m.getRunningTimeMin(), m.getImdbRating());
+        }
+        return b.build();
+    }
+
+    // ---------- ROW ACCESS ----------
+
+    /** @return The number of movies in the snapshot. */
+    public int size() { return size; }
+
+    /** @param row The row index. @return The movie title (decoded from the title arena). */
+    public String title(int row) { return titles.get(row); }
+
+    /** @return The total UTF-8 size of all titles in bytes. */
+    public int titleBytes() { return titles.byteLength(); }
+
+    /**
+     * Copies the UTF-8 bytes of one title into a buffer, without decoding them.
+     * @param row The row index.
+     * @param dst The buffer to write into at its current position.
+     */
+    public void copyTitleBytes(int row, ByteBuffer dst) { titles.copyBytes(row, dst); }
+
+    /** @param row The row index. @return The MCU phase. */
+    public int phase(int row) { return phase[row]; }
+
+    /** @param row The row index. @return The runtime in minutes. */
+    public int runtime(int row) { return runtime[row]; }
+
+    /** @param row The row index. @return The IMDb rating. */
+    public double rating(int row) { return rating[row]; }
+
+    /** @param row The row index. @return The release date as an epoch day. */
+    public int releaseEpochDay(int row) { return releaseEpochDay[row]; }
+
+    /** @param row The row index. @return The dictionary ID of the director. */
+    public int directorId(int row) { return directorId[row]; }
+
+    /** @param id A director ID. @return The director's name. */
+    public String directorName(int id) { return directorNames[id]; }
+
+    /** @return The number of distinct directors. */
+    public int directorCount() { return directorNames.length; }
+
+    /**
+     * Looks up the dictionary ID of a director.
+     * @param name The director's name.
+     * @return The ID, or -1 if the director does not appear in the snapshot.
+     */
+    public int directorIdOf(String name) {
+        return directors.find(name);
+    }
+
+    /**
+     * @return The approximate heap size of the snapshot's columns in bytes (array headers included, object overhead of this class excluded).
+     */
+    public long footprintBytes() {
+        long columns = 4L * (16 + 4L * size) + (16 + 8L * size);
+        long dictionary = 16 + 8L * directorNames.length;
+        for (String name : directorNames) dictionary += 40 + name.length();
+        return columns + titles.footprintBytes() + dictionary;
+    }
+
+    /**
+     * Rebuilds a {@link MarvelMovie} object for one row.
+     * @param row The row index.
+     * @return A new movie object with the row's values.
+     */
+    public MarvelMovie toMovie(int row) {
+        return new MarvelMovie(titles.get(row), IsoDate.format(releaseEpochDay[row]), phase[row],
+                directorNames[directorId[row]], runtime[row], rating[row]);
+    }
+
+    // ---------- AGGREGATE KERNELS ----------
+
+    /**
+     * Averages the rating of one phase (or of every movie).
+     * @param phaseFilter The phase to average, or 0 for all phases.
+     * @return The average rating, or 0.0 if no movie matches.
+     */
+    public double averageRating(int phaseFilter) {
+        double sum = 0.0;
+        int count = 0;
+        if (phaseFilter <= 0) {
+            for (int i = 0; i < size; i++) sum += rating[i];
+            count = size;
+        } else {
+            for (int i = 0; i < size; i++) {
+                boolean hit = phase[i] == phaseFilter;
+                sum += hit ? rating[i] : 0.0;
+                count += hit ? 1 : 0;
+            }
+        }
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    /**
+     * Averages the runtime of one phase (or of every movie).
+     * @param phaseFilter The phase to average, or 0 for all phases.
+     * @return The average runtime in minutes, or 0.0 if no movie matches.
+     */
+    public double averageRuntime(int phaseFilter) {
+        long sum = 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            boolean hit = phaseFilter <= 0 || phase[i] == phaseFilter;
+            sum += hit ? runtime[i] : 0;
+            count += hit ? 1 : 0;
+        }
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Counts movies per phase.
+     * @return An array indexed by phase number (index 0 is unused).
+     */
+    public int[] countByPhase() {
+        int max = 0;
+        for (int i = 0; i < size; i++) max = Math.max(max, phase[i]);
+        int[] counts = new int[max + 1];
+        for (int i = 0; i < size; i++) counts[phase[i]]++;
+        return counts;
+    }
+
+    /**
+     * Counts movies per director.
+     * @return An array indexed by director ID.
+     */
+    public int[] countByDirector() {
+        int[] counts = new int[directorNames.length];
+        for (int i = 0; i < size; i++) counts[directorId[i]]++;
+        return counts;
+    }
+
+    // ---------- FILTER KERNELS ----------
+
+    /**
+     * Selects the rows matching all of the given primitive criteria.
+     * @param phaseFilter The phase to match, or 0 for any phase.
+     * @param directorFilter The director ID to match, or -1 for any director.
+     * @param minRating The inclusive minimum rating.
+     * @param maxRating The inclusive maximum rating.
+     * @param fromEpochDay The inclusive earliest release epoch day.
+     * @param toEpochDay The inclusive latest release epoch day.
+     * @return The matching row indices, in snapshot order.
+     */
+    public int[] filter(int phaseFilter, int directorFilter, double minRating, double maxRating, int fromEpochDay, int toEpochDay) {
+        int[] out = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            boolean hit = (phaseFilter <= 0 || phase[i] == phaseFilter)
+                    & (directorFilter < 0 || directorId[i] == directorFilter)
+                    & rating[i] >= minRating & rating[i] <= maxRating
+                    & releaseEpochDay[i] >= fromEpochDay & releaseEpochDay[i] <= toEpochDay;
+            out[n] = i;
+            n += hit ? 1 : 0;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Selects the rows of a single phase.
+     * @param phaseFilter The phase to match.
+     * @return The matching row indices.
+     */
+    public int[] filterByPhase(int phaseFilter) {
+        return filter(phaseFilter, -1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    // ---------- TOP-K KERNEL ----------
+
+    /**
+     * Finds the {@code k} highest-rated rows (ties broken by title order) with a bounded min-heap,
+     * in O(n log k) time and O(k) extra space.
+     * @param k The number of rows to return.
+     * @param phaseFilter The phase to restrict to, or 0 for all phases.
+     * @return Row indices ordered from highest to lowest rating.
+     */
+    public int[] topRated(int k, int phaseFilter) {
+        if (k <= 0) return new int[0];
+        int[] heap = new int[k];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (phaseFilter > 0 && phase[i] != phaseFilter) continue;
+            if (n < k) {
+                heap[n] = i;
+                siftUp(heap, n++);
+            } else if (ranksAbove(i, heap[0])) {
+                heap[0] = i;
+                siftDown(heap, n);
+            }
+        }
+        int[] out = Arrays.copyOf(heap, n);
+        // Drain the heap so the best row ends up first.
+        for (int end = n - 1; end > 0; end--) {
+            int tmp = out[0];
+            out[0] = out[end];
+            out[end] = tmp;
+            siftDown(out, end);
+        }
+        return out;
+    }
+
+    /** Ranking order: higher rating first, then earlier row (title order). */
+    private boolean ranksAbove(int a, int b) {
+        return rating[a] > rating[b] || (rating[a] == rating[b] && a < b);
+    }
+
+    private void siftUp(int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!ranksAbove(heap[parent], heap[i])) break;
+            int tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int n) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1, worst = i;
+            if (left < n && ranksAbove(heap[worst], heap[left])) worst = left;
+            if (left + 1 < n && ranksAbove(heap[worst], heap[left + 1])) worst = left + 1;
+            if (worst == i) return;
+            int tmp = heap[worst];
+            heap[worst] = heap[i];
+            heap[i] = tmp;
+            i = worst;
+        }
+    }
+
+    /**
+     * Incrementally collects rows into growable primitive columns.
+     */
+    public static final class Builder {
+        private int size;
+        private final TitleArena titles;
+        private final StringDictionary directors = new StringDictionary();
+        private int[] phase, runtime, releaseEpochDay, directorId;
+        private double[] rating;
+
+        /**
+         * Creates a builder with an initial row capacity.
+         * @param capacity The expected number of rows.
+         */
+        public Builder(int capacity) {
+            int c = Math.max(16, capacity);
+            titles = new TitleArena(c, c * 24);
+            phase = new int[c];
+            runtime = new int[c];
+            releaseEpochDay = new int[c];
+            directorId = new int[c];
+            rating = new double[c];
+        }
+
+        /**
+         * Appends one row.
+         * @param title The movie title.
+         * @param epochDay The release date as an epoch day.
+         * @param ph The MCU phase.
+         * @param director The director's name.
+         * @param runtimeMin The runtime in minutes.
+         * @param imdbRating The IMDb rating.
+         */
+        public void add(String title, int epochDay, int ph, String director, int runtimeMin, double imdbRating) {
+            if (size == phase.length) grow();
+            titles.add(title);
+            releaseEpochDay[size] = epochDay;
+            phase[size] = ph;
+            directorId[size] = directors.idOf(director == null ? "" : director);
+            runtime[size] = runtimeMin;
+            rating[size] = imdbRating;
+            size++;
+        }
+
+        private void grow() {
+            int n = phase.length * 2;
+            phase = Arrays.copyOf(phase, n);
+            runtime = Arrays.copyOf(runtime, n);
+            releaseEpochDay = Arrays.copyOf(releaseEpochDay, n);
+            directorId = Arrays.copyOf(directorId, n);
+            rating = Arrays.copyOf(rating, n);
+        }
+
+        /**
+         * Freezes the collected rows into a snapshot.
+         * @return The immutable snapshot.
+         */
+        public CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+    }
+}
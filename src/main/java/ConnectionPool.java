@@ -0,0 +1,166 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of open connections for one lane of {@link JDBC} (reads or writes). At most {@link #getSize()}
+ * connections are handed out at once; a caller that finds them all in use waits for one to come back. Connections
+ * are opened lazily and kept open between calls, so a call pays for opening a connection only the first time.
+ *
+ * <p>{@link #invalidate()} retires every connection opened so far (after the database file or the retry policy
+ * changed): idle ones are closed at once, borrowed ones when they are returned.</p>
+ *
+ * <p>Role in System: Owned by {@link JDBC}, one per {@link JDBC.Lane}. Safe to use from many threads; a borrowed
+ * connection belongs to one thread until it is returned.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class ConnectionPool {
+
+    private final String name;
+    private final JDBC.SqlCall<Connection> opener;
+    private final int size;
+    private final Semaphore permits;
+    private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+    // The generation each open connection was created in; older generations are closed on return
+    private final Map<Connection, Integer> generations = Collections.synchronizedMap(new IdentityHashMap<>());
+    private volatile int generation;
+
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Creates an empty pool.
+     * @param name The lane name, for messages.
+     * @param size The maximum number of connections in use at once; at least 1.
+     * @param opener Opens a new connection for the lane.
+     */
+    public ConnectionPool(String name, int size, JDBC.SqlCall<Connection> opener) {
+        if (size < 1) throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+        this.name = name;
+        this.size = size;
+        this.opener = opener;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the timeout if all are in use. It must be given back with
+     * {@link #release(Connection, boolean)}.
+     * @param timeoutMillis How long to wait for a free connection.
+     * @return An open connection in auto-commit mode.
+     * @throws SQLException If no connection became free in time (reported as {@code SQLITE_BUSY}, so the retry policy
+     * treats it like a locked database), or if opening one failed.
+     */
+    public Connection acquire(long timeoutMillis) throws SQLException {
+        if (!permits.tryAcquire()) {
+            long start = System.nanoTime();
+            waits.increment();
+            try {
+                boolean acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+                waitNanos.add(System.nanoTime() - start);
+                if (!acquired) throw new SQLException("All " + size + " " + name + " connections are busy", null, 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted waiting for a " + name + " connection", e);
+            }
+        }
+        borrowed.increment();
+
+        Connection con;
+        synchronized (idle) {
+            con = idle.pollFirst();
+        }
+        if (con != null) return con;
+        try {
+            con = opener.call();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        opened.increment();
+        generations.put(con, generation);
+        return con;
+    }
+
+    /**
+     * Gives a borrowed connection back. A connection that failed, that belongs to a retired generation, or that
+     * cannot be reset to auto-commit is closed instead of being kept.
+     * @param con The connection from {@link #acquire(long)}.
+     * @param broken true if the work on it failed.
+     */
+    public void release(Connection con, boolean broken) {
+        try {
+            Integer born = generations.get(con);
+            boolean keep = !broken && born != null && born == generation && reset(con);
+            if (keep) {
+                synchronized (idle) {
+                    idle.addFirst(con);
+                }
+            } else {
+                generations.remove(con);
+                JDBC.closeConnection(con);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Retires every connection opened so far: idle ones are closed now, borrowed ones when they are returned.
+     */
+    public void invalidate() {
+        generation++;
+        synchronized (idle) {
+            for (Connection con : idle) {
+                generations.remove(con);
+                JDBC.closeConnection(con);
+            }
+            idle.clear();
+        }
+    }
+
+    private static boolean reset(Connection con) {
+        try {
+            if (!con.getAutoCommit()) {
+                con.rollback();
+                con.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /** @return The maximum number of connections in use at once. */
+    public int getSize() { return size; }
+
+    /** @return The number of connections currently handed out. */
+    public int getInUse() { return size - permits.availablePermits(); }
+
+    /** @return The number of times a connection was borrowed. */
+    public long getBorrowed() { return borrowed.sum(); }
+
+    /** @return The number of connections opened (first use, or replacing a closed one). */
+    public long getOpened() { return opened.sum(); }
+
+    /** @return The number of borrows that had to wait for a connection to come back. */
+    public long getWaits() { return waits.sum(); }
+
+    /** @return The total time spent waiting for a connection, in milliseconds. */
+    public long getWaitMillis() { return waitNanos.sum() / 1_000_000L; }
+
+    @Override
+    public String toString() {
+        return String.format("%s lane: size=%d, borrowed=%d, opened=%d, waits=%d (%d ms)",
+                name, size, getBorrowed(), getOpened(), getWaits(), getWaitMillis());
+    }
+}
@@ -1,6 +1,9 @@
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.LongConsumer;
 
 /**
  * The original Command Line Interface (CLI) driver for the Marvel Movie Data Management System (DMS).
@@ -14,6 +17,9 @@ import java.util.Scanner;
  */
 public class DMSApplication {
 
+    // Groups printed by the custom action before the rest are summarized
+    private static final int MAX_STATS_ROWS = 50;
+
     private final MovieManager manager;
     private final Scanner scanner;
 
@@ -37,7 +43,7 @@ public class DMSApplication {
         boolean running = true;
         while (running) {
             displayMenu();
-            int choice = getValidatedIntInput("Enter your choice: ", 0, 6);
+            int choice = getValidatedIntInput("Enter your choice: ", 0, 7);
 
             switch (choice) {
                 case 1 -> displayData();
@@ -46,6 +52,7 @@ public class DMSApplication {
                 case 4 -> updateRecord();
                 case 5 -> removeRecord();
                 case 6 -> runCustomAction();
+                case 7 -> exportData();
                 case 0 -> {
                     running = false;
                     System.out.println("\nExiting Marvel Movie DMS. Goodbye!");
@@ -65,7 +72,8 @@ public class DMSApplication {
         System.out.println("3. Batch Load Data (Provide File Path)");
         System.out.println("4. Update Record");
         System.out.println("5. Remove Data");
-        System.out.println("6. Run Custom Action (Avg Rating by Phase)");
+        System.out.println("6. Run Custom Action (Statistics by Phase / Director / Year)");
+        System.out.println("7. Export Data (CSV / JSON Lines)");
         System.out.println("0. Exit Program");
     }
 
@@ -145,22 +153,7 @@ public class DMSApplication {
      * @return true if the date is valid, false otherwise.
      */
     private boolean isValidReleaseDate(String dateStr) {
-        if (dateStr == null || !dateStr.matches("\\d{4}-\\d{2}-\\d{2}")) return false;
-
-        String[] parts = dateStr.split("-");
-        int year = Integer.parseInt(parts[0]);
-        int month = Integer.parseInt(parts[1]);
-        int day = Integer.parseInt(parts[2]);
-
-        if (year < 1900 || year > 2025) return false;
-        if (month < 1 || month > 12) return false;
-
-        int[] daysInMonth = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
-        // Leap year check
-        if (month == 2 && ((year % 4 == 0 && year % 100 != 0) || (year % 400 == 0))) {
-            daysInMonth[1] = 29;
-        }
-        return day >= 1 && day <= daysInMonth[month - 1];
+        return IsoDate.isValidReleaseDate(dateStr);
     }
 
     /**
@@ -200,8 +193,11 @@ public class DMSApplication {
 
         double imdbRating = getValidatedDoubleInput("Enter IMDb Rating (1.0-10.0): ", 1.0, 10.0);
 
-        if (manager.addMovie(title, releaseDate, phase, director, runningTimeMin, imdbRating)) {
+        WriteResult result = manager.addMovie(title, releaseDate, phase, director, runningTimeMin, imdbRating);
+        if (result.isOk()) {
             System.out.println("\nSUCCESS: Record created and added to the system.");
+        } else if (result.isBusy()) {
+            System.out.println("\nERROR: The database is busy (locked by another program). Please try again.");
         } else {
             System.out.println("\nERROR: Could not add movie (duplicate or invalid data).");
         }
@@ -228,8 +224,11 @@ public class DMSApplication {
      */
     private void removeRecord() {
         String title = getValidatedStringInput("Enter the title of the movie to remove: ");
-        if (manager.removeMovie(title)) {
+        WriteResult result = manager.removeMovie(title);
+        if (result.isOk()) {
             System.out.println("SUCCESS: Movie removed.");
+        } else if (result.isBusy()) {
+            System.out.println("ERROR: The database is busy (locked by another program). Please try again.");
         } else {
             System.out.println("ERROR: Movie not found.");
         }
@@ -276,29 +275,58 @@ public class DMSApplication {
             }
         }
 
-        if (manager.updateMovieField(movie, field, newValue)) {
+        WriteResult result = manager.updateMovieField(movie, field, newValue);
+        if (result.isOk()) {
             System.out.println("SUCCESS: Update complete.");
+        } else if (result.isBusy()) {
+            System.out.println("ERROR: The database is busy (locked by another program). Please try again.");
         } else {
             System.out.println("ERROR: Update failed.");
         }
     }
 
     /**
-     * Runs the custom action by prompting for a phase number and calculating the average IMDb rating for that phase
-     * via {@link MovieManager#calculateAverageRating(int)}.
+     * Runs the custom action: prompts for the dimensions to group by (any of phase, director and release year) and
+     * prints count, average/min/percentiles/max of rating and runtime per group from {@link MovieManager#analytics()}.
      */
     private void runCustomAction() {
-        int phase = getValidatedIntInput("Enter MCU Phase number to analyze: ", 1, -1);
-        double average = manager.calculateAverageRating(phase);
-        if (average > 0.0) {
-            System.out.printf("Average IMDb rating for Phase %d: %.2f\n", phase, average);
-        } else {
-            System.out.println("No movies found in this phase.");
+        System.out.print("Group by (any of P = phase, D = director, Y = year, e.g. PY; Enter for all movies): ");
+        String dims = scanner.nextLine().trim().toUpperCase();
+        if (!dims.matches("[PDY]*")) {
+            System.out.println("ERROR: Use only the letters P, D and Y.");
+            return;
+        }
+        boolean byPhase = dims.contains("P"), byDirector = dims.contains("D"), byYear = dims.contains("Y");
+
+        List<MovieCube.Group> groups = manager.analytics().groups(byPhase, byDirector, byYear);
+        if (groups.isEmpty() || groups.get(0).getStats().getCount() == 0) {
+            System.out.println("No movies to analyze.");
+            return;
+        }
+        String keys = (byPhase ? "Phase " : "") + (byDirector ? String.format("%-24s ", "Director") : "") + (byYear ? "Year " : "");
+        System.out.println(keys + String.format("%7s | %6s %4s %4s %4s %4s | %6s %4s %4s %4s %4s",
+                "Movies", "Rating", "Min", "P50", "P90", "Max", "Runtm", "Min", "P50", "P90", "Max"));
+        int shown = 0;
+        for (MovieCube.Group g : groups) {
+            if (shown++ == MAX_STATS_ROWS) {
+                System.out.println("... " + (groups.size() - MAX_STATS_ROWS) + " more groups");
+                break;
+            }
+            MovieCube.Cell c = g.getStats();
+            String director = g.getDirector() == null ? "" : g.getDirector();
+            if (director.length() > 24) director = director.substring(0, 21) + "...";
+            String row = (byPhase ? String.format("%5d ", g.getPhase()) : "")
+                    + (byDirector ? String.format("%-24s ", director) : "")
+                    + (byYear ? String.format("%4d ", g.getYear()) : "");
+            System.out.println(row + String.format("%7d | %6.2f %4.1f %4.1f %4.1f %4.1f | %6.1f %4d %4d %4d %4d",
+                    c.getCount(), c.getAverageRating(), c.getMinRating(), c.getRatingPercentile(50), c.getRatingPercentile(90), c.getMaxRating(),
+                    c.getAverageRuntime(), c.getMinRuntime(), c.getRuntimePercentile(50), c.getRuntimePercentile(90), c.getMaxRuntime()));
         }
     }
 
     /**
-     * Prompts the user for a file path and calls the batch load function in the MovieManager.
+     * Prompts the user for a file path and a {@link MergePolicy} for existing titles, and calls the batch load
+     * function in the MovieManager.
      */
     private void loadBatchDataFromPath() {
         System.out.print("Enter full path for batch data file: ");
@@ -307,7 +335,49 @@ public class DMSApplication {
             System.out.println("ERROR: File path cannot be empty.");
             return;
         }
-        System.out.println(manager.loadBatchData(path));
+        MergePolicy[] policies = MergePolicy.values();
+        System.out.println("Existing titles:");
+        for (int i = 0; i < policies.length; i++) {
+            System.out.println("  " + (i + 1) + ". " + policies[i]);
+        }
+        System.out.print("Choose an option (Enter for 1): ");
+        String choice = scanner.nextLine().trim();
+        MergePolicy policy = MergePolicy.SKIP;
+        try {
+            if (!choice.isEmpty()) policy = policies[Integer.parseInt(choice) - 1];
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Invalid option, skipping existing titles.");
+        }
+        System.out.println(manager.loadBatchData(path, policy));
+    }
+
+    /**
+     * Prompts the user for an output path and exports every movie via {@link MovieManager#exportCsv(Path, MovieFilter, boolean, LongConsumer)}
+     * or {@link MovieManager#exportJsonl(Path, MovieFilter, boolean, LongConsumer)}.
+     * The format is chosen by file extension ({@code .jsonl} for JSON Lines, anything else for CSV); a trailing {@code .gz} enables gzip.
+     */
+    private void exportData() {
+        String path = getValidatedStringInput("Enter output file path (.csv, .jsonl, optionally .gz): ");
+        boolean gzip = path.toLowerCase().endsWith(".gz");
+        String base = gzip ? path.substring(0, path.length() - 3) : path;
+        Path target;
+        try {
+            target = Path.of(path);
+        } catch (InvalidPathException e) {
+            System.out.println("ERROR: Invalid file path: " + e.getMessage());
+            return;
+        }
+        LongConsumer progress = rows -> System.out.println("  ... " + rows + " rows exported");
+
+        long rows = base.toLowerCase().endsWith(".jsonl")
+                ? manager.exportJsonl(target, MovieFilter.all(), gzip, progress)
+                : manager.exportCsv(target, MovieFilter.all(), gzip, progress);
+
+        if (rows >= 0) {
+            System.out.println("SUCCESS: Exported " + rows + " records to " + target.toAbsolutePath());
+        } else {
+            System.out.println("ERROR: Export failed.");
+        }
     }
 
     /**
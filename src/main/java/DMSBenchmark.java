@@ -0,0 +1,1146 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.EnumMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A standalone micro-benchmark driver for the performance-sensitive parts of the DMS.
+ * Each scenario generates synthetic movies in memory, warms the code up, then reports the
+ * median time of several measured runs. It is a plain {@code main} program (like {@code MovieDatabaseDemo})
+ * so it runs without any extra benchmarking dependency.
+ *
+ * <p>Usage: {@code java DMSBenchmark <scenario> [rows]}. Run without arguments to list the scenarios.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class DMSBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 9;
+
+    // Sink that keeps the JIT from eliminating benchmarked work
+    private static volatile Object blackhole;
+
+    /**
+     * Entry point: runs the named scenario.
+     * @param args The scenario name and an optional row count (default 1,000,000).
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Scenarios: snapshot, footprint, logstore, startup, topk, query, batch, merge, bloom, cube, parallel, timeline, similar, busy, lanes, shards, backup, maintenance");
+            return;
+        }
+        int rows = args.length > 1 && !args[0].equals("startup-probe") ? Integer.parseInt(args[1]) : 1_000_000;
+        switch (args[0]) {
+            case "snapshot" -> benchmarkSnapshot(rows);
+            case "footprint" -> reportFootprint(rows);
+            case "logstore" -> benchmarkLogStore(rows);
+            case "startup" -> benchmarkStartup(rows);
+            case "topk" -> benchmarkTopK(rows);
+            case "query" -> benchmarkQuery(rows);
+            case "batch" -> benchmarkBatch(rows);
+            case "merge" -> benchmarkMerge(rows);
+            case "bloom" -> benchmarkTitleFilter(rows);
+            case "cube" -> benchmarkCube(rows);
+            case "parallel" -> benchmarkParallelAggregates(rows);
+            case "timeline" -> benchmarkTimeline(rows);
+            case "similar" -> benchmarkSimilar(rows);
+            case "busy" -> benchmarkBusy(rows);
+            case "lanes" -> benchmarkLanes(rows);
+            case "shards" -> benchmarkShards(rows);
+            case "backup" -> benchmarkBackup(rows);
+            case "maintenance" -> benchmarkMaintenance(rows);
+            case "startup-probe" -> startupProbe(args[1], args[2]);
+            default -> System.out.println("Unknown scenario: " + args[0]);
+        }
+    }
+
+    /**
+     * Compares the object-list scan path with the columnar {@link CatalogSnapshot} kernels.
+     */
+    private static void benchmarkSnapshot(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        CatalogSnapshot snapshot = CatalogSnapshot.of(movies);
+        System.out.printf("Snapshot benchmark over %,d rows%n", rows);
+
+        compare("average rating (phase 3)",
+                () -> {
+                    double sum = 0;
+                    int n = 0;
+                    for (MarvelMovie m : movies) {
+                        if (m.getPhase() == 3) {
+                            sum += m.getImdbRating();
+                            n++;
+                        }
+                    }
+                    return n == 0 ? 0.0 : sum / n;
+                },
+                () -> snapshot.averageRating(3));
+
+        compare("filter (phase 4, rating >= 7)",
+                () -> {
+                    List<MarvelMovie> out = new ArrayList<>();
+                    for (MarvelMovie m : movies) {
+                        if (m.getPhase() == 4 && m.getImdbRating() >= 7.0) out.add(m);
+                    }
+                    return out;
+                },
+                () -> snapshot.filter(4, -1, 7.0, 10.0, Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        compare("top-10 by rating",
+                () -> {
+                    List<MarvelMovie> sorted = new ArrayList<>(movies);
+                    sorted.sort((a, b) -> Double.compare(b.getImdbRating(), a.getImdbRating()));
+                    return sorted.subList(0, Math.min(10, sorted.size()));
+                },
+                () -> snapshot.topRated(10, 0));
+    }
+
+    /**
+     * Reports retained heap before and after director deduplication ({@link StringDictionary}) and
+     * title packing ({@link TitleArena}). Heap is measured as used memory after repeated full GCs.
+     */
+    private static void reportFootprint(int rows) {
+        System.out.printf("Heap footprint for %,d rows%n", rows);
+
+        long base = usedHeapAfterGc();
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        long objectList = usedHeapAfterGc() - base;
+        System.out.printf("  %-44s %8.1f MB%n", "List<MarvelMovie>, one director String per row", objectList / 1048576.0);
+
+        StringDictionary dictionary = new StringDictionary();
+        for (MarvelMovie m : movies) m.setDirector(dictionary.intern(m.getDirector()));
+        long deduplicated = usedHeapAfterGc() - base;
+        System.out.printf("  %-44s %8.1f MB  (%d distinct directors)%n", "List<MarvelMovie>, directors deduplicated",
+                deduplicated / 1048576.0, dictionary.size());
+
+        base = usedHeapAfterGc();
+        String[] titleArray = new String[rows];
+        for (int i = 0; i < rows; i++) titleArray[i] = new String(movies.get(i).getTitle().toCharArray());
+        long stringTitles = usedHeapAfterGc() - base;
+        blackhole = titleArray;
+        titleArray = null;
+        blackhole = null;
+
+        base = usedHeapAfterGc();
+        TitleArena arena = new TitleArena(rows, rows * 16);
+        for (MarvelMovie m : movies) arena.add(m.getTitle());
+        arena.trim();
+        long arenaTitles = usedHeapAfterGc() - base;
+        System.out.printf("  %-44s %8.1f MB%n", "Titles as String[]", stringTitles / 1048576.0);
+        System.out.printf("  %-44s %8.1f MB%n", "Titles in TitleArena", arenaTitles / 1048576.0);
+        blackhole = arena;
+
+        CatalogSnapshot snapshot = CatalogSnapshot.of(movies);
+        System.out.printf("  %-44s %8.1f MB (estimated)%n", "CatalogSnapshot (all columns)", snapshot.footprintBytes() / 1048576.0);
+        blackhole = movies;
+    }
+
+    /**
+     * Compares {@link LogMovieStore} with {@link SqliteMovieStore}: bulk and single-row (durable) insert throughput,
+     * point-lookup latency, and the log's startup index rebuild and compaction times.
+     * Both stores work on fresh files in a temporary directory.
+     */
+    private static void benchmarkLogStore(int rows) {
+        int singles = Math.min(rows, 2_000);
+        int lookups = 100_000;
+        List<MarvelMovie> movies = generateMovies(rows + singles, 42L);
+        List<MarvelMovie> bulk = movies.subList(0, rows);
+        List<MarvelMovie> single = movies.subList(rows, rows + singles);
+        System.out.printf("Log store benchmark: %,d bulk rows, %,d single inserts, %,d lookups%n", rows, singles, lookups);
+
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            MovieStore sqlite = createSqliteStore(dir.resolve("bench.db"));
+            Path logPath = dir.resolve("bench.log");
+            LogMovieStore log = new LogMovieStore(logPath, true, 0);
+
+            reportStore("SQLite", sqlite, bulk, single, lookups);
+            reportStore("Log", log, bulk, single, lookups);
+
+            log.close();
+            long start = System.nanoTime();
+            log = new LogMovieStore(logPath, true, 0);
+            System.out.printf("  %-8s startup index rebuild: %,.0f ms (%,d titles, %.1f MB log)%n", "Log",
+                    (System.nanoTime() - start) / 1e6, log.size(), log.getLogBytes() / 1048576.0);
+
+            for (int i = 0; i < rows; i += 2) log.update(bulk.get(i).getTitle(), "imdbRating", 5.0);
+            long before = log.getLogBytes();
+            start = System.nanoTime();
+            log.compact();
+            System.out.printf("  %-8s compaction: %.1f MB -> %.1f MB in %,.0f ms%n", "Log",
+                    before / 1048576.0, log.getLogBytes() / 1048576.0, (System.nanoTime() - start) / 1e6);
+            log.close();
+
+            Files.delete(logPath);
+            deleteDatabase(dir.resolve("bench.db"));
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compares "top 10 rated in phase 4" computed the old way (load the whole table in title order, then filter
+     * and sort on the client) with {@link MovieManager#topRated(int, MovieFilter)} on each store.
+     */
+    private static void benchmarkTopK(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        MovieFilter phase4 = MovieFilter.all().phase(4);
+        System.out.printf("Top-k benchmark over %,d rows (top 10 rated in phase 4)%n", rows);
+
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            Path logPath = dir.resolve("bench.log");
+            MovieStore sqlite = createSqliteStore(dir.resolve("bench.db"));
+            InMemoryMovieStore memory = new InMemoryMovieStore();
+            LogMovieStore log = new LogMovieStore(logPath, false, 0);
+            MovieStore[] stores = {sqlite, memory, log};
+            String[] names = {"SQLite", "InMemory", "Log"};
+
+            for (int i = 0; i < stores.length; i++) {
+                stores[i].insertAll(movies);
+                MovieManager manager = new MovieManager(stores[i]);
+                manager.topRated(10, phase4); // warms the page cache outside the measurement
+                compare(names[i] + " top-10",
+                        () -> {
+                            List<MarvelMovie> all = manager.getMovies();
+                            List<MarvelMovie> out = new ArrayList<>();
+                            for (MarvelMovie m : all) {
+                                if (phase4.matches(m)) out.add(m);
+                            }
+                            out.sort(MovieSort.RATING.comparator());
+                            return out.subList(0, Math.min(10, out.size()));
+                        },
+                        () -> manager.topRated(10, phase4));
+            }
+
+            log.close();
+            Files.delete(logPath);
+            deleteDatabase(dir.resolve("bench.db"));
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compares a filtered page through {@link MovieStore#page} (new connection and statement per call) with the
+     * equivalent {@link MovieQuery}, which reuses a prepared statement; and, in memory, a title-prefix query
+     * answered from the title index with the same query evaluated over every row.
+     */
+    private static void benchmarkQuery(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        System.out.printf("Query benchmark over %,d rows%n", rows);
+
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            SqliteMovieStore sqlite = (SqliteMovieStore) createSqliteStore(dir.resolve("bench.db"));
+            sqlite.insertAll(movies);
+            String director = movies.get(rows / 2).getDirector();
+            MovieFilter filter = MovieFilter.all().director(director).minRating(5.0);
+            MovieQuery query = MovieQuery.select().eq(MovieColumn.DIRECTOR, director).atLeast(MovieColumn.RATING, 5.0).limit(20);
+            try (Connection con = JDBC.openConnection(); Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_bench_director ON movies (director)");
+            }
+            compare("SQLite director page",
+                    () -> sqlite.page(filter, MovieSort.TITLE, 0, 20),
+                    () -> sqlite.query(query));
+            System.out.println("  " + sqlite.getPlanCacheStats());
+
+            InMemoryMovieStore memory = new InMemoryMovieStore();
+            memory.insertAll(movies);
+            String prefix = movies.get(rows / 3).getTitle().substring(0, 9);
+            MovieQuery byPrefix = MovieQuery.select().startsWith(MovieColumn.TITLE, prefix).limit(50);
+            compare("InMemory title prefix",
+                    () -> byPrefix.evaluate(movies, false),
+                    () -> memory.query(byPrefix));
+
+            deleteDatabase(dir.resolve("bench.db"));
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compares looking up and deleting titles one at a time (a connection and statement per title) with
+     * {@link MovieManager#findMoviesByTitles} and {@link MovieManager#removeMovies} on SQLite, at growing batch sizes.
+     */
+    private static void benchmarkBatch(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        System.out.printf("Batch lookup/delete benchmark over %,d rows%n", rows);
+
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            MovieManager manager = new MovieManager(createSqliteStore(dir.resolve("bench.db")));
+            for (int batch = 1_000; batch <= Math.min(rows / 2, 40_000); batch *= 4) {
+                manager.clearAll();
+                manager.getStore().insertAll(movies);
+                List<String> titles = new ArrayList<>();
+                for (int i = 0; i < batch; i++) titles.add(movies.get(i * 2).getTitle());
+                List<String> loop = titles.subList(0, batch / 2);
+                List<String> bulk = titles.subList(batch / 2, batch);
+
+                long start = System.nanoTime();
+                for (String t : loop) blackhole = manager.findMovieByTitle(t);
+                double findOne = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                blackhole = manager.findMoviesByTitles(bulk);
+                double findMany = (System.nanoTime() - start) / 1e6;
+
+                start = System.nanoTime();
+                for (String t : loop) manager.removeMovie(t);
+                double removeOne = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                blackhole = manager.removeMovies(bulk);
+                double removeMany = (System.nanoTime() - start) / 1e6;
+
+                System.out.printf("  %,7d titles  find: %9.1f ms one-by-one | %7.1f ms batch    "
+                                + "remove: %9.1f ms one-by-one | %7.1f ms batch%n",
+                        loop.size(), findOne, findMany, removeOne, removeMany);
+            }
+            deleteDatabase(dir.resolve("bench.db"));
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports a CSV file into an empty SQLite database, then re-imports the same, unchanged file with every
+     * {@link MergePolicy}, and finally a copy with 1% of the ratings changed. The first import is the cost of
+     * writing every row; an unchanged re-import with {@link MergePolicy#ONLY_IF_CHANGED} should come close to the
+     * cost of just parsing the file and probing the title index.
+     */
+    private static void benchmarkMerge(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        System.out.printf("Bulk merge benchmark over %,d rows%n", rows);
+
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            Path csv = dir.resolve("movies.csv");
+            Path edited = dir.resolve("edited.csv");
+            MovieManager source = new MovieManager(new InMemoryMovieStore());
+            source.addMovies(movies);
+            source.exportCsv(csv, MovieFilter.all());
+            List<MarvelMovie> changed = new ArrayList<>();
+            for (int i = 0; i < rows; i += 100) {
+                MarvelMovie m = movies.get(i);
+                double rating = m.getImdbRating() >= 10.0 ? 9.9 : Math.round(m.getImdbRating() * 10.0 + 1.0) / 10.0;
+                changed.add(new MarvelMovie(m.getTitle(), m.getReleaseDate(), m.getPhase(), m.getDirector(), m.getRunningTimeMin(), rating));
+            }
+            source.mergeMovies(changed, MergePolicy.OVERWRITE);
+            source.exportCsv(edited, MovieFilter.all());
+
+            MovieManager manager = new MovieManager(createSqliteStore(dir.resolve("bench.db")));
+            timeImport("initial import (insert)", manager, csv, null);
+            timeImport("re-import unchanged, insert-only", manager, csv, null);
+            for (MergePolicy policy : MergePolicy.values()) {
+                timeImport("re-import unchanged, " + policy.name(), manager, csv, policy);
+            }
+            timeImport("re-import 1% changed, ONLY_IF_CHANGED", manager, edited, MergePolicy.ONLY_IF_CHANGED);
+
+            deleteDatabase(dir.resolve("bench.db"));
+            Files.delete(csv);
+            Files.delete(edited);
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    private static void timeImport(String label, MovieManager manager, Path csv, MergePolicy policy) throws IOException {
+        long start = System.nanoTime();
+        BulkCsvImporter.Result result = new BulkCsvImporter(manager, policy).importFile(csv);
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("  %-40s %9.1f ms | inserted %,9d | updated %,9d | skipped %,9d%n",
+                label, millis, result.getRowsInserted(), result.getRowsUpdated(), result.getRowsSkipped());
+    }
+
+    /**
+     * Feeds a high-duplicate stream (90% existing titles) into a SQLite catalog with and without the
+     * {@link TitleFilter}, one movie at a time and as batches, then looks up titles that do not exist.
+     */
+    private static void benchmarkTitleFilter(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        int feedSize = Math.max(10, Math.min(rows / 10, 20_000));
+        System.out.printf("Title filter benchmark over %,d rows, feed of %,d movies (90%% duplicates)%n", rows, feedSize);
+
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            MovieManager manager = new MovieManager(createSqliteStore(dir.resolve("bench.db")));
+            List<MarvelMovie> fresh = generateMovies(rows + feedSize, 7L).subList(rows, rows + feedSize);
+            Random random = new Random(3);
+            List<MarvelMovie> feed = new ArrayList<>(feedSize);
+            List<String> missing = new ArrayList<>(feedSize);
+            for (int i = 0; i < feedSize; i++) {
+                feed.add(i % 10 == 0 ? fresh.get(i) : movies.get(random.nextInt(rows)));
+                missing.add("Missing " + i);
+            }
+
+            for (boolean filtered : new boolean[]{false, true}) {
+                manager.disableTitleFilter();
+                manager.clearAll();
+                manager.getStore().insertAll(movies);
+                if (filtered) manager.enableTitleFilter(rows * 2L, 0.01, 16L << 20);
+
+                long start = System.nanoTime();
+                for (MarvelMovie m : feed.subList(0, feedSize / 2)) manager.addMovie(m);
+                double single = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                int inserted = manager.addMovies(feed.subList(feedSize / 2, feedSize));
+                double batch = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                for (String t : missing) blackhole = manager.findMovieByTitle(t);
+                double lookups = (System.nanoTime() - start) / 1e6;
+
+                System.out.printf("  %-9s addMovie x%,d %9.1f ms | addMovies %8.1f ms (%,d new) | %,d missing lookups %8.1f ms%n",
+                        filtered ? "filter" : "no filter", feedSize / 2, single, batch, inserted, missing.size(), lookups);
+                if (filtered) System.out.println("  " + manager.getTitleFilter());
+            }
+            manager.disableTitleFilter();
+            deleteDatabase(dir.resolve("bench.db"));
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Measures time-to-first-row (since JVM launch) in fresh JVMs for the original startup sequence and the
+     * {@link StartupLoader} path, with and without a current snapshot file. The UI is not shown, so the probes
+     * run headless; the JTable and its model are still created.
+     */
+    private static void benchmarkStartup(int rows) {
+        try {
+            Path dir = Files.createTempDirectory("dms-startup");
+            Path db = dir.resolve("startup.db");
+            MovieStore store = createSqliteStore(db);
+            store.insertAll(generateMovies(rows, 42L));
+            Path snapshot = Path.of(db + ".snapshot");
+            System.out.printf("Startup benchmark over %,d rows (target: first row < 300 ms)%n", rows);
+
+            reportStartup("original (load all rows)", "legacy", db);
+            reportStartup("loader, first page", "fast", db);
+            new MovieManager(store).saveSnapshotFile(snapshot);
+            reportStartup("loader, snapshot file", "fast", db);
+
+            Files.delete(snapshot);
+            deleteDatabase(db);
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException | InterruptedException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    private static void reportStartup(String label, String mode, Path db) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        long[] times = new long[3];
+        for (int i = 0; i < times.length; i++) {
+            Process p = new ProcessBuilder(java, "-Djava.awt.headless=true", "-cp", System.getProperty("java.class.path"),
+                    "DMSBenchmark", "startup-probe", mode, db.toString()).redirectErrorStream(true).start();
+            times[i] = -1;
+            for (String line : new String(p.getInputStream().readAllBytes()).split("\\R")) {
+                if (line.startsWith("first-row-ms=")) times[i] = Long.parseLong(line.substring(13));
+            }
+            p.waitFor();
+        }
+        Arrays.sort(times);
+        long median = times[times.length / 2];
+        System.out.printf("  %-28s first row after %5d ms %s%n", label, median, median >= 0 && median < 300 ? "(ok)" : "(over target)");
+    }
+
+    /**
+     * Child-process side of {@link #benchmarkStartup(int)}: runs one startup sequence and prints the time to the first row.
+     */
+    private static void startupProbe(String mode, String dbFile) {
+        MovieTableModel model = new MovieTableModel();
+        if (mode.equals("legacy")) {
+            try {
+                JDBC.setDatabasePath(dbFile);
+            } catch (ClassNotFoundException e) {
+                return;
+            }
+            JDBC.closeConnection(JDBC.openConnection());
+            blackhole = new javax.swing.JTable(model);
+            model.setMovies(new MovieManager().getMovies());
+        } else {
+            JDBC.configure(dbFile);
+            StartupLoader loader = StartupLoader.start(dbFile);
+            blackhole = new javax.swing.JTable(model);
+            SnapshotFile mapped = loader.snapshot();
+            if (mapped != null) {
+                model.setSnapshot(mapped);
+            } else {
+                List<MarvelMovie> page = loader.firstPage();
+                model.setMovies(page != null ? page : loader.getManager().getMovies());
+            }
+        }
+        blackhole = model.getValueAt(0, 0);
+        System.out.println("first-row-ms=" + StartupTimer.mark("first row ready"));
+        System.out.print(StartupTimer.report());
+    }
+
+    private static void reportStore(String name, MovieStore store, List<MarvelMovie> bulk, List<MarvelMovie> single, int lookups) {
+        long start = System.nanoTime();
+        store.insertAll(bulk);
+        double bulkSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        for (MarvelMovie m : single) store.insert(m);
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+        Random random = new Random(7);
+        for (int i = 0; i < lookups / 10; i++) blackhole = store.find(bulk.get(random.nextInt(bulk.size())).getTitle());
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) blackhole = store.find(bulk.get(random.nextInt(bulk.size())).getTitle());
+        double lookupMicros = (System.nanoTime() - start) / 1e3 / lookups;
+
+        System.out.printf("  %-8s bulk insert %,10.0f rows/s | durable single insert %,8.0f rows/s | lookup %7.1f us%n",
+                name, bulk.size() / bulkSeconds, single.size() / singleSeconds, lookupMicros);
+    }
+
+    /**
+     * Creates a new SQLite database file with the movies table and points {@link JDBC} at it.
+     */
+    static MovieStore createSqliteStore(Path file) throws ClassNotFoundException, SQLException {
+        JDBC.setDatabasePath(file.toString());
+        Connection con = JDBC.openConnection();
+        if (con == null) throw new SQLException("cannot open " + file);
+        try (Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS movies (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT UNIQUE NOT NULL, "
+                    + "releaseDate TEXT, phase INTEGER, director TEXT, runningTimeMin INTEGER, imdbRating REAL)");
+        } finally {
+            JDBC.closeConnection(con);
+        }
+        return new SqliteMovieStore();
+    }
+
+    /**
+     * Closes the pooled connections and deletes a SQLite database file together with its WAL files.
+     */
+    static void deleteDatabase(Path file) throws IOException {
+        JDBC.closeIdleConnections();
+        SqliteDataVersion.release(file.toString());
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+        Files.delete(file);
+    }
+
+    /**
+     * Runs the garbage collector a few times and returns the heap in use afterwards.
+     */
+    private static long usedHeapAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /**
+     * Compares building all eight phase/director/year groupings one by one from movie objects (grouping into lists and
+     * sorting each group for its percentiles) with {@link MovieCube#build(CatalogSnapshot, ForkJoinPool)}, on one
+     * worker and on the common pool, and reports the cost of a cached {@link MovieManager#analytics()} call.
+     */
+    private static void benchmarkCube(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        CatalogSnapshot snapshot = CatalogSnapshot.of(movies);
+        System.out.printf("Analytics cube benchmark over %,d rows (%d cores)%n", rows, Runtime.getRuntime().availableProcessors());
+
+        Supplier<Object> naive = () -> {
+            List<Object> out = new ArrayList<>();
+            for (int mask = 0; mask < 8; mask++) {
+                Map<String, List<MarvelMovie>> groups = new HashMap<>();
+                for (MarvelMovie m : movies) {
+                    String key = ((mask & 1) != 0 ? m.getPhase() : "*") + "|" + ((mask & 2) != 0 ? m.getDirector() : "*")
+                            + "|" + ((mask & 4) != 0 ? m.getReleaseDate().substring(0, 4) : "*");
+                    groups.computeIfAbsent(key, k -> new ArrayList<>()).add(m);
+                }
+                for (List<MarvelMovie> group : groups.values()) {
+                    double[] ratings = new double[group.size()];
+                    int[] runtimes = new int[group.size()];
+                    for (int i = 0; i < ratings.length; i++) {
+                        ratings[i] = group.get(i).getImdbRating();
+                        runtimes[i] = group.get(i).getRunningTimeMin();
+                    }
+                    Arrays.sort(ratings);
+                    Arrays.sort(runtimes);
+                    out.add(ratings[ratings.length / 2] + runtimes[runtimes.length / 2]);
+                }
+            }
+            return out;
+        };
+        ForkJoinPool single = new ForkJoinPool(1);
+        compare("all groupings (1 worker)", naive, () -> MovieCube.build(snapshot, single));
+        compare("all groupings (common pool)", naive, () -> MovieCube.build(snapshot));
+        single.shutdown();
+
+        MovieManager manager = new MovieManager(new InMemoryMovieStore());
+        manager.addMovies(movies);
+        // Any write through the manager (even one that changes nothing) invalidates the cached cube
+        System.out.printf("  %-32s after write %9.3f ms | cached %9.3f ms%n", "MovieManager.analytics()",
+                medianMillis(() -> {
+                    manager.removeMovie("Missing title");
+                    return manager.analytics();
+                }),
+                medianMillis(manager::analytics));
+    }
+
+    /**
+     * Measures how {@link ParallelAggregator} scales from one worker to all cores: a full summary (scalars, histograms
+     * and percentiles) of the whole snapshot and of a filtered subset, on pools of 1, 2, 4, ... workers. The snapshot
+     * is generated column by column, so 10M rows fit without building movie objects; the list variant runs on up to
+     * 2M movie objects.
+     */
+    private static void benchmarkParallelAggregates(int rows) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        CatalogSnapshot snapshot = generateSnapshot(rows, 42L);
+        List<MarvelMovie> movies = generateMovies(Math.min(rows, 2_000_000), 42L);
+        MovieFilter subset = MovieFilter.all().phase(3).minRating(7.0);
+        System.out.printf("Parallel aggregate benchmark over %,d rows (list: %,d movies), %d cores%n", rows, movies.size(), cores);
+
+        double[] base = new double[3];
+        for (int workers = 1; ; workers = Math.min(cores, workers * 2)) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            ParallelAggregator engine = new ParallelAggregator(pool, ParallelAggregator.DEFAULT_THRESHOLD);
+            double[] times = {
+                    medianMillis(() -> engine.summarize(snapshot, null)),
+                    medianMillis(() -> engine.summarize(snapshot, subset)),
+                    medianMillis(() -> engine.summarize(movies, subset))
+            };
+            pool.shutdown();
+            if (workers == 1) base = times;
+            System.out.printf("  %2d workers: snapshot all %9.3f ms (%4.1fx) | snapshot filtered %9.3f ms (%4.1fx) | list filtered %9.3f ms (%4.1fx)%n",
+                    workers, times[0], base[0] / times[0], times[1], base[1] / times[1], times[2], base[2] / times[2]);
+            if (workers == cores) break;
+        }
+    }
+
+    /**
+     * Compares a monthly release series computed from the date strings (parsing and grouping every movie per query)
+     * with {@link ReleaseTimeline#series(TimeBucket, int)} on the epoch-day index, and reports the index build time.
+     */
+    private static void benchmarkTimeline(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        CatalogSnapshot snapshot = CatalogSnapshot.of(movies);
+        ReleaseTimeline timeline = new ReleaseTimeline(snapshot, null);
+        System.out.printf("Release timeline benchmark over %,d rows%n", rows);
+        System.out.printf("  %-32s %9.3f ms%n", "index build (from snapshot)", medianMillis(() -> new ReleaseTimeline(snapshot, null)));
+
+        compare("monthly series + 12-month avg",
+                () -> {
+                    Map<String, double[]> months = new TreeMap<>();
+                    for (MarvelMovie m : movies) {
+                        int day = IsoDate.parseEpochDay(m.getReleaseDate());
+                        double[] v = months.computeIfAbsent(IsoDate.format(day).substring(0, 7), k -> new double[2]);
+                        v[0]++;
+                        v[1] += m.getImdbRating();
+                    }
+                    List<Double> window = new ArrayList<>();
+                    List<double[]> recent = new ArrayList<>();
+                    for (double[] v : months.values()) {
+                        recent.add(v);
+                        if (recent.size() > 12) recent.remove(0);
+                        double n = 0, sum = 0;
+                        for (double[] r : recent) {
+                            n += r[0];
+                            sum += r[1];
+                        }
+                        window.add(sum / n);
+                    }
+                    return window;
+                },
+                () -> timeline.series(TimeBucket.MONTH, 12));
+        compare("releases in one decade",
+                () -> {
+                    int from = IsoDate.epochDay(2000, 1, 1), to = IsoDate.epochDay(2009, 12, 31);
+                    long n = 0;
+                    for (MarvelMovie m : movies) {
+                        int day = IsoDate.parseEpochDay(m.getReleaseDate());
+                        if (day >= from && day <= to) n++;
+                    }
+                    return n;
+                },
+                () -> timeline.count(IsoDate.epochDay(2000, 1, 1), IsoDate.epochDay(2009, 12, 31)));
+    }
+
+    /**
+     * Compares a brute-force scan (score every movie, keep the best k in a heap) with {@link SimilarityIndex} queries,
+     * and times the index build against one incremental insert and removal.
+     */
+    private static void benchmarkSimilar(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows, 42L);
+        SimilarityIndex index = new SimilarityIndex(movies);
+        Random random = new Random(7L);
+        int[] targets = new int[100];
+        for (int i = 0; i < targets.length; i++) targets[i] = random.nextInt(rows);
+        SimilarityWeights weights = SimilarityWeights.defaults();
+        System.out.printf("Similar-movie benchmark over %,d rows (100 queries, k = 10)%n", rows);
+        System.out.printf("  %-32s %9.3f ms%n", "index build", medianMillis(() -> new SimilarityIndex(movies)));
+
+        compare("100 nearest-10 queries",
+                () -> {
+                    List<Object> results = new ArrayList<>();
+                    for (int t : targets) {
+                        MarvelMovie target = movies.get(t);
+                        PriorityQueue<Object[]> best = new PriorityQueue<>(11, (a, b) -> Double.compare((double) b[1], (double) a[1]));
+                        for (MarvelMovie m : movies) {
+                            if (m == target) continue;
+                            double p = m.getPhase() - target.getPhase();
+                            double y = (m.getReleaseEpochDay() - target.getReleaseEpochDay()) / 365.25;
+                            double r = (m.getRunningTimeMin() - target.getRunningTimeMin()) / 10.0;
+                            double s = m.getImdbRating() - target.getImdbRating();
+                            double d = p * p + y * y + r * r + s * s + (m.getDirector().equals(target.getDirector()) ? 0 : 1);
+                            if (best.size() < 10) best.add(new Object[]{m, d});
+                            else if (d < (double) best.peek()[1]) {
+                                best.poll();
+                                best.add(new Object[]{m, d});
+                            }
+                        }
+                        results.add(best);
+                    }
+                    return results;
+                },
+                () -> {
+                    List<Object> results = new ArrayList<>();
+                    for (int t : targets) results.add(index.nearest(movies.get(t), 10, weights));
+                    return results;
+                });
+        MarvelMovie extra = new MarvelMovie("Movie extra", "2015-05-01", 2, "Director 0", 120, 7.5);
+        System.out.printf("  %-32s %9.3f ms%n", "incremental insert + remove", medianMillis(() -> {
+            index.insert(extra);
+            return index.remove(extra.getTitle());
+        }));
+    }
+
+    /**
+     * Adds movies one at a time while a second connection keeps taking the write lock (150 ms held, 20 ms free),
+     * first without retries and then with the default {@link RetryPolicy}. Without retries most writes come back
+     * {@link WriteResult.Status#BUSY}; with them every write should succeed, at the cost of some waiting.
+     */
+    private static void benchmarkBusy(int rows) {
+        int writes = Math.min(rows, 200);
+        System.out.printf("Locked-database benchmark: %,d single inserts against a competing writer%n", writes);
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            Path file = dir.resolve("bench.db");
+            MovieManager manager = new MovieManager(createSqliteStore(file));
+            List<MarvelMovie> movies = generateMovies(writes * 2, 42L);
+            RetryPolicy[] policies = {RetryPolicy.none(), RetryPolicy.defaults()};
+            for (int p = 0; p < policies.length; p++) {
+                JDBC.setRetryPolicy(policies[p]);
+                JDBC.getRetryMetrics().reset();
+                AtomicBoolean running = new AtomicBoolean(true);
+                Thread locker = new Thread(() -> holdWriteLock(running));
+                locker.start();
+
+                Map<WriteResult.Status, Integer> outcomes = new EnumMap<>(WriteResult.Status.class);
+                double[] latencies = new double[writes];
+                long start = System.nanoTime();
+                for (int i = 0; i < writes; i++) {
+                    long t = System.nanoTime();
+                    WriteResult result = manager.addMovie(movies.get(p * writes + i));
+                    latencies[i] = (System.nanoTime() - t) / 1e6;
+                    outcomes.merge(result.getStatus(), 1, Integer::sum);
+                    Thread.sleep(2);
+                }
+                double total = (System.nanoTime() - start) / 1e6;
+                running.set(false);
+                locker.join();
+
+                Arrays.sort(latencies);
+                System.out.printf("  %-10s %s in %,.0f ms (p50 %.1f ms, p99 %.1f ms)%n", p == 0 ? "no retry" : "retry",
+                        outcomes, total, latencies[writes / 2], latencies[(int) (writes * 0.99)]);
+                System.out.println("             " + JDBC.getRetryMetrics());
+            }
+            JDBC.setRetryPolicy(null);
+            deleteDatabase(file);
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Repeatedly holds the database's write lock for 150 ms through its own connection, until told to stop.
+     */
+    private static void holdWriteLock(AtomicBoolean running) {
+        Connection con = JDBC.openConnection();
+        if (con == null) return;
+        try (Statement stmt = con.createStatement()) {
+            while (running.get()) {
+                try {
+                    stmt.execute("BEGIN IMMEDIATE");
+                    Thread.sleep(150);
+                    stmt.execute("COMMIT");
+                } catch (SQLException e) {
+                    // The benchmarked writer held the lock; try again
+                }
+                Thread.sleep(20);
+            }
+        } catch (SQLException e) {
+            System.out.println("Lock holder failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            JDBC.closeConnection(con);
+        }
+    }
+
+    /**
+     * Measures title lookups per second for two seconds: with the database idle, and while another thread bulk-imports
+     * chunks of 50,000 movies (one transaction each), once with the lookups on the write lane (one shared path, as
+     * before the lanes existed) and once on the read lane.
+     */
+    private static void benchmarkLanes(int rows) {
+        List<MarvelMovie> movies = generateMovies(rows * 2, 42L);
+        List<MarvelMovie> catalog = movies.subList(0, rows);
+        List<MarvelMovie> feed = movies.subList(rows, rows * 2);
+        System.out.printf("Read/write lane benchmark: lookups over %,d rows during a %,d-row import%n", rows, rows);
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            Path file = dir.resolve("bench.db");
+            MovieStore store = createSqliteStore(file);
+            store.insertAll(catalog);
+
+            double[] idle = lookupLoad(JDBC.Lane.READ, catalog, null);
+            System.out.printf("  %-28s %,9.0f lookups/s (p99 %6.2f ms)%n", "idle, read lane", idle[0], idle[1]);
+            JDBC.Lane[] lanes = {JDBC.Lane.WRITE, JDBC.Lane.READ};
+            for (JDBC.Lane lane : lanes) {
+                AtomicBoolean running = new AtomicBoolean(true);
+                Thread importer = new Thread(() -> {
+                    for (int from = 0; from < feed.size() && running.get(); from += 50_000) {
+                        store.insertAll(feed.subList(from, Math.min(feed.size(), from + 50_000)));
+                    }
+                });
+                importer.start();
+                double[] busy = lookupLoad(lane, catalog, importer);
+                running.set(false);
+                importer.join();
+                store.deleteAll(titlesOf(feed));
+                System.out.printf("  %-28s %,9.0f lookups/s (p99 %6.2f ms)%n",
+                        "during import, " + lane.name().toLowerCase() + " lane", busy[0], busy[1]);
+            }
+            System.out.println("  " + JDBC.getPool(JDBC.Lane.READ));
+            System.out.println("  " + JDBC.getPool(JDBC.Lane.WRITE));
+            deleteDatabase(file);
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Measures write throughput of a {@link ShardedMovieStore} with 1, 2, 4 and 8 title-hashed SQLite shards: eight
+     * threads each inserting single movies (one transaction per movie), then a bulk import split across the shards.
+     * Also times a fanned-out page ordered by title and an average-rating aggregate over the loaded rows.
+     */
+    private static void benchmarkShards(int rows) {
+        int writers = 8;
+        int singles = Math.min(rows, 2_000);
+        List<MarvelMovie> movies = generateMovies(rows + singles, 42L);
+        List<MarvelMovie> bulk = movies.subList(0, rows);
+        List<MarvelMovie> feed = movies.subList(rows, rows + singles);
+        System.out.printf("Shard benchmark: %,d single inserts from %d threads, then a %,d-row bulk import%n",
+                singles, writers, rows);
+        try {
+            for (int count : new int[]{1, 2, 4, 8}) {
+                Path dir = Files.createTempDirectory("dms-bench");
+                ShardedMovieStore store = ShardedMovieStore.openSqlite(dir, count, ShardKey.TITLE_HASH);
+                if (store == null) throw new SQLException("cannot create shards in " + dir);
+
+                AtomicInteger next = new AtomicInteger();
+                Thread[] threads = new Thread[writers];
+                long start = System.nanoTime();
+                for (int t = 0; t < writers; t++) {
+                    threads[t] = new Thread(() -> {
+                        for (int i = next.getAndIncrement(); i < feed.size(); i = next.getAndIncrement()) {
+                            store.insert(feed.get(i));
+                        }
+                    });
+                    threads[t].start();
+                }
+                for (Thread t : threads) t.join();
+                double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                int inserted = store.insertAll(bulk);
+                double bulkSeconds = (System.nanoTime() - start) / 1e9;
+
+                double page = medianMillis(() -> store.page(MovieFilter.all(), MovieSort.TITLE, 1_000, 20));
+                double average = medianMillis(() -> store.aggregate(MovieFilter.all()).getAverageRating());
+                System.out.printf("  %d shard%s  singles %,8.0f rows/s | bulk %,9.0f rows/s (%,d rows) | page %7.2f ms | avg %7.2f ms%n",
+                        count, count == 1 ? " " : "s", feed.size() / singleSeconds, inserted / bulkSeconds, inserted, page, average);
+
+                store.close();
+                for (int i = 0; i < count; i++) deleteDatabase(dir.resolve(String.format("shard-%02d.db", i)));
+                Files.delete(dir);
+            }
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Measures foreground title lookups through a {@link MovieManager} (one every millisecond) for two seconds with no
+     * backup running, then for two seconds of back-to-back {@link OnlineBackup} runs at each of three pacings (unpaced
+     * in one step, large steps, and the default), and reports how much the lookups' 99th-percentile latency moved.
+     * Finishes by restoring the newest snapshot into the emptied database.
+     */
+    private static void benchmarkBackup(int rows) {
+        System.out.printf("Online backup benchmark: lookups during backups of %,d rows%n", rows);
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            Path file = dir.resolve("bench.db");
+            MovieManager manager = new MovieManager(createSqliteStore(file));
+            List<MarvelMovie> catalog = generateMovies(rows, 42L);
+            manager.getStore().insertAll(catalog);
+            OnlineBackup backup = new OnlineBackup(JDBC.getDefaultDatabase(), dir.resolve("backups"), 2);
+
+            foregroundLookups(manager, catalog, null);
+            double[] idle = foregroundLookups(manager, catalog, null);
+            System.out.printf("  %-24s p50 %6.3f ms | p99 %6.3f ms%n", "no backup", idle[0], idle[1]);
+            int[][] pacings = {{Integer.MAX_VALUE, 0, 0}, {1024, 1, 20}, {OnlineBackup.DEFAULT_PAGES_PER_STEP,
+                    (int) OnlineBackup.DEFAULT_PAUSE_MILLIS, (int) OnlineBackup.DEFAULT_MAX_DEFER_MILLIS}};
+            for (int[] pacing : pacings) {
+                backup.setPacing(pacing[0], pacing[1], pacing[2]);
+                AtomicBoolean running = new AtomicBoolean(true);
+                AtomicInteger backups = new AtomicInteger();
+                Thread copier = new Thread(() -> {
+                    while (running.get() && backup.backupNow() != null) backups.incrementAndGet();
+                });
+                copier.start();
+                double[] during = foregroundLookups(manager, catalog, null);
+                running.set(false);
+                copier.join();
+                String label = pacing[0] == Integer.MAX_VALUE ? "unpaced" : pacing[0] + " pages/step, " + pacing[1] + " ms";
+                System.out.printf("  %-24s p50 %6.3f ms | p99 %6.3f ms (%+.3f ms) | %d backups, last %s%n", label,
+                        during[0], during[1], during[1] - idle[1], backups.get(), backup.getLastResult());
+            }
+
+            List<Path> snapshots = backup.listSnapshots();
+            manager.clearAll();
+            long start = System.nanoTime();
+            boolean restored = manager.restoreBackup(backup, snapshots.get(0));
+            System.out.printf("  kept %d snapshots; restore %s in %,.0f ms, %,d movies%n", snapshots.size(),
+                    restored ? "succeeded" : "failed", (System.nanoTime() - start) / 1e6, manager.snapshot().size());
+
+            for (Path snapshot : snapshots) Files.delete(snapshot);
+            Files.delete(dir.resolve("backups"));
+            deleteDatabase(file);
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Imports movies through a {@link MovieManager} into a database with incremental auto-vacuum, deletes 80% of them,
+     * and times a filtered listing before and after a {@link MaintenanceScheduler} run; prints the run's report (file
+     * size, free pages, statistics, plans). Then lets the scheduler notice a second round of writes on its own once
+     * the database is idle.
+     */
+    private static void benchmarkMaintenance(int rows) {
+        System.out.printf("Maintenance benchmark: import %,d rows, delete 80%%, then optimize / analyze / vacuum%n", rows);
+        try {
+            Path dir = Files.createTempDirectory("dms-bench");
+            Path file = dir.resolve("bench.db");
+            MovieManager manager = new MovieManager(createSqliteStore(file));
+            MaintenanceScheduler maintenance = new MaintenanceScheduler(manager, JDBC.getDefaultDatabase());
+            System.out.println("  incremental vacuum enabled: " + maintenance.enableIncrementalVacuum());
+
+            List<MarvelMovie> catalog = generateMovies(rows, 42L);
+            manager.addMovies(catalog);
+            List<String> titles = titlesOf(catalog);
+            manager.removeMovies(titles.subList(0, rows * 4 / 5));
+            MovieFilter filter = MovieFilter.all().phase(3).minRating(8.0);
+            double before = medianMillis(() -> manager.getStore().page(filter, MovieSort.RATING, 0, 20));
+
+            MaintenanceScheduler.Report report = maintenance.runNow();
+            double after = medianMillis(() -> manager.getStore().page(filter, MovieSort.RATING, 0, 20));
+            System.out.println("  run: " + report);
+            System.out.printf("  phase 3, rating >= 8, top 20: %.3f ms before, %.3f ms after%n", before, after);
+
+            maintenance.setThresholds(200, 1, 1, MaintenanceScheduler.DEFAULT_VACUUM_PAGES_PER_STEP);
+            maintenance.start(50);
+            manager.removeMovies(titles.subList(rows * 4 / 5, rows * 9 / 10));
+            long start = System.nanoTime();
+            while (maintenance.getLastReport() == report && System.nanoTime() - start < 10_000_000_000L) Thread.sleep(20);
+            maintenance.stop();
+            MaintenanceScheduler.Report scheduled = maintenance.getLastReport();
+            System.out.printf("  scheduled run after %,.0f ms: %s%n", (System.nanoTime() - start) / 1e6,
+                    scheduled == report ? "none" : scheduled.getTasks() + String.format(", file %,d -> %,d bytes",
+                            scheduled.getBefore().getFileBytes(), scheduled.getAfter().getFileBytes()));
+
+            deleteDatabase(file);
+            Files.delete(dir);
+        } catch (IOException | SQLException | ClassNotFoundException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Looks up a random title through the manager every millisecond, for two seconds or while the given thread runs.
+     * Each latency covers the lookup only, not the pause.
+     * @return The 50th- and 99th-percentile latency in milliseconds.
+     */
+    private static double[] foregroundLookups(MovieManager manager, List<MarvelMovie> catalog, Thread during)
+            throws InterruptedException {
+        Random random = new Random(7L);
+        List<Double> latencies = new ArrayList<>();
+        long end = System.nanoTime() + 2_000_000_000L;
+        while (during == null ? System.nanoTime() < end : during.isAlive()) {
+            String title = catalog.get(random.nextInt(catalog.size())).getTitle();
+            long t = System.nanoTime();
+            blackhole = manager.findMovieByTitle(title);
+            latencies.add((System.nanoTime() - t) / 1e6);
+            Thread.sleep(1);
+        }
+        latencies.sort(null);
+        if (latencies.isEmpty()) return new double[]{0, 0};
+        return new double[]{latencies.get(latencies.size() / 2), latencies.get((int) (latencies.size() * 0.99))};
+    }
+
+    /**
+     * Looks up random titles on a lane for two seconds (or until the importer, if given, finishes).
+     * @return The lookups per second and the 99th-percentile latency in milliseconds.
+     */
+    private static double[] lookupLoad(JDBC.Lane lane, List<MarvelMovie> catalog, Thread importer) {
+        Random random = new Random(7L);
+        List<Double> latencies = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + 2_000_000_000L;
+        while (System.nanoTime() < end && (importer == null || importer.isAlive())) {
+            String title = catalog.get(random.nextInt(catalog.size())).getTitle();
+            long t = System.nanoTime();
+            try {
+                blackhole = JDBC.withConnection(lane, con -> {
+                    try (PreparedStatement pstmt = con.prepareStatement("SELECT imdbRating FROM movies WHERE title = ?")) {
+                        pstmt.setString(1, title);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            return rs.next() ? rs.getDouble(1) : null;
+                        }
+                    }
+                });
+            } catch (SQLException e) {
+                System.out.println("Lookup failed: " + e.getMessage());
+                break;
+            }
+            latencies.add((System.nanoTime() - t) / 1e6);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        latencies.sort(null);
+        double p99 = latencies.isEmpty() ? 0 : latencies.get((int) (latencies.size() * 0.99));
+        return new double[]{latencies.size() / seconds, p99};
+    }
+
+    private static List<String> titlesOf(List<MarvelMovie> movies) {
+        List<String> titles = new ArrayList<>(movies.size());
+        for (MarvelMovie m : movies) titles.add(m.getTitle());
+        return titles;
+    }
+
+    /**
+     * Times the baseline and optimized variants of one operation and prints the speed-up.
+     */
+    static void compare(String label, Supplier<Object> baseline, Supplier<Object> optimized) {
+        double base = medianMillis(baseline);
+        double fast = medianMillis(optimized);
+        System.out.printf("  %-32s baseline %9.3f ms | optimized %9.3f ms | speed-up %6.1fx%n",
+                label, base, fast, fast > 0 ? base / fast : Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Runs the task through warm-up and measured iterations and returns the median wall time.
+     */
+    static double medianMillis(Supplier<Object> task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) blackhole = task.get();
+        double[] times = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            blackhole = task.get();
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[MEASURED_RUNS / 2];
+    }
+
+    /**
+     * Generates the same rows as {@link #generateMovies(int, long)} straight into a snapshot, without movie objects.
+     * @param rows The number of movies.
+     * @param seed The random seed.
+     * @return The snapshot, ordered by title.
+     */
+    static CatalogSnapshot generateSnapshot(int rows, long seed) {
+        Random random = new Random(seed);
+        int directors = Math.max(1, rows / 20);
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(rows);
+        for (int i = 0; i < rows; i++) {
+            int day = IsoDate.MIN_RELEASE_EPOCH_DAY + random.nextInt(IsoDate.MAX_RELEASE_EPOCH_DAY - IsoDate.MIN_RELEASE_EPOCH_DAY + 1);
+            int phase = 1 + random.nextInt(6);
+            String director = "Director " + random.nextInt(directors);
+            int runtime = 30 + random.nextInt(271);
+            double rating = Math.round((1.0 + random.nextDouble() * 9.0) * 10.0) / 10.0;
+            builder.add(String.format("Movie %09d", i), day, phase, director, runtime, rating);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Generates deterministic synthetic movies with realistic value ranges.
+     * @param rows The number of movies.
+     * @param seed The random seed.
+     * @return The generated list, ordered by title.
+     */
+    static List<MarvelMovie> generateMovies(int rows, long seed) {
+        Random random = new Random(seed);
+        int directors = Math.max(1, rows / 20);
+        List<MarvelMovie> movies = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int day = IsoDate.MIN_RELEASE_EPOCH_DAY + random.nextInt(IsoDate.MAX_RELEASE_EPOCH_DAY - IsoDate.MIN_RELEASE_EPOCH_DAY + 1);
+            movies.add(new MarvelMovie(
+                    String.format("Movie %09d", i),
+                    IsoDate.format(day),
+                    1 + random.nextInt(6),
+                    "Director " + random.nextInt(directors),
+                    30 + random.nextInt(271),
+                    Math.round((1.0 + random.nextDouble() * 9.0) * 10.0) / 10.0));
+        }
+        return movies;
+    }
+}
@@ -2,11 +2,13 @@ import javax.swing.*;
 import javax.swing.border.Border;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The main Graphical User Interface (GUI) class for the Marvel Movie Data Management System.
@@ -29,12 +31,26 @@ public class DMSGui extends JFrame {
     private static final Color DARK_TEXT = new Color(50, 50, 50);
     private static final Font MARVEL_FONT = new Font("Dialog", Font.BOLD, 14);
     private static final Border MARVEL_BORDER = BorderFactory.createLineBorder(ACCENT_RED, 2);
+
+    // Groupings offered by the analytics panel (the dimension names are matched by handleAnalytics)
+    private static final String[] GROUPINGS = {
+            "Phase", "Director", "Year", "Phase + Director", "Phase + Year", "Director + Year",
+            "Phase + Director + Year", "All movies"
+    };
     // ------------------------------------------
 
     // UI components
-    private final DefaultTableModel tableModel;
+    private final MovieTableModel tableModel;
     private final JTable movieTable;
 
+    // Startup snapshot file next to the database (null if no database file is configured),
+    // and the data version the displayed rows were loaded at
+    private final Path snapshotFile;
+    private long loadedVersion = -1;
+
+    // Incremented on every table reload, so a slower background load never overwrites newer rows
+    private int refreshGeneration;
+
     // input fields
     private final JTextField titleField = new JTextField(20);
     private final JTextField dateField = new JTextField(10);
@@ -54,18 +70,42 @@ public class DMSGui extends JFrame {
      * Initializes the {@link MovieManager}, sets up the JTable, builds the UI panels, and performs an initial table refresh.
      */
     public DMSGui() {
+        this(null);
+    }
+
+    /**
+     * Constructs the main application window, reusing the results of a running {@link StartupLoader}:
+     * the first screen is filled from its snapshot file or first page, and the rest of the catalog loads in the background.
+     * @param loader The startup loader, or null to load the table directly.
+     */
+    public DMSGui(StartupLoader loader) {
         super("MARVEL CINEMATIC UNIVERSE DMS");
-        this.manager = new MovieManager();
+        this.manager = loader != null ? loader.getManager() : new MovieManager();
 
-        // Table setup
-        String[] cols = {"Title", "Release Date", "Phase", "Director", "Runtime (min)", "IMDb"};
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        String dbFile = JDBC.getDatabaseFile();
+        this.snapshotFile = dbFile == null ? null : Path.of(dbFile + ".snapshot");
+
+        // Table setup (read-only model; columns are defined in MovieTableModel)
+        tableModel = new MovieTableModel();
 
         // --- TOOLTIP FIX IMPLEMENTATION ---
         movieTable = new JTable(tableModel) {
+            private boolean firstRowPainted;
+
+            /**
+             * Records the first paint that shows data rows as the end of startup.
+             * @param g The graphics context.
+             */
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                if (!firstRowPainted && getRowCount() > 0) {
+                    firstRowPainted = true;
+                    StartupTimer.mark("first row painted");
+                    System.out.print(StartupTimer.report());
+                }
+            }
+
             /**
              * Overrides getToolTipText to return the full cell content when the mouse hovers over it,
              * preventing long titles from being truncated with "...".
@@ -93,7 +133,7 @@ public class DMSGui extends JFrame {
         };
         // ---------------------------------
 
-        movieTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        movieTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 
         // --- STYLING TABLE ---
         movieTable.setBackground(Color.WHITE);
@@ -121,7 +161,93 @@ public class DMSGui extends JFrame {
 
         setSize(1000, 700);
         setLocationRelativeTo(null);
-        refreshTable();
+        showInitialRows(loader);
+        StartupTimer.mark("main window built");
+
+        // Keep the startup snapshot current for the next launch
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveSnapshotOnExit();
+            }
+        });
+    }
+
+    /**
+     * Fills the table for the first screen. A current snapshot file is memory-mapped and shown directly,
+     * without querying the database. Otherwise the startup loader's first page is shown while the full catalog
+     * loads in the background (or, without a loader, the rows are loaded directly), and the stale snapshot file
+     * is rebuilt from the loaded rows in the background.
+     */
+    private void showInitialRows(StartupLoader loader) {
+        SnapshotFile mapped;
+        if (loader != null) {
+            mapped = loader.snapshot();
+        } else {
+            mapped = snapshotFile == null ? null : manager.openSnapshotFile(snapshotFile);
+        }
+        if (mapped != null) {
+            loadedVersion = mapped.getDataVersion();
+            tableModel.setSnapshot(mapped);
+            return;
+        }
+
+        if (loader == null) {
+            refreshTable();
+            rebuildSnapshotFile();
+            return;
+        }
+
+        List<MarvelMovie> firstPage = loader.firstPage();
+        if (firstPage == null) {
+            showError("Could not load the first page of movies. Loading the full catalog instead.");
+            refreshTable();
+            rebuildSnapshotFile();
+            return;
+        }
+
+        // Partial rows: the version stays unknown until the full catalog is on screen
+        tableModel.setMovies(firstPage);
+        int generation = ++refreshGeneration;
+        Thread rest = new Thread(() -> {
+            long version = manager.getDataVersion();
+            List<MarvelMovie> all = manager.getMovies();
+            StartupTimer.mark("all rows loaded");
+            SwingUtilities.invokeLater(() -> {
+                // Skip if the user refreshed the table in the meantime
+                if (generation != refreshGeneration) return;
+                tableModel.setMovies(all);
+                loadedVersion = version;
+                rebuildSnapshotFile();
+            });
+        }, "catalog-loader");
+        rest.setDaemon(true);
+        rest.start();
+    }
+
+    /**
+     * Writes the snapshot file from the rows on screen on a low-priority background thread.
+     */
+    private void rebuildSnapshotFile() {
+        if (snapshotFile == null) return;
+        List<MarvelMovie> rows = tableModel.getMovies();
+        long version = loadedVersion;
+        Thread writer = new Thread(() -> manager.saveSnapshotFile(snapshotFile, rows, version), "snapshot-writer");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    /**
+     * Writes the snapshot file on shutdown unless the one on screen is still current.
+     * Rows already loaded at the current data version are reused instead of reading the database again.
+     */
+    private void saveSnapshotOnExit() {
+        if (snapshotFile == null) return;
+        if (tableModel.isShowingSnapshot() && manager.getDataVersion() == loadedVersion) return;
+        if (!manager.saveSnapshotFile(snapshotFile, tableModel.getMovies(), loadedVersion)) {
+            manager.saveSnapshotFile(snapshotFile);
+        }
     }
 
     /**
@@ -264,49 +390,61 @@ public class DMSGui extends JFrame {
         updatePanel.add(findBtn);
         updatePanel.add(updateBtn);
 
-        // Custom Action
+        // Analytics (grouped statistics from the cached cube)
         JPanel customPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
         customPanel.setBorder(BorderFactory.createTitledBorder(
-                MARVEL_BORDER, "CUSTOM ACTION",
+                MARVEL_BORDER, "ANALYTICS",
                 javax.swing.border.TitledBorder.LEFT,
                 javax.swing.border.TitledBorder.TOP,
                 MARVEL_FONT, ACCENT_RED
         ));
         customPanel.setBackground(LIGHT_BG);
 
-        JLabel phaseLabel = new JLabel("Phase:");
-        phaseLabel.setForeground(DARK_TEXT);
-        phaseLabel.setFont(MARVEL_FONT);
-        customPanel.add(phaseLabel);
-
-        JTextField phaseInput = new JTextField(4);
-        phaseInput.setBackground(Color.WHITE);
-        phaseInput.setForeground(DARK_TEXT);
-        phaseInput.setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
-        customPanel.add(phaseInput);
-
-        // CALC AVG RATING BUTTON
-        JButton avgBtn = new JButton("CALC AVG RATING");
-        avgBtn.setBackground(ACCENT_GOLD);
-        avgBtn.setForeground(DARK_TEXT);
-        avgBtn.setFont(MARVEL_FONT);
-        avgBtn.addActionListener(e -> {
-            try {
-                int ph = Integer.parseInt(phaseInput.getText().trim());
-                double avg = manager.calculateAverageRating(ph);
-                if (avg > 0.0) {
-                    JOptionPane.showMessageDialog(this,
-                            String.format("Average IMDb rating for Phase %d: %.2f", ph, avg),
-                            "AVERAGE RATING", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(this, "No movies found in that phase.", "AVERAGE RATING",
-                            JOptionPane.INFORMATION_MESSAGE);
-                }
-            } catch (NumberFormatException ex) {
-                showError("Enter a valid integer for phase.");
-            }
-        });
-        customPanel.add(avgBtn);
+        JLabel groupLabel = new JLabel("Group by:");
+        groupLabel.setForeground(DARK_TEXT);
+        groupLabel.setFont(MARVEL_FONT);
+        customPanel.add(groupLabel);
+
+        JComboBox<String> groupingInput = new JComboBox<>(GROUPINGS);
+        groupingInput.setBackground(Color.WHITE);
+        groupingInput.setForeground(DARK_TEXT);
+        customPanel.add(groupingInput);
+
+        // SHOW STATS BUTTON
+        JButton statsBtn = new JButton("SHOW STATS");
+        statsBtn.setBackground(ACCENT_GOLD);
+        statsBtn.setForeground(DARK_TEXT);
+        statsBtn.setFont(MARVEL_FONT);
+        statsBtn.addActionListener(e -> handleAnalytics((String) groupingInput.getSelectedItem(), statsBtn));
+        customPanel.add(statsBtn);
+
+        // Release timeline (bucketed counts and ratings from the epoch-day index)
+        JPanel timelinePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        timelinePanel.setBorder(BorderFactory.createTitledBorder(
+                MARVEL_BORDER, "RELEASE TIMELINE",
+                javax.swing.border.TitledBorder.LEFT,
+                javax.swing.border.TitledBorder.TOP,
+                MARVEL_FONT, ACCENT_RED
+        ));
+        timelinePanel.setBackground(LIGHT_BG);
+
+        JLabel bucketLabel = new JLabel("Per:");
+        bucketLabel.setForeground(DARK_TEXT);
+        bucketLabel.setFont(MARVEL_FONT);
+        timelinePanel.add(bucketLabel);
+
+        JComboBox<TimeBucket> bucketInput = new JComboBox<>(TimeBucket.values());
+        bucketInput.setBackground(Color.WHITE);
+        bucketInput.setForeground(DARK_TEXT);
+        timelinePanel.add(bucketInput);
+
+        // SHOW TIMELINE BUTTON
+        JButton timelineBtn = new JButton("SHOW TIMELINE");
+        timelineBtn.setBackground(ACCENT_GOLD);
+        timelineBtn.setForeground(DARK_TEXT);
+        timelineBtn.setFont(MARVEL_FONT);
+        timelineBtn.addActionListener(e -> handleTimeline((TimeBucket) bucketInput.getSelectedItem(), timelineBtn));
+        timelinePanel.add(timelineBtn);
 
         JPanel rightCol = new JPanel();
         rightCol.setLayout(new BoxLayout(rightCol, BoxLayout.Y_AXIS));
@@ -316,6 +454,8 @@ public class DMSGui extends JFrame {
         rightCol.add(updatePanel);
         rightCol.add(Box.createVerticalStrut(6));
         rightCol.add(customPanel);
+        rightCol.add(Box.createVerticalStrut(6));
+        rightCol.add(timelinePanel);
 
         panel.add(form, BorderLayout.WEST);
         panel.add(rightCol, BorderLayout.EAST);
@@ -371,12 +511,16 @@ public class DMSGui extends JFrame {
             int runtime = Integer.parseInt(runtimeStr);
             double rating = Double.parseDouble(ratingStr);
 
-            boolean ok = manager.addMovie(title, date, phase, director, runtime, rating);
+            WriteResult result = manager.addMovie(title, date, phase, director, runtime, rating);
 
-            if (ok) {
+            if (result.isOk()) {
                 showInfo("Movie added successfully: " + title);
                 clearInputFields();
                 refreshTable();
+            } else if (result.isBusy()) {
+                showError("The database is busy (locked by another program). Please try again.");
+            } else if (result.getStatus() == WriteResult.Status.FAILED) {
+                showError("Failed to add movie because of a database error.");
             } else {
                 // This means MovieManager returned false, likely due to a duplicate title
                 showError("Failed to add movie. A movie with the title '" + title + "' may already exist.");
@@ -391,37 +535,164 @@ public class DMSGui extends JFrame {
 
     /**
      * Handles the 'BATCH LOAD (FILE)' button click.
-     * Prompts the user for a file path and calls the disabled {@link MovieManager#loadBatchData(String)}.
+     * Prompts the user for a CSV file and a {@link MergePolicy} for existing titles, and imports it via
+     * {@link MovieManager#loadBatchData(String, MergePolicy)}.
      */
     private void handleBatchLoad() {
         JFileChooser chooser = new JFileChooser();
-        chooser.setDialogTitle("Select movie data file (text)");
+        chooser.setDialogTitle("Select movie data file (CSV)");
         int res = chooser.showOpenDialog(this);
         if (res == JFileChooser.APPROVE_OPTION) {
             File f = chooser.getSelectedFile();
-            String result = manager.loadBatchData(f.getAbsolutePath());
+            MergePolicy policy = (MergePolicy) JOptionPane.showInputDialog(this, "Existing titles:", "Batch Load",
+                    JOptionPane.QUESTION_MESSAGE, null, MergePolicy.values(), MergePolicy.SKIP);
+            if (policy == null) return;
+            String result = manager.loadBatchData(f.getAbsolutePath(), policy);
             JOptionPane.showMessageDialog(this, result, "Batch Load", JOptionPane.INFORMATION_MESSAGE);
             refreshTable();
         }
     }
 
+    /**
+     * Handles the 'SHOW STATS' button click.
+     * Builds (or reuses) the analytics cube via {@link MovieManager#analytics()} on a background thread, then shows
+     * one table row per group with count, average/min/percentiles/max rating and runtime.
+     * @param grouping The selected entry of {@link #GROUPINGS}.
+     * @param button The button, disabled while the cube is built.
+     */
+    private void handleAnalytics(String grouping, JButton button) {
+        boolean byPhase = grouping.contains("Phase");
+        boolean byDirector = grouping.contains("Director");
+        boolean byYear = grouping.contains("Year");
+        button.setEnabled(false);
+        Thread worker = new Thread(() -> {
+            try {
+                List<MovieCube.Group> groups = manager.analytics().groups(byPhase, byDirector, byYear);
+                SwingUtilities.invokeLater(() -> {
+                    if (groups.isEmpty() || groups.get(0).getStats().getCount() == 0) {
+                        showInfo("No movies to analyze.");
+                        return;
+                    }
+                    List<String> columns = new ArrayList<>();
+                    if (byPhase) columns.add("Phase");
+                    if (byDirector) columns.add("Director");
+                    if (byYear) columns.add("Year");
+                    columns.addAll(List.of("Movies", "Avg Rating", "Min", "P50", "P90", "Max",
+                            "Avg Runtime", "Min", "P50", "P90", "Max"));
+                    DefaultTableModel model = new DefaultTableModel(columns.toArray(), 0) {
+                        @Override
+                        public boolean isCellEditable(int row, int column) { return false; }
+                    };
+                    for (MovieCube.Group g : groups) {
+                        MovieCube.Cell c = g.getStats();
+                        List<Object> row = new ArrayList<>();
+                        if (byPhase) row.add(g.getPhase());
+                        if (byDirector) row.add(g.getDirector());
+                        if (byYear) row.add(g.getYear());
+                        row.addAll(List.of(c.getCount(),
+                                String.format("%.2f", c.getAverageRating()), c.getMinRating(), c.getRatingPercentile(50), c.getRatingPercentile(90), c.getMaxRating(),
+                                String.format("%.1f", c.getAverageRuntime()), c.getMinRuntime(), c.getRuntimePercentile(50), c.getRuntimePercentile(90), c.getMaxRuntime()));
+                        model.addRow(row.toArray());
+                    }
+                    JTable table = new JTable(model);
+                    table.setAutoCreateRowSorter(true);
+                    JScrollPane scroll = new JScrollPane(table);
+                    scroll.setPreferredSize(new Dimension(900, 400));
+                    JOptionPane.showMessageDialog(this, scroll, "STATISTICS BY " + grouping.toUpperCase(), JOptionPane.PLAIN_MESSAGE);
+                });
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> showError("Could not compute the statistics: " + e.getMessage()));
+            } finally {
+                SwingUtilities.invokeLater(() -> button.setEnabled(true));
+            }
+        }, "analytics");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Handles the 'SHOW TIMELINE' button click.
+     * Reads the release series from {@link MovieManager#releaseTimeline(MovieFilter)} on a background thread, then shows
+     * one table row per period with its releases, average rating, running totals and a sliding-window average.
+     * @param bucket The selected period length.
+     * @param button The button, disabled while the timeline is loaded.
+     */
+    private void handleTimeline(TimeBucket bucket, JButton button) {
+        int window = bucket.getDefaultWindow();
+        button.setEnabled(false);
+        Thread worker = new Thread(() -> {
+            try {
+                List<ReleaseTimeline.Point> points = manager.releaseTimeline(null).series(bucket, window);
+                SwingUtilities.invokeLater(() -> {
+                    if (points.isEmpty()) {
+                        showInfo("No dated releases to show.");
+                        return;
+                    }
+                    Object[] columns = {bucket.toString(), "Releases", "Avg Rating", "Total Releases", "Total Avg Rating",
+                            "Avg Rating (last " + window + ")"};
+                    DefaultTableModel model = new DefaultTableModel(columns, 0) {
+                        @Override
+                        public boolean isCellEditable(int row, int column) { return false; }
+                    };
+                    for (ReleaseTimeline.Point p : points) {
+                        model.addRow(new Object[]{p.getLabel(), p.getCount(),
+                                p.getCount() == 0 ? "" : String.format("%.2f", p.getAverageRating()),
+                                p.getCumulativeCount(), String.format("%.2f", p.getCumulativeAverageRating()),
+                                String.format("%.2f", p.getWindowAverageRating())});
+                    }
+                    JTable table = new JTable(model);
+                    JScrollPane scroll = new JScrollPane(table);
+                    scroll.setPreferredSize(new Dimension(800, 400));
+                    JOptionPane.showMessageDialog(this, scroll, "RELEASES PER " + bucket.toString().toUpperCase(), JOptionPane.PLAIN_MESSAGE);
+                });
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> showError("Could not load the release timeline: " + e.getMessage()));
+            } finally {
+                SwingUtilities.invokeLater(() -> button.setEnabled(true));
+            }
+        }, "release-timeline");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
     /**
      * Handles the 'DELETE SELECTED MOVIE' button click.
-     * Retrieves the title from the selected row in the JTable and calls {@link MovieManager#removeMovie(String)} after confirmation.
+     * Retrieves the titles of the selected rows in the JTable and, after confirmation, calls
+     * {@link MovieManager#removeMovie(String)} for one row or {@link MovieManager#removeMovies(java.util.Collection)} for several.
      */
     private void handleDeleteSelected() {
-        int sel = movieTable.getSelectedRow();
-        if (sel < 0) { showError("Select a row to delete."); return; }
-        String title = (String) tableModel.getValueAt(sel, 0);
-        int confirm = JOptionPane.showConfirmDialog(this, "DELETE movie \"" + title + "\"?", "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
-        if (confirm == JOptionPane.YES_OPTION) {
-            if (manager.removeMovie(title)) {
-                showInfo("Movie removed.");
-                refreshTable();
-            } else {
-                showError("Could not remove movie.");
+        int[] rows = movieTable.getSelectedRows();
+        if (rows.length == 0) { showError("Select a row to delete."); return; }
+        if (rows.length == 1) {
+            String title = (String) tableModel.getValueAt(rows[0], 0);
+            int confirm = JOptionPane.showConfirmDialog(this, "DELETE movie \"" + title + "\"?", "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (confirm == JOptionPane.YES_OPTION) {
+                WriteResult result = manager.removeMovie(title);
+                if (result.isOk()) {
+                    showInfo("Movie removed.");
+                    refreshTable();
+                } else if (result.isBusy()) {
+                    showError("The database is busy (locked by another program). Please try again.");
+                } else {
+                    showError("Could not remove movie.");
+                }
             }
+            return;
+        }
+
+        List<String> titles = new ArrayList<>(rows.length);
+        for (int row : rows) titles.add((String) tableModel.getValueAt(row, 0));
+        int confirm = JOptionPane.showConfirmDialog(this, "DELETE " + titles.size() + " selected movies?", "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (confirm != JOptionPane.YES_OPTION) return;
+
+        Map<String, Boolean> results = manager.removeMovies(titles);
+        if (results.isEmpty()) {
+            showError("Could not remove movies.");
+            return;
         }
+        long removed = results.values().stream().filter(Boolean::booleanValue).count();
+        showInfo(removed + " of " + titles.size() + " movies removed.");
+        refreshTable();
     }
 
     /**
@@ -439,6 +710,14 @@ public class DMSGui extends JFrame {
             return;
         }
 
+        fillFields(m);
+        showInfo("Movie found. Edit fields and click 'APPLY UPDATE' to save changes.");
+    }
+
+    /**
+     * Shows a movie in the input fields and remembers it (with its version) as the movie being edited.
+     */
+    private void fillFields(MarvelMovie m) {
         titleField.setText(m.getTitle());
         dateField.setText(m.getReleaseDate());
         phaseField.setText(String.valueOf(m.getPhase()));
@@ -446,14 +725,14 @@ public class DMSGui extends JFrame {
         runtimeField.setText(String.valueOf(m.getRunningTimeMin()));
         ratingField.setText(String.valueOf(m.getImdbRating()));
         movieBeingEdited = m;
-
-        showInfo("Movie found. Edit fields and click 'APPLY UPDATE' to save changes.");
     }
 
     /**
      * Handles the 'APPLY UPDATE' button click.
      * This method only runs if a movie is currently being edited ({@code movieBeingEdited != null}).
-     * It validates the input and calls {@link MovieManager#updateMovieField(MarvelMovie, String, Object)} for each field that may have changed.
+     * It validates the input and saves all fields with {@link MovieManager#updateMovie(MarvelMovie, MarvelMovie)},
+     * which only succeeds if nobody changed the movie since it was found. On a conflict the user can load the latest
+     * values or overwrite them with their own.
      */
     private void handleUpdate() {
         if (movieBeingEdited == null) {
@@ -476,28 +755,57 @@ public class DMSGui extends JFrame {
             int runtime = Integer.parseInt(runtimeField.getText().trim());
             double rating = Double.parseDouble(ratingField.getText().trim());
 
-            // Update individual fields by comparing current field value to the original movieBeingEdited object.
-            // If the manager returns false at any point, the chain short-circuits.
-            boolean ok = manager.updateMovieField(movieBeingEdited, "title", title)
-                    && manager.updateMovieField(movieBeingEdited, "releaseDate", date)
-                    && manager.updateMovieField(movieBeingEdited, "phase", phase)
-                    && manager.updateMovieField(movieBeingEdited, "director", director)
-                    && manager.updateMovieField(movieBeingEdited, "runningTimeMin", runtime)
-                    && manager.updateMovieField(movieBeingEdited, "imdbRating", rating);
-
-            if (ok) {
-                showInfo("Movie updated successfully.");
-                movieBeingEdited = null;
-                clearInputFields();
-                refreshTable();
-            } else {
-                showError("Update failed. The movie manager returned false (e.g., failed to find or save).");
+            // All fields are written in one versioned update, checked against the version read by Find
+            MarvelMovie changes = new MarvelMovie(title, date, phase, director, runtime, rating);
+            VersionedWrite result = manager.updateMovie(movieBeingEdited, changes);
+
+            switch (result.getStatus()) {
+                case APPLIED:
+                    showInfo("Movie updated successfully.");
+                    movieBeingEdited = null;
+                    clearInputFields();
+                    refreshTable();
+                    break;
+                case CONFLICT:
+                    resolveConflict(result.getCurrent());
+                    break;
+                case NOT_FOUND:
+                    showError("Update failed. \"" + movieBeingEdited.getTitle() + "\" was deleted by another user.");
+                    movieBeingEdited = null;
+                    clearInputFields();
+                    refreshTable();
+                    break;
+                default:
+                    showError("Update failed. The movie manager returned false (e.g., duplicate title or failed to save).");
             }
         } catch (Exception ex) {
             showError("A critical error occurred during update processing.");
         }
     }
 
+    /**
+     * Handles a version conflict on 'APPLY UPDATE': another user saved the movie after it was found. The user either
+     * loads the latest values (discarding their edits) or keeps their edits, which the next 'APPLY UPDATE' then saves
+     * over the latest version.
+     */
+    private void resolveConflict(MarvelMovie latest) {
+        Object[] options = {"Load Latest", "Keep My Edits"};
+        int choice = JOptionPane.showOptionDialog(this,
+                "\"" + latest.getTitle() + "\" was changed by another user since you opened it.\n"
+                        + "Latest: " + latest.getReleaseDate() + ", phase " + latest.getPhase() + ", " + latest.getDirector()
+                        + ", " + latest.getRunningTimeMin() + " min, rating " + latest.getImdbRating() + "\n\n"
+                        + "Load the latest values, or keep your edits and click 'APPLY UPDATE' again to overwrite them?",
+                "Edit Conflict", JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[0]);
+        if (choice == 0) {
+            fillFields(latest);
+            showInfo("Latest values loaded.");
+        } else {
+            // The next update is checked against the version the user has now seen
+            movieBeingEdited = latest;
+        }
+        refreshTable();
+    }
+
     // ---------- VALIDATION UTILITY METHODS (RATING CHECK ALIGNED with 1.0) ----------
 
     /**
@@ -510,17 +818,8 @@ public class DMSGui extends JFrame {
         if (dateStr == null || dateStr.trim().isEmpty()) {
             return false;
         }
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            LocalDate date = LocalDate.parse(dateStr.trim(), formatter);
-
-            // Year Range Constraint: 1900-2025
-            int year = date.getYear();
-            return (year >= 1900 && year <= 2025);
-
-        } catch (DateTimeParseException e) {
-            return false;
-        }
+        // Real calendar date in YYYY-MM-DD form, within 1900-01-01 .. 2025-12-31
+        return IsoDate.isValidReleaseDate(dateStr.trim());
     }
 
     /**
@@ -625,27 +924,15 @@ public class DMSGui extends JFrame {
      * Clears the JTable and repopulates it with the current movie data fetched from the database via {@link MovieManager#getMovies()}.
      */
     private void refreshTable() {
-        // Clear all previous rows
-        tableModel.setRowCount(0);
+        refreshGeneration++;
+
+        // Read the data version first, so the rows can later be saved as a snapshot of exactly this version
+        loadedVersion = manager.getDataVersion();
 
         // Manager's getMovies() method now queries the database and returns
         // a List of MarvelMovie objects (or an empty list on failure/no results).
-        List<MarvelMovie> currentMovies = manager.getMovies();
-
-        if (currentMovies != null && !currentMovies.isEmpty()) {
-            for (MarvelMovie m : currentMovies) {
-                // Populate the table model with data retrieved from the database
-                tableModel.addRow(new Object[]{
-                        m.getTitle(),
-                        m.getReleaseDate(),
-                        m.getPhase(),
-                        m.getDirector(),
-                        m.getRunningTimeMin(),
-                        m.getImdbRating()
-                });
-            }
-        }
-        // If currentMovies is empty, the table is cleared, which is the correct behavior.
+        // If it is empty, the table is cleared, which is the correct behavior.
+        tableModel.setMovies(manager.getMovies());
     }
 
     /**
@@ -0,0 +1,397 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * A concurrent, purely in-memory implementation of {@link MovieStore}.
+ * Movies are kept in a {@link ConcurrentSkipListMap} ordered by title, plus a secondary
+ * {@link ConcurrentSkipListSet} ordered by (release epoch day, title) that backs release-date
+ * ranges and {@link MovieSort#RELEASE_DATE} ordering, and one ordered by (rating descending, title) that
+ * answers {@link MovieSort#RATING} pages in O(log n + k). The other ranked orders use a bounded heap ({@link TopK}).
+ *
+ * <p>Role in System: Alternative storage engine for tests, benchmarks and database-free runs.
+ * Reads never lock and see a weakly consistent view; writes are serialized so both indexes always
+ * change together. The store keeps its own copies of movies, so callers can never mutate stored rows. Every
+ * stored movie carries a version (1 when inserted, plus one per write), checked atomically under the write lock by
+ * {@link #update(String, long, MarvelMovie)} and {@link #delete(String, long)}.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class InMemoryMovieStore implements MovieStore {
+
+    // Sorts after every real title, for index bounds
+    private static final String MAX_TITLE = String.valueOf(Character.MAX_VALUE);
+
+    private static final Comparator<MarvelMovie> BY_RELEASE =
+            Comparator.comparingInt(MarvelMovie::getReleaseEpochDay).thenComparing(MarvelMovie::getTitle);
+
+    private final ConcurrentSkipListMap<String, MarvelMovie> byTitle = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<MarvelMovie> byRelease = new ConcurrentSkipListSet<>(BY_RELEASE);
+    private final ConcurrentSkipListSet<MarvelMovie> byRating = new ConcurrentSkipListSet<>(MovieSort.RATING.comparator());
+    private final StringDictionary directorNames = new StringDictionary();
+    private final Object writeLock = new Object();
+
+    @Override
+    public boolean insert(MarvelMovie movie) {
+        synchronized (writeLock) {
+            if (byTitle.containsKey(movie.getTitle())) return false;
+            put(copyOf(movie, 1));
+            return true;
+        }
+    }
+
+    @Override
+    public boolean insert(MarvelMovie movie, long version) {
+        synchronized (writeLock) {
+            if (byTitle.containsKey(movie.getTitle())) return false;
+            put(copyOf(movie, version));
+            return true;
+        }
+    }
+
+    @Override
+    public int insertAll(Collection<MarvelMovie> movies) {
+        int inserted = 0;
+        synchronized (writeLock) {
+            for (MarvelMovie movie : movies) {
+                if (byTitle.containsKey(movie.getTitle())) continue;
+                put(copyOf(movie, 1));
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public MergeResult merge(Collection<MarvelMovie> movies, MergePolicy policy) {
+        long inserted = 0, updated = 0, skipped = 0;
+        synchronized (writeLock) {
+            for (MarvelMovie movie : movies) {
+                MarvelMovie current = byTitle.get(movie.getTitle());
+                if (current == null) {
+                    put(copyOf(movie, 1));
+                    inserted++;
+                } else if (policy.replaces(current, movie)) {
+                    remove(current);
+                    put(copyOf(movie, current.getVersion() + 1));
+                    updated++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        return new MergeResult(inserted, updated, skipped);
+    }
+
+    @Override
+    public boolean update(String title, String column, Object value) {
+        synchronized (writeLock) {
+            MarvelMovie current = byTitle.get(title);
+            if (current == null) return false;
+
+            // Stored rows are replaced, never mutated, so lock-free readers never see a half-updated movie
+            MarvelMovie next = copyOf(current, current.getVersion() + 1);
+            if (column.equals("title") && byTitle.containsKey(value)) return false;
+            if (!MovieStore.setColumn(next, column, value)) return false;
+            next.setDirector(directorNames.intern(next.getDirector()));
+            remove(current);
+            put(next);
+            return true;
+        }
+    }
+
+    @Override
+    public VersionedWrite update(String title, long expectedVersion, MarvelMovie values) {
+        synchronized (writeLock) {
+            MarvelMovie current = byTitle.get(title);
+            if (current == null) return VersionedWrite.notFound();
+            if (current.getVersion() != expectedVersion) return VersionedWrite.conflict(copyOf(current));
+            if (!title.equals(values.getTitle()) && byTitle.containsKey(values.getTitle())) return VersionedWrite.failed();
+            MarvelMovie next = copyOf(values, current.getVersion() + 1);
+            remove(current);
+            put(next);
+            return VersionedWrite.applied(next.getVersion());
+        }
+    }
+
+    @Override
+    public boolean delete(String title) {
+        synchronized (writeLock) {
+            MarvelMovie current = byTitle.get(title);
+            if (current == null) return false;
+            remove(current);
+            return true;
+        }
+    }
+
+    @Override
+    public VersionedWrite delete(String title, long expectedVersion) {
+        synchronized (writeLock) {
+            MarvelMovie current = byTitle.get(title);
+            if (current == null) return VersionedWrite.notFound();
+            if (current.getVersion() != expectedVersion) return VersionedWrite.conflict(copyOf(current));
+            remove(current);
+            return VersionedWrite.applied(expectedVersion);
+        }
+    }
+
+    @Override
+    public Map<String, Boolean> deleteAll(Collection<String> titles) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        synchronized (writeLock) {
+            for (String title : titles) {
+                if (results.containsKey(title)) continue;
+                MarvelMovie current = byTitle.get(title);
+                if (current != null) remove(current);
+                results.put(title, current != null);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            byTitle.clear();
+            byRelease.clear();
+            byRating.clear();
+        }
+    }
+
+    @Override
+    public MarvelMovie find(String title) {
+        MarvelMovie movie = byTitle.get(title);
+        return movie == null ? null : copyOf(movie);
+    }
+
+    @Override
+    public long scan(MovieFilter filter, MovieSort sort, RowVisitor visitor) throws IOException {
+        long rows = 0;
+        Iterable<MarvelMovie> source = candidates(filter, sort);
+        if (source == null) source = sortedMatches(filter, sort);
+        for (MarvelMovie m : source) {
+            if (!filter.matches(m)) continue;
+            visitor.row(m.getTitle(), m.getReleaseDate(), m.getPhase(), m.getDirector(), m.getRunningTimeMin(), m.getImdbRating());
+            rows++;
+        }
+        return rows;
+    }
+
+    @Override
+    public List<MarvelMovie> page(MovieFilter filter, MovieSort sort, int offset, int limit) {
+        List<MarvelMovie> movies = new ArrayList<>();
+        Iterable<MarvelMovie> source = candidates(filter, sort);
+        if (source == null) {
+            // No index in this order: keep only the first offset + limit matches in a bounded heap
+            TopK top = new TopK(sort.comparator(), (int) Math.min(Integer.MAX_VALUE, (long) offset + limit));
+            for (MarvelMovie m : candidates(filter, null)) {
+                if (filter.matches(m)) top.offer(m);
+            }
+            List<MarvelMovie> ranked = top.sorted();
+            for (int i = offset; i < ranked.size(); i++) movies.add(copyOf(ranked.get(i)));
+            return movies;
+        }
+        int skipped = 0;
+        for (MarvelMovie m : source) {
+            if (movies.size() >= limit) break;
+            if (!filter.matches(m)) continue;
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            movies.add(copyOf(m));
+        }
+        return movies;
+    }
+
+    @Override
+    public MovieStats aggregate(MovieFilter filter) {
+        long count = 0;
+        double ratingSum = 0.0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        long runtimeSum = 0;
+        for (MarvelMovie m : candidates(filter, null)) {
+            if (!filter.matches(m)) continue;
+            double r = m.getImdbRating();
+            count++;
+            ratingSum += r;
+            runtimeSum += m.getRunningTimeMin();
+            min = Math.min(min, r);
+            max = Math.max(max, r);
+        }
+        if (count == 0) return MovieStats.empty();
+        return new MovieStats(count, ratingSum / count, min, max, (double) runtimeSum / count);
+    }
+
+    /**
+     * Answers the query from the best-matching index: exact titles by lookup, the rating index for a
+     * rating order, the release-date index for a release-date order or range, otherwise the title map
+     * (narrowed to a title range or prefix). Rows read from an index in the query's own order stop at the limit;
+     * otherwise a bounded heap keeps the best rows.
+     */
+    @Override
+    public List<MarvelMovie> query(MovieQuery query) {
+        List<MarvelMovie> result;
+        List<String> titles = query.exactValues(MovieColumn.TITLE);
+        if (titles != null) {
+            List<MarvelMovie> rows = new ArrayList<>();
+            for (String title : new LinkedHashSet<>(titles)) {
+                MarvelMovie m = byTitle.get(title);
+                if (m != null) rows.add(m);
+            }
+            result = query.evaluate(rows, false);
+        } else if (query.isOrderedBy(MovieSort.RATING)) {
+            result = query.evaluate(ratingRows(query), true);
+        } else if (query.isOrderedBy(MovieSort.RELEASE_DATE)
+                || (!query.isOrderedBy(MovieSort.TITLE) && query.range(MovieColumn.RELEASE_DATE) != null)) {
+            result = query.evaluate(releaseRows(query), query.isOrderedBy(MovieSort.RELEASE_DATE));
+        } else {
+            result = query.evaluate(titleRows(query), query.isOrderedBy(MovieSort.TITLE));
+        }
+        List<MarvelMovie> movies = new ArrayList<>(result.size());
+        for (MarvelMovie m : result) movies.add(copyOf(m));
+        return movies;
+    }
+
+    // ---------- HELPERS ----------
+
+    private Iterable<MarvelMovie> titleRows(MovieQuery query) {
+        MovieQuery.Range<String> range = query.range(MovieColumn.TITLE);
+        String low = range == null ? null : range.low;
+        boolean lowInclusive = range == null || range.lowInclusive;
+        MarvelMovie cursor = query.isOrderedBy(MovieSort.TITLE) ? query.getCursor() : null;
+        if (cursor != null && (low == null || cursor.getTitle().compareTo(low) >= 0)) {
+            low = cursor.getTitle();
+            lowInclusive = false;
+        }
+        String high = range == null ? null : range.high;
+        boolean highInclusive = range == null || range.highInclusive;
+
+        NavigableMap<String, MarvelMovie> rows = byTitle;
+        if (low != null && high != null) {
+            if (low.compareTo(high) > 0) return new ArrayList<>();
+            rows = byTitle.subMap(low, lowInclusive, high, highInclusive);
+        } else if (low != null) {
+            rows = byTitle.tailMap(low, lowInclusive);
+        } else if (high != null) {
+            rows = byTitle.headMap(high, highInclusive);
+        }
+        return rows.values();
+    }
+
+    private Iterable<MarvelMovie> ratingRows(MovieQuery query) {
+        // The rating index runs from the highest rating down: the upper bound is where iteration starts
+        MovieQuery.Range<Double> range = query.range(MovieColumn.RATING);
+        MarvelMovie from = range == null || range.high == null ? null : probe("", null, range.high);
+        boolean fromInclusive = true;
+        MarvelMovie cursor = query.getCursor();
+        if (cursor != null && (from == null || byRating.comparator().compare(cursor, from) >= 0)) {
+            from = cursor;
+            fromInclusive = false;
+        }
+        MarvelMovie to = range == null || range.low == null ? null : probe(MAX_TITLE, null, range.low);
+        return between(byRating, from, fromInclusive, to);
+    }
+
+    private Iterable<MarvelMovie> releaseRows(MovieQuery query) {
+        MovieQuery.Range<String> range = query.range(MovieColumn.RELEASE_DATE);
+        int fromDay = range == null || range.low == null ? IsoDate.INVALID : IsoDate.parseEpochDay(range.low);
+        int toDay = range == null || range.high == null ? IsoDate.INVALID : IsoDate.parseEpochDay(range.high);
+        MarvelMovie from = fromDay == IsoDate.INVALID ? null : probe("", IsoDate.format(fromDay), 0.0);
+        boolean fromInclusive = true;
+        MarvelMovie cursor = query.isOrderedBy(MovieSort.RELEASE_DATE) ? query.getCursor() : null;
+        if (cursor != null && (from == null || BY_RELEASE.compare(cursor, from) >= 0)) {
+            from = cursor;
+            fromInclusive = false;
+        }
+        MarvelMovie to = toDay == IsoDate.INVALID ? null : probe(MAX_TITLE, IsoDate.format(toDay), 0.0);
+        return between(byRelease, from, fromInclusive, to);
+    }
+
+    /**
+     * A view of an index between two rows (null = unbounded); the upper bound is inclusive.
+     */
+    private static NavigableSet<MarvelMovie> between(NavigableSet<MarvelMovie> index, MarvelMovie from, boolean fromInclusive,
+                                                      MarvelMovie to) {
+        if (from != null && to != null) {
+            if (index.comparator().compare(from, to) > 0) return new ConcurrentSkipListSet<>(index.comparator());
+            return index.subSet(from, fromInclusive, to, true);
+        }
+        if (from != null) return index.tailSet(from, fromInclusive);
+        if (to != null) return index.headSet(to, true);
+        return index;
+    }
+
+    /**
+     * A probe row for index bounds: an empty title sorts before, and {@link #MAX_TITLE} after, every real title.
+     */
+    private static MarvelMovie probe(String title, String releaseDate, double rating) {
+        return new MarvelMovie(title, releaseDate == null ? IsoDate.format(0) : releaseDate, 0, "", 0, rating);
+    }
+
+    /**
+     * Picks the index to iterate: the release-date index when the order requires it or allows it
+     * ({@code sort == null} means any order) and a release range narrows the scan to a sub-range,
+     * the rating index for {@link MovieSort#RATING}, otherwise the title map.
+     * @return The rows in the requested order, or null if no index provides that order.
+     */
+    private Iterable<MarvelMovie> candidates(MovieFilter filter, MovieSort sort) {
+        if (sort == MovieSort.RATING) return byRating;
+        if (sort == MovieSort.RUNTIME || sort == MovieSort.NEWEST) return null;
+        Integer from = filter.getFromEpochDay();
+        if (sort == MovieSort.RELEASE_DATE || (sort == null && from != null)) {
+            if (from == null) return byRelease;
+            return releaseRange(from, filter.getToEpochDay());
+        }
+        return byTitle.values();
+    }
+
+    private List<MarvelMovie> sortedMatches(MovieFilter filter, MovieSort sort) {
+        List<MarvelMovie> rows = new ArrayList<>();
+        for (MarvelMovie m : candidates(filter, null)) {
+            if (filter.matches(m)) rows.add(m);
+        }
+        rows.sort(sort.comparator());
+        return rows;
+    }
+
+    private NavigableSet<MarvelMovie> releaseRange(int fromEpochDay, int toEpochDay) {
+        if (fromEpochDay > toEpochDay) return new ConcurrentSkipListSet<>(BY_RELEASE);
+        // Probe rows sort before (empty title) and after (max title) every real row of the boundary days
+        MarvelMovie low = probe("", IsoDate.format(fromEpochDay), 0.0);
+        MarvelMovie high = probe(MAX_TITLE, IsoDate.format(toEpochDay), 0.0);
+        return byRelease.subSet(low, true, high, true);
+    }
+
+    private void put(MarvelMovie movie) {
+        byTitle.put(movie.getTitle(), movie);
+        byRelease.add(movie);
+        byRating.add(movie);
+    }
+
+    private void remove(MarvelMovie movie) {
+        byTitle.remove(movie.getTitle());
+        byRelease.remove(movie);
+        byRating.remove(movie);
+    }
+
+    private MarvelMovie copyOf(MarvelMovie m) {
+        return copyOf(m, m.getVersion());
+    }
+
+    private MarvelMovie copyOf(MarvelMovie m, long version) {
+        MarvelMovie copy = new MarvelMovie(m.getTitle(), m.getReleaseDate(), m.getPhase(),
+                directorNames.intern(m.getDirector()), m.getRunningTimeMin(), m.getImdbRating());
+        copy.setVersion(version);
+        return copy;
+    }
+}
@@ -2,12 +2,12 @@ import javax.swing.*;
 import java.awt.*;
 import javax.swing.border.EmptyBorder;
 import java.io.File; // Needed for path validation
-import java.sql.Connection; // Needed for connection test
 
 /**
  * The initial screen for the Marvel Movie DMS application.
  * This class handles the critical initial setup, including prompting the user for the
- * absolute path to the database file and testing the connection before launching the main GUI.
+ * absolute path to the database file. Driver loading, the connection test, the schema check and the first
+ * data page run in the background ({@link StartupLoader}) while this screen is shown.
  *
  * <p>Role in System: Application Entry Point and Database Setup.</p>
  *
@@ -24,11 +24,23 @@ public class IntroScreen extends JFrame {
     private static final Font SUBTITLE_FONT = new Font("Arial", Font.ITALIC, 16);
     private static final Font BUTTON_FONT = new Font("Dialog", Font.BOLD, 18);
 
+    // Background startup work begun in main (null when the screen is created without it)
+    private final StartupLoader loader;
+
+    /**
+     * Constructs the IntroScreen GUI without background startup work; the main window then loads its data itself.
+     */
+    public IntroScreen() {
+        this(null);
+    }
+
     /**
      * Constructs the IntroScreen GUI, setting up the layout, colors, and the 'BEGIN ACCESS' button.
      * The button's action relies on the database being successfully configured in the static main method.
+     * @param loader The running startup loader whose results the main window reuses (may be null).
      */
-    public IntroScreen() {
+    public IntroScreen(StartupLoader loader) {
+        this.loader = loader;
         setTitle("M.C.U. Data Access Terminal");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(500, 300);
@@ -81,7 +93,7 @@ public class IntroScreen extends JFrame {
             // 2. Launch the main application GUI
             SwingUtilities.invokeLater(() -> {
                 // Since the DB path is set in main, DMSGui can now be created.
-                DMSGui gui = new DMSGui();
+                DMSGui gui = new DMSGui(loader);
                 gui.setVisible(true);
             });
         });
@@ -93,7 +105,8 @@ public class IntroScreen extends JFrame {
     /**
      * The application's entry point.
      * This method contains the main application flow: database path prompting, file validation,
-     * connection testing via {@link JDBC}, and launching the main {@link IntroScreen} on success.
+     * starting the background driver load and connection test ({@link StartupLoader}), and showing the
+     * {@link IntroScreen} while those run. A failed connection test still ends the application.
      *
      * @param args Command line arguments (not used).
      */
@@ -132,29 +145,46 @@ public class IntroScreen extends JFrame {
             }
         }
 
-        try {
-            // 3. Set the path in the JDBC helper and load the driver
-            JDBC.setDatabasePath(dbFilePath);
+        StartupTimer.mark("database path entered");
 
-            // 4. Test the connection immediately for robustness
-            Connection con = JDBC.openConnection();
-            if (con != null) {
-                JDBC.closeConnection(con);
-                System.out.println("Database connection test successful.");
+        // 3. Set the path in the JDBC helper; the driver is loaded in the background
+        JDBC.configure(dbFilePath);
 
-                // 5. If connection is successful, launch the UI thread
-                SwingUtilities.invokeLater(() -> {
-                    IntroScreen intro = new IntroScreen();
-                    intro.setVisible(true);
-                });
-            } else {
+        // 4. Start the driver load, connection test, schema check and first data page concurrently
+        StartupLoader loader = StartupLoader.start(dbFilePath);
+        loader.connectionReady().whenComplete((ok, error) -> {
+            if (error != null) {
+                fatal("FATAL: SQLite JDBC Driver not found. Application cannot run. Exiting.", "Driver Missing");
+            } else if (!ok) {
                 // Connection failed even with a valid file path (e.g., DB file is corrupt or locked)
-                JOptionPane.showMessageDialog(null, "FATAL: Could not establish a database connection after setup. Check your SQLite JAR or file permissions. Exiting.", "Connection Failure", JOptionPane.ERROR_MESSAGE);
-                System.exit(1);
+                fatal("FATAL: Could not establish a database connection after setup. Check your SQLite JAR or file permissions. Exiting.", "Connection Failure");
+            } else {
+                System.out.println("Database connection test successful.");
             }
-        } catch (ClassNotFoundException e) {
-            JOptionPane.showMessageDialog(null, "FATAL: SQLite JDBC Driver not found. Application cannot run. Exiting.", "Driver Missing", JOptionPane.ERROR_MESSAGE);
+        });
+        loader.schemaChecked().whenComplete((valid, error) -> {
+            if (error == null && !valid) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                        "Warning: The selected database has no 'movies' table. Records cannot be loaded or saved.",
+                        "Schema Warning", JOptionPane.WARNING_MESSAGE));
+            }
+        });
+
+        // 5. Meanwhile, build and show the intro screen on the UI thread
+        SwingUtilities.invokeLater(() -> {
+            IntroScreen intro = new IntroScreen(loader);
+            intro.setVisible(true);
+            StartupTimer.mark("intro screen shown");
+        });
+    }
+
+    /**
+     * Shows a fatal startup error on the UI thread and exits.
+     */
+    private static void fatal(String message, String title) {
+        SwingUtilities.invokeLater(() -> {
+            JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE);
             System.exit(1);
-        }
+        });
     }
 }
\ No newline at end of file
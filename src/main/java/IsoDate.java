@@ -0,0 +1,183 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Allocation-free validation and conversion of {@code YYYY-MM-DD} release dates.
+ * Dates are represented as epoch days (days since 1970-01-01, the same numbering as {@link java.time.LocalDate#toEpochDay()}),
+ * which sort and compare as plain integers.
+ *
+ * <p>Role in System: Shared date helper used by {@link MovieManager}, {@link BulkCsvImporter} and the UI validators,
+ * replacing per-call {@code LocalDate.parse} with a hand-written parser that never throws or allocates.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class IsoDate {
+
+    /** Returned by the parse methods when the input is not a real {@code YYYY-MM-DD} date. */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    /** The earliest accepted release date (1900-01-01) as an epoch day. */
+    public static final int MIN_RELEASE_EPOCH_DAY = epochDay(1900, 1, 1);
+
+    /** The latest accepted release date (2025-12-31) as an epoch day. */
+    public static final int MAX_RELEASE_EPOCH_DAY = epochDay(2025, 12, 31);
+
+    /**
+     * Private constructor to prevent instantiation, as this is a utility class.
+     */
+    private IsoDate() {
+    }
+
+    /**
+     * Checks that a string is a real {@code YYYY-MM-DD} date within the accepted release range (1900-2025).
+     * @param text The date string.
+     * @return true if the date is well-formed, exists in the calendar and lies in range.
+     */
+    public static boolean isValidReleaseDate(CharSequence text) {
+        int day = parseEpochDay(text);
+        return day != INVALID && day >= MIN_RELEASE_EPOCH_DAY && day <= MAX_RELEASE_EPOCH_DAY;
+    }
+
+    /**
+     * Parses a {@code YYYY-MM-DD} string to an epoch day.
+     * @param text The date string (exactly ten characters, no surrounding whitespace).
+     * @return The epoch day, or {@link #INVALID} if the text is malformed or not a real calendar date.
+     */
+    public static int parseEpochDay(CharSequence text) {
+        if (text == null || text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') return INVALID;
+        int year = digits(text.charAt(0), text.charAt(1), text.charAt(2), text.charAt(3));
+        int month = digits(text.charAt(5), text.charAt(6));
+        int day = digits(text.charAt(8), text.charAt(9));
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Parses a {@code YYYY-MM-DD} date stored as ASCII bytes in a buffer, using absolute reads only.
+     * @param buf The buffer holding the bytes.
+     * @param from The index of the first character (inclusive).
+     * @param to The index after the last character (exclusive).
+     * @return The epoch day, or {@link #INVALID} if the bytes are not a real calendar date.
+     */
+    public static int parseEpochDay(ByteBuffer buf, int from, int to) {
+        if (to - from != 10 || buf.get(from + 4) != '-' || buf.get(from + 7) != '-') return INVALID;
+        int year = digits((char) buf.get(from), (char) buf.get(from + 1), (char) buf.get(from + 2), (char) buf.get(from + 3));
+        int month = digits((char) buf.get(from + 5), (char) buf.get(from + 6));
+        int day = digits((char) buf.get(from + 8), (char) buf.get(from + 9));
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Formats an epoch day back to {@code YYYY-MM-DD}.
+     * @param epochDay The epoch day.
+     * @return The ISO date string.
+     */
+    public static String format(int epochDay) {
+        char[] out = new char[10];
+        format(epochDay, out, 0);
+        return new String(out);
+    }
+
+    /**
+     * Writes an epoch day as {@code YYYY-MM-DD} into a caller-supplied array, so loops can reuse one buffer.
+     * @param epochDay The epoch day.
+     * @param out The array receiving the ten characters.
+     * @param offset The index of the first character.
+     */
+    public static void format(int epochDay, char[] out, int offset) {
+        // Civil-from-days as in civil(int, int[]), with the fields kept in locals
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        out[offset] = (char) ('0' + year / 1000);
+        out[offset + 1] = (char) ('0' + year / 100 % 10);
+        out[offset + 2] = (char) ('0' + year / 10 % 10);
+        out[offset + 3] = (char) ('0' + year % 10);
+        out[offset + 4] = '-';
+        out[offset + 5] = (char) ('0' + month / 10);
+        out[offset + 6] = (char) ('0' + month % 10);
+        out[offset + 7] = '-';
+        out[offset + 8] = (char) ('0' + day / 10);
+        out[offset + 9] = (char) ('0' + day % 10);
+    }
+
+    /**
+     * Returns the calendar year of an epoch day, without allocating (it runs in the timeline and cube loops).
+     * @param epochDay The epoch day.
+     * @return The four-digit year.
+     */
+    public static int year(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        // Years start in March here, so January and February (mp 10 and 11) belong to the next calendar year
+        int mp = (5 * doy + 2) / 153;
+        return yoe + era * 400 + (mp >= 10 ? 1 : 0);
+    }
+
+    /**
+     * Converts a (proleptic Gregorian) calendar date to an epoch day without validating it.
+     * @param year The year.
+     * @param month The month (1-12).
+     * @param day The day of month (1-31).
+     * @return The number of days since 1970-01-01.
+     */
+    public static int epochDay(int year, int month, int day) {
+        // Days-from-civil algorithm: shift the year to start in March so leap days fall at the end.
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * Converts an epoch day to {@code {year, month, day}} (inverse of {@link #epochDay(int, int, int)}).
+     * @param epochDay The epoch day.
+     * @param out A three-element array receiving year, month and day.
+     */
+    public static void civil(int epochDay, int[] out) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        out[0] = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        out[1] = month;
+        out[2] = day;
+    }
+
+    private static int toEpochDay(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) return INVALID;
+        return epochDay(year, month, day);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(char a, char b) {
+        int hi = a - '0', lo = b - '0';
+        return (hi | lo | (9 - hi) | (9 - lo)) < 0 ? -1 : hi * 10 + lo;
+    }
+
+    private static int digits(char a, char b, char c, char d) {
+        int hi = digits(a, b), lo = digits(c, d);
+        return (hi | lo) < 0 ? -1 : hi * 100 + lo;
+    }
+}
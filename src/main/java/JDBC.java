@@ -1,5 +1,7 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
@@ -7,15 +9,83 @@ import java.sql.SQLException;
  * This class handles driver loading, creating the JDBC connection string, and providing
  * reusable methods for opening and safely closing database connections.
  *
- * <p>Role in System: Provides the essential database access layer, used exclusively by the MovieManager.</p>
+ * <p>Role in System: Provides the essential database access layer, used exclusively by the MovieManager.
+ * {@link #retry(SqlCall)} and {@link #withConnection(SqlWork)} run database work under the configured
+ * {@link RetryPolicy}, so a database locked by another process is waited for instead of failing the call.</p>
+ *
+ * <p>Connection lanes: work runs on pooled connections of one of two {@link Lane}s. The write lane switches the
+ * database to WAL journaling, so the read lane's connections (opened {@code SQLITE_OPEN_READONLY} with
+ * {@code PRAGMA query_only}) read the last committed data without waiting for a writer, and a long import never
+ * stalls the GUI's queries. Each lane has its own pool size ({@link #setPoolSizes(int, int)}). The static methods
+ * work against one default {@link SqliteDatabase}; other files get their own instance.</p>
  *
  * @author [Ramirez,Christopher]
  * @version 1.0
  */
 public class JDBC {
 
-    // Private static variable to hold the database file path (URL) once set.
-    private static String dbPath;
+    // How calls react to SQLITE_BUSY / SQLITE_LOCKED, and how they fared
+    private static volatile RetryPolicy retryPolicy = RetryPolicy.defaults();
+    private static final RetryMetrics retryMetrics = new RetryMetrics();
+
+    // The database the static methods work against; its file is set with configure()
+    private static final SqliteDatabase defaultDatabase = new SqliteDatabase(null);
+
+    // Why the calling thread's last retry() failed (BUSY or FAILED), or null if it succeeded
+    private static final ThreadLocal<WriteResult.Status> lastFailure = new ThreadLocal<>();
+
+    /**
+     * The kind of connection a piece of database work needs.
+     */
+    public enum Lane {
+        /** Read-only connections ({@code SQLITE_OPEN_READONLY}, {@code PRAGMA query_only}); never take the write lock. */
+        READ,
+        /** Read-write connections; the first one switches the database to WAL journaling. */
+        WRITE
+    }
+
+    /**
+     * Database work that needs one connection.
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        /**
+         * Does the work.
+         * @param con An open connection.
+         * @return The result.
+         * @throws SQLException If a statement fails.
+         */
+        T run(Connection con) throws SQLException;
+    }
+
+    /**
+     * One attempt of a database call that manages its own connection.
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    public interface SqlCall<T> {
+        /**
+         * Makes the attempt.
+         * @return The result.
+         * @throws SQLException If the attempt fails.
+         */
+        T call() throws SQLException;
+    }
+
+    /**
+     * Receives the progress of {@link #backup(Connection, String, int, BackupProgress)} after every copy step, on
+     * the copying thread; the next step starts when it returns.
+     */
+    @FunctionalInterface
+    public interface BackupProgress {
+        /**
+         * Reports a finished step.
+         * @param remaining Pages still to copy.
+         * @param total Pages in the database.
+         */
+        void stepped(int remaining, int total);
+    }
 
     /**
      * Private constructor to prevent instantiation, as this is a utility class
@@ -32,7 +102,16 @@ public class JDBC {
      * @throws ClassNotFoundException If the {@code org.sqlite.JDBC} driver is not found in the classpath.
      */
     public static void setDatabasePath(String filePath) throws ClassNotFoundException {
-        // 1. Load the SQLite JDBC Driver
+        loadDriver();
+        configure(filePath);
+    }
+
+    /**
+     * Loads the SQLite JDBC driver. Separate from {@link #configure(String)} so startup can load it on a
+     * background thread while the UI is built (see {@link StartupLoader}).
+     * @throws ClassNotFoundException If the {@code org.sqlite.JDBC} driver is not found in the classpath.
+     */
+    public static void loadDriver() throws ClassNotFoundException {
         try {
             Class.forName("org.sqlite.JDBC");
             System.out.println("SQLite JDBC Driver loaded successfully.");
@@ -42,10 +121,31 @@ public class JDBC {
             e.printStackTrace();
             throw e; // Re-throw the exception so IntroScreen can handle the failure.
         }
+    }
 
-        // 2. Format the path into a proper JDBC connection string
-        JDBC.dbPath = "jdbc:sqlite:" + filePath;
-        System.out.println("Database URL set to: " + JDBC.dbPath);
+    /**
+     * Sets the database file path without loading the driver.
+     * Connections can be opened once {@link #loadDriver()} has completed.
+     * @param filePath The absolute path to the SQLite database file.
+     */
+    public static void configure(String filePath) {
+        defaultDatabase.setFile(filePath);
+        System.out.println("Database URL set to: jdbc:sqlite:" + filePath);
+    }
+
+    /**
+     * Returns the database file path configured with {@link #setDatabasePath(String)}.
+     * @return The file path, or {@code null} if no path has been set.
+     */
+    public static String getDatabaseFile() {
+        return defaultDatabase.getFile();
+    }
+
+    /**
+     * @return The database the static methods work against (the file set with {@link #configure(String)}).
+     */
+    public static SqliteDatabase getDefaultDatabase() {
+        return defaultDatabase;
     }
 
     /**
@@ -54,25 +154,223 @@ public class JDBC {
      * @return A valid {@code Connection} object, or {@code null} if the connection fails due to a locked, missing, or corrupt database file.
      */
     public static Connection openConnection() {
-        if (dbPath == null) {
+        return openConnection(Lane.WRITE);
+    }
+
+    /**
+     * Opens and returns a new, unpooled {@link java.sql.Connection} of a lane, e.g. for a long-lived connection
+     * that caches prepared statements. The caller closes it with {@link #closeConnection(Connection)}.
+     * @param lane The lane.
+     * @return A valid {@code Connection} object, or {@code null} if the connection fails.
+     */
+    public static Connection openConnection(Lane lane) {
+        if (defaultDatabase.getFile() == null) {
             // Path must be set first. This is a check against programmer error.
             System.err.println("ERROR: Database path has not been set. Call setDatabasePath() first.");
             return null;
         }
 
-        Connection connection = null;
         try {
-            // DriverManager will use the loaded driver to establish the connection
-            connection = DriverManager.getConnection(dbPath);
-            return connection;
+            return defaultDatabase.openConnection(lane);
         } catch (SQLException e) {
             // Catch specific errors related to connection (e.g., file not found, corrupt DB)
-            System.err.println("Connection Failed: Could not connect to database at " + dbPath);
+            System.err.println("Connection Failed: Could not connect to database at " + defaultDatabase.getFile());
             e.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * Runs work on a write-lane connection of the default database; see {@link #withConnection(Lane, SqlWork)}.
+     * @param work The work.
+     * @param <T> The result type.
+     * @return The work's result.
+     * @throws SQLException The last attempt's exception, if every attempt failed.
+     */
+    public static <T> T withConnection(SqlWork<T> work) throws SQLException {
+        return withConnection(Lane.WRITE, work);
+    }
+
+    /**
+     * Runs work on a pooled connection of the default database; see
+     * {@link SqliteDatabase#withConnection(Lane, SqlWork)}.
+     * @param lane The lane; {@link Lane#READ} work must not write.
+     * @param work The work.
+     * @param <T> The result type.
+     * @return The work's result.
+     * @throws SQLException The last attempt's exception, if every attempt failed.
+     */
+    public static <T> T withConnection(Lane lane, SqlWork<T> work) throws SQLException {
+        return defaultDatabase.withConnection(lane, work);
+    }
+
+    /**
+     * Runs a database call, retrying it while it fails with {@code SQLITE_BUSY} or {@code SQLITE_LOCKED}: each retry
+     * waits the policy's exponential backoff with jitter, until the maximum attempts or the deadline is reached. Any
+     * other exception is rethrown at once. The outcome is recorded in {@link #getRetryMetrics()} and, for the calling
+     * thread, in {@link #takeLastFailure()}.
+     * @param call One attempt of the call.
+     * @param <T> The result type.
+     * @return The call's result.
+     * @throws SQLException The last attempt's exception, if the call did not succeed.
+     */
+    public static <T> T retry(SqlCall<T> call) throws SQLException {
+        RetryPolicy policy = retryPolicy;
+        long deadline = System.nanoTime() + policy.getDeadlineMillis() * 1_000_000L;
+        long backoff = 0;
+        lastFailure.remove();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = call.call();
+                retryMetrics.record(attempt, backoff, null);
+                return result;
+            } catch (SQLException e) {
+                if (!RetryPolicy.isRetryable(e)) {
+                    fail(attempt, backoff, WriteResult.Status.FAILED);
+                    throw e;
+                }
+                long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+                long delay = Math.min(policy.backoffMillis(attempt), remaining);
+                if (attempt >= policy.getMaxAttempts() || remaining <= 0) {
+                    fail(attempt, backoff, WriteResult.Status.BUSY);
+                    throw e;
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    fail(attempt, backoff, WriteResult.Status.BUSY);
+                    throw e;
+                }
+                backoff += delay;
+            }
+        }
+    }
+
+    private static void fail(int attempts, long backoff, WriteResult.Status failure) {
+        retryMetrics.record(attempts, backoff, failure);
+        lastFailure.set(failure);
+    }
+
+    /**
+     * Returns and clears why the calling thread's last {@link #retry(SqlCall)} failed.
+     * @return {@link WriteResult.Status#BUSY} if the database stayed locked, {@link WriteResult.Status#FAILED} for any
+     * other error, or null if it succeeded (or nothing was recorded since the last call).
+     */
+    public static WriteResult.Status takeLastFailure() {
+        WriteResult.Status failure = lastFailure.get();
+        lastFailure.remove();
+        return failure;
+    }
+
+    /**
+     * Sets the retry policy for calls started from now on (connections opened from now on use its busy timeout).
+     * @param policy The policy; null restores {@link RetryPolicy#defaults()}.
+     */
+    public static void setRetryPolicy(RetryPolicy policy) {
+        // Each database reopens its pooled connections with the new busy timeout on its next call
+        retryPolicy = policy == null ? RetryPolicy.defaults() : policy;
+    }
+
+    /**
+     * @return The current retry policy.
+     */
+    public static RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Resizes the default database's connection pools; see {@link SqliteDatabase#setPoolSizes(int, int)}.
+     * @param readers The number of read connections that can be in use at once; at least 1.
+     * @param writers The number of write connections that can be in use at once; at least 1.
+     */
+    public static void setPoolSizes(int readers, int writers) {
+        defaultDatabase.setPoolSizes(readers, writers);
+    }
+
+    /**
+     * Closes the default database's pooled connections, e.g. before the file is moved or deleted.
+     */
+    public static void closeIdleConnections() {
+        defaultDatabase.closeIdleConnections();
+    }
+
+    /**
+     * @param lane A lane.
+     * @return The default database's pool for the lane, e.g. to read its counters.
+     */
+    public static ConnectionPool getPool(Lane lane) {
+        return defaultDatabase.getPool(lane);
+    }
+
+    /**
+     * @return The retry counters of all calls made through {@link #retry(SqlCall)}.
+     */
+    public static RetryMetrics getRetryMetrics() {
+        return retryMetrics;
+    }
+
+    /**
+     * Copies a connection's main database into a file with SQLite's online backup API, a number of pages per step.
+     * The driver is only known at run time, so its backup call is looked up by name.
+     * @param con An open connection of the SQLite driver.
+     * @param file The destination file, created or overwritten.
+     * @param pagesPerStep Pages copied per step, or -1 for all in one step.
+     * @param progress Called after every step, or null.
+     * @throws SQLException If the driver has no backup API or the copy failed.
+     */
+    public static void backup(Connection con, String file, int pagesPerStep, BackupProgress progress) throws SQLException {
+        copyPages(con, "backup", file, pagesPerStep, progress);
+    }
+
+    /**
+     * Replaces a connection's main database with the contents of a database file, using SQLite's online backup API
+     * in the other direction. The whole copy holds the write lock.
+     * @param con An open, read-write connection of the SQLite driver.
+     * @param file The file to copy from.
+     * @throws SQLException If the driver has no backup API or the copy failed.
+     */
+    public static void restore(Connection con, String file) throws SQLException {
+        copyPages(con, "restore", file, -1, null);
+    }
+
+    /**
+     * Calls {@code backup} or {@code restore(dbName, file, observer, sleepMillis, busyRetries, pagesPerStep)} on the
+     * driver's native database handle.
+     */
+    private static void copyPages(Connection con, String direction, String file, int pagesPerStep, BackupProgress progress)
+            throws SQLException {
+        Object handle;
+        Method copy;
+        Object observer = null;
+        try {
+            Object sqlite = con.unwrap(Class.forName("org.sqlite.SQLiteConnection"));
+            handle = sqlite.getClass().getMethod("getDatabase").invoke(sqlite);
+            Class<?> observerType = Class.forName("org.sqlite.core.DB$ProgressObserver");
+            copy = Class.forName("org.sqlite.core.DB").getMethod(direction,
+                    String.class, String.class, observerType, int.class, int.class, int.class);
+            if (progress != null) {
+                observer = Proxy.newProxyInstance(JDBC.class.getClassLoader(), new Class<?>[]{observerType}, (proxy, method, args) -> {
+                    if (method.getName().equals("progress")) progress.stepped((Integer) args[0], (Integer) args[1]);
+                    return method.getDeclaringClass() == Object.class ? method.invoke(progress, args) : null;
+                });
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("The SQLite driver does not support online " + direction + ": " + e, e);
+        }
+        int rc;
+        try {
+            // Wait up to 3 x 100 ms for a locked destination before giving up
+            rc = (Integer) copy.invoke(handle, "main", file, observer, 100, 3, pagesPerStep);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            throw new SQLException("Online " + direction + " failed: " + e.getCause(), e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new SQLException("The SQLite driver does not support online " + direction + ": " + e, e);
+        }
+        if (rc != 0) throw new SQLException("Online " + direction + " stopped with SQLite code " + rc, null, rc);
+    }
+
     /**
      * Closes the provided database connection safely, suppressing any {@link java.sql.SQLException}.
      * @param connection The {@code Connection} object to be closed.
@@ -0,0 +1,1024 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only, log-structured implementation of {@link MovieStore} for write-heavy ingest.
+ * Every write appends a binary record to a single log file through a {@link FileChannel}; nothing is
+ * ever rewritten in place. An in-memory hash index maps each live title to the offset of its latest record
+ * and is rebuilt by replaying the log on startup.
+ *
+ * <p>File layout: an 8-byte magic number, then records of the form
+ * {@code [int bodyLength][int crc32(body)][body]}, where the body is a type byte followed by
+ * {@code PUT(title, releaseEpochDay, phase, director, runningTimeMin, imdbRating)} or {@code DELETE(title)}.
+ * Strings are stored as an unsigned 16-bit byte length plus UTF-8 bytes. A torn record at the end of the file
+ * (crash during a write) fails its checksum and is truncated away on the next startup.</p>
+ *
+ * <p>Durability: with {@code syncEachWrite} enabled, a write returns only once the log is forced to disk.
+ * Concurrent writers share one {@code fsync} (group commit): whichever writer starts the sync covers every
+ * record appended before it, and the others just wait for it. A batch insert is forced once.</p>
+ *
+ * <p>Compaction: overwritten and deleted records become garbage. A low-priority background thread rewrites the
+ * live records into a fresh file once garbage exceeds the configured ratio, then atomically renames it over the
+ * log. Writers are only blocked while the records appended during the rewrite are copied over.</p>
+ *
+ * <p>Versions: a movie's version ({@link MarvelMovie#getVersion()}, as returned by {@link #find(String)}) is the
+ * offset of its latest record, which every write moves to the end of the log. {@link #update(String, long, MarvelMovie)}
+ * and {@link #delete(String, long)} compare it under the write lock. Compaction moves records too, so an edit read
+ * before a compaction reports a conflict and has to be re-read, but never overwrites a newer record.</p>
+ *
+ * <p>Role in System: Alternative storage engine behind {@link MovieManager#MovieManager(MovieStore)}.
+ * Point lookups are one positional read; scans read the log sequentially and keep only live records,
+ * and see a weakly consistent view while writes run concurrently.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class LogMovieStore implements MovieStore, Closeable {
+
+    private static final long MAGIC = 0x4D444D534C4F4731L; // "MDMSLOG1"
+    private static final int FILE_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    // Index entries pack the record offset and its total length into one long
+    private static final int LENGTH_BITS = 20;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final int IO_BUFFER_SIZE = 1 << 20;
+
+    // Compaction policy defaults
+    private static final double DEFAULT_GARBAGE_RATIO = 0.5;
+    private static final long COMPACTION_MIN_BYTES = 1L << 20;
+    private static final long COMPACTION_CHECK_SECONDS = 5;
+
+    private final Path path;
+    private final Path compactPath;
+    private final boolean syncEachWrite;
+    private final double garbageRatio;
+    private final StringDictionary directorNames = new StringDictionary();
+
+    // Serializes appends; guards end, deadBytes and the encode buffer
+    private final Object writeLock = new Object();
+    // Readers hold the read side while using the channel; compaction and clear swap it under the write side
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Only one compaction (or clear) at a time
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    // Group commit state
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private volatile long appendSeq;
+    private long durableSeq;
+    private boolean syncing;
+
+    private volatile FileChannel channel;
+    private volatile ConcurrentHashMap<String, Long> index = new ConcurrentHashMap<>();
+    private volatile long end;
+    private long deadBytes;
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(64 * 1024);
+
+    private final ScheduledExecutorService compactor;
+
+    /**
+     * Opens (or creates) a log with group fsync on every write and background compaction at 50% garbage.
+     * @param path The log file.
+     * @throws IOException If the file cannot be opened or is not a movie log.
+     */
+    public LogMovieStore(Path path) throws IOException {
+        this(path, true, DEFAULT_GARBAGE_RATIO);
+    }
+
+    /**
+     * Opens (or creates) a log and rebuilds the index by replaying it.
+     * @param path The log file.
+     * @param syncEachWrite true to force every write to disk before returning (group commit), false to leave it to the OS.
+     * @param garbageRatio The fraction of dead bytes that triggers background compaction, or 0 to disable it.
+     * @throws IOException If the file cannot be opened or is not a movie log.
+     */
+    public LogMovieStore(Path path, boolean syncEachWrite, double garbageRatio) throws IOException {
+        this.path = path;
+        this.compactPath = path.resolveSibling(path.getFileName() + ".compact");
+        this.syncEachWrite = syncEachWrite;
+        this.garbageRatio = garbageRatio;
+
+        // A leftover rewrite from an interrupted compaction is incomplete; the original log is still intact
+        Files.deleteIfExists(compactPath);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            recover();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        if (garbageRatio > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "movie-log-compactor");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+            compactor.scheduleWithFixedDelay(this::compactIfNeeded, COMPACTION_CHECK_SECONDS, COMPACTION_CHECK_SECONDS, TimeUnit.SECONDS);
+        } else {
+            compactor = null;
+        }
+    }
+
+    // ---------- WRITES ----------
+
+    @Override
+    public boolean insert(MarvelMovie movie) {
+        byte[] title = utf8(movie.getTitle());
+        byte[] director = utf8(movie.getDirector());
+        if (!fits(title, director)) return false;
+
+        long seq;
+        synchronized (writeLock) {
+            if (index.containsKey(movie.getTitle())) return false;
+            ByteBuffer buf = encodeBuffer(putSize(title, director));
+            putRecord(buf, movie, title, director);
+            buf.flip();
+            long offset = end;
+            try {
+                seq = append(buf);
+            } catch (IOException e) {
+                System.err.println("Log write failed during insert: " + e.getMessage());
+                return false;
+            }
+            index.put(movie.getTitle(), entry(offset, buf.limit()));
+        }
+        return awaitDurable(seq);
+    }
+
+    /**
+     * Appends the whole batch under one lock with large sequential writes, and forces the log once at the end.
+     */
+    @Override
+    public int insertAll(Collection<MarvelMovie> movies) {
+        int inserted = 0;
+        long seq = 0;
+        synchronized (writeLock) {
+            ByteBuffer buf = encodeBuffer(IO_BUFFER_SIZE);
+            Map<String, Long> pending = new LinkedHashMap<>();
+            try {
+                for (MarvelMovie movie : movies) {
+                    String key = movie.getTitle();
+                    if (index.containsKey(key) || pending.containsKey(key)) continue;
+                    byte[] title = utf8(key);
+                    byte[] director = utf8(movie.getDirector());
+                    if (!fits(title, director)) continue;
+
+                    int size = putSize(title, director);
+                    if (buf.remaining() < size) {
+                        seq = flushBatch(buf, pending);
+                        inserted += pending.size();
+                        pending.clear();
+                    }
+                    pending.put(key, entry(end + buf.position(), size));
+                    putRecord(buf, movie, title, director);
+                }
+                if (!pending.isEmpty()) {
+                    seq = flushBatch(buf, pending);
+                    inserted += pending.size();
+                }
+            } catch (IOException e) {
+                System.err.println("Log write failed during insertAll: " + e.getMessage());
+            }
+        }
+        if (seq > 0) awaitDurable(seq);
+        return inserted;
+    }
+
+    /**
+     * Appends the new and replaced records of the whole batch under one lock with large sequential writes, and
+     * forces the log once at the end. Existing records are only read when the policy needs their values, and titles
+     * the policy keeps append nothing.
+     */
+    @Override
+    public MergeResult merge(Collection<MarvelMovie> movies, MergePolicy policy) {
+        long inserted = 0, updated = 0, skipped = 0;
+        long seq = 0;
+        synchronized (writeLock) {
+            ByteBuffer buf = encodeBuffer(IO_BUFFER_SIZE);
+            Map<String, Long> pending = new LinkedHashMap<>();
+            // Lengths of the records the pending batch replaces, counted as garbage once it is written
+            long pendingDead = 0;
+            try {
+                for (MarvelMovie movie : movies) {
+                    String key = movie.getTitle();
+                    if (pending.containsKey(key)) {
+                        // Merge against the earlier version from this batch, so it must be in the log first
+                        seq = flushBatch(buf, pending);
+                        deadBytes += pendingDead;
+                        pending.clear();
+                        pendingDead = 0;
+                    }
+                    Long old = index.get(key);
+                    if (old != null) {
+                        boolean replace = policy == MergePolicy.OVERWRITE
+                                || (policy != MergePolicy.SKIP && policy.replaces(read(old), movie));
+                        if (!replace) {
+                            skipped++;
+                            continue;
+                        }
+                    }
+                    byte[] title = utf8(key);
+                    byte[] director = utf8(movie.getDirector());
+                    if (!fits(title, director)) {
+                        skipped++;
+                        continue;
+                    }
+
+                    int size = putSize(title, director);
+                    if (buf.remaining() < size) {
+                        seq = flushBatch(buf, pending);
+                        deadBytes += pendingDead;
+                        pending.clear();
+                        pendingDead = 0;
+                    }
+                    pending.put(key, entry(end + buf.position(), size));
+                    putRecord(buf, movie, title, director);
+                    if (old == null) {
+                        inserted++;
+                    } else {
+                        pendingDead += lengthOf(old);
+                        updated++;
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    seq = flushBatch(buf, pending);
+                    deadBytes += pendingDead;
+                }
+            } catch (IOException e) {
+                System.err.println("Log write failed during merge: " + e.getMessage());
+                return null;
+            }
+        }
+        if (seq > 0 && !awaitDurable(seq)) return null;
+        return new MergeResult(inserted, updated, skipped);
+    }
+
+    private long flushBatch(ByteBuffer buf, Map<String, Long> pending) throws IOException {
+        buf.flip();
+        long seq = append(buf);
+        index.putAll(pending);
+        buf.clear();
+        return seq;
+    }
+
+    /**
+     * Appends a new version of the record (see {@link #replace(String, long, MarvelMovie)}).
+     */
+    @Override
+    public boolean update(String title, String column, Object value) {
+        long seq;
+        synchronized (writeLock) {
+            Long old = index.get(title);
+            if (old == null) return false;
+            MarvelMovie movie = read(old);
+            if (movie == null) return false;
+
+            if (column.equals("title") && index.containsKey(value)) return false;
+            if (!MovieStore.setColumn(movie, column, value)) return false;
+            seq = replace(title, old, movie);
+            if (seq < 0) return false;
+        }
+        return awaitDurable(seq);
+    }
+
+    @Override
+    public VersionedWrite update(String title, long expectedVersion, MarvelMovie values) {
+        long seq, version;
+        synchronized (writeLock) {
+            Long old = index.get(title);
+            if (old == null) return VersionedWrite.notFound();
+            if (offsetOf(old) != expectedVersion) {
+                MarvelMovie current = read(old);
+                return current == null ? VersionedWrite.failed() : VersionedWrite.conflict(current);
+            }
+            if (!title.equals(values.getTitle()) && index.containsKey(values.getTitle())) return VersionedWrite.failed();
+            seq = replace(title, old, values);
+            if (seq < 0) return VersionedWrite.failed();
+            version = offsetOf(index.get(values.getTitle()));
+        }
+        return awaitDurable(seq) ? VersionedWrite.applied(version) : VersionedWrite.failed();
+    }
+
+    /**
+     * Appends the new record of a movie. A title change appends the renamed record and a delete marker for the old
+     * title in one write; the new record comes first, so a crash between them can leave both titles but never neither.
+     * Caller holds {@link #writeLock}.
+     * @return The append sequence number, or -1 if the write failed.
+     */
+    private long replace(String title, long old, MarvelMovie movie) {
+        boolean rename = !title.equals(movie.getTitle());
+        byte[] newTitle = utf8(movie.getTitle());
+        byte[] director = utf8(movie.getDirector());
+        byte[] oldTitle = utf8(title);
+        if (!fits(newTitle, director)) return -1;
+
+        int putSize = putSize(newTitle, director);
+        int deleteSize = rename ? deleteSize(oldTitle) : 0;
+        ByteBuffer buf = encodeBuffer(putSize + deleteSize);
+        putRecord(buf, movie, newTitle, director);
+        if (rename) deleteRecord(buf, oldTitle);
+        buf.flip();
+
+        long offset = end;
+        long seq;
+        try {
+            seq = append(buf);
+        } catch (IOException e) {
+            System.err.println("Log write failed during update: " + e.getMessage());
+            return -1;
+        }
+        index.put(movie.getTitle(), entry(offset, putSize));
+        if (rename) index.remove(title);
+        deadBytes += lengthOf(old) + deleteSize;
+        return seq;
+    }
+
+    @Override
+    public boolean delete(String title) {
+        long seq;
+        synchronized (writeLock) {
+            Long old = index.get(title);
+            if (old == null) return false;
+            seq = appendDelete(title, old);
+            if (seq < 0) return false;
+        }
+        return awaitDurable(seq);
+    }
+
+    @Override
+    public VersionedWrite delete(String title, long expectedVersion) {
+        long seq;
+        synchronized (writeLock) {
+            Long old = index.get(title);
+            if (old == null) return VersionedWrite.notFound();
+            if (offsetOf(old) != expectedVersion) {
+                MarvelMovie current = read(old);
+                return current == null ? VersionedWrite.failed() : VersionedWrite.conflict(current);
+            }
+            seq = appendDelete(title, old);
+            if (seq < 0) return VersionedWrite.failed();
+        }
+        return awaitDurable(seq) ? VersionedWrite.applied(expectedVersion) : VersionedWrite.failed();
+    }
+
+    /**
+     * Appends a delete marker for a live title. Caller holds {@link #writeLock}.
+     * @return The append sequence number, or -1 if the write failed.
+     */
+    private long appendDelete(String title, long old) {
+        byte[] key = utf8(title);
+        ByteBuffer buf = encodeBuffer(deleteSize(key));
+        deleteRecord(buf, key);
+        buf.flip();
+        long seq;
+        try {
+            seq = append(buf);
+        } catch (IOException e) {
+            System.err.println("Log write failed during delete: " + e.getMessage());
+            return -1;
+        }
+        index.remove(title);
+        deadBytes += lengthOf(old) + buf.limit();
+        return seq;
+    }
+
+    /**
+     * Appends the delete records of the whole batch under one lock with large sequential writes,
+     * and forces the log once at the end.
+     */
+    @Override
+    public Map<String, Boolean> deleteAll(Collection<String> titles) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        long seq = 0;
+        synchronized (writeLock) {
+            ByteBuffer buf = encodeBuffer(IO_BUFFER_SIZE);
+            List<String> pending = new ArrayList<>();
+            try {
+                for (String title : titles) {
+                    if (results.containsKey(title)) continue;
+                    boolean live = index.containsKey(title);
+                    results.put(title, live);
+                    if (!live) continue;
+
+                    byte[] key = utf8(title);
+                    if (buf.remaining() < deleteSize(key)) {
+                        seq = flushDeletes(buf, pending);
+                        pending.clear();
+                    }
+                    deleteRecord(buf, key);
+                    pending.add(title);
+                }
+                if (!pending.isEmpty()) seq = flushDeletes(buf, pending);
+            } catch (IOException e) {
+                System.err.println("Log write failed during deleteAll: " + e.getMessage());
+                // The unflushed deletes never reached the log
+                for (String title : pending) results.put(title, false);
+            }
+        }
+        if (seq > 0 && !awaitDurable(seq)) return new LinkedHashMap<>();
+        return results;
+    }
+
+    private long flushDeletes(ByteBuffer buf, List<String> titles) throws IOException {
+        buf.flip();
+        long seq = append(buf);
+        long dead = buf.limit();
+        for (String title : titles) dead += lengthOf(index.remove(title));
+        deadBytes += dead;
+        buf.clear();
+        return seq;
+    }
+
+    @Override
+    public void clear() {
+        compactionLock.lock();
+        try {
+            synchronized (writeLock) {
+                swapLock.writeLock().lock();
+                try {
+                    channel.truncate(FILE_HEADER);
+                    channel.force(true);
+                    index.clear();
+                    end = FILE_HEADER;
+                    deadBytes = 0;
+                } catch (IOException e) {
+                    System.err.println("Log truncate failed during clear: " + e.getMessage());
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    // ---------- READS ----------
+
+    @Override
+    public MarvelMovie find(String title) {
+        swapLock.readLock().lock();
+        try {
+            Long e = index.get(title);
+            return e == null ? null : read(e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long scan(MovieFilter filter, MovieSort sort, RowVisitor visitor) throws IOException {
+        List<MarvelMovie> rows = collect(filter, sort);
+        if (rows == null) return -1;
+        for (MarvelMovie m : rows) {
+            visitor.row(m.getTitle(), m.getReleaseDate(), m.getPhase(), m.getDirector(), m.getRunningTimeMin(), m.getImdbRating());
+        }
+        return rows.size();
+    }
+
+    @Override
+    public List<MarvelMovie> page(MovieFilter filter, MovieSort sort, int offset, int limit) {
+        if (sort.isRanked()) {
+            // Keep only the first offset + limit matches in a bounded heap instead of sorting every live row
+            TopK top = new TopK(sort.comparator(), (int) Math.min(Integer.MAX_VALUE, (long) offset + limit));
+            if (!forEachLive(m -> {
+                if (filter.matches(m)) top.offer(m);
+            })) return new ArrayList<>();
+            List<MarvelMovie> ranked = top.sorted();
+            return offset >= ranked.size() ? new ArrayList<>() : new ArrayList<>(ranked.subList(offset, ranked.size()));
+        }
+        List<MarvelMovie> rows = collect(filter, sort);
+        if (rows == null || offset >= rows.size()) return new ArrayList<>();
+        int to = (int) Math.min(rows.size(), (long) offset + limit);
+        return new ArrayList<>(rows.subList(offset, to));
+    }
+
+    @Override
+    public List<MarvelMovie> query(MovieQuery query) {
+        // Only matching rows are kept; the query then orders and limits them
+        List<MarvelMovie> rows = new ArrayList<>();
+        if (!forEachLive(m -> {
+            if (query.matches(m)) rows.add(m);
+        })) return new ArrayList<>();
+        return query.evaluate(rows, false);
+    }
+
+    @Override
+    public MovieStats aggregate(MovieFilter filter) {
+        long[] counts = new long[2]; // rows, runtime sum
+        double[] ratings = {0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}; // sum, min, max
+        boolean ok = forEachLive(m -> {
+            if (!filter.matches(m)) return;
+            double r = m.getImdbRating();
+            counts[0]++;
+            counts[1] += m.getRunningTimeMin();
+            ratings[0] += r;
+            ratings[1] = Math.min(ratings[1], r);
+            ratings[2] = Math.max(ratings[2], r);
+        });
+        if (!ok || counts[0] == 0) return MovieStats.empty();
+        return new MovieStats(counts[0], ratings[0] / counts[0], ratings[1], ratings[2], (double) counts[1] / counts[0]);
+    }
+
+    // ---------- COMPACTION ----------
+
+    /**
+     * Rewrites the log now, keeping only live records.
+     * @return true if the log was compacted, false if another compaction is running or the rewrite failed.
+     */
+    public boolean compact() {
+        if (!compactionLock.tryLock()) return false;
+        try {
+            return rewrite();
+        } catch (IOException e) {
+            System.err.println("Log compaction failed: " + e.getMessage());
+            try {
+                Files.deleteIfExists(compactPath);
+            } catch (IOException ignored) {
+                // The next startup removes it.
+            }
+            return false;
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        long size = end;
+        long dead;
+        synchronized (writeLock) {
+            dead = deadBytes;
+        }
+        if (size >= COMPACTION_MIN_BYTES && dead > size * garbageRatio) compact();
+    }
+
+    /**
+     * Phase 1 copies the records that are live now, without blocking writers. Phase 2 blocks writers, copies the
+     * records appended meanwhile verbatim (replaying them so later overwrites and deletes still win), then swaps files.
+     */
+    private boolean rewrite() throws IOException {
+        ConcurrentHashMap<String, Long> newIndex = new ConcurrentHashMap<>();
+        try (FileChannel out = FileChannel.open(compactPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putLong(MAGIC).flip();
+            long outEnd = writeFully(out, header, 0);
+
+            // Phase 1: live records up to the current end
+            long copiedUpTo = end;
+            ByteBuffer batch = ByteBuffer.allocate(IO_BUFFER_SIZE);
+            Map<String, Long> pending = new LinkedHashMap<>();
+            RecordReader reader = new RecordReader(channel, FILE_HEADER, copiedUpTo);
+            while (reader.next()) {
+                if (reader.type() != PUT) continue;
+                String title = reader.title();
+                if (!Long.valueOf(entry(reader.offset, reader.length)).equals(index.get(title))) continue;
+                if (batch.remaining() < reader.length) {
+                    outEnd = writeFully(out, batch.flip(), outEnd);
+                    newIndex.putAll(pending);
+                    pending.clear();
+                    batch.clear();
+                }
+                pending.put(title, entry(outEnd + batch.position(), reader.length));
+                batch.put(reader.record());
+            }
+            outEnd = writeFully(out, batch.flip(), outEnd);
+            newIndex.putAll(pending);
+
+            // Phase 2: catch up with concurrent writes and swap
+            synchronized (writeLock) {
+                long tailStart = outEnd;
+                long tail = end - copiedUpTo;
+                long copied = 0;
+                while (copied < tail) {
+                    copied += channel.transferTo(copiedUpTo + copied, tail - copied, out.position(outEnd + copied));
+                }
+                outEnd += tail;
+                long newDead = replay(out, tailStart, outEnd, newIndex);
+                out.force(true);
+
+                swapLock.writeLock().lock();
+                try {
+                    Files.move(compactPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    FileChannel old = channel;
+                    syncLock.lock();
+                    try {
+                        while (syncing) synced.awaitUninterruptibly();
+                        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                        durableSeq = appendSeq; // the new file was forced above
+                    } finally {
+                        syncLock.unlock();
+                    }
+                    old.close();
+                    index = newIndex;
+                    end = outEnd;
+                    deadBytes = newDead;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            }
+        }
+        return true;
+    }
+
+    // ---------- STATISTICS ----------
+
+    /** @return The number of live movies. */
+    public int size() { return index.size(); }
+
+    /** @return The current log file size in bytes. */
+    public long getLogBytes() { return end; }
+
+    /** @return The bytes taken by overwritten and deleted records, reclaimable by compaction. */
+    public long getDeadBytes() {
+        synchronized (writeLock) {
+            return deadBytes;
+        }
+    }
+
+    /**
+     * Stops background compaction, forces the log to disk and closes it.
+     * @throws IOException If the final force or close fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) compactor.shutdownNow();
+        compactionLock.lock();
+        try {
+            synchronized (writeLock) {
+                channel.force(true);
+                channel.close();
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    // ---------- LOG I/O ----------
+
+    /**
+     * Validates the file header, replays every intact record into the index and truncates a torn tail.
+     */
+    private void recover() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            end = writeFully(channel, ByteBuffer.allocate(FILE_HEADER).putLong(MAGIC).flip(), 0);
+            channel.force(true);
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        if (channel.read(header, 0) != FILE_HEADER || header.getLong(0) != MAGIC) {
+            throw new IOException(path + " is not a movie log file");
+        }
+        long[] intactEnd = new long[1];
+        deadBytes = replay(channel, FILE_HEADER, size, index, intactEnd);
+        end = intactEnd[0];
+        if (end < size) {
+            System.err.println("Movie log " + path + ": discarding " + (size - end) + " bytes of incomplete records");
+            channel.truncate(end);
+            channel.force(true);
+        }
+    }
+
+    private static long replay(FileChannel ch, long from, long to, Map<String, Long> index) throws IOException {
+        return replay(ch, from, to, index, new long[1]);
+    }
+
+    /**
+     * Applies the records in {@code [from, to)} to the index.
+     * @return The dead bytes found; {@code intactEnd[0]} receives the offset after the last intact record.
+     */
+    private static long replay(FileChannel ch, long from, long to, Map<String, Long> index, long[] intactEnd) throws IOException {
+        long dead = 0;
+        RecordReader reader = new RecordReader(ch, from, to);
+        while (reader.next()) {
+            String title = reader.title();
+            Long old = reader.type() == PUT
+                    ? index.put(title, entry(reader.offset, reader.length))
+                    : index.remove(title);
+            if (old != null) dead += lengthOf(old);
+            if (reader.type() == DELETE) dead += reader.length;
+        }
+        intactEnd[0] = reader.intactEnd();
+        return dead;
+    }
+
+    /**
+     * Appends the buffer at the end of the log. Caller holds {@link #writeLock}.
+     * @return The sequence number to pass to {@link #awaitDurable(long)}.
+     */
+    private long append(ByteBuffer buf) throws IOException {
+        end = writeFully(channel, buf, end);
+        return ++appendSeq;
+    }
+
+    private static long writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) position += ch.write(buf, position);
+        return position;
+    }
+
+    /**
+     * Group commit: blocks until the append with the given sequence number is on disk. One caller forces the log on
+     * behalf of everyone who appended before the force started; the others wait for it instead of issuing their own.
+     * @return false if the force failed.
+     */
+    private boolean awaitDurable(long seq) {
+        if (!syncEachWrite) return true;
+        syncLock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = appendSeq;
+                FileChannel ch = channel;
+                boolean forced = false;
+                syncLock.unlock();
+                try {
+                    ch.force(false);
+                    forced = true;
+                } catch (IOException e) {
+                    System.err.println("Log fsync failed: " + e.getMessage());
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    if (forced) durableSeq = Math.max(durableSeq, target);
+                    synced.signalAll();
+                }
+                if (!forced) return false;
+            }
+            return true;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Reads one record via a positional read. Caller holds the swap read lock or {@link #writeLock}.
+     */
+    private MarvelMovie read(long entry) {
+        ByteBuffer buf = ByteBuffer.allocate((int) lengthOf(entry));
+        try {
+            long position = offsetOf(entry);
+            while (buf.hasRemaining()) {
+                int n = channel.read(buf, position + buf.position());
+                if (n < 0) throw new IOException("unexpected end of log");
+            }
+        } catch (IOException e) {
+            System.err.println("Log read failed: " + e.getMessage());
+            return null;
+        }
+        buf.position(RECORD_HEADER + 1);
+        MarvelMovie movie = decodePut(buf);
+        movie.setVersion(offsetOf(entry));
+        return movie;
+    }
+
+    /**
+     * Streams every live movie, in log order, to the consumer.
+     * @return false if the log could not be read.
+     */
+    private boolean forEachLive(Consumer<MarvelMovie> consumer) {
+        swapLock.readLock().lock();
+        try {
+            Map<String, Long> live = index;
+            RecordReader reader = new RecordReader(channel, FILE_HEADER, end);
+            while (reader.next()) {
+                if (reader.type() != PUT) continue;
+                String title = reader.title();
+                if (!Long.valueOf(entry(reader.offset, reader.length)).equals(live.get(title))) continue;
+                consumer.accept(decodePutAfterTitle(reader.buffer(), title));
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Log scan failed: " + e.getMessage());
+            return false;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private List<MarvelMovie> collect(MovieFilter filter, MovieSort sort) {
+        List<MarvelMovie> rows = new ArrayList<>();
+        if (!forEachLive(m -> {
+            if (filter.matches(m)) rows.add(m);
+        })) return null;
+        rows.sort(sort.comparator());
+        return rows;
+    }
+
+    // ---------- RECORD ENCODING ----------
+
+    private ByteBuffer encodeBuffer(int size) {
+        if (encodeBuffer.capacity() < size) encodeBuffer = ByteBuffer.allocate(size);
+        encodeBuffer.clear();
+        if (size < encodeBuffer.capacity()) encodeBuffer.limit(size);
+        return encodeBuffer;
+    }
+
+    private static int putSize(byte[] title, byte[] director) {
+        return RECORD_HEADER + 1 + 2 + title.length + 4 + 4 + 2 + director.length + 4 + 8;
+    }
+
+    private static int deleteSize(byte[] title) {
+        return RECORD_HEADER + 1 + 2 + title.length;
+    }
+
+    private static void putRecord(ByteBuffer buf, MarvelMovie m, byte[] title, byte[] director) {
+        int start = buf.position();
+        buf.position(start + RECORD_HEADER);
+        buf.put(PUT);
+        buf.putShort((short) title.length).put(title);
+        buf.putInt(m.getReleaseEpochDay());
+        buf.putInt(m.getPhase());
+        buf.putShort((short) director.length).put(director);
+        buf.putInt(m.getRunningTimeMin());
+        buf.putDouble(m.getImdbRating());
+        seal(buf, start);
+    }
+
+    private static void deleteRecord(ByteBuffer buf, byte[] title) {
+        int start = buf.position();
+        buf.position(start + RECORD_HEADER);
+        buf.put(DELETE);
+        buf.putShort((short) title.length).put(title);
+        seal(buf, start);
+    }
+
+    /**
+     * Fills in the length and checksum header of the record that starts at {@code start} and ends at the buffer position.
+     */
+    private static void seal(ByteBuffer buf, int start) {
+        int bodyLength = buf.position() - start - RECORD_HEADER;
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), start + RECORD_HEADER, bodyLength);
+        buf.putInt(start, bodyLength);
+        buf.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Decodes a PUT body whose type byte has already been consumed.
+     */
+    private MarvelMovie decodePut(ByteBuffer buf) {
+        String title = getString(buf);
+        return decodePutAfterTitle(buf, title);
+    }
+
+    private MarvelMovie decodePutAfterTitle(ByteBuffer buf, String title) {
+        int epochDay = buf.getInt();
+        int phase = buf.getInt();
+        String director = directorNames.intern(getString(buf));
+        int runtime = buf.getInt();
+        double rating = buf.getDouble();
+        return new MarvelMovie(title, IsoDate.format(epochDay), phase, director, runtime, rating);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int length = buf.getShort() & 0xFFFF;
+        String s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+        buf.position(buf.position() + length);
+        return s;
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean fits(byte[] title, byte[] director) {
+        if (title.length <= MAX_STRING_BYTES && director.length <= MAX_STRING_BYTES) return true;
+        System.err.println("Movie log: title or director longer than " + MAX_STRING_BYTES + " bytes");
+        return false;
+    }
+
+    private static long entry(long offset, long length) {
+        return (offset << LENGTH_BITS) | length;
+    }
+
+    private static long offsetOf(long entry) {
+        return entry >>> LENGTH_BITS;
+    }
+
+    private static long lengthOf(long entry) {
+        return entry & LENGTH_MASK;
+    }
+
+    /**
+     * Sequential reader over a byte range of the log that stops at the first incomplete or corrupt record.
+     */
+    private static final class RecordReader {
+        private final FileChannel ch;
+        private final long limit;
+        private final ByteBuffer buf = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        private long readPosition;
+        private int next;
+        private int bodyStart;
+
+        /** File offset and total length of the current record. */
+        long offset;
+        int length;
+
+        RecordReader(FileChannel ch, long from, long limit) {
+            this.ch = ch;
+            this.limit = limit;
+            this.readPosition = from;
+            buf.limit(0);
+        }
+
+        /**
+         * Advances to the next intact record.
+         * @return false at the end of the range or at the first torn/corrupt record.
+         */
+        boolean next() throws IOException {
+            buf.position(next);
+            if (!fill(RECORD_HEADER)) return false;
+            int p = buf.position();
+            int bodyLength = buf.getInt(p);
+            if (bodyLength <= 0 || RECORD_HEADER + bodyLength > LENGTH_MASK) return false;
+            if (!fill(RECORD_HEADER + bodyLength)) return false;
+            p = buf.position();
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), p + RECORD_HEADER, bodyLength);
+            if ((int) crc.getValue() != buf.getInt(p + 4)) return false;
+
+            offset = readPosition - buf.limit() + p;
+            length = RECORD_HEADER + bodyLength;
+            bodyStart = p + RECORD_HEADER;
+            next = p + length;
+            return true;
+        }
+
+        /** @return The file offset just past the last intact record returned by {@link #next()}. */
+        long intactEnd() {
+            return readPosition - buf.limit() + next;
+        }
+
+        byte type() {
+            return buf.get(bodyStart);
+        }
+
+        String title() {
+            buf.position(bodyStart + 1);
+            return getString(buf);
+        }
+
+        /** @return The read buffer, positioned just after the title once {@link #title()} has been called. */
+        ByteBuffer buffer() {
+            return buf;
+        }
+
+        /** @return A view of the whole current record (header included). */
+        ByteBuffer record() {
+            return buf.duplicate().limit(next).position(bodyStart - RECORD_HEADER);
+        }
+
+        /**
+         * Makes at least {@code bytes} bytes available from the current position, refilling the buffer from the file.
+         */
+        private boolean fill(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return true;
+            int shift = buf.position();
+            buf.compact();
+            next -= shift;
+            while (buf.hasRemaining() && readPosition < limit) {
+                int max = (int) Math.min(buf.remaining(), limit - readPosition);
+                ByteBuffer window = buf.duplicate();
+                window.limit(window.position() + max);
+                int n = ch.read(window, readPosition);
+                if (n < 0) break;
+                buf.position(buf.position() + n);
+                readPosition += n;
+            }
+            buf.flip();
+            return buf.remaining() >= bytes;
+        }
+    }
+}
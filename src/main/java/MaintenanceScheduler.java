@@ -0,0 +1,460 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a SQLite database in shape after heavy imports and deletes, which otherwise leave stale query-planner
+ * statistics and a file full of free pages. A low-priority background thread watches the write volume of a
+ * {@link MovieManager} and, once the database has been idle for a while, runs:
+ * <ul>
+ *   <li>{@code PRAGMA optimize} after any write,</li>
+ *   <li>{@code ANALYZE} (sampling at most {@value #ANALYSIS_LIMIT} rows per index) once enough rows changed since the
+ *       last run, or if the database has never been analyzed,</li>
+ *   <li>{@code PRAGMA incremental_vacuum} in steps of a few pages, each in its own short write transaction, until the
+ *       free pages are returned to the file system or a foreground call comes along (the rest waits for the next
+ *       idle period).</li>
+ * </ul>
+ *
+ * <p>Incremental vacuum needs {@code auto_vacuum = INCREMENTAL}, which SQLite only applies to an empty database or
+ * through one full {@code VACUUM}; {@link #enableIncrementalVacuum()} does that once, on request. Each run is
+ * described by a {@link Report}: file size, free pages, planner statistics and query plans before and after.</p>
+ *
+ * <p>Role in System: Maintenance service for the {@link SqliteDatabase} behind a {@link MovieManager}. Safe to use from
+ * many threads; maintenance runs one at a time.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class MaintenanceScheduler {
+
+    public static final long DEFAULT_CHECK_MILLIS = 1_000;
+    public static final long DEFAULT_IDLE_MILLIS = 5_000;
+    public static final long DEFAULT_ANALYZE_ROWS = 10_000;
+    public static final long DEFAULT_MIN_FREE_PAGES = 256;
+    public static final int DEFAULT_VACUUM_PAGES_PER_STEP = 128;
+
+    // Rows ANALYZE samples per index: approximate statistics in a bounded time, whatever the table size
+    private static final int ANALYSIS_LIMIT = 1000;
+
+    // Queries shaped like the store's filtered listings, whose plans show whether the statistics changed anything
+    private static final String[][] PLAN_PROBES = {
+            {"phase + rating", "SELECT title FROM movies WHERE phase = 3 AND imdbRating >= 8.0 ORDER BY imdbRating DESC LIMIT 20"},
+            {"director", "SELECT title FROM movies WHERE director = 'Director 1' ORDER BY title"},
+            {"rating + runtime", "SELECT title FROM movies WHERE imdbRating BETWEEN 7.0 AND 8.0 AND runningTimeMin > 150"}
+    };
+
+    private final MovieManager manager;
+    private final SqliteDatabase database;
+
+    private volatile long idleMillis = DEFAULT_IDLE_MILLIS;
+    private volatile long analyzeRows = DEFAULT_ANALYZE_ROWS;
+    private volatile long minFreePages = DEFAULT_MIN_FREE_PAGES;
+    private volatile int vacuumPagesPerStep = DEFAULT_VACUUM_PAGES_PER_STEP;
+
+    private ScheduledExecutorService scheduler;
+    private volatile Report lastReport;
+
+    // One maintenance run at a time; the fields below are only used under it
+    private final Object runLock = new Object();
+    private long seenWrites = -1;
+    private long lastActivityNanos;
+    private long rowsAtOptimize;
+    private long rowsAtAnalyze = -1;
+
+    /**
+     * The state of the database file and its planner statistics at one moment.
+     */
+    public static final class Stats {
+        private final long fileBytes;
+        private final long walBytes;
+        private final long pageSize;
+        private final long pages;
+        private final long freePages;
+        private final int autoVacuum;
+        private final Map<String, String> statistics;
+        private final Map<String, String> plans;
+
+        Stats(long fileBytes, long walBytes, long pageSize, long pages, long freePages, int autoVacuum,
+              Map<String, String> statistics, Map<String, String> plans) {
+            this.fileBytes = fileBytes;
+            this.walBytes = walBytes;
+            this.pageSize = pageSize;
+            this.pages = pages;
+            this.freePages = freePages;
+            this.autoVacuum = autoVacuum;
+            this.statistics = Collections.unmodifiableMap(statistics);
+            this.plans = Collections.unmodifiableMap(plans);
+        }
+
+        /** @return The size of the database file, in bytes. */
+        public long getFileBytes() { return fileBytes; }
+
+        /** @return The size of the write-ahead log ({@code -wal} file), in bytes. */
+        public long getWalBytes() { return walBytes; }
+
+        /** @return The page size in bytes. */
+        public long getPageSize() { return pageSize; }
+
+        /** @return The number of pages in the database. */
+        public long getPages() { return pages; }
+
+        /** @return The number of unused pages (space a vacuum can give back). */
+        public long getFreePages() { return freePages; }
+
+        /** @return The auto-vacuum mode: 0 none, 1 full, 2 incremental. */
+        public int getAutoVacuum() { return autoVacuum; }
+
+        /** @return The planner statistics ({@code sqlite_stat1}): "table.index" to its row and selectivity figures. */
+        public Map<String, String> getStatistics() { return statistics; }
+
+        /** @return The query plan of each probe query, by probe name. */
+        public Map<String, String> getPlans() { return plans; }
+    }
+
+    /**
+     * The outcome of one maintenance run.
+     */
+    public static final class Report {
+        private final List<String> tasks;
+        private final long vacuumedPages;
+        private final long millis;
+        private final Stats before;
+        private final Stats after;
+
+        Report(List<String> tasks, long vacuumedPages, long millis, Stats before, Stats after) {
+            this.tasks = Collections.unmodifiableList(tasks);
+            this.vacuumedPages = vacuumedPages;
+            this.millis = millis;
+            this.before = before;
+            this.after = after;
+        }
+
+        /** @return What ran, e.g. "optimize", "analyze", "incremental vacuum"; empty if nothing was due. */
+        public List<String> getTasks() { return tasks; }
+
+        /** @return The number of free pages given back to the file system. */
+        public long getVacuumedPages() { return vacuumedPages; }
+
+        /** @return The wall time of the run, in milliseconds. */
+        public long getMillis() { return millis; }
+
+        /** @return The database before the run. */
+        public Stats getBefore() { return before; }
+
+        /** @return The database after the run. */
+        public Stats getAfter() { return after; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(tasks.isEmpty() ? "nothing due" : String.join(", ", tasks)).append(" in ").append(millis).append(" ms");
+            sb.append(String.format("%n  file %,d -> %,d bytes, WAL %,d -> %,d bytes, pages %,d -> %,d, free pages %,d -> %,d",
+                    before.fileBytes, after.fileBytes, before.walBytes, after.walBytes, before.pages, after.pages,
+                    before.freePages, after.freePages));
+            if (after.autoVacuum != 2 && after.freePages > 0) {
+                sb.append(String.format("%n  free pages stay in the file: incremental vacuum is not enabled"));
+            }
+            sb.append(String.format("%n  statistics %d -> %d entries", before.statistics.size(), after.statistics.size()));
+            for (Map.Entry<String, String> e : after.statistics.entrySet()) {
+                String old = before.statistics.get(e.getKey());
+                if (!e.getValue().equals(old)) {
+                    sb.append(String.format("%n    %s: %s -> %s", e.getKey(), old == null ? "none" : old, e.getValue()));
+                }
+            }
+            for (Map.Entry<String, String> e : after.plans.entrySet()) {
+                String old = before.plans.get(e.getKey());
+                sb.append(String.format("%n  plan [%s]: %s", e.getKey(),
+                        e.getValue().equals(old) ? e.getValue() + " (unchanged)" : old + " -> " + e.getValue()));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Creates a scheduler. Nothing runs until {@link #start(long)} or {@link #runNow()}.
+     * @param manager The manager whose writes are watched.
+     * @param database The database behind the manager (e.g. {@link JDBC#getDefaultDatabase()}).
+     */
+    public MaintenanceScheduler(MovieManager manager, SqliteDatabase database) {
+        this.manager = manager;
+        this.database = database;
+    }
+
+    /**
+     * Sets when maintenance is due.
+     * @param idleMillis How long no write may have been made and no pooled connection been in use before a run.
+     * @param analyzeRows Rows written through the manager that make {@code ANALYZE} due again.
+     * @param minFreePages Free pages that make an incremental vacuum due.
+     * @param vacuumPagesPerStep Pages freed per vacuum step (one short write transaction each); at least 1.
+     */
+    public void setThresholds(long idleMillis, long analyzeRows, long minFreePages, int vacuumPagesPerStep) {
+        if (vacuumPagesPerStep < 1) throw new IllegalArgumentException("At least one page per step: " + vacuumPagesPerStep);
+        this.idleMillis = Math.max(0, idleMillis);
+        this.analyzeRows = Math.max(1, analyzeRows);
+        this.minFreePages = Math.max(1, minFreePages);
+        this.vacuumPagesPerStep = vacuumPagesPerStep;
+    }
+
+    /** @return The report of the last run that did something, or null if none has. */
+    public Report getLastReport() { return lastReport; }
+
+    /**
+     * Checks every {@code checkMillis} whether the database is idle and maintenance is due, on a low-priority
+     * background thread, replacing any earlier schedule.
+     * @param checkMillis The time between checks; at least 1.
+     */
+    public synchronized void start(long checkMillis) {
+        if (checkMillis < 1) throw new IllegalArgumentException("Interval must be positive: " + checkMillis);
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread t = new Thread(task, "db-maintenance");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the schedule. A run already in progress finishes its current step.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Runs every task now, without waiting for an idle period or the thresholds: optimize, analyze, and an incremental
+     * vacuum of all free pages (still in steps, so writers can get in between).
+     * @return The report, or null if the database could not be read.
+     */
+    public Report runNow() {
+        synchronized (runLock) {
+            Report report = maintain(true);
+            if (report != null) lastReport = report;
+            return report;
+        }
+    }
+
+    /**
+     * Switches the database to {@code auto_vacuum = INCREMENTAL}, which takes one full {@code VACUUM}: the file is
+     * rewritten while writers wait. Instant on an empty database; on a large one, do it at a quiet time.
+     * @return true if the database is now in incremental mode.
+     */
+    public boolean enableIncrementalVacuum() {
+        synchronized (runLock) {
+            try {
+                return database.withConnection(JDBC.Lane.WRITE, con -> {
+                    try (Statement stmt = con.createStatement()) {
+                        if (queryLong(stmt, "PRAGMA auto_vacuum") == 2) return true;
+                        stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                        stmt.execute("VACUUM");
+                        return queryLong(stmt, "PRAGMA auto_vacuum") == 2;
+                    }
+                });
+            } catch (SQLException e) {
+                System.err.println("SQL Error enabling incremental vacuum: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * One scheduled check: runs maintenance once nothing has happened for the idle time.
+     */
+    private void check() {
+        synchronized (runLock) {
+            long writes = manager.getWriteCount();
+            long now = System.nanoTime();
+            if (writes != seenWrites || foregroundBusy()) {
+                seenWrites = writes;
+                lastActivityNanos = now;
+                return;
+            }
+            if (now - lastActivityNanos < idleMillis * 1_000_000L) return;
+            try {
+                Report report = maintain(false);
+                if (report != null && !report.getTasks().isEmpty()) {
+                    System.out.println("Database maintenance: " + String.join(", ", report.getTasks()) + " in "
+                            + report.getMillis() + " ms");
+                    lastReport = report;
+                }
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; the next idle period tries again
+                System.err.println("Database maintenance failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks that are due (all of them if forced). Caller holds runLock.
+     */
+    private Report maintain(boolean force) {
+        long start = System.nanoTime();
+        Stats before = readStats();
+        if (before == null) return null;
+        long rows = manager.getRowsWritten();
+        long writes = manager.getWriteCount();
+        List<String> tasks = new ArrayList<>();
+
+        try {
+            if (force || rows != rowsAtOptimize) {
+                database.withConnection(JDBC.Lane.WRITE, con -> {
+                    try (Statement stmt = con.createStatement()) {
+                        stmt.execute("PRAGMA optimize");
+                    }
+                    return null;
+                });
+                rowsAtOptimize = rows;
+                tasks.add("optimize");
+            }
+            boolean neverAnalyzed = before.statistics.isEmpty() && rowsAtAnalyze < 0;
+            if (force || neverAnalyzed || rows - Math.max(0, rowsAtAnalyze) >= analyzeRows) {
+                database.withConnection(JDBC.Lane.WRITE, con -> {
+                    try (Statement stmt = con.createStatement()) {
+                        stmt.execute("PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+                        try {
+                            stmt.execute("ANALYZE");
+                        } finally {
+                            stmt.execute("PRAGMA analysis_limit = 0");
+                        }
+                    }
+                    return null;
+                });
+                rowsAtAnalyze = rows;
+                tasks.add("analyze");
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error during database maintenance: " + e.getMessage());
+        }
+
+        long vacuumed = 0;
+        if (before.autoVacuum == 2 && before.freePages > 0 && (force || before.freePages >= minFreePages)) {
+            vacuumed = vacuum(before.freePages, force ? -1 : writes);
+            if (vacuumed > 0) tasks.add(String.format("incremental vacuum (%,d pages)", vacuumed));
+        }
+
+        Stats after = readStats();
+        return new Report(tasks, vacuumed, (System.nanoTime() - start) / 1_000_000L, before, after == null ? before : after);
+    }
+
+    /**
+     * Frees pages in steps, stopping early when a write or a foreground call comes along, then checkpoints the
+     * write-ahead log so the file actually shrinks, and empties the log.
+     * @param writes The manager's write count when the run started, or -1 to never stop early.
+     * @return The number of pages freed.
+     */
+    private long vacuum(long freePages, long writes) {
+        long freed = 0;
+        int step = vacuumPagesPerStep;
+        try {
+            while (freed < freePages) {
+                long left = database.withConnection(JDBC.Lane.WRITE, con -> {
+                    try (Statement stmt = con.createStatement()) {
+                        // executeUpdate steps the pragma to completion; execute() would free a single page
+                        stmt.executeUpdate("PRAGMA incremental_vacuum(" + step + ")");
+                        return queryLong(stmt, "PRAGMA freelist_count");
+                    }
+                });
+                long done = freePages - left;
+                if (done <= freed) break;
+                freed = done;
+                if (writes >= 0 && (manager.getWriteCount() != writes || foregroundBusy())) break;
+            }
+            database.withConnection(JDBC.Lane.WRITE, con -> {
+                try (Statement stmt = con.createStatement()) {
+                    // Only run while idle: waits (up to the busy timeout) for readers still on older data
+                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during incremental vacuum: " + e.getMessage());
+        }
+        return freed;
+    }
+
+    /**
+     * Reads the file size, page counts, planner statistics and probe plans on the read lane.
+     * @return The stats, or null if the database could not be read.
+     */
+    private Stats readStats() {
+        String file = database.getFile();
+        if (file == null) return null;
+        try {
+            return database.withConnection(JDBC.Lane.READ, con -> {
+                try (Statement stmt = con.createStatement()) {
+                    long pageSize = queryLong(stmt, "PRAGMA page_size");
+                    long pages = queryLong(stmt, "PRAGMA page_count");
+                    long free = queryLong(stmt, "PRAGMA freelist_count");
+                    int autoVacuum = (int) queryLong(stmt, "PRAGMA auto_vacuum");
+                    Map<String, String> statistics = new LinkedHashMap<>();
+                    if (queryLong(stmt, "SELECT count(*) FROM sqlite_master WHERE name = 'sqlite_stat1'") > 0) {
+                        try (ResultSet rs = stmt.executeQuery("SELECT tbl, idx, stat FROM sqlite_stat1 ORDER BY tbl, idx")) {
+                            while (rs.next()) {
+                                String idx = rs.getString(2);
+                                statistics.put(rs.getString(1) + (idx == null ? "" : "." + idx), rs.getString(3));
+                            }
+                        }
+                    }
+                    return new Stats(fileBytes(Path.of(file)), fileBytes(Path.of(file + "-wal")), pageSize, pages, free,
+                            autoVacuum, statistics, plans(con));
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error reading database statistics: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, String> plans(Connection con) {
+        Map<String, String> plans = new LinkedHashMap<>();
+        for (String[] probe : PLAN_PROBES) {
+            StringBuilder plan = new StringBuilder();
+            try (Statement stmt = con.createStatement();
+                 ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + probe[1])) {
+                while (rs.next()) {
+                    if (plan.length() > 0) plan.append("; ");
+                    plan.append(rs.getString("detail"));
+                }
+            } catch (SQLException e) {
+                // E.g. a database without the movies table yet; the probe is just not reported
+                continue;
+            }
+            plans.put(probe[0], plan.toString());
+        }
+        return plans;
+    }
+
+    private static long fileBytes(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long queryLong(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private boolean foregroundBusy() {
+        return database.getPool(JDBC.Lane.READ).getInUse() > 0 || database.getPool(JDBC.Lane.WRITE).getInUse() > 0;
+    }
+}
@@ -16,6 +16,7 @@ public class MarvelMovie {
     private String director;        // 4. String: Director's name
     private int runningTimeMin;     // 5. int: Running time in minutes
     private double imdbRating;      // 6. double: IMDb rating
+    private long version;           // Row version as read from the store (0 = not tracked), for optimistic concurrency
 
     /**
      * Constructs a new MarvelMovie object, initializing all six required attributes.
@@ -53,6 +54,14 @@ public class MarvelMovie {
         return releaseDate;
     }
 
+    /**
+     * Retrieves the release date as an epoch day (days since 1970-01-01), which compares and sorts as an integer.
+     * @return The epoch day, or {@link IsoDate#INVALID} if the release date is not a valid {@code YYYY-MM-DD} date.
+     */
+    public int getReleaseEpochDay() {
+        return IsoDate.parseEpochDay(releaseDate);
+    }
+
     /**
      * Retrieves the MCU phase the movie belongs to.
      * @return The phase number.
@@ -85,6 +94,16 @@ public class MarvelMovie {
         return imdbRating;
     }
 
+    /**
+     * Retrieves the row version the store reported when this movie was read (see
+     * {@link MovieStore#update(String, long, MarvelMovie)}). Only lookups by title ({@link MovieStore#find(String)})
+     * are guaranteed to fill it in.
+     * @return The version, or 0 if it is not known.
+     */
+    public long getVersion() {
+        return version;
+    }
+
     // --- Setter Methods (Used by the Update operation) ---
 
     /**
@@ -135,6 +154,14 @@ public class MarvelMovie {
         this.imdbRating = imdbRating;
     }
 
+    /**
+     * Records the row version this movie was read at. Set by the stores, not by user edits.
+     * @param version The version.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // --- Utility Method ---
 
     /**
@@ -0,0 +1,60 @@
+/**
+ * What a bulk merge does with an incoming movie whose title already exists.
+ * New titles are always inserted.
+ *
+ * <p>Role in System: Parameter of {@link MovieStore#merge(java.util.Collection, MergePolicy)} and
+ * {@link MovieManager#mergeMovies(java.util.Collection, MergePolicy)}. SQLite turns each policy into the
+ * {@code ON CONFLICT(title)} clause of one upsert statement; the other stores call {@link #replaces(MarvelMovie, MarvelMovie)}.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public enum MergePolicy {
+    /** Keep the existing movie ({@code DO NOTHING}). */
+    SKIP("Skip existing titles"),
+    /** Always replace the existing movie with the incoming one. */
+    OVERWRITE("Overwrite existing titles"),
+    /** Replace the existing movie only if the incoming rating is higher. */
+    KEEP_HIGHER_RATING("Keep the higher rating"),
+    /** Replace the existing movie only if any column differs, so re-importing an unchanged file writes nothing. */
+    ONLY_IF_CHANGED("Update changed titles only");
+
+    private final String label;
+
+    MergePolicy(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Decides whether an incoming movie replaces the stored movie with the same title.
+     * @param current The stored movie.
+     * @param incoming The incoming movie.
+     * @return true if the stored movie should be replaced.
+     */
+    public boolean replaces(MarvelMovie current, MarvelMovie incoming) {
+        switch (this) {
+            case OVERWRITE: return true;
+            case KEEP_HIGHER_RATING: return incoming.getImdbRating() > current.getImdbRating();
+            case ONLY_IF_CHANGED: return !sameValues(current, incoming);
+            default: return false;
+        }
+    }
+
+    /**
+     * @param a A movie.
+     * @param b Another movie.
+     * @return true if every column except the title is equal.
+     */
+    public static boolean sameValues(MarvelMovie a, MarvelMovie b) {
+        return a.getPhase() == b.getPhase()
+                && a.getRunningTimeMin() == b.getRunningTimeMin()
+                && Double.compare(a.getImdbRating(), b.getImdbRating()) == 0
+                && a.getReleaseDate().equals(b.getReleaseDate())
+                && a.getDirector().equals(b.getDirector());
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
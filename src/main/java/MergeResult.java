@@ -0,0 +1,54 @@
+/**
+ * The outcome of a bulk merge: how many incoming movies were inserted as new titles, how many replaced an
+ * existing movie, and how many were left out (existing titles the {@link MergePolicy} kept, plus invalid rows).
+ *
+ * <p>Role in System: Result type of {@link MovieStore#merge(java.util.Collection, MergePolicy)}. Batches are
+ * combined with {@link #plus(MergeResult)}, e.g. by {@link BulkCsvImporter}.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class MergeResult {
+    private final long inserted;
+    private final long updated;
+    private final long skipped;
+
+    /**
+     * Creates a merge result.
+     * @param inserted The number of new titles inserted.
+     * @param updated The number of existing movies replaced.
+     * @param skipped The number of incoming movies not written.
+     */
+    public MergeResult(long inserted, long updated, long skipped) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.skipped = skipped;
+    }
+
+    /** @return The result of merging nothing. */
+    public static MergeResult empty() {
+        return new MergeResult(0, 0, 0);
+    }
+
+    /**
+     * @param other Another result.
+     * @return The sum of both results.
+     */
+    public MergeResult plus(MergeResult other) {
+        return new MergeResult(inserted + other.inserted, updated + other.updated, skipped + other.skipped);
+    }
+
+    /** @return The number of new titles inserted. */
+    public long getInserted() { return inserted; }
+
+    /** @return The number of existing movies replaced. */
+    public long getUpdated() { return updated; }
+
+    /** @return The number of incoming movies not written. */
+    public long getSkipped() { return skipped; }
+
+    @Override
+    public String toString() {
+        return String.format("inserted=%d, updated=%d, skipped=%d", inserted, updated, skipped);
+    }
+}
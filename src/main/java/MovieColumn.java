@@ -0,0 +1,54 @@
+import java.util.function.Function;
+
+/**
+ * A typed handle on one column of the movies table, used to build {@link MovieQuery} predicates and sort keys.
+ * The type parameter is the Java type of the column's values, so a query such as
+ * {@code eq(MovieColumn.PHASE, "4")} does not compile.
+ *
+ * <p>Role in System: Shared vocabulary of the query API. Each constant knows its SQL column name and how to read
+ * the same value from a {@link MarvelMovie}, so a query can be rendered to SQL or evaluated in memory.</p>
+ *
+ * @param <T> The value type of the column.
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class MovieColumn<T extends Comparable<? super T>> {
+
+    /** The movie title (unique). */
+    public static final MovieColumn<String> TITLE = new MovieColumn<>("title", MarvelMovie::getTitle);
+    /** The release date as an ISO {@code YYYY-MM-DD} string, which sorts chronologically. */
+    public static final MovieColumn<String> RELEASE_DATE = new MovieColumn<>("releaseDate", MarvelMovie::getReleaseDate);
+    /** The MCU phase number. */
+    public static final MovieColumn<Integer> PHASE = new MovieColumn<>("phase", MarvelMovie::getPhase);
+    /** The director's name. */
+    public static final MovieColumn<String> DIRECTOR = new MovieColumn<>("director", MarvelMovie::getDirector);
+    /** The runtime in minutes. */
+    public static final MovieColumn<Integer> RUNTIME = new MovieColumn<>("runningTimeMin", MarvelMovie::getRunningTimeMin);
+    /** The IMDb rating. */
+    public static final MovieColumn<Double> RATING = new MovieColumn<>("imdbRating", MarvelMovie::getImdbRating);
+
+    private final String name;
+    private final Function<MarvelMovie, T> getter;
+
+    private MovieColumn(String name, Function<MarvelMovie, T> getter) {
+        this.name = name;
+        this.getter = getter;
+    }
+
+    /** @return The SQL column name. */
+    public String getName() { return name; }
+
+    /**
+     * Reads this column from a movie.
+     * @param movie The movie.
+     * @return The column value.
+     */
+    public T get(MarvelMovie movie) {
+        return getter.apply(movie);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,409 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A precomputed analytics cube over phase × director × release year. For every combination of the three
+ * dimensions (each either grouped or rolled up to "all"), every group holds count, average, minimum, maximum and
+ * percentiles of both rating and runtime, so a dashboard can ask "per phase", "per director and year" or
+ * "phase 4, all directors, 2021" without touching the store again.
+ *
+ * <p>The eight groupings are built in parallel on a fork-join pool from one {@link CatalogSnapshot}. Each grouping
+ * is columnar: one pass over the rows assigns dense group IDs through a primitive hash table and accumulates
+ * count/sum/min/max arrays, a second pass lays the ratings and runtimes out group by group, and the groups' value
+ * ranges are then sorted (split further across the pool when there are many groups). Percentiles are exact
+ * nearest-rank lookups into those sorted ranges, with ratings kept to 0.1 and runtimes to the minute.</p>
+ *
+ * <p>Role in System: Result of {@link MovieManager#analytics()}, which caches it until the next write.
+ * Immutable after construction and safe to share between threads.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class MovieCube {
+
+    /** Marks a dimension that is rolled up ("all phases", "all years") in {@link Group}. */
+    public static final int ALL = -1;
+
+    // Groups per task when sorting value ranges
+    private static final int SORT_THRESHOLD = 1 << 14;
+
+    // Dimension bits of a grouping
+    private static final int BY_PHASE = 1, BY_DIRECTOR = 2, BY_YEAR = 4;
+
+    // Group keys pack phase (16 bits), director ID (32 bits) and year (16 bits); all ones means "all"
+    private static final long PHASE_ALL = 0xFFFFL, DIRECTOR_ALL = 0xFFFFFFFFL, YEAR_ALL = 0xFFFFL;
+
+    // Year of every epoch day in the valid release range, so the scan does not convert dates per row
+    private static final short[] YEAR_OF_DAY = new short[IsoDate.MAX_RELEASE_EPOCH_DAY - IsoDate.MIN_RELEASE_EPOCH_DAY + 1];
+    static {
+        for (int d = 0; d < YEAR_OF_DAY.length; d++) YEAR_OF_DAY[d] = (short) IsoDate.year(IsoDate.MIN_RELEASE_EPOCH_DAY + d);
+    }
+
+    private final CatalogSnapshot snapshot;
+    private final Grouping[] groupings = new Grouping[8];
+
+    private MovieCube(CatalogSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Builds the cube over a snapshot on the given pool.
+     * @param snapshot The catalog.
+     * @param pool The fork-join pool the groupings are built on.
+     * @return The cube.
+     */
+    public static MovieCube build(CatalogSnapshot snapshot, ForkJoinPool pool) {
+        MovieCube cube = new MovieCube(snapshot);
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<GroupingTask> tasks = new ArrayList<>(8);
+                for (int mask = 0; mask < 8; mask++) tasks.add(new GroupingTask(cube, mask));
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        return cube;
+    }
+
+    /**
+     * Builds the cube over a snapshot on the common fork-join pool.
+     * @param snapshot The catalog.
+     * @return The cube.
+     */
+    public static MovieCube build(CatalogSnapshot snapshot) {
+        return build(snapshot, ForkJoinPool.commonPool());
+    }
+
+    /** @return The number of movies the cube was built from. */
+    public long getRowCount() { return snapshot.size(); }
+
+    /**
+     * Looks up one group; pass {@link #ALL} (or a null director) for a rolled-up dimension.
+     * @param phase The phase, or {@link #ALL}.
+     * @param director The director's name, or null for all directors.
+     * @param year The release year, or {@link #ALL}.
+     * @return The group's statistics, or an empty cell if no movie falls into the group.
+     */
+    public Cell get(int phase, String director, int year) {
+        int mask = (phase == ALL ? 0 : BY_PHASE) | (director == null ? 0 : BY_DIRECTOR) | (year == ALL ? 0 : BY_YEAR);
+        long directorKey = DIRECTOR_ALL;
+        if (director != null) {
+            int id = snapshot.directorIdOf(director);
+            if (id < 0) return Cell.EMPTY;
+            directorKey = id;
+        }
+        if ((phase != ALL && (phase < 0 || phase >= PHASE_ALL)) || (year != ALL && (year < 0 || year >= YEAR_ALL))) return Cell.EMPTY;
+        Grouping grouping = groupings[mask];
+        int group = grouping.find(key(phase == ALL ? PHASE_ALL : phase, directorKey, year == ALL ? YEAR_ALL : year));
+        return group < 0 ? Cell.EMPTY : new Cell(grouping, group);
+    }
+
+    /**
+     * Lists every group of one grouping, e.g. {@code groups(true, false, true)} for "per phase and year".
+     * @param byPhase Group by phase.
+     * @param byDirector Group by director.
+     * @param byYear Group by release year.
+     * @return The groups ordered by phase, director and year (a single "all" group if no dimension is chosen and the
+     * catalog is not empty).
+     */
+    public List<Group> groups(boolean byPhase, boolean byDirector, boolean byYear) {
+        Grouping grouping = groupings[(byPhase ? BY_PHASE : 0) | (byDirector ? BY_DIRECTOR : 0) | (byYear ? BY_YEAR : 0)];
+        List<Group> groups = new ArrayList<>(grouping.size);
+        for (int g = 0; g < grouping.size; g++) {
+            long key = grouping.keys[g];
+            long phase = key >>> 48, director = (key >>> 16) & DIRECTOR_ALL, year = key & YEAR_ALL;
+            groups.add(new Group(
+                    phase == PHASE_ALL ? ALL : (int) phase,
+                    director == DIRECTOR_ALL ? null : snapshot.directorName((int) director),
+                    year == YEAR_ALL ? ALL : (int) year,
+                    new Cell(grouping, g)));
+        }
+        groups.sort(Comparator.comparingInt(Group::getPhase)
+                .thenComparing(Group::getDirector, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(Group::getYear));
+        return groups;
+    }
+
+    private static long key(long phase, long director, long year) {
+        return (phase << 48) | (director << 16) | year;
+    }
+
+    private static int yearOf(int epochDay) {
+        int d = epochDay - IsoDate.MIN_RELEASE_EPOCH_DAY;
+        return d >= 0 && d < YEAR_OF_DAY.length ? YEAR_OF_DAY[d] : IsoDate.year(epochDay);
+    }
+
+    /**
+     * Builds one grouping: group IDs and scalar statistics in one pass, then the value ranges for percentiles.
+     */
+    private static final class GroupingTask extends RecursiveAction {
+        private final MovieCube cube;
+        private final int mask;
+
+        GroupingTask(MovieCube cube, int mask) {
+            this.cube = cube;
+            this.mask = mask;
+        }
+
+        @Override
+        protected void compute() {
+            CatalogSnapshot snapshot = cube.snapshot;
+            int n = snapshot.size();
+            Grouping g = new Grouping(mask == 0 ? 1 : 64);
+            int[] groupOf = new int[n];
+            for (int i = 0; i < n; i++) {
+                long phase = PHASE_ALL, director = DIRECTOR_ALL, year = YEAR_ALL;
+                if ((mask & BY_PHASE) != 0) phase = Math.max(0, Math.min((int) PHASE_ALL - 1, snapshot.phase(i)));
+                if ((mask & BY_DIRECTOR) != 0) director = snapshot.directorId(i);
+                if ((mask & BY_YEAR) != 0) year = Math.max(0, Math.min((int) YEAR_ALL - 1, yearOf(snapshot.releaseEpochDay(i))));
+                groupOf[i] = g.add(key(phase, director, year), snapshot.rating(i), snapshot.runtime(i));
+            }
+
+            // Lay the values out group by group (a counting sort on the group ID)
+            g.start = new int[g.size + 1];
+            for (int k = 0; k < g.size; k++) g.start[k + 1] = g.start[k] + g.count[k];
+            int[] next = Arrays.copyOf(g.start, g.size);
+            g.tenths = new short[n];
+            g.runtimes = new short[n];
+            for (int i = 0; i < n; i++) {
+                int p = next[groupOf[i]]++;
+                g.tenths[p] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(snapshot.rating(i) * 10.0)));
+                g.runtimes[p] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, snapshot.runtime(i)));
+            }
+            new SortTask(g, 0, g.size).compute();
+            cube.groupings[mask] = g;
+        }
+    }
+
+    /**
+     * Sorts the value ranges of a range of groups, splitting it in half until it is below the threshold.
+     */
+    private static final class SortTask extends RecursiveAction {
+        private final Grouping g;
+        private final int from, to;
+
+        SortTask(Grouping g, int from, int to) {
+            this.g = g;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SORT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SortTask(g, from, mid), new SortTask(g, mid, to));
+                return;
+            }
+            for (int k = from; k < to; k++) {
+                if (g.count[k] < 2) continue;
+                Arrays.sort(g.tenths, g.start[k], g.start[k + 1]);
+                Arrays.sort(g.runtimes, g.start[k], g.start[k + 1]);
+            }
+        }
+    }
+
+    /**
+     * The columns of one grouping, indexed by dense group ID, plus an open-addressing table from group key to ID.
+     */
+    private static final class Grouping {
+        int size;
+        long[] keys;
+        int[] count;
+        double[] ratingSum, minRating, maxRating;
+        long[] runtimeSum;
+        int[] minRuntime, maxRuntime;
+
+        // Values of group k are at [start[k], start[k + 1]), sorted
+        int[] start;
+        short[] tenths, runtimes;
+
+        // Hash table slots hold group ID + 1 (0 = empty)
+        private int[] slots;
+
+        Grouping(int capacity) {
+            keys = new long[capacity];
+            count = new int[capacity];
+            ratingSum = new double[capacity];
+            minRating = new double[capacity];
+            maxRating = new double[capacity];
+            runtimeSum = new long[capacity];
+            minRuntime = new int[capacity];
+            maxRuntime = new int[capacity];
+            slots = new int[Integer.highestOneBit(capacity) * 4];
+        }
+
+        /** Adds one row to the group with this key, creating the group if needed, and returns the group ID. */
+        int add(long key, double rating, int runtime) {
+            int mask = slots.length - 1;
+            int slot = spread(key) & mask;
+            int group;
+            while (true) {
+                int s = slots[slot];
+                if (s == 0) {
+                    group = create(key);
+                    slots[slot] = group + 1;
+                    if (size * 2 > slots.length) rehash();
+                    break;
+                }
+                if (keys[s - 1] == key) {
+                    group = s - 1;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (count[group]++ == 0) {
+                minRating[group] = maxRating[group] = rating;
+                minRuntime[group] = maxRuntime[group] = runtime;
+            } else {
+                if (rating < minRating[group]) minRating[group] = rating;
+                if (rating > maxRating[group]) maxRating[group] = rating;
+                if (runtime < minRuntime[group]) minRuntime[group] = runtime;
+                if (runtime > maxRuntime[group]) maxRuntime[group] = runtime;
+            }
+            ratingSum[group] += rating;
+            runtimeSum[group] += runtime;
+            return group;
+        }
+
+        /** @return The ID of the group with this key, or -1. */
+        int find(long key) {
+            int mask = slots.length - 1;
+            for (int slot = spread(key) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slots[slot] - 1] == key) return slots[slot] - 1;
+            }
+            return -1;
+        }
+
+        private int create(long key) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                count = Arrays.copyOf(count, capacity);
+                ratingSum = Arrays.copyOf(ratingSum, capacity);
+                minRating = Arrays.copyOf(minRating, capacity);
+                maxRating = Arrays.copyOf(maxRating, capacity);
+                runtimeSum = Arrays.copyOf(runtimeSum, capacity);
+                minRuntime = Arrays.copyOf(minRuntime, capacity);
+                maxRuntime = Arrays.copyOf(maxRuntime, capacity);
+            }
+            keys[size] = key;
+            return size++;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int g = 0; g < size; g++) {
+                int slot = spread(keys[g]) & mask;
+                while (slots[slot] != 0) slot = (slot + 1) & mask;
+                slots[slot] = g + 1;
+            }
+        }
+
+        private static int spread(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return (int) (key ^ (key >>> 32));
+        }
+    }
+
+    /**
+     * One group of the cube: its dimension values ({@link #ALL} or null where rolled up) and its statistics.
+     */
+    public static final class Group {
+        private final int phase;
+        private final String director;
+        private final int year;
+        private final Cell stats;
+
+        private Group(int phase, String director, int year, Cell stats) {
+            this.phase = phase;
+            this.director = director;
+            this.year = year;
+            this.stats = stats;
+        }
+
+        /** @return The phase, or {@link #ALL}. */
+        public int getPhase() { return phase; }
+
+        /** @return The director, or null for all directors. */
+        public String getDirector() { return director; }
+
+        /** @return The release year, or {@link #ALL}. */
+        public int getYear() { return year; }
+
+        /** @return The group's statistics. */
+        public Cell getStats() { return stats; }
+    }
+
+    /**
+     * Statistics of one group: count, and average/minimum/maximum/percentiles of rating and runtime.
+     * All values are 0 for an empty group.
+     */
+    public static final class Cell {
+        static final Cell EMPTY = new Cell(null, 0);
+
+        private final Grouping g;
+        private final int k;
+
+        private Cell(Grouping g, int k) {
+            this.g = g;
+            this.k = k;
+        }
+
+        /** Nearest-rank position of a percentile in the group's sorted values. */
+        private int position(double percentile) {
+            double p = Math.max(0.0, Math.min(100.0, percentile));
+            return g.start[k] + (int) Math.max(1, (long) Math.ceil(p / 100.0 * g.count[k])) - 1;
+        }
+
+        /** @return The number of movies in the group. */
+        public long getCount() { return g == null ? 0 : g.count[k]; }
+
+        /** @return The average rating. */
+        public double getAverageRating() { return g == null ? 0.0 : g.ratingSum[k] / g.count[k]; }
+
+        /** @return The lowest rating. */
+        public double getMinRating() { return g == null ? 0.0 : g.minRating[k]; }
+
+        /** @return The highest rating. */
+        public double getMaxRating() { return g == null ? 0.0 : g.maxRating[k]; }
+
+        /**
+         * @param percentile The percentile, 0-100 (e.g. 50 for the median).
+         * @return The nearest-rank rating percentile, to 0.1.
+         */
+        public double getRatingPercentile(double percentile) {
+            return g == null ? 0.0 : g.tenths[position(percentile)] / 10.0;
+        }
+
+        /** @return The average runtime in minutes. */
+        public double getAverageRuntime() { return g == null ? 0.0 : (double) g.runtimeSum[k] / g.count[k]; }
+
+        /** @return The shortest runtime. */
+        public int getMinRuntime() { return g == null ? 0 : g.minRuntime[k]; }
+
+        /** @return The longest runtime. */
+        public int getMaxRuntime() { return g == null ? 0 : g.maxRuntime[k]; }
+
+        /**
+         * @param percentile The percentile, 0-100 (e.g. 50 for the median).
+         * @return The nearest-rank runtime percentile in minutes.
+         */
+        public int getRuntimePercentile(double percentile) {
+            return g == null ? 0 : g.runtimes[position(percentile)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, rating avg=%.2f min=%.1f p50=%.1f p90=%.1f max=%.1f, runtime avg=%.1f min=%d p50=%d p90=%d max=%d",
+                    getCount(), getAverageRating(), getMinRating(), getRatingPercentile(50), getRatingPercentile(90), getMaxRating(),
+                    getAverageRuntime(), getMinRuntime(), getRuntimePercentile(50), getRuntimePercentile(90), getMaxRuntime());
+        }
+    }
+}
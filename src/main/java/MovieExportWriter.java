@@ -0,0 +1,163 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes movie rows as CSV or JSON Lines and writes them through a buffered {@link FileChannel}.
+ * Rows are written one at a time as they arrive, so the writer never holds more than its fixed-size buffer in memory.
+ *
+ * <p>Role in System: Output side of the streaming export in {@link MovieManager}. It knows nothing
+ * about the database; the manager walks the {@code ResultSet} cursor and hands each row to {@link #writeRow}.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class MovieExportWriter implements Closeable {
+
+    /**
+     * The supported export file formats.
+     */
+    public enum Format { CSV, JSONL }
+
+    /** Column header written as the first line of a CSV export (matches the database column names). */
+    public static final String CSV_HEADER = "title,releaseDate,phase,director,runningTimeMin,imdbRating";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Format format;
+    private final Writer out;
+
+    /**
+     * Opens (or truncates) the target file and prepares the encoder.
+     * @param target The file to write.
+     * @param format The output format.
+     * @param gzip true to gzip-compress the output stream.
+     * @throws IOException If the file cannot be opened.
+     */
+    public MovieExportWriter(Path target, Format format, boolean gzip) throws IOException {
+        this.format = format;
+        FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        OutputStream stream = Channels.newOutputStream(channel);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Encodes and writes a single movie row.
+     * @param title The movie's title.
+     * @param releaseDate The release date string.
+     * @param phase The MCU phase number.
+     * @param director The director's name.
+     * @param runningTimeMin The runtime in minutes.
+     * @param imdbRating The IMDb rating.
+     * @throws IOException If the underlying channel fails.
+     */
+    public void writeRow(String title, String releaseDate, int phase, String director, int runningTimeMin, double imdbRating) throws IOException {
+        if (format == Format.CSV) {
+            writeCsvField(title);
+            out.write(',');
+            writeCsvField(releaseDate);
+            out.write(',');
+            out.write(Integer.toString(phase));
+            out.write(',');
+            writeCsvField(director);
+            out.write(',');
+            out.write(Integer.toString(runningTimeMin));
+            out.write(',');
+            out.write(Double.toString(imdbRating));
+        } else {
+            out.write("{\"title\":");
+            writeJsonString(title);
+            out.write(",\"releaseDate\":");
+            writeJsonString(releaseDate);
+            out.write(",\"phase\":");
+            out.write(Integer.toString(phase));
+            out.write(",\"director\":");
+            writeJsonString(director);
+            out.write(",\"runningTimeMin\":");
+            out.write(Integer.toString(runningTimeMin));
+            out.write(",\"imdbRating\":");
+            out.write(Double.toString(imdbRating));
+            out.write('}');
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Writes a CSV field, quoting it only when it contains a delimiter, quote or line break.
+     */
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) return;
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char ch = value.charAt(i);
+            needsQuotes = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') out.write('"');
+            out.write(ch);
+        }
+        out.write('"');
+    }
+
+    /**
+     * Writes a JSON string literal, escaping quotes, backslashes and control characters.
+     */
+    private void writeJsonString(String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (ch < 0x20) {
+                        out.write(String.format("\\u%04x", (int) ch));
+                    } else {
+                        out.write(ch);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Flushes any buffered rows, finishes the gzip trailer (if enabled) and closes the file channel.
+     * @throws IOException If the final flush fails.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
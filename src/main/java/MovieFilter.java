@@ -0,0 +1,186 @@
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A simple, optional row filter over the movie columns.
+ * Every criterion is optional; a filter with no criteria set matches every movie.
+ *
+ * <p>Role in System: Lets callers of {@link MovieManager} narrow a scan (for example an export)
+ * without building SQL themselves. The filter renders to a parameterized {@code WHERE} clause
+ * and binds its own values, so user input is never concatenated into SQL.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class MovieFilter {
+    private Integer phase;
+    private String director;
+    private Double minRating;
+    private Double maxRating;
+    private Integer fromEpochDay;
+    private Integer toEpochDay;
+
+    /**
+     * Creates a filter that matches every movie. Criteria are added with the fluent setters.
+     */
+    public MovieFilter() {
+    }
+
+    /**
+     * Returns a filter without any criteria.
+     * @return A new, empty {@code MovieFilter}.
+     */
+    public static MovieFilter all() {
+        return new MovieFilter();
+    }
+
+    /**
+     * Restricts the filter to a single MCU phase.
+     * @param phase The phase number to match.
+     * @return This filter, for chaining.
+     */
+    public MovieFilter phase(int phase) {
+        this.phase = phase;
+        return this;
+    }
+
+    /**
+     * Restricts the filter to a single director (exact match).
+     * @param director The director's name.
+     * @return This filter, for chaining.
+     */
+    public MovieFilter director(String director) {
+        this.director = director;
+        return this;
+    }
+
+    /**
+     * Restricts the filter to movies rated at or above the given value.
+     * @param minRating The inclusive lower bound of the IMDb rating.
+     * @return This filter, for chaining.
+     */
+    public MovieFilter minRating(double minRating) {
+        this.minRating = minRating;
+        return this;
+    }
+
+    /**
+     * Restricts the filter to movies rated at or below the given value.
+     * @param maxRating The inclusive upper bound of the IMDb rating.
+     * @return This filter, for chaining.
+     */
+    public MovieFilter maxRating(double maxRating) {
+        this.maxRating = maxRating;
+        return this;
+    }
+
+    /**
+     * Restricts the filter to movies released within an inclusive range of epoch days (see {@link IsoDate}).
+     * @param fromEpochDay The first release day to include.
+     * @param toEpochDay The last release day to include.
+     * @return This filter, for chaining.
+     */
+    public MovieFilter releasedBetween(int fromEpochDay, int toEpochDay) {
+        this.fromEpochDay = fromEpochDay;
+        this.toEpochDay = toEpochDay;
+        return this;
+    }
+
+    /** @return The phase criterion, or null if not set. */
+    public Integer getPhase() { return phase; }
+
+    /** @return The director criterion, or null if not set. */
+    public String getDirector() { return director; }
+
+    /** @return The minimum-rating criterion, or null if not set. */
+    public Double getMinRating() { return minRating; }
+
+    /** @return The maximum-rating criterion, or null if not set. */
+    public Double getMaxRating() { return maxRating; }
+
+    /** @return The first included release epoch day, or null if no release range is set. */
+    public Integer getFromEpochDay() { return fromEpochDay; }
+
+    /** @return The last included release epoch day, or null if no release range is set. */
+    public Integer getToEpochDay() { return toEpochDay; }
+
+    /**
+     * Renders the filter as a SQL {@code WHERE} clause with {@code ?} placeholders.
+     * @return The clause including a leading space (e.g. {@code " WHERE phase = ?"}), or an empty string if no criteria are set.
+     */
+    public String toWhereClause() {
+        return toWhereClause(false);
+    }
+
+    /**
+     * Renders the filter as a SQL {@code WHERE} clause with {@code ?} placeholders.
+     * @param epochDayColumn true to compare release dates on the indexed {@code releaseEpochDay} column,
+     *                       false to compare the ISO {@code releaseDate} strings (which sort the same way).
+     * @return The clause including a leading space, or an empty string if no criteria are set.
+     */
+    public String toWhereClause(boolean epochDayColumn) {
+        List<String> terms = new ArrayList<>();
+        if (phase != null) terms.add("phase = ?");
+        if (director != null) terms.add("director = ?");
+        if (minRating != null) terms.add("imdbRating >= ?");
+        if (maxRating != null) terms.add("imdbRating <= ?");
+        if (fromEpochDay != null) terms.add((epochDayColumn ? "releaseEpochDay" : "releaseDate") + " BETWEEN ? AND ?");
+        return terms.isEmpty() ? "" : " WHERE " + String.join(" AND ", terms);
+    }
+
+    /**
+     * Binds the filter values to the placeholders produced by {@link #toWhereClause()}.
+     * @param pstmt The statement to bind into.
+     * @param startIndex The 1-based index of the first placeholder belonging to this filter.
+     * @return The next free parameter index after the filter's values.
+     * @throws SQLException If a value cannot be bound.
+     */
+    public int bind(PreparedStatement pstmt, int startIndex) throws SQLException {
+        return bind(pstmt, startIndex, false);
+    }
+
+    /**
+     * Binds the filter values to the placeholders produced by {@link #toWhereClause(boolean)}.
+     * @param pstmt The statement to bind into.
+     * @param startIndex The 1-based index of the first placeholder belonging to this filter.
+     * @param epochDayColumn Must match the flag passed to {@link #toWhereClause(boolean)}.
+     * @return The next free parameter index after the filter's values.
+     * @throws SQLException If a value cannot be bound.
+     */
+    public int bind(PreparedStatement pstmt, int startIndex, boolean epochDayColumn) throws SQLException {
+        int i = startIndex;
+        if (phase != null) pstmt.setInt(i++, phase);
+        if (director != null) pstmt.setString(i++, director);
+        if (minRating != null) pstmt.setDouble(i++, minRating);
+        if (maxRating != null) pstmt.setDouble(i++, maxRating);
+        if (fromEpochDay != null) {
+            if (epochDayColumn) {
+                pstmt.setInt(i++, fromEpochDay);
+                pstmt.setInt(i++, toEpochDay);
+            } else {
+                pstmt.setString(i++, IsoDate.format(fromEpochDay));
+                pstmt.setString(i++, IsoDate.format(toEpochDay));
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Evaluates the filter against an in-memory movie object.
+     * @param movie The movie to test.
+     * @return true if the movie satisfies every criterion that is set.
+     */
+    public boolean matches(MarvelMovie movie) {
+        if (phase != null && movie.getPhase() != phase) return false;
+        if (director != null && !director.equals(movie.getDirector())) return false;
+        if (minRating != null && movie.getImdbRating() < minRating) return false;
+        if (maxRating != null && movie.getImdbRating() > maxRating) return false;
+        if (fromEpochDay != null) {
+            int day = movie.getReleaseEpochDay();
+            return day >= fromEpochDay && day <= toEpochDay;
+        }
+        return true;
+    }
+}
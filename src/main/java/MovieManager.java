@@ -1,17 +1,25 @@
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.sql.*; // Import all SQL classes needed
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.UnaryOperator;
 
 /**
  * The Data Management System (DMS) Controller for Marvel movies.
  * This class manages all CRUD (Create, Read, Update, Delete) operations
- * by executing SQL queries against the persistent SQLite database via {@link JDBC}.
+ * by validating input and delegating persistence to a pluggable {@link MovieStore}
+ * (by default {@link SqliteMovieStore}, which works against the SQLite database configured in {@link JDBC}).
  *
- * <p>Role in System: Business Logic and Data Access Layer (Controller). It is the only class that
- * interacts directly with the database via the JDBC utility.</p>
+ * <p>Role in System: Business Logic Layer (Controller). The GUI and CLI talk only to this class;
+ * the store behind it can be swapped without changing them. Every method maps to read-only or writing store calls,
+ * which {@link SqliteMovieStore} runs on the matching {@link JDBC.Lane}: lookups, listings and statistics never
+ * queue behind an import.</p>
  *
  * @author [Ramirez,Christopher]
  * @version 1.0
@@ -20,105 +28,203 @@ public class MovieManager {
     // We no longer store the list in memory.
     // private List<MarvelMovie> movies; <-- REMOVED THIS
 
-    // Keep the date bounds for server-side validation (though validation is mainly GUI-side)
-    private final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
-    private final LocalDate MAX_DATE = LocalDate.of(2025, 12, 31);
+    // Date bounds for server-side validation live in IsoDate (1900-01-01 .. 2025-12-31)
 
-    // SQL Query Constants
-    private static final String TABLE_NAME = "movies";
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    // How often export progress is reported (rows)
+    private static final long EXPORT_PROGRESS_INTERVAL = 10_000;
+
+    // How long the title filter is trusted before the store's data version is read again
+    private static final long FILTER_RECHECK_NANOS = 1_000_000_000L;
+
+    // The storage engine all reads and writes go through
+    private final MovieStore store;
+
+    // Optional Bloom filter of stored titles (null = disabled), its settings for rebuilds, and the lock that keeps
+    // it in step with the writes made through this manager
+    private volatile TitleFilter titleFilter;
+    private long filterExpectedTitles;
+    private double filterFalsePositiveRate;
+    private long filterMaxBytes;
+    private final Object filterLock = new Object();
+
+    // Writes made through this manager; cached results built from the store are stale once it moves
+    private final AtomicLong writeCount = new AtomicLong();
+
+    // Rows inserted, changed or deleted through this manager (the write volume maintenance is scheduled by)
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    // Returned for input rejected before the store is called
+    private static final WriteResult INVALID = WriteResult.of(WriteResult.Status.INVALID);
+
+    // In-memory aggregates: the engine, the cached snapshot with the write count and data version it was loaded
+    // at, and the analytics cube built from that snapshot
+    private volatile ParallelAggregator aggregator = ParallelAggregator.common();
+    private CatalogSnapshot cachedSnapshot;
+    private long snapshotWriteCount = -1;
+    private long snapshotDataVersion = -1;
+    private MovieCube cube;
+    private CatalogSnapshot cubeSnapshot;
+    private ReleaseTimeline timeline;
+    private CatalogSnapshot timelineSnapshot;
+    private final Object cacheLock = new Object();
+
+    // Similar-movie index (null until first used or after a write it could not follow), the write count it
+    // reflects, the default weights, and the lock that orders its updates
+    private volatile SimilarityIndex similarityIndex;
+    private long similarityWriteCount = -1;
+    private volatile SimilarityWeights similarityWeights = SimilarityWeights.defaults();
+    private final Object similarityLock = new Object();
 
 
     /**
-     * Constructs the MovieManager.
-     * It prepares the controller to interact with the database; no initialization of an in-memory list is performed.
+     * Constructs the MovieManager backed by the SQLite database set up by IntroScreen.main().
      */
     public MovieManager() {
-        // The MovieManager no longer initializes an in-memory list.
-        // It's ready to interact with the database set up by IntroScreen.main().
+        this(new SqliteMovieStore());
+    }
+
+    /**
+     * Constructs the MovieManager on top of the given storage engine.
+     *
+     * @param store The store that persists the movies (e.g. {@link InMemoryMovieStore}).
+     */
+    public MovieManager(MovieStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @return The storage engine behind this manager.
+     */
+    public MovieStore getStore() {
+        return store;
     }
 
     /**
-     * Fetches all movie records from the database.
+     * Fetches all movie records from the store.
      * The results are ordered alphabetically by title.
      *
-     * @return A {@link java.util.List} of {@link MarvelMovie} objects retrieved from the database. Returns an empty list if the connection fails.
+     * @return A {@link java.util.List} of {@link MarvelMovie} objects. Returns an empty list if the store fails.
      */
     public List<MarvelMovie> getMovies() {
-        List<MarvelMovie> movies = new ArrayList<>();
-        Connection con = JDBC.openConnection();
-        if (con == null) return movies; // Return empty list if connection fails
-
-        // ORDER BY title for consistent display
-        String sql = "SELECT title, releaseDate, phase, director, runningTimeMin, imdbRating FROM " + TABLE_NAME + " ORDER BY title ASC";
-
-        try (Statement stmt = con.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                MarvelMovie movie = new MarvelMovie(
-                        rs.getString("title"),
-                        rs.getString("releaseDate"),
-                        rs.getInt("phase"),
-                        rs.getString("director"),
-                        rs.getInt("runningTimeMin"),
-                        rs.getDouble("imdbRating")
-                );
-                movies.add(movie);
-            }
-        } catch (SQLException e) {
-            System.err.println("SQL Error retrieving all movies: " + e.getMessage());
-            // In a production app, you might re-throw a custom exception here.
-        } finally {
-            JDBC.closeConnection(con);
+        return store.page(MovieFilter.all(), MovieSort.TITLE, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Loads the whole catalog into a columnar {@link CatalogSnapshot} for analytical scans.
+     * Rows are streamed from the store straight into primitive columns without creating {@link MarvelMovie} objects.
+     * The results are ordered alphabetically by title, like {@link #getMovies()}.
+     *
+     * @return The snapshot; an empty snapshot if the store fails.
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(1024);
+        try {
+            store.scan(MovieFilter.all(), MovieSort.TITLE, (title, releaseDate, phase, director, runtime, rating) ->
+                    builder.add(title, IsoDate.parseEpochDay(releaseDate), phase, director, runtime, rating));
+        } catch (IOException e) {
+            // The builder never throws; kept for the visitor signature.
+            System.err.println("Error building catalog snapshot: " + e.getMessage());
         }
-        return movies;
+        return builder.build();
+    }
+
+    // ---------- STARTUP SNAPSHOT FILE ----------
+    /**
+     * @return The store's current data version (see {@link MovieStore#dataVersion()}), or -1 if unavailable.
+     */
+    public long getDataVersion() {
+        return store.dataVersion();
     }
 
-    // ---------- CREATE (Using PreparedStatement for security and data integrity) ----------
     /**
-     * Adds a new movie record to the database using a {@link PreparedStatement}.
-     * Server-side validation is performed before the SQL execution.
+     * Writes the whole catalog to a memory-mappable {@link SnapshotFile}, stamped with the current data version.
+     * The version is read before the catalog, so a write that races with this call makes the file stale, never wrong.
      *
-     * @param movie The {@link MarvelMovie} object containing the data to be inserted.
-     * @return true if the movie was successfully added, false on failure (e.g., failed validation, SQL error, or duplicate title).
+     * @param file The snapshot file to create or replace.
+     * @return true if the file was written; false if the store has no data version or the write failed.
      */
-    public boolean addMovie(MarvelMovie movie) {
-        if (movie == null || movie.getTitle() == null || movie.getTitle().isBlank()) return false;
+    public boolean saveSnapshotFile(Path file) {
+        long version = store.dataVersion();
+        if (version < 0) return false;
+        return SnapshotFile.write(file, snapshot(), version);
+    }
 
-        // Final server-side validation before sending to DB
-        if (!isValidMovie(movie)) return false;
+    /**
+     * Writes movies that were loaded at a known data version (for example the rows on screen) to a {@link SnapshotFile},
+     * without reading the store again.
+     *
+     * @param file The snapshot file to create or replace.
+     * @param movies The movies, in title order.
+     * @param version The data version read before the movies were loaded.
+     * @return true if the file was written.
+     */
+    public boolean saveSnapshotFile(Path file, List<MarvelMovie> movies, long version) {
+        if (movies == null || version < 0 || version != store.dataVersion()) return false;
+        return SnapshotFile.write(file, CatalogSnapshot.of(movies), version);
+    }
 
-        // Note: The database should enforce uniqueness on the 'title' column.
-        // If the title is unique, the INSERT should succeed.
+    /**
+     * Memory-maps a {@link SnapshotFile} if it still matches the store's data.
+     *
+     * @param file The snapshot file.
+     * @return The mapped snapshot, or null if it is missing, corrupt or stale.
+     */
+    public SnapshotFile openSnapshotFile(Path file) {
+        return SnapshotFile.open(file, store.dataVersion());
+    }
 
-        Connection con = JDBC.openConnection();
-        if (con == null) return false;
+    // ---------- CREATE ----------
+    /**
+     * Adds a new movie record to the store.
+     * Server-side validation is performed before the write.
+     *
+     * @param movie The {@link MarvelMovie} object containing the data to be inserted.
+     * @return {@link WriteResult.Status#OK} if the movie was added, {@link WriteResult.Status#INVALID} if it failed
+     * validation, {@link WriteResult.Status#UNCHANGED} for a duplicate title, {@link WriteResult.Status#BUSY} if the
+     * database stayed locked through every retry, or {@link WriteResult.Status#FAILED} on any other store error.
+     */
+    public WriteResult addMovie(MarvelMovie movie) {
+        if (movie == null || movie.getTitle() == null || movie.getTitle().isBlank()) return INVALID;
 
-        String sql = "INSERT INTO " + TABLE_NAME + " (title, releaseDate, phase, director, runningTimeMin, imdbRating) VALUES (?, ?, ?, ?, ?, ?)";
+        // Final server-side validation before sending to DB
+        if (!isValidMovie(movie)) return INVALID;
 
-        try (PreparedStatement pstmt = con.prepareStatement(sql)) {
-            pstmt.setString(1, movie.getTitle());
-            pstmt.setString(2, movie.getReleaseDate());
-            pstmt.setInt(3, movie.getPhase());
-            pstmt.setString(4, movie.getDirector());
-            pstmt.setInt(5, movie.getRunningTimeMin());
-            pstmt.setDouble(6, movie.getImdbRating());
+        store.takeLastFailure();
+        long writes = writeCount.get();
+        boolean inserted = insertMovie(movie);
+        MarvelMovie copy = copyOf(movie);
+        afterWrite(writes, !inserted ? null : index -> {
+            index.insert(copy);
+            return true;
+        });
+        return outcome(inserted);
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+    /**
+     * Inserts a validated movie, using the title filter (if enabled) to reject duplicates before the write.
+     */
+    private boolean insertMovie(MarvelMovie movie) {
+        if (titleFilter == null) return wrote(store.insert(movie));
+        synchronized (filterLock) {
+            TitleFilter filter = titleFilter;
+            if (filter == null) return wrote(store.insert(movie));
 
-        } catch (SQLException e) {
-            // Check for specific SQLite constraint violation (e.g., duplicate title)
-            if (e.getMessage() != null && e.getMessage().contains("UNIQUE constraint failed")) {
-                System.out.println("Attempted to add duplicate movie: " + movie.getTitle());
-                // Return false if a duplicate title prevented the add
-                return false;
+            // Only a possible duplicate costs an exact lookup; a confirmed duplicate never reaches the write path
+            if (filter.mightContain(movie.getTitle())) {
+                boolean exists = store.find(movie.getTitle()) != null;
+                filter.recordExactCheck(exists);
+                if (exists) {
+                    System.out.println("Attempted to add duplicate movie: " + movie.getTitle());
+                    return false;
+                }
+            } else {
+                filter.recordProbeSaved();
             }
-            System.err.println("SQL Error during addMovie: " + e.getMessage());
-            return false;
-        } finally {
-            JDBC.closeConnection(con);
+            boolean inSync = isInSync(filter);
+            boolean inserted = wrote(store.insert(movie));
+            if (inserted) filter.add(movie.getTitle());
+            finishFilteredWrite(filter, inSync, 0);
+            return inserted;
         }
     }
 
@@ -132,10 +238,10 @@ public class MovieManager {
      * @param director The director's name.
      * @param runningTimeMin The runtime in minutes.
      * @param imdbRating The IMDb rating (1.0 - 10.0).
-     * @return true if the movie was successfully added, false otherwise.
+     * @return The outcome, as for {@link #addMovie(MarvelMovie)}.
      */
-    public boolean addMovie(String title, String releaseDate, int phase, String director, int runningTimeMin, double imdbRating) {
-        if (title == null || title.isBlank() || director == null || director.isBlank()) return false;
+    public WriteResult addMovie(String title, String releaseDate, int phase, String director, int runningTimeMin, double imdbRating) {
+        if (title == null || title.isBlank() || director == null || director.isBlank() || releaseDate == null) return INVALID;
         MarvelMovie movie = new MarvelMovie(title.trim(), releaseDate.trim(), phase, director.trim(), runningTimeMin, imdbRating);
         return addMovie(movie);
     }
@@ -145,26 +251,82 @@ public class MovieManager {
      * Deletes a movie record from the database based on its title.
      *
      * @param title The title of the movie to remove.
-     * @return true if a record was successfully deleted (one or more rows affected), false otherwise.
+     * @return {@link WriteResult.Status#OK} if the movie was deleted, {@link WriteResult.Status#UNCHANGED} if no such
+     * title exists, {@link WriteResult.Status#INVALID} for a blank title, or {@link WriteResult.Status#BUSY} /
+     * {@link WriteResult.Status#FAILED} if the store failed.
      */
-    public boolean removeMovie(String title) {
-        if (title == null || title.isBlank()) return false;
+    public WriteResult removeMovie(String title) {
+        if (title == null || title.isBlank()) return INVALID;
 
-        Connection con = JDBC.openConnection();
-        if (con == null) return false;
+        store.takeLastFailure();
+        long writes = writeCount.get();
+        boolean deleted;
+        if (titleFilter == null) {
+            deleted = wrote(store.delete(title));
+        } else {
+            synchronized (filterLock) {
+                TitleFilter filter = titleFilter;
+                boolean inSync = filter != null && isInSync(filter);
+                deleted = wrote(store.delete(title));
+                if (filter != null) finishFilteredWrite(filter, inSync, deleted ? 1 : 0);
+            }
+        }
+        afterWrite(writes, !deleted ? null : index -> index.remove(title));
+        return outcome(deleted);
+    }
 
-        String sql = "DELETE FROM " + TABLE_NAME + " WHERE title = ?";
+    /**
+     * Deletes many movies at once. With SQLite every title is removed through one connection and one transaction
+     * (chunked {@code IN} lists, or a temporary table for very large sets), so the cost grows with the number of
+     * titles but not with a connection per title.
+     *
+     * @param titles The titles to remove.
+     * @return Every requested title in input order, mapped to true if it was removed or false if it was not found
+     * (null and blank titles map to false); an empty map if the store failed.
+     */
+    public Map<String, Boolean> removeMovies(Collection<String> titles) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        if (titles == null) return results;
 
-        try (PreparedStatement pstmt = con.prepareStatement(sql)) {
-            pstmt.setString(1, title);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("SQL Error during removeMovie: " + e.getMessage());
-            return false;
-        } finally {
-            JDBC.closeConnection(con);
+        List<String> valid = new ArrayList<>();
+        for (String title : titles) {
+            if (title == null || title.isBlank()) continue;
+            valid.add(title);
         }
+        long writes = writeCount.get();
+        Map<String, Boolean> removed;
+        if (titleFilter == null) {
+            removed = wrote(store.deleteAll(valid));
+        } else {
+            synchronized (filterLock) {
+                TitleFilter filter = titleFilter;
+                boolean inSync = filter != null && isInSync(filter);
+                removed = wrote(store.deleteAll(valid));
+                long count = 0;
+                for (boolean r : removed.values()) {
+                    if (r) count++;
+                }
+                if (filter != null) finishFilteredWrite(filter, inSync, count);
+            }
+        }
+        Map<String, Boolean> deleted = removed;
+        afterWrite(writes, index -> {
+            boolean matched = true;
+            for (Map.Entry<String, Boolean> e : deleted.entrySet()) {
+                if (e.getValue()) matched &= index.remove(e.getKey());
+            }
+            return matched;
+        });
+        if (removed.isEmpty() && !valid.isEmpty()) return removed;
+
+        for (String title : titles) {
+            if (title == null || title.isBlank()) {
+                results.put(title, false);
+            } else {
+                results.put(title, removed.getOrDefault(title, false));
+            }
+        }
+        return results;
     }
 
     // ---------- FIND (READ ONE) ----------
@@ -176,37 +338,38 @@ public class MovieManager {
      */
     public MarvelMovie findMovieByTitle(String title) {
         if (title == null || title.isBlank()) return null;
+        if (isRuledOut(title)) return null;
 
-        Connection con = JDBC.openConnection();
-        if (con == null) return null;
-
-        String sql = "SELECT title, releaseDate, phase, director, runningTimeMin, imdbRating FROM " + TABLE_NAME + " WHERE title = ?";
-        MarvelMovie movie = null;
-
-        try (PreparedStatement pstmt = con.prepareStatement(sql)) {
-            pstmt.setString(1, title);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    movie = new MarvelMovie(
-                            rs.getString("title"),
-                            rs.getString("releaseDate"),
-                            rs.getInt("phase"),
-                            rs.getString("director"),
-                            rs.getInt("runningTimeMin"),
-                            rs.getDouble("imdbRating")
-                    );
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("SQL Error during findMovieByTitle: " + e.getMessage());
-        } finally {
-            JDBC.closeConnection(con);
+        return store.find(title);
+    }
+
+    /**
+     * Looks up many movies at once. With SQLite all titles are read through one connection and one transaction
+     * (chunked {@code IN} lists, or a temporary table for very large sets).
+     *
+     * @param titles The exact titles to search for.
+     * @return Every requested title in input order, mapped to its movie or to null if it was not found
+     * (null and blank titles map to null); an empty map if the store failed.
+     */
+    public Map<String, MarvelMovie> findMoviesByTitles(Collection<String> titles) {
+        Map<String, MarvelMovie> results = new LinkedHashMap<>();
+        if (titles == null) return results;
+
+        List<String> valid = new ArrayList<>();
+        for (String title : titles) {
+            if (title == null || title.isBlank() || isRuledOut(title)) continue;
+            valid.add(title);
+        }
+        Map<String, MarvelMovie> found = valid.isEmpty() ? new LinkedHashMap<>() : store.findAll(valid);
+        if (found.isEmpty() && !valid.isEmpty()) return found;
+
+        for (String title : titles) {
+            results.put(title, title == null || title.isBlank() ? null : found.get(title));
         }
-        return movie;
+        return results;
     }
 
-    // ---------- UPDATE (Refactoring Required) ----------
+    // ---------- UPDATE ----------
     /**
      * Updates a single field for a movie record in the database.
      * The record is identified using the original title stored in the passed {@code MarvelMovie} object.
@@ -214,13 +377,12 @@ public class MovieManager {
      * @param movie The movie object containing the original title (used in the WHERE clause).
      * @param field The name of the field/column to update (e.g., "title", "phase", "director").
      * @param value The new value for the specified field. Must match the expected SQL data type.
-     * @return true if the update was successful, false on validation failure, type mismatch, or SQL error.
+     * @return {@link WriteResult.Status#OK} if the field was updated, {@link WriteResult.Status#INVALID} on validation
+     * failure or type mismatch, {@link WriteResult.Status#UNCHANGED} if the title was not found, or
+     * {@link WriteResult.Status#BUSY} / {@link WriteResult.Status#FAILED} if the store failed.
      */
-    public boolean updateMovieField(MarvelMovie movie, String field, Object value) {
-        if (movie == null || field == null) return false;
-
-        Connection con = JDBC.openConnection();
-        if (con == null) return false;
+    public WriteResult updateMovieField(MarvelMovie movie, String field, Object value) {
+        if (movie == null || field == null) return INVALID;
 
         // This is the old title used to find the record in the database
         String originalTitle = movie.getTitle();
@@ -233,130 +395,486 @@ public class MovieManager {
                     // Crucial: If updating the title, validate it's not a duplicate
                     // of an existing movie (other than itself). DB unique constraint will handle this too.
                     String t = (String) value;
-                    if (t == null || t.isBlank()) return false;
+                    if (t == null || t.isBlank()) return INVALID;
                     dbColumn = "title";
                     break;
                 case "releasedate":
-                    if (!isValidDate((String) value)) return false;
+                    if (!isValidDate((String) value)) return INVALID;
                     dbColumn = "releaseDate";
                     break;
                 case "phase":
-                    if ((int) value <= 0) return false;
+                    if ((int) value <= 0) return INVALID;
                     dbColumn = "phase";
                     break;
                 case "director":
-                    if ((String) value == null || ((String) value).isBlank()) return false;
+                    if ((String) value == null || ((String) value).isBlank()) return INVALID;
                     dbColumn = "director";
                     break;
                 case "runningtimemin":
-                    if (!isValidRuntime((int) value)) return false;
+                    if (!isValidRuntime((int) value)) return INVALID;
                     dbColumn = "runningTimeMin";
                     break;
                 case "imdbrating":
                     double r = (double) value;
-                    if (r < 1.0 || r > 10.0) return false;
+                    if (r < 1.0 || r > 10.0) return INVALID;
                     dbColumn = "imdbRating";
                     break;
                 default:
-                    return false;
+                    return INVALID;
             }
         } catch (ClassCastException | NullPointerException ex) {
-            return false;
+            return INVALID;
         }
 
         // 2. Execute the update
-        String sql = "UPDATE " + TABLE_NAME + " SET " + dbColumn + " = ? WHERE title = ?";
-
-        try (PreparedStatement pstmt = con.prepareStatement(sql)) {
-            // Set the value (use switch to handle different types)
-            if (value instanceof String) {
-                pstmt.setString(1, (String) value);
-            } else if (value instanceof Integer) {
-                pstmt.setInt(1, (Integer) value);
-            } else if (value instanceof Double) {
-                pstmt.setDouble(1, (Double) value);
-            } else {
-                return false; // Type not supported
+        store.takeLastFailure();
+        long writes = writeCount.get();
+        boolean updated;
+        if (titleFilter == null || !dbColumn.equals("title")) {
+            updated = wrote(store.update(originalTitle, dbColumn, value));
+        } else {
+            // A rename adds the new title; the old one stays in the filter as a stale entry
+            synchronized (filterLock) {
+                TitleFilter filter = titleFilter;
+                boolean inSync = filter != null && isInSync(filter);
+                updated = wrote(store.update(originalTitle, dbColumn, value));
+                if (filter != null) {
+                    if (updated) filter.add((String) value);
+                    finishFilteredWrite(filter, inSync, updated ? 1 : 0);
+                }
+            }
+        }
+
+        String column = dbColumn;
+        afterWrite(writes, !updated ? null : index -> {
+            MarvelMovie current = index.get(originalTitle);
+            if (current == null) return false;
+            MarvelMovie changed = copyOf(current);
+            if (!MovieStore.setColumn(changed, column, value)) return false;
+            index.remove(originalTitle);
+            index.insert(changed);
+            return true;
+        });
+
+        // If the title was updated, we need to update the in-memory movie object's title
+        // so subsequent updateMovieField calls use the new title in the WHERE clause.
+        // Mirrors your original in-memory logic.
+        if (updated && dbColumn.equals("title")) {
+            movie.setTitle((String) value);
+        }
+        return outcome(updated);
+    }
+
+    // ---------- VERSIONED EDITS (OPTIMISTIC CONCURRENCY) ----------
+    /**
+     * Saves an edited movie, but only if nobody changed it since it was read: the store compares the version of
+     * {@code original} (as returned by {@link #findMovieByTitle(String)}) and writes every column in one step, or
+     * fails fast with a conflict. Nothing is locked while the user edits, so concurrent editors never wait for each
+     * other and never silently overwrite each other.
+     *
+     * @param original The movie as it was read (its title and {@link MarvelMovie#getVersion()} select the row).
+     * @param changes The new values, including a possibly new title.
+     * @return {@code APPLIED} with the new version, {@code CONFLICT} with the current movie, {@code NOT_FOUND} if it
+     * was deleted, or {@code FAILED} if the input is invalid, the new title is taken or the store failed.
+     */
+    public VersionedWrite updateMovie(MarvelMovie original, MarvelMovie changes) {
+        if (original == null || original.getTitle() == null || changes == null) return VersionedWrite.failed();
+        if (changes.getTitle() == null || changes.getTitle().isBlank() || changes.getDirector() == null
+                || changes.getDirector().isBlank() || !isValidMovie(changes)) return VersionedWrite.failed();
+        String title = original.getTitle();
+        boolean rename = !title.equals(changes.getTitle());
+
+        long writes = writeCount.get();
+        VersionedWrite result;
+        if (titleFilter == null || !rename) {
+            result = wrote(store.update(title, original.getVersion(), changes));
+        } else {
+            // A rename adds the new title; the old one stays in the filter as a stale entry
+            synchronized (filterLock) {
+                TitleFilter filter = titleFilter;
+                boolean inSync = filter != null && isInSync(filter);
+                result = wrote(store.update(title, original.getVersion(), changes));
+                if (filter != null) {
+                    if (result.isApplied()) filter.add(changes.getTitle());
+                    finishFilteredWrite(filter, inSync, result.isApplied() ? 1 : 0);
+                }
             }
+        }
 
-            // The WHERE clause always uses the original title from the MovieManager's movieBeingEdited state
-            pstmt.setString(2, originalTitle);
+        MarvelMovie copy = copyOf(changes);
+        afterWrite(writes, !result.isApplied() ? null : index -> {
+            boolean present = index.remove(title);
+            index.insert(copy);
+            return present;
+        });
+        return result;
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
+    /**
+     * Deletes a movie, but only if nobody changed it since it was read (see {@link #updateMovie(MarvelMovie, MarvelMovie)}).
+     *
+     * @param title The title of the movie to remove.
+     * @param expectedVersion The version the caller read ({@link MarvelMovie#getVersion()}).
+     * @return {@code APPLIED}, {@code CONFLICT} with the current movie, {@code NOT_FOUND} or {@code FAILED}.
+     */
+    public VersionedWrite removeMovie(String title, long expectedVersion) {
+        if (title == null || title.isBlank()) return VersionedWrite.failed();
 
-            // If the title was updated, we need to update the in-memory movie object's title
-            // so subsequent updateMovieField calls use the new title in the WHERE clause.
-            // Mirrors your original in-memory logic.
-            if (dbColumn.equals("title") && rowsAffected > 0) {
-                movie.setTitle((String) value);
+        long writes = writeCount.get();
+        VersionedWrite result;
+        if (titleFilter == null) {
+            result = wrote(store.delete(title, expectedVersion));
+        } else {
+            synchronized (filterLock) {
+                TitleFilter filter = titleFilter;
+                boolean inSync = filter != null && isInSync(filter);
+                result = wrote(store.delete(title, expectedVersion));
+                if (filter != null) finishFilteredWrite(filter, inSync, result.isApplied() ? 1 : 0);
             }
+        }
+        afterWrite(writes, !result.isApplied() ? null : index -> index.remove(title));
+        return result;
+    }
 
-            return rowsAffected > 0;
+    /**
+     * Read-modify-write with optimistic retries: reads the movie, lets {@code edit} derive the new values from it and
+     * saves them with {@link #updateMovie(MarvelMovie, MarvelMovie)}; on a conflict the edit is applied again to the
+     * movie as it is now. Suitable for edits that can be re-derived (e.g. "raise the rating by 0.1"), not for values a
+     * user typed against an old version.
+     *
+     * @param title The title of the movie to edit.
+     * @param maxAttempts The maximum number of attempts (at least 1).
+     * @param edit Receives a copy of the current movie and returns the new values (it may change and return the copy),
+     *             or null to give up.
+     * @return The last attempt's result: {@code CONFLICT} if every attempt conflicted (or the edit gave up),
+     * {@code NOT_FOUND} if the title does not exist, {@code FAILED} if the input is invalid or the store failed.
+     */
+    public VersionedWrite updateWithRetry(String title, int maxAttempts, UnaryOperator<MarvelMovie> edit) {
+        if (title == null || title.isBlank() || maxAttempts < 1 || edit == null) return VersionedWrite.failed();
 
-        } catch (SQLException e) {
-            System.err.println("SQL Error during updateMovieField: " + e.getMessage());
-            return false;
-        } finally {
-            JDBC.closeConnection(con);
+        MarvelMovie current = findMovieByTitle(title);
+        for (int attempt = 1; ; attempt++) {
+            if (current == null) return VersionedWrite.notFound();
+            MarvelMovie changes = edit.apply(copyOf(current));
+            if (changes == null) return VersionedWrite.conflict(current);
+            VersionedWrite result = updateMovie(current, changes);
+            if (!result.isConflict() || attempt >= maxAttempts) return result;
+            current = result.getCurrent();
         }
     }
 
     // ---------- CUSTOM ACTION (Aggregate Function) ----------
     /**
      * Calculates the average IMDb rating for all movies belonging to a specific phase.
-     * This action is performed efficiently using the SQL {@code AVG} aggregate function.
+     * This action is performed efficiently by the store's aggregate query (SQL {@code AVG} for SQLite); the parallel
+     * in-memory engine ({@link #summarize(MovieFilter)}) is only worth its snapshot for grouped or multi-stat reports.
      *
      * @param phase The MCU phase number to calculate the average for (must be > 0).
-     * @return The average rating as a double, or 0.0 if the connection fails or no movies are found in that phase.
+     * @return The average rating as a double, or 0.0 if the store fails or no movies are found in that phase.
      */
     public double calculateAverageRating(int phase) {
         if (phase <= 0) return 0.0;
 
-        Connection con = JDBC.openConnection();
-        if (con == null) return 0.0;
+        // The store computes the aggregate in one pass (SQL AVG for SQLite)
+        return store.aggregate(MovieFilter.all().phase(phase)).getAverageRating();
+    }
+
+    // ---------- QUERIES ----------
+    /**
+     * Runs a typed query (equality, ranges, IN lists, prefixes, multi-key sort, limit and keyset cursor).
+     * With SQLite the query becomes one parameterized statement whose prepared plan is reused by later queries
+     * of the same shape; the in-memory store answers it from its indexes.
+     *
+     * @param query The query (null returns an empty list).
+     * @return The matching movies in the query's order; an empty list if the query fails.
+     */
+    public List<MarvelMovie> findMovies(MovieQuery query) {
+        if (query == null) return new ArrayList<>();
+        return store.query(query);
+    }
+
+    // ---------- RANKED QUERIES ----------
+    /**
+     * Fetches the highest-rated movies matching a filter, e.g. "top 10 rated in phase 4".
+     * Only {@code k} rows are read or kept: SQLite walks a rating index with {@code LIMIT}, the in-memory store
+     * walks its rating index, and other stores keep a bounded heap.
+     *
+     * @param k The number of movies to return.
+     * @param filter The movies to rank (null for all).
+     * @return Up to {@code k} movies, highest rating first (ties by title); empty if {@code k <= 0} or the query fails.
+     */
+    public List<MarvelMovie> topRated(int k, MovieFilter filter) {
+        return topRanked(MovieSort.RATING, k, filter);
+    }
 
-        // Use the SQL AVG aggregate function for efficiency
-        String sql = "SELECT AVG(imdbRating) AS avg_rating FROM " + TABLE_NAME + " WHERE phase = ?";
-        double average = 0.0;
+    /**
+     * Fetches the first {@code k} movies matching a filter in a ranked order
+     * ({@link MovieSort#RATING}, {@link MovieSort#RUNTIME} or {@link MovieSort#NEWEST}), without loading the others.
+     *
+     * @param order The ranking.
+     * @param k The number of movies to return.
+     * @param filter The movies to rank (null for all).
+     * @return Up to {@code k} movies in the given order; empty if {@code k <= 0} or the query fails.
+     */
+    public List<MarvelMovie> topRanked(MovieSort order, int k, MovieFilter filter) {
+        if (order == null || k <= 0) return new ArrayList<>();
+        return store.page(filter == null ? MovieFilter.all() : filter, order, 0, k);
+    }
 
-        try (PreparedStatement pstmt = con.prepareStatement(sql)) {
-            pstmt.setInt(1, phase);
+    // ---------- BATCH LOAD ----------
+    /**
+     * Loads movies in bulk from a CSV file in the export format
+     * ({@code title,releaseDate,phase,director,runningTimeMin,imdbRating}, header optional).
+     * Parsing is done by {@link BulkCsvImporter}; rows with existing titles are skipped.
+     *
+     * @param filePath The path to the batch data file.
+     * @return A status message with the inserted/rejected row counts and the parse throughput in MB/s.
+     */
+    public String loadBatchData(String filePath) {
+        return loadBatchData(filePath, null);
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    // Use getDouble and check for SQL NULL (which returns 0.0 if there are no rows)
-                    average = rs.getDouble("avg_rating");
+    /**
+     * Loads movies in bulk from a CSV file like {@link #loadBatchData(String)}, resolving rows whose title already
+     * exists with a merge policy (see {@link #mergeMovies(Collection, MergePolicy)}).
+     *
+     * @param filePath The path to the batch data file.
+     * @param policy What to do with existing titles, or null to skip them without reporting updates.
+     * @return A status message with the inserted/updated/skipped/rejected row counts and the throughput in MB/s.
+     */
+    public String loadBatchData(String filePath, MergePolicy policy) {
+        if (filePath == null || filePath.isBlank()) return "Batch Load failed: no file path given.";
+        try {
+            BulkCsvImporter.Result result = new BulkCsvImporter(this, policy).importFile(Path.of(filePath.trim()));
+            return result.toString();
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("Batch Load failed for " + filePath + ": " + e.getMessage());
+            return "Batch Load failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Inserts many movies in one batch (for SQLite: one connection, one transaction and JDBC statement batching).
+     * Invalid movies are skipped, and movies whose title already exists are ignored rather than failing the batch.
+     *
+     * @param movies The movies to insert.
+     * @return The number of rows actually inserted, or 0 if the batch fails.
+     */
+    public int addMovies(Collection<MarvelMovie> movies) {
+        if (movies == null || movies.isEmpty()) return 0;
+
+        List<MarvelMovie> valid = new ArrayList<>(movies.size());
+        for (MarvelMovie movie : movies) {
+            if (movie == null || movie.getTitle() == null || movie.getTitle().isBlank() || !isValidMovie(movie)) continue;
+            valid.add(movie);
+        }
+        if (valid.isEmpty()) return 0;
+
+        long writes = writeCount.get();
+        int inserted = insertMovies(valid);
+        // Titles that already existed were ignored, so the new ones are exactly those the index lacks
+        List<MarvelMovie> copies = new ArrayList<>(valid.size());
+        for (MarvelMovie movie : valid) copies.add(copyOf(movie));
+        afterWrite(writes, inserted == 0 ? null : index -> {
+            int added = 0;
+            for (MarvelMovie movie : copies) {
+                if (index.contains(movie.getTitle())) continue;
+                index.insert(movie);
+                added++;
+            }
+            return added == inserted;
+        });
+        return inserted;
+    }
+
+    /**
+     * Inserts validated movies in one batch and teaches the title filter (if enabled) their titles.
+     */
+    private int insertMovies(List<MarvelMovie> valid) {
+        if (titleFilter == null) return wrote(store.insertAll(valid));
+
+        synchronized (filterLock) {
+            TitleFilter filter = titleFilter;
+            if (filter == null) return wrote(store.insertAll(valid));
+
+            // The batch insert already resolves duplicates inside the store in one pass (INSERT OR IGNORE), which is
+            // cheaper than a separate exact check; the filter only has to learn the titles
+            boolean inSync = isInSync(filter);
+            int inserted = wrote(store.insertAll(valid));
+            // Afterwards every title of the batch is stored, inserted now or not
+            for (MarvelMovie movie : valid) filter.add(movie.getTitle());
+            finishFilteredWrite(filter, inSync, 0);
+            return inserted;
+        }
+    }
+
+    /**
+     * Merges many movies in one batch: new titles are inserted and existing titles are resolved by the policy
+     * (for SQLite: one transaction of {@code INSERT ... ON CONFLICT(title)} upserts). Invalid movies are skipped.
+     * With {@link MergePolicy#ONLY_IF_CHANGED}, re-importing unchanged data writes nothing.
+     *
+     * @param movies The movies to merge.
+     * @param policy What to do with existing titles.
+     * @return The inserted/updated/skipped counts (invalid movies count as skipped), or null if the batch fails.
+     */
+    public MergeResult mergeMovies(Collection<MarvelMovie> movies, MergePolicy policy) {
+        if (movies == null || movies.isEmpty()) return MergeResult.empty();
+        if (policy == null) return new MergeResult(0, 0, movies.size());
+
+        List<MarvelMovie> valid = new ArrayList<>(movies.size());
+        for (MarvelMovie movie : movies) {
+            if (movie == null || movie.getTitle() == null || movie.getTitle().isBlank() || !isValidMovie(movie)) continue;
+            valid.add(movie);
+        }
+        MergeResult invalid = new MergeResult(0, 0, movies.size() - valid.size());
+        if (valid.isEmpty()) return invalid;
+        long writes = writeCount.get();
+        MergeResult result;
+        if (titleFilter == null) {
+            result = wrote(store.merge(valid, policy));
+        } else {
+            synchronized (filterLock) {
+                TitleFilter filter = titleFilter;
+                boolean inSync = filter != null && isInSync(filter);
+                result = wrote(store.merge(valid, policy));
+                if (filter != null) {
+                    // After a merge every title of the batch is stored
+                    if (result != null) {
+                        for (MarvelMovie movie : valid) filter.add(movie.getTitle());
+                    }
+                    finishFilteredWrite(filter, inSync && result != null, 0);
                 }
             }
-        } catch (SQLException e) {
-            System.err.println("SQL Error calculating average rating: " + e.getMessage());
-        } finally {
-            JDBC.closeConnection(con);
         }
-        // If no movies were found in that phase, AVG() returns 0.0 (or null, which getDouble converts to 0.0)
-        return average;
+        MergeResult merged = result;
+        afterWrite(writes, merged == null ? null : index -> {
+            // Replay the policy in batch order; the counts must agree with the store's
+            long inserted = 0, updated = 0;
+            for (MarvelMovie movie : valid) {
+                MarvelMovie current = index.get(movie.getTitle());
+                if (current == null) {
+                    index.insert(copyOf(movie));
+                    inserted++;
+                } else if (policy.replaces(current, movie)) {
+                    index.insert(copyOf(movie));
+                    updated++;
+                }
+            }
+            return inserted == merged.getInserted() && updated == merged.getUpdated();
+        });
+        return result == null ? null : result.plus(invalid);
     }
 
-    // ---------- BATCH LOAD (DISABLED/REMOVED) ----------
+    // ---------- EXPORT (STREAMING) ----------
     /**
-     * Handles batch data loading from a file, but is disabled in this database version.
+     * Exports the movies matching the filter to a CSV file.
      *
-     * @param filePath The path to the batch data file (ignored).
-     * @return A status message indicating the load feature is disabled.
+     * @param target The file to create or overwrite.
+     * @param filter The rows to export, or null for all movies.
+     * @return The number of rows written, or -1 on failure.
      */
-    public String loadBatchData(String filePath) {
-        return "Batch Load is disabled in the database version. Use the 'ADD' function to insert movies.";
+    public long exportCsv(Path target, MovieFilter filter) {
+        return exportCsv(target, filter, false, null);
+    }
+
+    /**
+     * Exports the movies matching the filter to a CSV file, optionally gzip-compressed.
+     *
+     * @param target The file to create or overwrite.
+     * @param filter The rows to export, or null for all movies.
+     * @param gzip true to gzip-compress the output.
+     * @param progress Receives the running row count while the export runs (may be null).
+     * @return The number of rows written, or -1 on failure.
+     */
+    public long exportCsv(Path target, MovieFilter filter, boolean gzip, LongConsumer progress) {
+        return export(target, filter, MovieExportWriter.Format.CSV, gzip, progress);
+    }
+
+    /**
+     * Exports the movies matching the filter to a JSON Lines file (one JSON object per line).
+     *
+     * @param target The file to create or overwrite.
+     * @param filter The rows to export, or null for all movies.
+     * @return The number of rows written, or -1 on failure.
+     */
+    public long exportJsonl(Path target, MovieFilter filter) {
+        return exportJsonl(target, filter, false, null);
+    }
+
+    /**
+     * Exports the movies matching the filter to a JSON Lines file, optionally gzip-compressed.
+     *
+     * @param target The file to create or overwrite.
+     * @param filter The rows to export, or null for all movies.
+     * @param gzip true to gzip-compress the output.
+     * @param progress Receives the running row count while the export runs (may be null).
+     * @return The number of rows written, or -1 on failure.
+     */
+    public long exportJsonl(Path target, MovieFilter filter, boolean gzip, LongConsumer progress) {
+        return export(target, filter, MovieExportWriter.Format.JSONL, gzip, progress);
+    }
+
+    /**
+     * Streams rows from the store straight into the export writer.
+     * No row is retained after it is written, so memory use does not grow with the table size.
+     */
+    private long export(Path target, MovieFilter filter, MovieExportWriter.Format format, boolean gzip, LongConsumer progress) {
+        if (target == null) return -1;
+        if (filter == null) filter = MovieFilter.all();
+
+        long rows;
+        try (MovieExportWriter writer = new MovieExportWriter(target, format, gzip)) {
+            long[] written = {0};
+            rows = store.scan(filter, MovieSort.TITLE, (title, releaseDate, phase, director, runtime, rating) -> {
+                writer.writeRow(title, releaseDate, phase, director, runtime, rating);
+                if (progress != null && ++written[0] % EXPORT_PROGRESS_INTERVAL == 0) {
+                    progress.accept(written[0]);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("I/O Error writing export file " + target + ": " + e.getMessage());
+            return -1;
+        }
+
+        if (rows < 0) return -1;
+        if (progress != null) progress.accept(rows);
+        return rows;
+    }
+
+    // ---------- RELEASE DATE (EPOCH-DAY COLUMN) ----------
+    /**
+     * Adds the optional integer {@code releaseEpochDay} column (days since 1970-01-01) and an index on it,
+     * then backfills it from the existing {@code releaseDate} strings. Safe to call more than once.
+     * Once enabled, every insert and release-date update keeps the column in sync.
+     * Stores that always index release dates (such as {@link InMemoryMovieStore}) simply return true.
+     *
+     * @return true if the column and index exist after the call, false on SQL error.
+     */
+    public boolean enableReleaseEpochDayIndex() {
+        return store.ensureReleaseDateIndex();
+    }
+
+    /**
+     * Fetches the movies released within an inclusive date range, ordered by release date (then title).
+     * With SQLite this uses the indexed {@code releaseEpochDay} column when it has been enabled; otherwise it falls back to
+     * comparing the ISO date strings, which sort the same way but cannot use the index.
+     *
+     * @param fromDate The first release date to include ({@code YYYY-MM-DD}).
+     * @param toDate The last release date to include ({@code YYYY-MM-DD}).
+     * @return The matching movies; an empty list if either date is invalid or the query fails.
+     */
+    public List<MarvelMovie> getMoviesReleasedBetween(String fromDate, String toDate) {
+        int from = IsoDate.parseEpochDay(fromDate);
+        int to = IsoDate.parseEpochDay(toDate);
+        if (from == IsoDate.INVALID || to == IsoDate.INVALID || from > to) return new ArrayList<>();
+
+        return store.page(MovieFilter.all().releasedBetween(from, to), MovieSort.RELEASE_DATE, 0, Integer.MAX_VALUE);
     }
 
     // ---------- VALIDATION HELPERS (KEPT FOR SERVER-SIDE CHECK) ----------
 
     private boolean isValidDate(String dateStr) {
-        try {
-            LocalDate date = LocalDate.parse(dateStr, DATE_FORMATTER);
-            return !date.isBefore(MIN_DATE) && !date.isAfter(MAX_DATE);
-        } catch (DateTimeParseException e) {
-            return false;
-        }
+        return IsoDate.isValidReleaseDate(dateStr);
     }
 
     private boolean isValidRuntime(int runtime) {
@@ -375,18 +893,450 @@ public class MovieManager {
      * Deletes ALL records from the movie table in the database.
      */
     public void clearAll() {
-        Connection con = JDBC.openConnection();
-        if (con == null) return;
-
-        String sql = "DELETE FROM " + TABLE_NAME;
-
-        try (Statement stmt = con.createStatement()) {
-            stmt.executeUpdate(sql);
-            System.out.println("All movie records deleted from database.");
-        } catch (SQLException e) {
-            System.err.println("SQL Error during clearAll: " + e.getMessage());
-        } finally {
-            JDBC.closeConnection(con);
+        // The index is rebuilt (empty) on the next similarity query
+        synchronized (similarityLock) {
+            similarityIndex = null;
+        }
+        long rows = store.aggregate(MovieFilter.all()).getCount();
+        if (titleFilter == null) {
+            store.clear();
+            wrote(null);
+        } else {
+            synchronized (filterLock) {
+                store.clear();
+                wrote(null);
+                if (titleFilter != null) rebuildTitleFilter();
+            }
+        }
+        rowsWritten.addAndGet(rows);
+        System.out.println("All movie records deleted from database.");
+    }
+
+    /**
+     * Replaces the whole database with a backup snapshot (see {@link OnlineBackup#restore(Path)}) and refreshes
+     * this manager's caches, like {@link #clearAll()} does.
+     *
+     * @param backup The backup service of this manager's database.
+     * @param snapshot The snapshot to restore, e.g. the first of {@link OnlineBackup#listSnapshots()}.
+     * @return true if the database now holds the snapshot; false if it is unchanged.
+     */
+    public boolean restoreBackup(OnlineBackup backup, Path snapshot) {
+        boolean restored;
+        if (titleFilter == null) {
+            restored = backup.restore(snapshot);
+            wrote(null);
+        } else {
+            synchronized (filterLock) {
+                restored = backup.restore(snapshot);
+                wrote(null);
+                if (titleFilter != null) rebuildTitleFilter();
+            }
+        }
+        if (restored) {
+            rowsWritten.addAndGet(store.aggregate(MovieFilter.all()).getCount());
+            System.out.println("Database restored from " + snapshot.getFileName() + ".");
+        }
+        return restored;
+    }
+
+    // ---------- IN-MEMORY AGGREGATES ----------
+    /**
+     * Aggregates the catalog in memory: count, average/min/max, histograms and percentiles of rating and runtime
+     * for the movies matching the filter. Runs on the {@link ParallelAggregator} (fork-join, sequential for small
+     * catalogs) over the cached {@link #snapshot()}, which is reloaded only after a write.
+     *
+     * @param filter The movies to include, or null for all movies.
+     * @return The summary (empty if the store fails).
+     */
+    public ParallelAggregator.Summary summarize(MovieFilter filter) {
+        return aggregator.summarize(cachedSnapshot(), filter);
+    }
+
+    /**
+     * Aggregates an already loaded list of movies (e.g. the rows shown in the GUI) on the same engine.
+     *
+     * @param movies The movies.
+     * @param filter The movies to include, or null for all movies.
+     * @return The summary.
+     */
+    public ParallelAggregator.Summary summarize(List<MarvelMovie> movies, MovieFilter filter) {
+        return aggregator.summarize(movies, filter);
+    }
+
+    /**
+     * Replaces the engine used for in-memory aggregates and the analytics cube (e.g. to choose the pool size or the
+     * sequential threshold).
+     *
+     * @param aggregator The engine (null restores the default on the common pool).
+     */
+    public void setAggregator(ParallelAggregator aggregator) {
+        this.aggregator = aggregator == null ? ParallelAggregator.common() : aggregator;
+    }
+
+    /**
+     * Returns the analytics cube over phase × director × release year (count, average, minimum, maximum and
+     * percentiles of rating and runtime for every combination of the three dimensions). The cube is built from the
+     * cached snapshot in one parallel fork-join pass and kept until the snapshot is reloaded.
+     *
+     * @return The cube for the current catalog (empty if the store fails).
+     */
+    public MovieCube analytics() {
+        synchronized (cacheLock) {
+            CatalogSnapshot snapshot = cachedSnapshot();
+            if (cube == null || cubeSnapshot != snapshot) {
+                cube = MovieCube.build(snapshot, aggregator.getPool());
+                cubeSnapshot = snapshot;
+            }
+            return cube;
+        }
+    }
+
+    /**
+     * Returns the epoch-day release index (see {@link ReleaseTimeline}) for year/quarter/month series, cumulative
+     * totals and sliding-window average ratings. It is built from the cached snapshot, whose release dates are already
+     * epoch days; the unfiltered index is kept until the snapshot is reloaded.
+     *
+     * @param filter The movies to include, or null for all movies.
+     * @return The timeline (empty if the store fails or nothing matches).
+     */
+    public ReleaseTimeline releaseTimeline(MovieFilter filter) {
+        synchronized (cacheLock) {
+            CatalogSnapshot snapshot = cachedSnapshot();
+            if (filter != null) return new ReleaseTimeline(snapshot, filterRows(snapshot, filter));
+            if (timeline == null || timelineSnapshot != snapshot) {
+                timeline = new ReleaseTimeline(snapshot, null);
+                timelineSnapshot = snapshot;
+            }
+            return timeline;
+        }
+    }
+
+    // ---------- SIMILAR MOVIES ----------
+    /**
+     * Finds the movies most like a given one, weighing the attributes with the current default weights (see
+     * {@link #setSimilarityWeights(SimilarityWeights)}).
+     *
+     * @param title The title of the movie to compare against.
+     * @param k The maximum number of movies to return.
+     * @return Up to k movies, most similar first; empty if the title is not stored or k is not positive.
+     */
+    public List<MarvelMovie> similarTo(String title, int k) {
+        return similarTo(title, k, similarityWeights);
+    }
+
+    /**
+     * Finds the movies most like a given one. The search runs on a {@link SimilarityIndex} built from the cached
+     * snapshot on first use; writes made through this manager are then applied to the index in place rather than
+     * rebuilding it, and it is rebuilt when the store changed around this manager or the index has degraded.
+     *
+     * @param title The title of the movie to compare against.
+     * @param k The maximum number of movies to return.
+     * @param weights How much each attribute counts.
+     * @return Copies of up to k movies, most similar first (ties by title); empty if the title is not stored, k is
+     * not positive or the weights are null.
+     */
+    public List<MarvelMovie> similarTo(String title, int k, SimilarityWeights weights) {
+        List<MarvelMovie> similar = new ArrayList<>();
+        if (title == null || title.isBlank() || k <= 0 || weights == null) return similar;
+
+        synchronized (similarityLock) {
+            SimilarityIndex index = currentSimilarityIndex();
+            MarvelMovie target = index.get(title.trim());
+            if (target == null) return similar;
+            for (MarvelMovie movie : index.nearest(target, k, weights)) similar.add(copyOf(movie));
+        }
+        return similar;
+    }
+
+    /**
+     * Sets the weights used by {@link #similarTo(String, int)}. Weights are applied per query, so the index is kept.
+     * @param weights The new weights; null restores {@link SimilarityWeights#defaults()}.
+     */
+    public void setSimilarityWeights(SimilarityWeights weights) {
+        similarityWeights = weights == null ? SimilarityWeights.defaults() : weights;
+    }
+
+    /**
+     * @return The weights used by {@link #similarTo(String, int)}.
+     */
+    public SimilarityWeights getSimilarityWeights() {
+        return similarityWeights;
+    }
+
+    /**
+     * Returns the similarity index, rebuilding it if it is missing, degraded, or behind this manager's writes or the
+     * store's data version. Caller holds similarityLock.
+     */
+    private SimilarityIndex currentSimilarityIndex() {
+        SimilarityIndex index = similarityIndex;
+        long writes = writeCount.get();
+        long version = store.dataVersion();
+        if (index == null || index.needsRebuild() || writes != similarityWriteCount || version != index.getDataVersion()) {
+            // Both are read before the snapshot, so a racing write makes the index stale, never wrong
+            CatalogSnapshot snapshot = cachedSnapshot();
+            List<MarvelMovie> movies = new ArrayList<>(snapshot.size());
+            for (int row = 0; row < snapshot.size(); row++) movies.add(snapshot.toMovie(row));
+            index = new SimilarityIndex(movies);
+            index.setDataVersion(version);
+            similarityIndex = index;
+            similarityWriteCount = writes;
+        }
+        return index;
+    }
+
+    /**
+     * Applies a write made through this manager to the similarity index, if one is built and the write was the only
+     * one since the index was last brought up to date; otherwise (or if the change reports a mismatch with the store's
+     * result) the index is dropped and rebuilt on the next query.
+     *
+     * @param writesBefore The write count read before the write.
+     * @param change The change to apply, or null if the write changed nothing.
+     */
+    private void afterWrite(long writesBefore, IndexChange change) {
+        if (similarityIndex == null) return;
+        synchronized (similarityLock) {
+            SimilarityIndex index = similarityIndex;
+            if (index == null) return;
+            // A write the title filter rejected never reached the store
+            long writes = writeCount.get();
+            if (change == null && writes == writesBefore && similarityWriteCount == writesBefore) return;
+            boolean followed = similarityWriteCount == writesBefore && writes == writesBefore + 1
+                    && (change == null || change.apply(index));
+            if (followed) {
+                similarityWriteCount = writes;
+                index.setDataVersion(store.dataVersion());
+            } else {
+                similarityIndex = null;
+            }
+        }
+    }
+
+    /**
+     * A write replayed on the similarity index.
+     */
+    private interface IndexChange {
+        /** @return false if the index could not reproduce the store's result. */
+        boolean apply(SimilarityIndex index);
+    }
+
+    /**
+     * @return A detached copy of a movie, so objects held by callers and by the index never alias.
+     */
+    private static MarvelMovie copyOf(MarvelMovie movie) {
+        MarvelMovie copy = new MarvelMovie(movie.getTitle(), movie.getReleaseDate(), movie.getPhase(), movie.getDirector(),
+                movie.getRunningTimeMin(), movie.getImdbRating());
+        copy.setVersion(movie.getVersion());
+        return copy;
+    }
+
+    /**
+     * Resolves a filter against the snapshot's columns with {@link CatalogSnapshot#filter}.
+     */
+    private static int[] filterRows(CatalogSnapshot snapshot, MovieFilter filter) {
+        int directorId = -1;
+        if (filter.getDirector() != null) {
+            directorId = snapshot.directorIdOf(filter.getDirector());
+            if (directorId < 0) return new int[0];
+        }
+        if (filter.getPhase() != null && filter.getPhase() <= 0) return new int[0];
+        return snapshot.filter(
+                filter.getPhase() == null ? 0 : filter.getPhase(),
+                directorId,
+                filter.getMinRating() == null ? Double.NEGATIVE_INFINITY : filter.getMinRating(),
+                filter.getMaxRating() == null ? Double.POSITIVE_INFINITY : filter.getMaxRating(),
+                filter.getFromEpochDay() == null ? Integer.MIN_VALUE : filter.getFromEpochDay(),
+                filter.getToEpochDay() == null ? Integer.MAX_VALUE : filter.getToEpochDay());
+    }
+
+    /**
+     * Returns the snapshot behind the in-memory aggregates, reloading it after a write through this manager or after
+     * the store's {@link MovieStore#dataVersion()} changed (writes made around this manager are only noticed by stores
+     * that have a data version).
+     */
+    private CatalogSnapshot cachedSnapshot() {
+        synchronized (cacheLock) {
+            // Both are read before the scan, so a racing write makes the snapshot stale, never wrong
+            long writes = writeCount.get();
+            long version = store.dataVersion();
+            if (cachedSnapshot == null || writes != snapshotWriteCount || version != snapshotDataVersion) {
+                cachedSnapshot = snapshot();
+                snapshotWriteCount = writes;
+                snapshotDataVersion = version;
+            }
+            return cachedSnapshot;
+        }
+    }
+
+    /**
+     * @return The number of writes made through this manager since it was created.
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @return The number of rows inserted, changed or deleted through this manager since it was created.
+     */
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    /**
+     * Counts a write made through this manager (after the store call, so results cached before it are invalidated),
+     * and the rows it changed as far as the store's result tells.
+     * @return The store's result, unchanged.
+     */
+    private <T> T wrote(T result) {
+        writeCount.incrementAndGet();
+        rowsWritten.addAndGet(rowsChanged(result));
+        return result;
+    }
+
+    /**
+     * The number of rows a store call's result reports as changed.
+     */
+    private static long rowsChanged(Object result) {
+        if (result instanceof Boolean) return (Boolean) result ? 1 : 0;
+        if (result instanceof Integer) return (Integer) result;
+        if (result instanceof VersionedWrite) return ((VersionedWrite) result).isApplied() ? 1 : 0;
+        if (result instanceof MergeResult) return ((MergeResult) result).getInserted() + ((MergeResult) result).getUpdated();
+        if (result instanceof Map) {
+            long changed = 0;
+            for (Object done : ((Map<?, ?>) result).values()) {
+                if (Boolean.TRUE.equals(done)) changed++;
+            }
+            return changed;
+        }
+        return 0;
+    }
+
+    /**
+     * Turns a store call's boolean into a typed result, asking the store why it failed if it did.
+     */
+    private WriteResult outcome(boolean done) {
+        if (done) return WriteResult.of(WriteResult.Status.OK);
+        WriteResult.Status failure = store.takeLastFailure();
+        return WriteResult.of(failure == null ? WriteResult.Status.UNCHANGED : failure);
+    }
+
+    // ---------- TITLE FILTER ----------
+    /**
+     * Enables a Bloom filter of stored titles ({@link TitleFilter}), built now from one scan of the store and then
+     * maintained by every write made through this manager. {@link #addMovie(MarvelMovie)} sends only titles the filter
+     * cannot rule out to an exact duplicate check, so confirmed duplicates never open a write, and
+     * {@link #findMovieByTitle(String)} / {@link #findMoviesByTitles(Collection)} answer "not found" for ruled-out
+     * titles without a lookup.
+     *
+     * <p>Writes made around this manager (another process, or the store directly) cannot break ingest, because the store
+     * still rejects duplicates. Freshness is tracked locally: the filter keeps the store's
+     * {@link MovieStore#dataVersion()} read when it was built, and probes and writes trust it without a round trip
+     * for up to a second. After that the next probe or write reads the version once. If it moved and this manager
+     * wrote nothing since the last read, the filter stops skipping lookups. If this manager did write, the new version
+     * is taken as its own, so a write made around it in that same second goes unseen until the filter is rebuilt.
+     * Stores without a data version never skip lookups. Deletes and renames leave stale entries; once they (or growth
+     * past {@code expectedTitles}) degrade the filter, the next write rebuilds it from the store.</p>
+     *
+     * @param expectedTitles The number of titles to size the filter for.
+     * @param falsePositiveRate The target false-positive rate (e.g. 0.01).
+     * @param maxBytes The memory budget for the bit array; a tighter budget raises the false-positive rate.
+     * @return true if the filter was built; false if the settings are invalid or the store scan failed.
+     */
+    public boolean enableTitleFilter(long expectedTitles, double falsePositiveRate, long maxBytes) {
+        if (expectedTitles <= 0 || !(falsePositiveRate > 0.0 && falsePositiveRate < 1.0) || maxBytes <= 0) return false;
+        synchronized (filterLock) {
+            filterExpectedTitles = expectedTitles;
+            filterFalsePositiveRate = falsePositiveRate;
+            filterMaxBytes = maxBytes;
+            return rebuildTitleFilter();
+        }
+    }
+
+    /**
+     * Turns the title filter off; ingest and lookups go straight to the store again.
+     */
+    public void disableTitleFilter() {
+        synchronized (filterLock) {
+            titleFilter = null;
+        }
+    }
+
+    /**
+     * @return The current title filter with its size and probe metrics, or null if it is disabled.
+     */
+    public TitleFilter getTitleFilter() {
+        return titleFilter;
+    }
+
+    /**
+     * Rebuilds the filter from a scan of the store, sized for at least twice the current titles.
+     * The data version is read before the scan, so a write racing with the scan leaves the filter untrusted, never wrong.
+     * Caller holds {@link #filterLock}.
+     */
+    private boolean rebuildTitleFilter() {
+        long version = store.dataVersion();
+        List<String> titles = new ArrayList<>();
+        try {
+            long rows = store.scan(MovieFilter.all(), MovieSort.TITLE, (title, releaseDate, phase, director, runtime, rating) -> titles.add(title));
+            if (rows < 0) {
+                titleFilter = null;
+                return false;
+            }
+        } catch (IOException e) {
+            System.err.println("Error building title filter: " + e.getMessage());
+            titleFilter = null;
+            return false;
+        }
+
+        TitleFilter filter = new TitleFilter(Math.max(filterExpectedTitles, titles.size() * 2L), filterFalsePositiveRate, filterMaxBytes);
+        for (String title : titles) filter.add(title);
+        filter.setDataVersion(version);
+        titleFilter = filter;
+        return true;
+    }
+
+    /**
+     * @return true if the title is certainly not stored, so a lookup can be skipped (the saving is recorded).
+     */
+    private boolean isRuledOut(String title) {
+        TitleFilter filter = titleFilter;
+        if (filter == null || filter.mightContain(title) || !isInSync(filter)) return false;
+        filter.recordProbeSaved();
+        return true;
+    }
+
+    /**
+     * @return true if the filter reflects the store's current data (see {@link #enableTitleFilter(long, double, long)}).
+     * Reads the store's data version only when the last read is older than {@link #FILTER_RECHECK_NANOS}.
+     */
+    private boolean isInSync(TitleFilter filter) {
+        long version = filter.getDataVersion();
+        if (version < 0) return false;
+        if (System.nanoTime() - filter.getVerifiedAt() < FILTER_RECHECK_NANOS) return true;
+        synchronized (filter) {
+            version = filter.getDataVersion();
+            if (version < 0) return false;
+            if (System.nanoTime() - filter.getVerifiedAt() < FILTER_RECHECK_NANOS) return true;
+            long current = store.dataVersion();
+            // A move is only this manager's own doing if it wrote since the last read
+            boolean inSync = current >= 0 && (current == version || filter.hasUnverifiedWrites());
+            filter.setDataVersion(inSync ? current : -1);
+            return inSync;
+        }
+    }
+
+    /**
+     * Records a write made through this manager: counts removed titles, then either rebuilds a degraded filter or
+     * notes the write, so the next data version read is taken as this manager's (only if the filter was in sync
+     * before the write). Caller holds {@link #filterLock} and has already added the written titles.
+     */
+    private void finishFilteredWrite(TitleFilter filter, boolean wasInSync, long removedTitles) {
+        filter.noteRemoved(removedTitles);
+        if (filter.needsRebuild()) {
+            rebuildTitleFilter();
+        } else if (wasInSync) {
+            filter.noteWrite();
+        } else {
+            filter.setDataVersion(-1);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,584 @@
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A typed, composable query over the movie columns: equality, ranges, {@code IN} lists and prefix matching,
+ * a multi-key sort, a limit and a keyset cursor for paging ({@link #after(MarvelMovie)}).
+ * Predicates are combined with AND. The sort always ends with the title (which is unique), so the order
+ * is total and a cursor identifies an exact position.
+ *
+ * <p>Example: the first 20 movies of phase 4 or 5 whose title starts with "Ant", best rated first:
+ * {@code MovieQuery.select().in(MovieColumn.PHASE, List.of(4, 5)).startsWith(MovieColumn.TITLE, "Ant")
+ * .orderByDescending(MovieColumn.RATING).limit(20)}. The next page is the same query with
+ * {@code .after(lastMovieOfThePage)}.</p>
+ *
+ * <p>Role in System: Replaces ad-hoc SQL string filters. {@link SqliteMovieStore} compiles a query to a parameterized
+ * statement ({@link #toSql(boolean)}, cached in the query) whose text depends only on the query's shape, so
+ * identical shapes reuse one prepared plan; in-memory stores walk a matching index and call
+ * {@link #evaluate(Iterable, boolean)}. A query is not thread-safe while it is being built.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class MovieQuery {
+
+    private enum Op { EQ, GT, GE, LT, LE, IN, PREFIX }
+
+    private static final class Term {
+        final MovieColumn<?> column;
+        final Op op;
+        final Object value;       // single-value operators
+        final List<Object> values; // IN
+        final Set<Object> valueSet;
+
+        Term(MovieColumn<?> column, Op op, Object value, List<Object> values) {
+            this.column = column;
+            this.op = op;
+            this.value = value;
+            this.values = values;
+            this.valueSet = values == null ? null : new HashSet<>(values);
+        }
+    }
+
+    private static final class SortKey {
+        final MovieColumn<?> column;
+        final boolean descending;
+
+        SortKey(MovieColumn<?> column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+    }
+
+    private final List<Term> terms = new ArrayList<>();
+    private final List<SortKey> sortKeys = new ArrayList<>();
+    private int limit = -1;
+    private MarvelMovie cursor;
+
+    // The rendered SQL clauses and the row comparator, kept until the query changes
+    private String sql;
+    private boolean sqlEpochDay;
+    private Comparator<MarvelMovie> comparator;
+
+    /**
+     * Creates a query that matches every movie, in title order, without a limit.
+     */
+    public MovieQuery() {
+    }
+
+    /**
+     * @return A new query that matches every movie.
+     */
+    public static MovieQuery select() {
+        return new MovieQuery();
+    }
+
+    // ---------- PREDICATES ----------
+
+    /**
+     * Requires a column to equal a value.
+     * @param column The column.
+     * @param value The value.
+     * @param <T> The column type.
+     * @return This query, for chaining.
+     */
+    public <T extends Comparable<? super T>> MovieQuery eq(MovieColumn<T> column, T value) {
+        return add(column, Op.EQ, value);
+    }
+
+    /**
+     * Requires a column to be greater than a value.
+     * @param column The column.
+     * @param value The exclusive lower bound.
+     * @param <T> The column type.
+     * @return This query, for chaining.
+     */
+    public <T extends Comparable<? super T>> MovieQuery greaterThan(MovieColumn<T> column, T value) {
+        return add(column, Op.GT, value);
+    }
+
+    /**
+     * Requires a column to be greater than or equal to a value.
+     * @param column The column.
+     * @param value The inclusive lower bound.
+     * @param <T> The column type.
+     * @return This query, for chaining.
+     */
+    public <T extends Comparable<? super T>> MovieQuery atLeast(MovieColumn<T> column, T value) {
+        return add(column, Op.GE, value);
+    }
+
+    /**
+     * Requires a column to be less than a value.
+     * @param column The column.
+     * @param value The exclusive upper bound.
+     * @param <T> The column type.
+     * @return This query, for chaining.
+     */
+    public <T extends Comparable<? super T>> MovieQuery lessThan(MovieColumn<T> column, T value) {
+        return add(column, Op.LT, value);
+    }
+
+    /**
+     * Requires a column to be less than or equal to a value.
+     * @param column The column.
+     * @param value The inclusive upper bound.
+     * @param <T> The column type.
+     * @return This query, for chaining.
+     */
+    public <T extends Comparable<? super T>> MovieQuery atMost(MovieColumn<T> column, T value) {
+        return add(column, Op.LE, value);
+    }
+
+    /**
+     * Requires a column to lie within an inclusive range.
+     * @param column The column.
+     * @param low The inclusive lower bound.
+     * @param high The inclusive upper bound.
+     * @param <T> The column type.
+     * @return This query, for chaining.
+     */
+    public <T extends Comparable<? super T>> MovieQuery between(MovieColumn<T> column, T low, T high) {
+        return atLeast(column, low).atMost(column, high);
+    }
+
+    /**
+     * Requires a column to equal one of the given values. An empty collection matches nothing.
+     * @param column The column.
+     * @param values The accepted values.
+     * @param <T> The column type.
+     * @return This query, for chaining.
+     */
+    public <T extends Comparable<? super T>> MovieQuery in(MovieColumn<T> column, Collection<? extends T> values) {
+        List<Object> copy = new ArrayList<>(values.size());
+        for (T v : values) copy.add(Objects.requireNonNull(v, "IN value"));
+        terms.add(new Term(Objects.requireNonNull(column, "column"), Op.IN, null, copy));
+        sql = null;
+        return this;
+    }
+
+    /**
+     * Requires a text column to start with a prefix (case-sensitive).
+     * @param column The column.
+     * @param prefix The prefix.
+     * @return This query, for chaining.
+     */
+    public MovieQuery startsWith(MovieColumn<String> column, String prefix) {
+        return add(column, Op.PREFIX, prefix);
+    }
+
+    private MovieQuery add(MovieColumn<?> column, Op op, Object value) {
+        terms.add(new Term(Objects.requireNonNull(column, "column"), op, Objects.requireNonNull(value, "value"), null));
+        sql = null;
+        return this;
+    }
+
+    // ---------- ORDER, LIMIT, CURSOR ----------
+
+    /**
+     * Adds an ascending sort key after the keys already added.
+     * @param column The column to sort by.
+     * @return This query, for chaining.
+     */
+    public MovieQuery orderBy(MovieColumn<?> column) {
+        sortKeys.add(new SortKey(Objects.requireNonNull(column, "column"), false));
+        sql = null;
+        comparator = null;
+        return this;
+    }
+
+    /**
+     * Adds a descending sort key after the keys already added.
+     * @param column The column to sort by.
+     * @return This query, for chaining.
+     */
+    public MovieQuery orderByDescending(MovieColumn<?> column) {
+        sortKeys.add(new SortKey(Objects.requireNonNull(column, "column"), true));
+        sql = null;
+        comparator = null;
+        return this;
+    }
+
+    /**
+     * Limits the number of returned movies.
+     * @param limit The maximum number of movies (0 or more).
+     * @return This query, for chaining.
+     */
+    public MovieQuery limit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative: " + limit);
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Starts the results strictly after a movie in this query's order (keyset paging). Unlike an offset,
+     * the cost does not grow with the page number, and rows inserted or deleted meanwhile do not shift pages.
+     * @param last The last movie of the previous page, or null to start from the beginning.
+     * @return This query, for chaining.
+     */
+    public MovieQuery after(MarvelMovie last) {
+        boolean hadCursor = cursor != null;
+        cursor = last == null ? null : new MarvelMovie(last.getTitle(), last.getReleaseDate(), last.getPhase(),
+                last.getDirector(), last.getRunningTimeMin(), last.getImdbRating());
+        if (hadCursor != (cursor != null)) sql = null;
+        return this;
+    }
+
+    /** @return The limit, or -1 if the query is unlimited. */
+    public int getLimit() { return limit; }
+
+    /** @return The keyset cursor set with {@link #after(MarvelMovie)}, or null. */
+    public MarvelMovie getCursor() { return cursor; }
+
+    // ---------- SQL ----------
+
+    /**
+     * Renders the query as the clauses that follow {@code SELECT ... FROM movies}: {@code WHERE}, {@code ORDER BY}
+     * and {@code LIMIT ?}, with a {@code ?} placeholder for every value. The text depends only on the query's shape
+     * (columns, operators, {@code IN} list sizes rounded up to a power of two), never on its values, and is cached
+     * until the query changes.
+     * @param epochDayColumn true to compare and sort release dates on the indexed {@code releaseEpochDay} column.
+     * @return The SQL clauses, starting with a space.
+     */
+    public String toSql(boolean epochDayColumn) {
+        boolean epochDay = useEpochDay(epochDayColumn);
+        if (sql != null && sqlEpochDay == epochDay) return sql;
+
+        List<String> where = new ArrayList<>();
+        for (Term t : terms) where.add(render(t, epochDay));
+        if (cursor != null) where.add(renderCursor(epochDay));
+
+        StringBuilder sb = new StringBuilder();
+        if (!where.isEmpty()) sb.append(" WHERE ").append(String.join(" AND ", where));
+        sb.append(" ORDER BY ");
+        List<SortKey> keys = effectiveSortKeys();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(expression(keys.get(i).column, epochDay)).append(keys.get(i).descending ? " DESC" : " ASC");
+        }
+        sb.append(" LIMIT ?");
+
+        sql = sb.toString();
+        sqlEpochDay = epochDay;
+        return sql;
+    }
+
+    /**
+     * Binds the query's values to a statement prepared from {@link #toSql(boolean)}.
+     * @param pstmt The statement.
+     * @param startIndex The 1-based index of the first placeholder belonging to this query.
+     * @param epochDayColumn Must match the flag passed to {@link #toSql(boolean)}.
+     * @return The next free parameter index.
+     * @throws SQLException If a value cannot be bound.
+     */
+    public int bind(PreparedStatement pstmt, int startIndex, boolean epochDayColumn) throws SQLException {
+        boolean epochDay = useEpochDay(epochDayColumn);
+        int i = startIndex;
+        for (Term t : terms) {
+            switch (t.op) {
+                case IN:
+                    int slots = inSlots(t.values.size());
+                    for (int s = 0; s < slots; s++) {
+                        // Padding repeats the last value, which does not change the result
+                        Object v = t.values.get(Math.min(s, t.values.size() - 1));
+                        pstmt.setObject(i++, sqlValue(t.column, v, epochDay));
+                    }
+                    break;
+                case PREFIX:
+                    String prefix = (String) t.value;
+                    String upper = prefixUpperBound(prefix);
+                    pstmt.setString(i++, prefix);
+                    if (upper != null) {
+                        pstmt.setString(i++, upper);
+                    } else if (!prefix.isEmpty()) {
+                        pstmt.setInt(i++, prefix.codePointCount(0, prefix.length()));
+                        pstmt.setString(i++, prefix);
+                    }
+                    break;
+                default:
+                    pstmt.setObject(i++, sqlValue(t.column, t.value, epochDay));
+            }
+        }
+        if (cursor != null) {
+            List<SortKey> keys = effectiveSortKeys();
+            for (int k = 0; k < keys.size(); k++) {
+                for (int j = 0; j <= k; j++) {
+                    MovieColumn<?> column = keys.get(j).column;
+                    pstmt.setObject(i++, sqlValue(column, column.get(cursor), epochDay));
+                }
+            }
+        }
+        pstmt.setInt(i++, limit);
+        return i;
+    }
+
+    private String render(Term t, boolean epochDay) {
+        String expr = t.op == Op.PREFIX ? t.column.getName() : expression(t.column, epochDay);
+        switch (t.op) {
+            case EQ: return expr + " = ?";
+            case GT: return expr + " > ?";
+            case GE: return expr + " >= ?";
+            case LT: return expr + " < ?";
+            case LE: return expr + " <= ?";
+            case IN:
+                return expr + " IN (" + String.join(", ", Collections.nCopies(inSlots(t.values.size()), "?")) + ")";
+            default:
+                // A range instead of LIKE, so an index on the column can be used
+                String prefix = (String) t.value;
+                if (prefixUpperBound(prefix) != null) return "(" + expr + " >= ? AND " + expr + " < ?)";
+                if (prefix.isEmpty()) return expr + " >= ?";
+                return "(" + expr + " >= ? AND substr(" + expr + ", 1, ?) = ?)";
+        }
+    }
+
+    /**
+     * Renders "after the cursor" for a multi-key order: {@code k1 > ? OR (k1 = ? AND k2 > ?) OR ...},
+     * with {@code <} for descending keys.
+     */
+    private String renderCursor(boolean epochDay) {
+        List<SortKey> keys = effectiveSortKeys();
+        List<String> alternatives = new ArrayList<>();
+        for (int k = 0; k < keys.size(); k++) {
+            List<String> parts = new ArrayList<>();
+            for (int j = 0; j < k; j++) parts.add(expression(keys.get(j).column, epochDay) + " = ?");
+            parts.add(expression(keys.get(k).column, epochDay) + (keys.get(k).descending ? " < ?" : " > ?"));
+            alternatives.add(parts.size() == 1 ? parts.get(0) : "(" + String.join(" AND ", parts) + ")");
+        }
+        return "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    private static String expression(MovieColumn<?> column, boolean epochDay) {
+        return column == MovieColumn.RELEASE_DATE && epochDay ? "releaseEpochDay" : column.getName();
+    }
+
+    private static Object sqlValue(MovieColumn<?> column, Object value, boolean epochDay) {
+        return column == MovieColumn.RELEASE_DATE && epochDay ? IsoDate.parseEpochDay((String) value) : value;
+    }
+
+    /**
+     * The epoch-day column can stand in for the release date only if every release date the query compares
+     * against is a complete, valid date.
+     */
+    private boolean useEpochDay(boolean epochDayColumn) {
+        if (!epochDayColumn) return false;
+        for (Term t : terms) {
+            if (t.column != MovieColumn.RELEASE_DATE || t.op == Op.PREFIX) continue;
+            for (Object v : t.op == Op.IN ? t.values : List.of(t.value)) {
+                if (IsoDate.parseEpochDay((String) v) == IsoDate.INVALID) return false;
+            }
+        }
+        return cursor == null || IsoDate.parseEpochDay(cursor.getReleaseDate()) != IsoDate.INVALID;
+    }
+
+    /**
+     * Rounds IN list sizes up to a power of two, so lists of similar length share one statement shape.
+     */
+    private static int inSlots(int size) {
+        int slots = 1;
+        while (slots < size) slots <<= 1;
+        return size == 0 ? 0 : slots;
+    }
+
+    /**
+     * @return The smallest string greater than every string starting with the prefix, or null if there is no
+     * simple one (empty prefix, or a last character that cannot be incremented safely).
+     */
+    static String prefixUpperBound(String prefix) {
+        if (prefix.isEmpty()) return null;
+        char last = prefix.charAt(prefix.length() - 1);
+        if (last == Character.MAX_VALUE || last == '\uD7FF' || Character.isSurrogate(last)) return null;
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+
+    // ---------- IN-MEMORY EVALUATION ----------
+
+    /**
+     * Tests a movie against every predicate and the cursor.
+     * @param movie The movie.
+     * @return true if the movie belongs to the result (ignoring the limit).
+     */
+    public boolean matches(MarvelMovie movie) {
+        for (Term t : terms) {
+            if (!matches(t, movie)) return false;
+        }
+        return cursor == null || comparator().compare(movie, cursor) > 0;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean matches(Term t, MarvelMovie movie) {
+        Comparable v = t.column.get(movie);
+        switch (t.op) {
+            case EQ: return v.compareTo(t.value) == 0;
+            case GT: return v.compareTo(t.value) > 0;
+            case GE: return v.compareTo(t.value) >= 0;
+            case LT: return v.compareTo(t.value) < 0;
+            case LE: return v.compareTo(t.value) <= 0;
+            case IN: return t.valueSet.contains(v);
+            default: return ((String) v).startsWith((String) t.value);
+        }
+    }
+
+    /**
+     * @return A comparator for this query's order (the sort keys, then title).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<MarvelMovie> comparator() {
+        if (comparator != null) return comparator;
+        Comparator<MarvelMovie> order = null;
+        for (SortKey key : effectiveSortKeys()) {
+            MovieColumn<?> column = key.column;
+            Comparator<MarvelMovie> c = (a, b) -> ((Comparable) column.get(a)).compareTo(column.get(b));
+            if (key.descending) c = c.reversed();
+            order = order == null ? c : order.thenComparing(c);
+        }
+        comparator = order;
+        return order;
+    }
+
+    /**
+     * Applies the query to rows supplied by a store: filters them, orders them and applies the limit.
+     * @param rows The candidate rows; they may include rows that do not match.
+     * @param inOrder true if the rows already come in this query's order (e.g. from a matching index),
+     *                so iteration stops as soon as the limit is reached; otherwise a bounded heap keeps the best rows.
+     * @return The result rows (the same objects as supplied).
+     */
+    public List<MarvelMovie> evaluate(Iterable<MarvelMovie> rows, boolean inOrder) {
+        List<MarvelMovie> out = new ArrayList<>();
+        if (inOrder) {
+            for (MarvelMovie m : rows) {
+                if (limit >= 0 && out.size() >= limit) break;
+                if (matches(m)) out.add(m);
+            }
+            return out;
+        }
+        if (limit >= 0) {
+            TopK top = new TopK(comparator(), limit);
+            for (MarvelMovie m : rows) {
+                if (matches(m)) top.offer(m);
+            }
+            return top.sorted();
+        }
+        for (MarvelMovie m : rows) {
+            if (matches(m)) out.add(m);
+        }
+        out.sort(comparator());
+        return out;
+    }
+
+    /**
+     * Checks whether this query's order is the order of one of the stores' indexes:
+     * {@link MovieSort#TITLE}, {@link MovieSort#RELEASE_DATE} or {@link MovieSort#RATING}.
+     * @param sort The index order.
+     * @return true if rows in that order are also in this query's order.
+     */
+    public boolean isOrderedBy(MovieSort sort) {
+        List<SortKey> keys = effectiveSortKeys();
+        switch (sort) {
+            case TITLE:
+                return keys.size() == 1 && !keys.get(0).descending;
+            case RELEASE_DATE:
+                return keys.size() == 2 && keys.get(0).column == MovieColumn.RELEASE_DATE && !keys.get(0).descending
+                        && !keys.get(1).descending;
+            case RATING:
+                return keys.size() == 2 && keys.get(0).column == MovieColumn.RATING && keys.get(0).descending
+                        && !keys.get(1).descending;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The bounds the predicates put on one column, for stores that can narrow a scan with an ordered index.
+     * @param <T> The column type.
+     */
+    public static final class Range<T> {
+        /** The lower bound, or null if unbounded. */
+        public final T low;
+        /** Whether the lower bound is included. */
+        public final boolean lowInclusive;
+        /** The upper bound, or null if unbounded. */
+        public final T high;
+        /** Whether the upper bound is included. */
+        public final boolean highInclusive;
+
+        Range(T low, boolean lowInclusive, T high, boolean highInclusive) {
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.high = high;
+            this.highInclusive = highInclusive;
+        }
+    }
+
+    /**
+     * Combines the equality, range and prefix predicates on a column into one range.
+     * @param column The column.
+     * @param <T> The column type.
+     * @return The range every matching movie lies in, or null if the column is not constrained that way.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Comparable<? super T>> Range<T> range(MovieColumn<T> column) {
+        T low = null, high = null;
+        boolean lowInclusive = true, highInclusive = true, bounded = false;
+        for (Term t : terms) {
+            if (t.column != column || t.op == Op.IN) continue;
+            T v = (T) t.value;
+            T lo = null, hi = null;
+            boolean loInc = true, hiInc = true;
+            switch (t.op) {
+                case EQ: lo = v; hi = v; break;
+                case GT: lo = v; loInc = false; break;
+                case GE: lo = v; break;
+                case LT: hi = v; hiInc = false; break;
+                case LE: hi = v; break;
+                default:
+                    lo = v;
+                    hi = (T) prefixUpperBound((String) v);
+                    hiInc = false;
+            }
+            if (lo != null && (low == null || lo.compareTo(low) > 0 || (lo.compareTo(low) == 0 && !loInc))) {
+                low = lo;
+                lowInclusive = loInc;
+            }
+            if (hi != null && (high == null || hi.compareTo(high) < 0 || (hi.compareTo(high) == 0 && !hiInc))) {
+                high = hi;
+                highInclusive = hiInc;
+            }
+            bounded |= lo != null || hi != null;
+        }
+        return bounded ? new Range<>(low, lowInclusive, high, highInclusive) : null;
+    }
+
+    /**
+     * @param column The column.
+     * @param <T> The column type.
+     * @return The values of the first equality or {@code IN} predicate on the column, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Comparable<? super T>> List<T> exactValues(MovieColumn<T> column) {
+        for (Term t : terms) {
+            if (t.column != column) continue;
+            if (t.op == Op.EQ) return List.of((T) t.value);
+            if (t.op == Op.IN) return (List<T>) (List<?>) Collections.unmodifiableList(t.values);
+        }
+        return null;
+    }
+
+    private List<SortKey> effectiveSortKeys() {
+        List<SortKey> keys = new ArrayList<>();
+        for (SortKey key : sortKeys) {
+            keys.add(key);
+            // The title is unique, so keys after it can never matter
+            if (key.column == MovieColumn.TITLE) return keys;
+        }
+        keys.add(new SortKey(MovieColumn.TITLE, false));
+        return keys;
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.Comparator;
+
+/**
+ * The row orders supported by {@link MovieStore} scans and pages.
+ * The ranked orders ({@link #RATING}, {@link #RUNTIME}, {@link #NEWEST}) are meant to be used with a small
+ * page limit, e.g. "top 10 rated in phase 4"; stores answer them without sorting the whole catalog.
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public enum MovieSort {
+    /** Alphabetical by title (the default display order). */
+    TITLE,
+    /** By release date, oldest first, then by title. */
+    RELEASE_DATE,
+    /** Highest IMDb rating first, then by title. */
+    RATING,
+    /** Longest runtime first, then by title. */
+    RUNTIME,
+    /** Most recent release first, then by title. */
+    NEWEST;
+
+    private static final Comparator<MarvelMovie> BY_TITLE = Comparator.comparing(MarvelMovie::getTitle);
+
+    /**
+     * @return true for the ranked orders, which are usually read with a small limit.
+     */
+    public boolean isRanked() {
+        return this == RATING || this == RUNTIME || this == NEWEST;
+    }
+
+    /**
+     * @return A comparator that puts movies in this order, for stores that sort in memory.
+     */
+    public Comparator<MarvelMovie> comparator() {
+        switch (this) {
+            case RELEASE_DATE:
+                return Comparator.comparingInt(MarvelMovie::getReleaseEpochDay).thenComparing(BY_TITLE);
+            case RATING:
+                return Comparator.comparingDouble(MarvelMovie::getImdbRating).reversed().thenComparing(BY_TITLE);
+            case RUNTIME:
+                return Comparator.comparingInt(MarvelMovie::getRunningTimeMin).reversed().thenComparing(BY_TITLE);
+            case NEWEST:
+                return Comparator.comparingInt(MarvelMovie::getReleaseEpochDay).reversed().thenComparing(BY_TITLE);
+            default:
+                return BY_TITLE;
+        }
+    }
+}
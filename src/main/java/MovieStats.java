@@ -0,0 +1,58 @@
+/**
+ * Summary statistics over a set of movies (count, rating average/min/max and average runtime).
+ *
+ * <p>Role in System: Result type of {@link MovieStore#aggregate(MovieFilter)}. Each storage backend computes it
+ * in one pass (a single SQL aggregate query for SQLite) instead of returning the rows.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class MovieStats {
+    private final long count;
+    private final double averageRating;
+    private final double minRating;
+    private final double maxRating;
+    private final double averageRuntime;
+
+    /**
+     * Creates a statistics value.
+     * @param count The number of movies.
+     * @param averageRating The average IMDb rating (0.0 if count is 0).
+     * @param minRating The lowest IMDb rating (0.0 if count is 0).
+     * @param maxRating The highest IMDb rating (0.0 if count is 0).
+     * @param averageRuntime The average runtime in minutes (0.0 if count is 0).
+     */
+    public MovieStats(long count, double averageRating, double minRating, double maxRating, double averageRuntime) {
+        this.count = count;
+        this.averageRating = averageRating;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+        this.averageRuntime = averageRuntime;
+    }
+
+    /** @return Statistics for an empty set of movies. */
+    public static MovieStats empty() {
+        return new MovieStats(0, 0.0, 0.0, 0.0, 0.0);
+    }
+
+    /** @return The number of movies. */
+    public long getCount() { return count; }
+
+    /** @return The average IMDb rating. */
+    public double getAverageRating() { return averageRating; }
+
+    /** @return The lowest IMDb rating. */
+    public double getMinRating() { return minRating; }
+
+    /** @return The highest IMDb rating. */
+    public double getMaxRating() { return maxRating; }
+
+    /** @return The average runtime in minutes. */
+    public double getAverageRuntime() { return averageRuntime; }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, avgRating=%.2f, minRating=%.1f, maxRating=%.1f, avgRuntime=%.1f",
+                count, averageRating, minRating, maxRating, averageRuntime);
+    }
+}
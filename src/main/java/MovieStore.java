@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage engine interface (SPI) behind {@link MovieManager}.
+ * A store only persists and retrieves movies; all input validation stays in the manager,
+ * so every implementation may assume the values it receives are already valid.
+ *
+ * <p>Role in System: Decouples the business logic from the persistence technology. The application uses
+ * {@link SqliteMovieStore}; {@link InMemoryMovieStore} runs the same logic without a database (tests, benchmarks).
+ * Failures are reported the same way as elsewhere in the application: by returning {@code false}, {@code null},
+ * an empty result or {@code -1}, after logging the cause.</p>
+ *
+ * <p>Implementations must be safe for use by multiple threads.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public interface MovieStore {
+
+    /**
+     * Receives one row at a time from {@link #scan(MovieFilter, MovieSort, RowVisitor)}, without a {@link MarvelMovie} object per row.
+     */
+    @FunctionalInterface
+    interface RowVisitor {
+        /**
+         * Handles one row.
+         * @param title The movie's title.
+         * @param releaseDate The release date string.
+         * @param phase The MCU phase number.
+         * @param director The director's name.
+         * @param runningTimeMin The runtime in minutes.
+         * @param imdbRating The IMDb rating.
+         * @throws IOException If the visitor's output fails; the scan stops and rethrows it.
+         */
+        void row(String title, String releaseDate, int phase, String director, int runningTimeMin, double imdbRating) throws IOException;
+    }
+
+    /**
+     * Inserts one movie.
+     * @param movie The (validated) movie.
+     * @return true if inserted, false if the title already exists or the write failed.
+     */
+    boolean insert(MarvelMovie movie);
+
+    /**
+     * Inserts one movie at a given row version instead of the first one, so a movie copied in from another store
+     * (e.g. moved between shards by {@link ShardedMovieStore}) keeps counting up and a writer still holding one of its
+     * old versions gets a conflict. Stores that derive versions themselves ({@link LogMovieStore} uses log offsets)
+     * insert it normally.
+     * @param movie The (validated) movie.
+     * @param version The row version to store.
+     * @return true if inserted, false if the title already exists or the write failed.
+     */
+    default boolean insert(MarvelMovie movie, long version) {
+        return insert(movie);
+    }
+
+    /**
+     * Inserts many movies in one batch, skipping titles that already exist.
+     * @param movies The (validated) movies.
+     * @return The number of movies actually inserted.
+     */
+    int insertAll(Collection<MarvelMovie> movies);
+
+    /**
+     * Updates one column of the movie with the given title.
+     * @param title The current title of the movie.
+     * @param column The column name: {@code title}, {@code releaseDate}, {@code phase}, {@code director},
+     *               {@code runningTimeMin} or {@code imdbRating}.
+     * @param value The new (validated) value: a {@code String}, {@code Integer} or {@code Double} matching the column.
+     * @return true if a movie was updated.
+     */
+    boolean update(String title, String column, Object value);
+
+    /**
+     * Deletes the movie with the given title.
+     * @param title The title.
+     * @return true if a movie was deleted.
+     */
+    boolean delete(String title);
+
+    /**
+     * Inserts new titles and resolves existing ones with the policy, as one batch. Incoming movies are applied in order,
+     * so a title that appears twice is merged against its own earlier version. The default implementation looks each
+     * title up and writes only the columns that differ; stores with per-call overhead override it.
+     * @param movies The (validated) movies.
+     * @param policy What to do with titles that already exist.
+     * @return The inserted/updated/skipped counts, or null if the store failed.
+     */
+    default MergeResult merge(Collection<MarvelMovie> movies, MergePolicy policy) {
+        long inserted = 0, updated = 0, skipped = 0;
+        for (MarvelMovie movie : movies) {
+            MarvelMovie current = find(movie.getTitle());
+            if (current == null) {
+                if (insert(movie)) inserted++; else skipped++;
+            } else if (policy.replaces(current, movie)) {
+                updateChangedColumns(movie.getTitle(), current, movie);
+                updated++;
+            } else {
+                skipped++;
+            }
+        }
+        return new MergeResult(inserted, updated, skipped);
+    }
+
+    /**
+     * Replaces every column of a movie, but only if it still has the version the caller read, so concurrent editors
+     * never silently overwrite each other and nothing is locked while a user edits (optimistic concurrency). A
+     * successful write gives the movie a new version. The default implementation checks and writes in separate calls,
+     * which only guards against writers of the same store object; stores shared between clients override it with an
+     * atomic compare-and-write. Stores that do not track versions report 0 for every movie, so the write always applies.
+     * @param title The title the movie was read under.
+     * @param expectedVersion The version the caller read ({@link MarvelMovie#getVersion()}).
+     * @param values The (validated) new values, including a possibly changed title.
+     * @return {@code APPLIED} with the new version, {@code CONFLICT} with the current movie, {@code NOT_FOUND},
+     * or {@code FAILED} (e.g. the new title already exists).
+     */
+    default VersionedWrite update(String title, long expectedVersion, MarvelMovie values) {
+        MarvelMovie current = find(title);
+        if (current == null) return VersionedWrite.notFound();
+        if (current.getVersion() != expectedVersion) return VersionedWrite.conflict(current);
+        if (!updateChangedColumns(title, current, values)) return VersionedWrite.failed();
+        if (!title.equals(values.getTitle()) && !update(title, "title", values.getTitle())) return VersionedWrite.failed();
+        MarvelMovie updated = find(values.getTitle());
+        return updated == null ? VersionedWrite.failed() : VersionedWrite.applied(updated.getVersion());
+    }
+
+    /**
+     * Deletes a movie, but only if it still has the version the caller read. The default implementation checks and
+     * deletes in separate calls, like {@link #update(String, long, MarvelMovie)}.
+     * @param title The title.
+     * @param expectedVersion The version the caller read.
+     * @return {@code APPLIED} with the deleted version, {@code CONFLICT} with the current movie, {@code NOT_FOUND},
+     * or {@code FAILED}.
+     */
+    default VersionedWrite delete(String title, long expectedVersion) {
+        MarvelMovie current = find(title);
+        if (current == null) return VersionedWrite.notFound();
+        if (current.getVersion() != expectedVersion) return VersionedWrite.conflict(current);
+        return delete(title) ? VersionedWrite.applied(expectedVersion) : VersionedWrite.notFound();
+    }
+
+    /**
+     * Writes the columns (other than the title) in which the new values differ from the stored movie.
+     * @return false if one of the updates failed.
+     */
+    private boolean updateChangedColumns(String title, MarvelMovie current, MarvelMovie values) {
+        boolean ok = true;
+        if (!current.getReleaseDate().equals(values.getReleaseDate())) ok &= update(title, "releaseDate", values.getReleaseDate());
+        if (current.getPhase() != values.getPhase()) ok &= update(title, "phase", values.getPhase());
+        if (!current.getDirector().equals(values.getDirector())) ok &= update(title, "director", values.getDirector());
+        if (current.getRunningTimeMin() != values.getRunningTimeMin()) ok &= update(title, "runningTimeMin", values.getRunningTimeMin());
+        if (Double.compare(current.getImdbRating(), values.getImdbRating()) != 0) ok &= update(title, "imdbRating", values.getImdbRating());
+        return ok;
+    }
+
+    /**
+     * Looks up many titles at once. The default implementation calls {@link #find(String)} per title;
+     * stores with per-call overhead (connections, statements) override it.
+     * @param titles The titles to look up; duplicates are looked up once.
+     * @return Every requested title in input order, mapped to its movie or to null if it does not exist;
+     * an empty map if the store failed.
+     */
+    default Map<String, MarvelMovie> findAll(Collection<String> titles) {
+        Map<String, MarvelMovie> results = new LinkedHashMap<>();
+        for (String title : titles) {
+            if (!results.containsKey(title)) results.put(title, find(title));
+        }
+        return results;
+    }
+
+    /**
+     * Deletes many titles at once. The default implementation calls {@link #delete(String)} per title;
+     * stores with per-call overhead override it and delete all titles in one transaction.
+     * @param titles The titles to delete; duplicates are deleted once.
+     * @return Every requested title in input order, mapped to true if it was deleted or false if it did not exist;
+     * an empty map if the store failed.
+     */
+    default Map<String, Boolean> deleteAll(Collection<String> titles) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (String title : titles) {
+            if (!results.containsKey(title)) results.put(title, delete(title));
+        }
+        return results;
+    }
+
+    /**
+     * Deletes every movie.
+     */
+    void clear();
+
+    /**
+     * Looks up one movie by its exact title.
+     * @param title The title.
+     * @return The movie, or null if not found.
+     */
+    MarvelMovie find(String title);
+
+    /**
+     * Streams every matching row to the visitor in the given order.
+     * @param filter The rows to visit.
+     * @param sort The visiting order.
+     * @param visitor Receives each row.
+     * @return The number of rows visited, or -1 if the store failed.
+     * @throws IOException If the visitor throws.
+     */
+    long scan(MovieFilter filter, MovieSort sort, RowVisitor visitor) throws IOException;
+
+    /**
+     * Returns one page of matching movies in the given order.
+     * @param filter The rows to include.
+     * @param sort The row order.
+     * @param offset The number of matching rows to skip.
+     * @param limit The maximum number of rows to return.
+     * @return The page (possibly empty).
+     */
+    List<MarvelMovie> page(MovieFilter filter, MovieSort sort, int offset, int limit);
+
+    /**
+     * Computes summary statistics over the matching movies.
+     * @param filter The rows to include.
+     * @return The statistics ({@link MovieStats#empty()} if nothing matches or the store failed).
+     */
+    MovieStats aggregate(MovieFilter filter);
+
+    /**
+     * Runs a typed {@link MovieQuery}. The default implementation scans every row and lets the query filter,
+     * order and limit them; stores with suitable indexes or a query language override it.
+     * @param query The query.
+     * @return The matching movies in the query's order (empty if the store failed).
+     */
+    default List<MarvelMovie> query(MovieQuery query) {
+        List<MarvelMovie> rows = new ArrayList<>();
+        try {
+            long scanned = scan(MovieFilter.all(), MovieSort.TITLE, (title, releaseDate, phase, director, runtime, rating) ->
+                    rows.add(new MarvelMovie(title, releaseDate, phase, director, runtime, rating)));
+            if (scanned < 0) return new ArrayList<>();
+        } catch (IOException e) {
+            System.err.println("Query failed: " + e.getMessage());
+            return new ArrayList<>();
+        }
+        return query.evaluate(rows, query.isOrderedBy(MovieSort.TITLE));
+    }
+
+    /**
+     * Makes release-date range filters and {@link MovieSort#RELEASE_DATE} ordering index-backed.
+     * Stores that always maintain such an index simply return true.
+     * @return true if the index is available after the call.
+     */
+    default boolean ensureReleaseDateIndex() {
+        return true;
+    }
+
+    /**
+     * Checks that the storage is usable by this application (for SQLite: that the movies table exists).
+     * @return true if the schema is present.
+     */
+    default boolean verifySchema() {
+        return true;
+    }
+
+    /**
+     * Returns a value that changes whenever committed data changes, so cached copies of the data
+     * (such as a {@link SnapshotFile}) can be validated cheaply. It must change on every commit, whoever made it:
+     * a value derived from file sizes or times can miss one, and a cached copy would then be trusted while stale.
+     * It is read often, so it must not write or change the schema.
+     * @return The current data version, or -1 if the store cannot provide one (cached copies are then never trusted).
+     */
+    default long dataVersion() {
+        return -1;
+    }
+
+    /**
+     * Returns and clears why the calling thread's last call failed, so callers can tell a locked database from other
+     * errors. Stores that are never locked by other processes simply return null.
+     * @return {@link WriteResult.Status#BUSY} if the storage stayed locked, {@link WriteResult.Status#FAILED} for any
+     * other error, or null if the last call succeeded or the store does not track failures.
+     */
+    default WriteResult.Status takeLastFailure() {
+        return null;
+    }
+
+    /**
+     * Applies a column update, as passed to {@link #update(String, String, Object)}, to a movie object.
+     * Helper for stores that keep movies as objects rather than SQL rows.
+     * @param movie The movie to change.
+     * @param column The column name.
+     * @param value The new value.
+     * @return true if the column is known and the value has the matching type.
+     */
+    static boolean setColumn(MarvelMovie movie, String column, Object value) {
+        switch (column) {
+            case "title":
+                if (!(value instanceof String)) return false;
+                movie.setTitle((String) value);
+                return true;
+            case "releaseDate":
+                if (!(value instanceof String)) return false;
+                movie.setReleaseDate((String) value);
+                return true;
+            case "director":
+                if (!(value instanceof String)) return false;
+                movie.setDirector((String) value);
+                return true;
+            case "phase":
+                if (!(value instanceof Integer)) return false;
+                movie.setPhase((Integer) value);
+                return true;
+            case "runningTimeMin":
+                if (!(value instanceof Integer)) return false;
+                movie.setRunningTimeMin((Integer) value);
+                return true;
+            case "imdbRating":
+                if (!(value instanceof Double)) return false;
+                movie.setImdbRating((Double) value);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
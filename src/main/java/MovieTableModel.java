@@ -0,0 +1,93 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only Swing table model for the movie table, backed either by a loaded list of movies or directly by a
+ * memory-mapped {@link SnapshotFile}. With a snapshot file, cell values are decoded only when the table
+ * paints or queries them, so a large catalog appears without building a row object per movie.
+ *
+ * <p>Role in System: Presentation helper for {@link DMSGui}.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class MovieTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"Title", "Release Date", "Phase", "Director", "Runtime (min)", "IMDb"};
+
+    private List<MarvelMovie> movies = new ArrayList<>();
+    private SnapshotFile snapshot;
+
+    /**
+     * Shows a list of movies, replacing the current rows.
+     * @param movies The movies to display (null for none).
+     */
+    public void setMovies(List<MarvelMovie> movies) {
+        this.movies = movies == null ? new ArrayList<>() : movies;
+        this.snapshot = null;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Shows the rows of a mapped snapshot file, replacing the current rows.
+     * @param snapshot The snapshot to display.
+     */
+    public void setSnapshot(SnapshotFile snapshot) {
+        this.snapshot = snapshot;
+        this.movies = new ArrayList<>();
+        fireTableDataChanged();
+    }
+
+    /**
+     * @return The displayed movie list, or null while the rows come from a snapshot file.
+     */
+    public List<MarvelMovie> getMovies() {
+        return snapshot == null ? movies : null;
+    }
+
+    /**
+     * @return true if the rows currently come from a snapshot file.
+     */
+    public boolean isShowingSnapshot() {
+        return snapshot != null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return snapshot != null ? snapshot.size() : movies.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (snapshot != null) {
+            switch (column) {
+                case 0: return snapshot.title(row);
+                case 1: return snapshot.releaseDate(row);
+                case 2: return snapshot.phase(row);
+                case 3: return snapshot.director(row);
+                case 4: return snapshot.runtime(row);
+                default: return snapshot.rating(row);
+            }
+        }
+        MarvelMovie m = movies.get(row);
+        switch (column) {
+            case 0: return m.getTitle();
+            case 1: return m.getReleaseDate();
+            case 2: return m.getPhase();
+            case 3: return m.getDirector();
+            case 4: return m.getRunningTimeMin();
+            default: return m.getImdbRating();
+        }
+    }
+}
@@ -0,0 +1,393 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backs up a live SQLite database while the application keeps serving requests, instead of copying the file while it
+ * may be half-written. The copy uses SQLite's online backup API in small steps of {@link #getPagesPerStep()} pages,
+ * and between steps it pauses and then waits (up to a limit) while the database's pooled connections are in use, so
+ * a foreground call is delayed by at most one short step.
+ *
+ * <p>The whole copy runs inside one read transaction, so each snapshot is the database exactly as it was when the
+ * backup started (a point-in-time copy), and writes made meanwhile neither block on it (WAL mode) nor restart it.
+ * Snapshots are self-contained files named {@code <database>-<yyyyMMdd-HHmmss-SSS>.db}, written under a temporary
+ * name and renamed once complete, and only the newest {@link #getKeep()} are kept. {@link #schedule(long)} takes
+ * snapshots periodically on a low-priority background thread.</p>
+ *
+ * <p>Role in System: Maintenance service for one {@link SqliteDatabase}. Restoring through
+ * {@link MovieManager#restoreBackup(OnlineBackup, Path)} also refreshes the manager's caches. Safe to use from many
+ * threads; backups and restores run one at a time.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class OnlineBackup {
+
+    public static final int DEFAULT_PAGES_PER_STEP = 64;
+    public static final long DEFAULT_PAUSE_MILLIS = 2;
+    public static final long DEFAULT_MAX_DEFER_MILLIS = 50;
+
+    private static final String SNAPSHOT_SUFFIX = ".db";
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final SqliteDatabase database;
+    private final Path directory;
+    private final int keep;
+
+    private volatile int pagesPerStep = DEFAULT_PAGES_PER_STEP;
+    private volatile long pauseMillis = DEFAULT_PAUSE_MILLIS;
+    private volatile long maxDeferMillis = DEFAULT_MAX_DEFER_MILLIS;
+
+    private volatile Result lastResult;
+    private ScheduledExecutorService scheduler;
+
+    // One backup or restore at a time
+    private final Object runLock = new Object();
+
+    /**
+     * The outcome of one backup.
+     */
+    public static final class Result {
+        private final Path file;
+        private final long pages;
+        private final long steps;
+        private final long millis;
+        private final long maxStepMillis;
+        private final long yieldedMillis;
+
+        Result(Path file, long pages, long steps, long millis, long maxStepMillis, long yieldedMillis) {
+            this.file = file;
+            this.pages = pages;
+            this.steps = steps;
+            this.millis = millis;
+            this.maxStepMillis = maxStepMillis;
+            this.yieldedMillis = yieldedMillis;
+        }
+
+        /** @return The snapshot file. */
+        public Path getFile() { return file; }
+
+        /** @return The number of database pages copied. */
+        public long getPages() { return pages; }
+
+        /** @return The number of copy steps. */
+        public long getSteps() { return steps; }
+
+        /** @return The wall time of the backup, in milliseconds. */
+        public long getMillis() { return millis; }
+
+        /** @return The longest single copy step, in milliseconds: the most a foreground call waited on the backup. */
+        public long getMaxStepMillis() { return maxStepMillis; }
+
+        /** @return The time spent pausing and waiting for foreground calls between steps, in milliseconds. */
+        public long getYieldedMillis() { return yieldedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %,d pages in %,d steps, %,d ms (longest step %d ms, yielded %,d ms)",
+                    file.getFileName(), pages, steps, millis, maxStepMillis, yieldedMillis);
+        }
+    }
+
+    /**
+     * Creates a backup service. Nothing is copied until {@link #backupNow()} or {@link #schedule(long)}.
+     * @param database The database to back up (e.g. {@link JDBC#getDefaultDatabase()}).
+     * @param directory The directory the snapshots are written to; created if missing.
+     * @param keep How many snapshots to keep; older ones are deleted after each backup. At least 1.
+     */
+    public OnlineBackup(SqliteDatabase database, Path directory, int keep) {
+        if (keep < 1) throw new IllegalArgumentException("At least one snapshot must be kept: " + keep);
+        this.database = database;
+        this.directory = directory;
+        this.keep = keep;
+    }
+
+    /**
+     * Sets how the copy shares the database with foreground calls. Smaller steps and longer pauses keep foreground
+     * latency closer to normal but make the backup take longer.
+     * @param pagesPerStep Pages copied per step; at least 1.
+     * @param pauseMillis The pause after every step; 0 for none.
+     * @param maxDeferMillis How long a step may wait for in-use connections to be returned; 0 to never wait.
+     */
+    public void setPacing(int pagesPerStep, long pauseMillis, long maxDeferMillis) {
+        if (pagesPerStep < 1) throw new IllegalArgumentException("At least one page per step: " + pagesPerStep);
+        this.pagesPerStep = pagesPerStep;
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.maxDeferMillis = Math.max(0, maxDeferMillis);
+    }
+
+    /** @return Pages copied per step. */
+    public int getPagesPerStep() { return pagesPerStep; }
+
+    /** @return How many snapshots are kept. */
+    public int getKeep() { return keep; }
+
+    /** @return The directory the snapshots are written to. */
+    public Path getDirectory() { return directory; }
+
+    /** @return The outcome of the last successful backup, or null if none has run. */
+    public Result getLastResult() { return lastResult; }
+
+    /**
+     * Takes a snapshot now, then deletes snapshots beyond {@link #getKeep()}.
+     * @return The outcome, or null if the backup failed (the error is printed).
+     */
+    public Result backupNow() {
+        synchronized (runLock) {
+            String source = database.getFile();
+            if (source == null) {
+                System.err.println("Backup failed: database path has not been set");
+                return null;
+            }
+            Path target;
+            Path partial;
+            try {
+                Files.createDirectories(directory);
+                target = directory.resolve(baseName(source) + "-" + LocalDateTime.now().format(STAMP) + SNAPSHOT_SUFFIX);
+                partial = Path.of(target + PARTIAL_SUFFIX);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Backup failed: cannot prepare " + directory + ": " + e.getMessage());
+                return null;
+            }
+
+            Pacer pacer = new Pacer();
+            long start = System.nanoTime();
+            Connection con = null;
+            try {
+                con = database.openConnection(JDBC.Lane.READ);
+                // Pin the snapshot: the copy keeps reading this transaction instead of restarting after each write
+                con.setAutoCommit(false);
+                try (Statement stmt = con.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT count(*) FROM sqlite_master")) {
+                    rs.next();
+                }
+                pacer.stepStarted();
+                JDBC.backup(con, partial.toString(), pagesPerStep, pacer::afterStep);
+                con.commit();
+                makeStandalone(partial);
+            } catch (SQLException e) {
+                System.err.println("Backup failed: " + e.getMessage());
+                deleteQuietly(partial);
+                return null;
+            } finally {
+                JDBC.closeConnection(con);
+            }
+
+            try {
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Backup failed: cannot rename " + partial + ": " + e.getMessage());
+                deleteQuietly(partial);
+                return null;
+            }
+            Result result = new Result(target, pacer.pages, pacer.steps, (System.nanoTime() - start) / 1_000_000L,
+                    pacer.maxStepNanos / 1_000_000L, pacer.yieldedNanos / 1_000_000L);
+            lastResult = result;
+            rotate();
+            return result;
+        }
+    }
+
+    /**
+     * Replaces the live database's contents with a snapshot, after checking the snapshot with
+     * {@code PRAGMA quick_check}. The copy runs on the write lane in one transaction, so writers wait for it and
+     * readers see either the old or the restored catalog. Prefer {@link MovieManager#restoreBackup(OnlineBackup, Path)},
+     * which also refreshes the manager's caches.
+     * @param snapshot A snapshot file (e.g. from {@link #listSnapshots()}).
+     * @return true if the database now holds the snapshot; false if the snapshot is missing, damaged or the copy
+     * failed (the database is unchanged).
+     */
+    public boolean restore(Path snapshot) {
+        synchronized (runLock) {
+            if (!Files.isRegularFile(snapshot)) {
+                System.err.println("Restore failed: no snapshot at " + snapshot);
+                return false;
+            }
+            if (!verify(snapshot)) return false;
+            try {
+                database.withConnection(JDBC.Lane.WRITE, con -> {
+                    // The snapshot's commit count may be lower than versions already stamped on cached copies
+                    long version = SqliteDataVersion.read(con);
+                    JDBC.restore(con, snapshot.toString());
+                    SqliteDataVersion.advancePast(con, version);
+                    return null;
+                });
+            } catch (SQLException e) {
+                System.err.println("Restore failed: " + e.getMessage());
+                return false;
+            }
+            // The snapshot may predate optional columns and indexes
+            SqliteMovieStore.forgetSchema(database.getFile());
+            return true;
+        }
+    }
+
+    /**
+     * @return The snapshots of this database in the backup directory, newest first (empty if there are none).
+     */
+    public List<Path> listSnapshots() {
+        List<Path> snapshots = new ArrayList<>();
+        String source = database.getFile();
+        if (source == null || !Files.isDirectory(directory)) return snapshots;
+        String prefix = baseName(source) + "-";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                // Skip other databases whose names start with this one's, e.g. "movies-old" next to "movies"
+                String stamp = file.getFileName().toString();
+                stamp = stamp.substring(prefix.length(), stamp.length() - SNAPSHOT_SUFFIX.length());
+                if (stamp.matches("\\d{8}-\\d{6}-\\d{3}")) snapshots.add(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list snapshots in " + directory + ": " + e.getMessage());
+        }
+        // The timestamp format sorts chronologically by name
+        snapshots.sort(Collections.reverseOrder());
+        return snapshots;
+    }
+
+    /**
+     * Takes a snapshot every {@code intervalMillis} on a low-priority background thread, replacing any earlier
+     * schedule. The first snapshot is taken after one interval.
+     * @param intervalMillis The time between the end of one backup and the start of the next; at least 1.
+     */
+    public synchronized void schedule(long intervalMillis) {
+        if (intervalMillis < 1) throw new IllegalArgumentException("Interval must be positive: " + intervalMillis);
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread t = new Thread(task, "online-backup");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            Result result = backupNow();
+            if (result != null) System.out.println("Backup written: " + result);
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the schedule. A backup already running finishes.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Runs {@code PRAGMA quick_check} on a snapshot through a read-only connection.
+     */
+    private static boolean verify(Path snapshot) {
+        Connection con = null;
+        try {
+            con = new SqliteDatabase(snapshot.toString()).openConnection(JDBC.Lane.READ);
+            try (Statement stmt = con.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+                String status = rs.next() ? rs.getString(1) : "no result";
+                if (!"ok".equalsIgnoreCase(status)) {
+                    System.err.println("Restore failed: snapshot " + snapshot + " is damaged: " + status);
+                    return false;
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            System.err.println("Restore failed: cannot read snapshot " + snapshot + ": " + e.getMessage());
+            return false;
+        } finally {
+            JDBC.closeConnection(con);
+        }
+    }
+
+    /**
+     * Switches a finished copy from WAL to rollback journaling (the copy inherits the live file's WAL flag), so the
+     * snapshot is one self-contained file that can be copied elsewhere or read without leaving {@code -wal} files.
+     */
+    private static void makeStandalone(Path copy) throws SQLException {
+        try (Connection con = DriverManager.getConnection("jdbc:sqlite:" + copy);
+             Statement stmt = con.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = DELETE");
+        }
+    }
+
+    /** Deletes snapshots beyond {@link #keep}, oldest first. */
+    private void rotate() {
+        List<Path> snapshots = listSnapshots();
+        for (int i = keep; i < snapshots.size(); i++) {
+            Path old = snapshots.get(i);
+            deleteQuietly(Path.of(old + "-wal"));
+            deleteQuietly(Path.of(old + "-shm"));
+            deleteQuietly(old);
+        }
+    }
+
+    /** The database file name without its extension, e.g. {@code myproject} for {@code /data/myproject.db}. */
+    private static String baseName(String file) {
+        String name = Path.of(file).getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Called by SQLite after every copy step, on the backing-up thread: records the step, then pauses and waits for
+     * the database's in-use connections to be returned before the next step.
+     */
+    private final class Pacer {
+        long pages;
+        long steps;
+        long maxStepNanos;
+        long yieldedNanos;
+        private long stepStart;
+
+        void stepStarted() {
+            stepStart = System.nanoTime();
+        }
+
+        void afterStep(int remaining, int total) {
+            long now = System.nanoTime();
+            steps++;
+            pages = total;
+            maxStepNanos = Math.max(maxStepNanos, now - stepStart);
+            if (remaining > 0) {
+                try {
+                    if (pauseMillis > 0) Thread.sleep(pauseMillis);
+                    long deadline = System.nanoTime() + maxDeferMillis * 1_000_000L;
+                    while (foregroundBusy() && System.nanoTime() < deadline) Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    // Finish the copy without pauses; the flag stays set for the caller
+                    Thread.currentThread().interrupt();
+                }
+            }
+            stepStart = System.nanoTime();
+            yieldedNanos += stepStart - now;
+        }
+
+        private boolean foregroundBusy() {
+            return database.getPool(JDBC.Lane.READ).getInUse() > 0 || database.getPool(JDBC.Lane.WRITE).getInUse() > 0;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A fork-join engine for in-memory aggregates: count, average, minimum and maximum of rating and runtime, rating and
+ * runtime histograms, and rating/runtime percentiles, all computed in one pass over either a columnar
+ * {@link CatalogSnapshot} or a list of {@link MarvelMovie} objects (e.g. the rows already loaded into the GUI table).
+ *
+ * <p>The row range is split in halves, but only while a half is above the sequential threshold and the pool has
+ * idle workers to steal it (few surplus queued tasks); otherwise a task runs its range as a plain loop. Inputs below
+ * the threshold, and pools with a single worker, skip the pool entirely. Each leaf fills its own partial
+ * {@link Summary} (scalars plus fixed-size histograms), and partials are merged on the way up, so no state is shared
+ * between workers.</p>
+ *
+ * <p>Ratings are counted in the histograms at 0.1 resolution and runtimes to the minute, matching what the
+ * application validates (1.0-10.0 and 30-300); out-of-range values are clamped into the edge buckets.</p>
+ *
+ * <p>Role in System: Backs {@link MovieManager#summarize(MovieFilter)} and the other in-memory aggregates of
+ * {@link MovieManager}. Thread-safe; one instance may be shared.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class ParallelAggregator {
+
+    /** Rows below which a range is aggregated sequentially. */
+    public static final int DEFAULT_THRESHOLD = 1 << 14;
+
+    // A task keeps splitting only while fewer than this many of its subtasks wait unstolen
+    private static final int MAX_SURPLUS = 3;
+
+    private static final int MAX_TENTHS = 100, MAX_RUNTIME = 300;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Creates an engine.
+     * @param pool The pool the aggregates run on.
+     * @param threshold Rows below which a range is aggregated sequentially (at least 1).
+     */
+    public ParallelAggregator(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    /**
+     * @return An engine on the common fork-join pool with the default threshold.
+     */
+    public static ParallelAggregator common() {
+        return new ParallelAggregator(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /** @return The pool the aggregates run on. */
+    public ForkJoinPool getPool() { return pool; }
+
+    /** @return The number of workers of the pool. */
+    public int getParallelism() { return pool.getParallelism(); }
+
+    /**
+     * Aggregates the rows of a snapshot that match the filter.
+     * @param snapshot The catalog.
+     * @param filter The rows to include, or null for all rows.
+     * @return The summary.
+     */
+    public Summary summarize(CatalogSnapshot snapshot, MovieFilter filter) {
+        return run(new SnapshotTask(snapshot, new RowFilter(snapshot, filter), 0, snapshot.size()), snapshot.size());
+    }
+
+    /**
+     * Aggregates the movies of a list that match the filter.
+     * @param movies The movies; the list must support fast random access and must not change during the call.
+     * @param filter The movies to include, or null for all movies.
+     * @return The summary.
+     */
+    public Summary summarize(List<MarvelMovie> movies, MovieFilter filter) {
+        return run(new ListTask(movies, filter, 0, movies.size()), movies.size());
+    }
+
+    private Summary run(AggregateTask task, int rows) {
+        // Small inputs and single-worker pools gain nothing from the pool hand-off
+        if (rows <= threshold || pool.getParallelism() <= 1) return task.sequential();
+        return pool.invoke(task);
+    }
+
+    /**
+     * Splits a row range adaptively; subclasses aggregate one range sequentially.
+     */
+    private abstract class AggregateTask extends RecursiveTask<Summary> {
+        final int from, to;
+
+        AggregateTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        abstract AggregateTask slice(int from, int to);
+
+        abstract void accumulate(Summary summary);
+
+        Summary sequential() {
+            Summary summary = new Summary();
+            accumulate(summary);
+            return summary;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from <= threshold || getSurplusQueuedTaskCount() > MAX_SURPLUS) return sequential();
+            int mid = (from + to) >>> 1;
+            AggregateTask right = slice(mid, to);
+            right.fork();
+            Summary left = slice(from, mid).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+
+    private final class SnapshotTask extends AggregateTask {
+        private final CatalogSnapshot snapshot;
+        private final RowFilter filter;
+
+        SnapshotTask(CatalogSnapshot snapshot, RowFilter filter, int from, int to) {
+            super(from, to);
+            this.snapshot = snapshot;
+            this.filter = filter;
+        }
+
+        @Override
+        AggregateTask slice(int from, int to) {
+            return new SnapshotTask(snapshot, filter, from, to);
+        }
+
+        @Override
+        void accumulate(Summary summary) {
+            if (filter.none) return;
+            for (int i = from; i < to; i++) {
+                if (filter.all || filter.matches(snapshot, i)) summary.add(snapshot.rating(i), snapshot.runtime(i));
+            }
+        }
+    }
+
+    private final class ListTask extends AggregateTask {
+        private final List<MarvelMovie> movies;
+        private final MovieFilter filter;
+
+        ListTask(List<MarvelMovie> movies, MovieFilter filter, int from, int to) {
+            super(from, to);
+            this.movies = movies;
+            this.filter = filter;
+        }
+
+        @Override
+        AggregateTask slice(int from, int to) {
+            return new ListTask(movies, filter, from, to);
+        }
+
+        @Override
+        void accumulate(Summary summary) {
+            for (int i = from; i < to; i++) {
+                MarvelMovie m = movies.get(i);
+                if (filter == null || filter.matches(m)) summary.add(m.getImdbRating(), m.getRunningTimeMin());
+            }
+        }
+    }
+
+    /**
+     * A {@link MovieFilter} resolved against a snapshot's primitive columns (the director becomes its dictionary ID).
+     */
+    private static final class RowFilter {
+        final boolean all, none;
+        private final boolean anyPhase;
+        private final int phase, directorId, fromDay, toDay;
+        private final double minRating, maxRating;
+
+        RowFilter(CatalogSnapshot snapshot, MovieFilter f) {
+            all = f == null || (f.getPhase() == null && f.getDirector() == null && f.getMinRating() == null
+                    && f.getMaxRating() == null && f.getFromEpochDay() == null);
+            anyPhase = f == null || f.getPhase() == null;
+            phase = anyPhase ? 0 : f.getPhase();
+            directorId = f == null || f.getDirector() == null ? -1 : snapshot.directorIdOf(f.getDirector());
+            none = f != null && f.getDirector() != null && directorId < 0;
+            minRating = f == null || f.getMinRating() == null ? Double.NEGATIVE_INFINITY : f.getMinRating();
+            maxRating = f == null || f.getMaxRating() == null ? Double.POSITIVE_INFINITY : f.getMaxRating();
+            fromDay = f == null || f.getFromEpochDay() == null ? Integer.MIN_VALUE : f.getFromEpochDay();
+            toDay = f == null || f.getToEpochDay() == null ? Integer.MAX_VALUE : f.getToEpochDay();
+        }
+
+        boolean matches(CatalogSnapshot s, int i) {
+            double r = s.rating(i);
+            int day = s.releaseEpochDay(i);
+            return (anyPhase || s.phase(i) == phase) & (directorId < 0 || s.directorId(i) == directorId)
+                    & r >= minRating & r <= maxRating & day >= fromDay & day <= toDay;
+        }
+    }
+
+    /**
+     * The result of one aggregation: count, sums and extremes, plus per-0.1 rating and per-minute runtime histograms
+     * from which equal-width histograms and percentiles are derived. All values are 0 for an empty result.
+     */
+    public static final class Summary {
+        private long count;
+        private double ratingSum;
+        private double minRating = Double.POSITIVE_INFINITY;
+        private double maxRating = Double.NEGATIVE_INFINITY;
+        private long runtimeSum;
+        private int minRuntime = Integer.MAX_VALUE;
+        private int maxRuntime = Integer.MIN_VALUE;
+        private final long[] tenths = new long[MAX_TENTHS + 1];
+        private final long[] minutes = new long[MAX_RUNTIME + 1];
+
+        private Summary() {
+        }
+
+        private void add(double rating, int runtime) {
+            count++;
+            ratingSum += rating;
+            if (rating < minRating) minRating = rating;
+            if (rating > maxRating) maxRating = rating;
+            runtimeSum += runtime;
+            if (runtime < minRuntime) minRuntime = runtime;
+            if (runtime > maxRuntime) maxRuntime = runtime;
+            tenths[(int) Math.max(0, Math.min(MAX_TENTHS, Math.round(rating * 10.0)))]++;
+            minutes[Math.max(0, Math.min(MAX_RUNTIME, runtime))]++;
+        }
+
+        private void merge(Summary other) {
+            count += other.count;
+            ratingSum += other.ratingSum;
+            minRating = Math.min(minRating, other.minRating);
+            maxRating = Math.max(maxRating, other.maxRating);
+            runtimeSum += other.runtimeSum;
+            minRuntime = Math.min(minRuntime, other.minRuntime);
+            maxRuntime = Math.max(maxRuntime, other.maxRuntime);
+            for (int i = 0; i < tenths.length; i++) tenths[i] += other.tenths[i];
+            for (int i = 0; i < minutes.length; i++) minutes[i] += other.minutes[i];
+        }
+
+        /** @return The number of matching movies. */
+        public long getCount() { return count; }
+
+        /** @return The average rating. */
+        public double getAverageRating() { return count == 0 ? 0.0 : ratingSum / count; }
+
+        /** @return The lowest rating. */
+        public double getMinRating() { return count == 0 ? 0.0 : minRating; }
+
+        /** @return The highest rating. */
+        public double getMaxRating() { return count == 0 ? 0.0 : maxRating; }
+
+        /** @return The average runtime in minutes. */
+        public double getAverageRuntime() { return count == 0 ? 0.0 : (double) runtimeSum / count; }
+
+        /** @return The shortest runtime. */
+        public int getMinRuntime() { return count == 0 ? 0 : minRuntime; }
+
+        /** @return The longest runtime. */
+        public int getMaxRuntime() { return count == 0 ? 0 : maxRuntime; }
+
+        /** @return The scalar statistics in the shape returned by {@link MovieStore#aggregate(MovieFilter)}. */
+        public MovieStats toStats() {
+            if (count == 0) return MovieStats.empty();
+            return new MovieStats(count, getAverageRating(), minRating, maxRating, getAverageRuntime());
+        }
+
+        /**
+         * @param percentile The percentile, 0-100 (e.g. 50 for the median).
+         * @return The nearest-rank rating percentile, to 0.1.
+         */
+        public double getRatingPercentile(double percentile) {
+            return count == 0 ? 0.0 : rankIn(tenths, percentile) / 10.0;
+        }
+
+        /**
+         * @param percentile The percentile, 0-100 (e.g. 50 for the median).
+         * @return The nearest-rank runtime percentile in minutes.
+         */
+        public int getRuntimePercentile(double percentile) {
+            return count == 0 ? 0 : rankIn(minutes, percentile);
+        }
+
+        /**
+         * Counts ratings in equal-width buckets over 1.0-10.0 (bucket 0 starts at 1.0, the last one ends at 10.0).
+         * @param buckets The number of buckets (at least 1).
+         * @return The count per bucket.
+         */
+        public long[] getRatingHistogram(int buckets) {
+            return rebucket(tenths, 10, MAX_TENTHS, buckets);
+        }
+
+        /**
+         * Counts runtimes in equal-width buckets over 30-300 minutes.
+         * @param buckets The number of buckets (at least 1).
+         * @return The count per bucket.
+         */
+        public long[] getRuntimeHistogram(int buckets) {
+            return rebucket(minutes, 30, MAX_RUNTIME, buckets);
+        }
+
+        private int rankIn(long[] histogram, double percentile) {
+            double p = Math.max(0.0, Math.min(100.0, percentile));
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * count)) - 1;
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen > rank) return i;
+            }
+            return histogram.length - 1;
+        }
+
+        private static long[] rebucket(long[] fine, int low, int high, int buckets) {
+            long[] out = new long[Math.max(1, buckets)];
+            long width = high - low + 1;
+            for (int v = 0; v < fine.length; v++) {
+                if (fine[v] == 0) continue;
+                long offset = Math.max(0, Math.min(width - 1, v - low));
+                out[(int) (offset * out.length / width)] += fine[v];
+            }
+            return out;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, rating avg=%.2f min=%.1f p50=%.1f p90=%.1f max=%.1f, runtime avg=%.1f min=%d p50=%d p90=%d max=%d",
+                    count, getAverageRating(), getMinRating(), getRatingPercentile(50), getRatingPercentile(90), getMaxRating(),
+                    getAverageRuntime(), getMinRuntime(), getRuntimePercentile(50), getRuntimePercentile(90), getMaxRuntime());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An epoch-day index over release dates: per-day release counts and rating sums, stored as prefix sums over the days
+ * between the first and the last release. Counting the releases of any date range, or averaging their ratings, is two
+ * array reads, so year/quarter/month series, cumulative totals and sliding-window averages cost one step per bucket
+ * no matter how many movies the catalog holds.
+ *
+ * <p>The index is built from a {@link CatalogSnapshot}, whose release dates are already epoch days (parsed once when the
+ * snapshot is loaded), so no date string is parsed per query. Movies dated outside the valid release range
+ * ({@link IsoDate#MIN_RELEASE_EPOCH_DAY} to {@link IsoDate#MAX_RELEASE_EPOCH_DAY}) are left out and counted in
+ * {@link #getUndatedCount()}.</p>
+ *
+ * <p>Role in System: Result of {@link MovieManager#releaseTimeline(MovieFilter)}; shown by the GUI's timeline view.
+ * Immutable after construction and safe to share between threads.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class ReleaseTimeline {
+
+    private final int firstDay;
+    private final int lastDay;
+    // Index d + 1 holds the totals of all days before or on firstDay + d
+    private final long[] countPrefix;
+    private final double[] ratingPrefix;
+    private final long undated;
+
+    /**
+     * Builds the index over some rows of a snapshot.
+     * @param snapshot The catalog.
+     * @param rows The row indices to include (e.g. from {@link CatalogSnapshot#filter}), or null for every row.
+     */
+    public ReleaseTimeline(CatalogSnapshot snapshot, int[] rows) {
+        int n = rows == null ? snapshot.size() : rows.length;
+        int first = Integer.MAX_VALUE, last = Integer.MIN_VALUE;
+        long skipped = 0;
+        for (int k = 0; k < n; k++) {
+            int day = snapshot.releaseEpochDay(rows == null ? k : rows[k]);
+            if (day < IsoDate.MIN_RELEASE_EPOCH_DAY || day > IsoDate.MAX_RELEASE_EPOCH_DAY) {
+                skipped++;
+                continue;
+            }
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+        this.undated = skipped;
+        if (first > last) {
+            first = 0;
+            last = -1;
+        }
+        this.firstDay = first;
+        this.lastDay = last;
+
+        int days = last - first + 1;
+        long[] counts = new long[days + 1];
+        double[] ratings = new double[days + 1];
+        for (int k = 0; k < n; k++) {
+            int row = rows == null ? k : rows[k];
+            int day = snapshot.releaseEpochDay(row);
+            if (day < first || day > last) continue;
+            counts[day - first + 1]++;
+            ratings[day - first + 1] += snapshot.rating(row);
+        }
+        for (int d = 1; d <= days; d++) {
+            counts[d] += counts[d - 1];
+            ratings[d] += ratings[d - 1];
+        }
+        this.countPrefix = counts;
+        this.ratingPrefix = ratings;
+    }
+
+    /** @return The number of indexed releases. */
+    public long getReleaseCount() { return countPrefix[countPrefix.length - 1]; }
+
+    /** @return The number of movies left out because their release date is missing or outside the valid range. */
+    public long getUndatedCount() { return undated; }
+
+    /** @return The epoch day of the first release, or {@link IsoDate#INVALID} if the timeline is empty. */
+    public int getFirstEpochDay() { return getReleaseCount() == 0 ? IsoDate.INVALID : firstDay; }
+
+    /** @return The epoch day of the last release, or {@link IsoDate#INVALID} if the timeline is empty. */
+    public int getLastEpochDay() { return getReleaseCount() == 0 ? IsoDate.INVALID : lastDay; }
+
+    /**
+     * Counts the releases within an inclusive range of epoch days.
+     * @param fromDay The first day.
+     * @param toDay The last day.
+     * @return The number of releases.
+     */
+    public long count(int fromDay, int toDay) {
+        int from = clamp(fromDay), to = clamp(toDay + 1L);
+        return from >= to ? 0 : countPrefix[to] - countPrefix[from];
+    }
+
+    /**
+     * Averages the ratings of the releases within an inclusive range of epoch days.
+     * @param fromDay The first day.
+     * @param toDay The last day.
+     * @return The average rating, or 0.0 if nothing was released in the range.
+     */
+    public double averageRating(int fromDay, int toDay) {
+        int from = clamp(fromDay), to = clamp(toDay + 1L);
+        long n = from >= to ? 0 : countPrefix[to] - countPrefix[from];
+        return n == 0 ? 0.0 : (ratingPrefix[to] - ratingPrefix[from]) / n;
+    }
+
+    /** Maps "before day" to a prefix index, clamped to the indexed days. */
+    private int clamp(long day) {
+        return (int) Math.max(0, Math.min(countPrefix.length - 1, day - firstDay));
+    }
+
+    /**
+     * Buckets the releases by year, quarter or month, from the first to the last release (empty buckets included).
+     * @param bucket The bucket size.
+     * @param window The number of buckets (this one and the ones before it) averaged by
+     *               {@link Point#getWindowAverageRating()}; at least 1.
+     * @return One point per bucket, oldest first; an empty list if the timeline is empty.
+     */
+    public List<Point> series(TimeBucket bucket, int window) {
+        List<Point> points = new ArrayList<>();
+        if (getReleaseCount() == 0) return points;
+        int span = Math.max(1, window);
+        int[] ymd = new int[3];
+        IsoDate.civil(firstDay, ymd);
+        int first = bucket.indexOf(ymd[0], ymd[1]);
+        IsoDate.civil(lastDay, ymd);
+        int last = bucket.indexOf(ymd[0], ymd[1]);
+
+        int firstStart = bucket.startEpochDay(first);
+        for (int b = first; b <= last; b++) {
+            int start = bucket.startEpochDay(b);
+            int end = bucket.startEpochDay(b + 1) - 1;
+            int windowStart = bucket.startEpochDay(Math.max(first, b - span + 1));
+            points.add(new Point(bucket.format(b), start, end,
+                    count(start, end), averageRating(start, end),
+                    count(firstStart, end), averageRating(firstStart, end),
+                    averageRating(windowStart, end)));
+        }
+        return points;
+    }
+
+    /**
+     * One bucket of a release series.
+     */
+    public static final class Point {
+        private final String label;
+        private final int startEpochDay, endEpochDay;
+        private final long count, cumulativeCount;
+        private final double averageRating, cumulativeAverageRating, windowAverageRating;
+
+        private Point(String label, int startEpochDay, int endEpochDay, long count, double averageRating,
+                      long cumulativeCount, double cumulativeAverageRating, double windowAverageRating) {
+            this.label = label;
+            this.startEpochDay = startEpochDay;
+            this.endEpochDay = endEpochDay;
+            this.count = count;
+            this.averageRating = averageRating;
+            this.cumulativeCount = cumulativeCount;
+            this.cumulativeAverageRating = cumulativeAverageRating;
+            this.windowAverageRating = windowAverageRating;
+        }
+
+        /** @return The bucket as text, e.g. {@code 2021}, {@code 2021-Q3} or {@code 2021-07}. */
+        public String getLabel() { return label; }
+
+        /** @return The bucket's first day. */
+        public int getStartEpochDay() { return startEpochDay; }
+
+        /** @return The bucket's last day. */
+        public int getEndEpochDay() { return endEpochDay; }
+
+        /** @return The releases in the bucket. */
+        public long getCount() { return count; }
+
+        /** @return The average rating of the bucket's releases (0.0 if none). */
+        public double getAverageRating() { return averageRating; }
+
+        /** @return The releases up to and including this bucket. */
+        public long getCumulativeCount() { return cumulativeCount; }
+
+        /** @return The average rating of all releases up to and including this bucket. */
+        public double getCumulativeAverageRating() { return cumulativeAverageRating; }
+
+        /** @return The average rating of the releases in the sliding window ending with this bucket (0.0 if none). */
+        public double getWindowAverageRating() { return windowAverageRating; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d releases, avg %.2f, cumulative %d (avg %.2f), window avg %.2f",
+                    label, count, averageRating, cumulativeCount, cumulativeAverageRating, windowAverageRating);
+        }
+    }
+}
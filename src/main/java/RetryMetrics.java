@@ -0,0 +1,81 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of how database calls fared under the {@link RetryPolicy}: how many calls ran, how many needed retries,
+ * how many gave up on contention or failed otherwise, and how long they spent backing off.
+ *
+ * <p>Role in System: Recorded by {@link JDBC#retry(JDBC.SqlCall)} and read through {@link JDBC#getRetryMetrics()}.
+ * Safe to update from many threads; the getters read each counter separately, so a report taken while calls run may
+ * be slightly inconsistent.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class RetryMetrics {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retriedCalls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder busyFailures = new LongAdder();
+    private final LongAdder otherFailures = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+    private final LongAccumulator maxAttempts = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one finished call.
+     * @param attempts The attempts it made.
+     * @param backoff The milliseconds it spent backing off.
+     * @param failure null if it succeeded, else {@link WriteResult.Status#BUSY} or {@link WriteResult.Status#FAILED}.
+     */
+    void record(int attempts, long backoff, WriteResult.Status failure) {
+        calls.increment();
+        if (attempts > 1) {
+            retriedCalls.increment();
+            retries.add(attempts - 1);
+        }
+        backoffMillis.add(backoff);
+        maxAttempts.accumulate(attempts);
+        if (failure == WriteResult.Status.BUSY) busyFailures.increment();
+        else if (failure != null) otherFailures.increment();
+    }
+
+    /** @return The number of calls. */
+    public long getCalls() { return calls.sum(); }
+
+    /** @return The number of calls that needed at least one retry. */
+    public long getRetriedCalls() { return retriedCalls.sum(); }
+
+    /** @return The total number of retries. */
+    public long getRetries() { return retries.sum(); }
+
+    /** @return The number of calls that gave up because the database stayed locked. */
+    public long getBusyFailures() { return busyFailures.sum(); }
+
+    /** @return The number of calls that failed with an error other than contention. */
+    public long getOtherFailures() { return otherFailures.sum(); }
+
+    /** @return The total time spent backing off, in milliseconds. */
+    public long getBackoffMillis() { return backoffMillis.sum(); }
+
+    /** @return The most attempts a single call needed. */
+    public long getMaxAttempts() { return maxAttempts.get(); }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void reset() {
+        calls.reset();
+        retriedCalls.reset();
+        retries.reset();
+        busyFailures.reset();
+        otherFailures.reset();
+        backoffMillis.reset();
+        maxAttempts.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls=%d, retried=%d, retries=%d, busy failures=%d, other failures=%d, backoff=%d ms, max attempts=%d",
+                getCalls(), getRetriedCalls(), getRetries(), getBusyFailures(), getOtherFailures(), getBackoffMillis(), getMaxAttempts());
+    }
+}
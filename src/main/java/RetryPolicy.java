@@ -0,0 +1,111 @@
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How database calls react to contention: SQLite reports {@code SQLITE_BUSY} or {@code SQLITE_LOCKED} when another
+ * connection (often another process) holds the lock it needs. Each attempt first lets SQLite itself wait up to the
+ * busy timeout; if the lock is still held, the call is retried after an exponential backoff with jitter (the delay
+ * doubles per retry up to a cap, and half of it is random so waiting clients do not retry in lockstep), until the
+ * maximum number of attempts or the total deadline is reached. Every other error fails at once.
+ *
+ * <p>Role in System: Configured with {@link JDBC#setRetryPolicy(RetryPolicy)} and applied by
+ * {@link JDBC#retry(JDBC.SqlCall)} to every operation of {@link SqliteMovieStore}. Immutable.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class RetryPolicy {
+
+    // SQLite primary result codes; extended codes keep them in the low byte
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long deadlineMillis;
+    private final int busyTimeoutMillis;
+
+    /**
+     * Creates a retry policy.
+     * @param maxAttempts The maximum number of attempts per call, including the first (at least 1).
+     * @param initialBackoffMillis The backoff before the first retry; it doubles per retry.
+     * @param maxBackoffMillis The cap on a single backoff.
+     * @param deadlineMillis The total time a call may spend, attempts and backoffs included, before it gives up.
+     * @param busyTimeoutMillis How long SQLite itself waits for a lock within each attempt ({@code busy_timeout}).
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis, long deadlineMillis, int busyTimeoutMillis) {
+        if (maxAttempts < 1 || initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis || deadlineMillis < 0
+                || busyTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Invalid retry policy");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.deadlineMillis = deadlineMillis;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    /**
+     * @return The default policy: 8 attempts, 10 ms initial and 1 s maximum backoff, a 5 s deadline and a 100 ms
+     * busy timeout per attempt.
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(8, 10, 1000, 5000, 100);
+    }
+
+    /**
+     * @return A policy that never retries and does not wait for locks, so contention is reported at once.
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, 0, 0, 0, 0);
+    }
+
+    /**
+     * Decides whether a failure is contention (worth retrying) rather than a real error.
+     * @param e The exception.
+     * @return true if it, a chained exception or a cause is {@code SQLITE_BUSY} or {@code SQLITE_LOCKED}.
+     */
+    public static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            for (SQLException s = t instanceof SQLException ? (SQLException) t : null; s != null; s = s.getNextException()) {
+                int code = s.getErrorCode() & 0xFF;
+                if (code == SQLITE_BUSY || code == SQLITE_LOCKED) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the backoff before a retry: the exponential delay for that retry, capped, with its upper half random.
+     * @param retry The retry number (1 for the first retry).
+     * @return The backoff in milliseconds.
+     */
+    public long backoffMillis(int retry) {
+        long cap = initialBackoffMillis << Math.min(Math.max(0, retry - 1), 30);
+        if (cap > maxBackoffMillis || cap < 0) cap = maxBackoffMillis;
+        long half = cap / 2;
+        return half + (cap - half == 0 ? 0 : ThreadLocalRandom.current().nextLong(cap - half + 1));
+    }
+
+    /** @return The maximum number of attempts per call. */
+    public int getMaxAttempts() { return maxAttempts; }
+
+    /** @return The backoff before the first retry, in milliseconds. */
+    public long getInitialBackoffMillis() { return initialBackoffMillis; }
+
+    /** @return The cap on a single backoff, in milliseconds. */
+    public long getMaxBackoffMillis() { return maxBackoffMillis; }
+
+    /** @return The total time a call may spend before it gives up, in milliseconds. */
+    public long getDeadlineMillis() { return deadlineMillis; }
+
+    /** @return How long SQLite waits for a lock within each attempt, in milliseconds. */
+    public int getBusyTimeoutMillis() { return busyTimeoutMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("attempts=%d, backoff=%d-%d ms, deadline=%d ms, busyTimeout=%d ms",
+                maxAttempts, initialBackoffMillis, maxBackoffMillis, deadlineMillis, busyTimeoutMillis);
+    }
+}
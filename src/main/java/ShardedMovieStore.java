@@ -0,0 +1,667 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A {@link MovieStore} that partitions the catalog across several stores (shards), usually one SQLite file each, so
+ * writers to different shards never wait for each other's database lock. Every movie lives in exactly one shard,
+ * chosen by the {@link ShardKey}.
+ *
+ * <p>Writes go to one shard; batch writes are split by shard and run on all shards at once. Scans, pages and
+ * aggregates fan out to every shard in parallel and merge the results: rows come back in the requested order by
+ * merging the shards' already ordered streams (a k-way merge that buffers only a few rows per shard), and statistics
+ * are combined from the per-shard counts and averages. With {@link ShardKey#PHASE}, a phase filter reads only the
+ * shard holding that phase.</p>
+ *
+ * <p>A change that moves a movie to another shard (a title change under {@link ShardKey#TITLE_HASH}, a phase change
+ * under {@link ShardKey#PHASE}) copies the movie into the new shard and then deletes the old row. The two files
+ * cannot share a transaction, so a crash in between leaves the movie in both shards. The copy is inserted at the
+ * next row version ({@link MovieStore#insert(MarvelMovie, long)}), so a writer still holding the old version gets a
+ * conflict in the new shard too.</p>
+ *
+ * <p>Under {@link ShardKey#PHASE} no single file can enforce unique titles, so writes that add a title or move it
+ * (inserts, merges, renames, phase changes) check the other shards and write while holding a lock striped by title;
+ * writes of unrelated titles still run in parallel. The locks only cover this store instance, so every writer of a
+ * PHASE catalog must go through the same one.</p>
+ *
+ * <p>Role in System: Alternative {@link MovieStore} for {@link MovieManager} when one database file's single writer
+ * is the bottleneck. Safe for use by multiple threads; the fan-out runs on a pool of daemon threads that grows with
+ * demand.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class ShardedMovieStore implements MovieStore {
+
+    // Rows buffered per shard while a scan merges the shards' ordered streams
+    private static final int SCAN_BUFFER = 1024;
+
+    // Marks the end of a shard's stream in a scan
+    private static final MarvelMovie END = new MarvelMovie("", "", 0, "", 0, 0.0);
+
+    // Lock stripes serializing writes that add or move a title under PHASE
+    private static final int TITLE_LOCK_STRIPES = 64;
+
+    private final List<MovieStore> shards;
+    private final List<Integer> allShards;
+    private final ShardKey key;
+    private final ExecutorService executor;
+    private final ReentrantLock[] titleLocks = new ReentrantLock[TITLE_LOCK_STRIPES];
+
+    // Why the calling thread's last call failed on a shard (the worst failure if several shards were involved)
+    private final ThreadLocal<WriteResult.Status> lastFailure = new ThreadLocal<>();
+
+    /**
+     * Work run against one shard.
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    private interface ShardTask<T> {
+        T run(int shard, MovieStore store);
+    }
+
+    /**
+     * Creates a sharded store over existing stores.
+     * @param shards The shards, in a fixed order (the shard number is the position).
+     * @param key How movies are assigned to shards.
+     */
+    public ShardedMovieStore(List<? extends MovieStore> shards, ShardKey key) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+        this.shards = List.copyOf(shards);
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) all.add(i);
+        this.allShards = Collections.unmodifiableList(all);
+        this.key = key;
+        for (int i = 0; i < titleLocks.length; i++) titleLocks[i] = new ReentrantLock();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread t = new Thread(task, "shard-worker-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens (creating if needed) a catalog of SQLite shard files {@code shard-00.db}, {@code shard-01.db}, ... in a
+     * directory.
+     * @param directory The directory holding the shard files.
+     * @param count The number of shards.
+     * @param key How movies are assigned to shards; must be the same every time the catalog is opened.
+     * @return The store, or null if a shard file could not be created.
+     * @throws ClassNotFoundException If the SQLite JDBC driver is not on the classpath.
+     */
+    public static ShardedMovieStore openSqlite(Path directory, int count, ShardKey key) throws ClassNotFoundException {
+        JDBC.loadDriver();
+        List<SqliteMovieStore> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String file = directory.resolve(String.format("shard-%02d.db", i)).toString();
+            SqliteMovieStore store = new SqliteMovieStore(new SqliteDatabase(file));
+            if (!store.createTable()) return null;
+            stores.add(store);
+        }
+        return new ShardedMovieStore(stores, key);
+    }
+
+    /** @return The number of shards. */
+    public int getShardCount() { return shards.size(); }
+
+    /**
+     * @param shard A shard number.
+     * @return The shard's store.
+     */
+    public MovieStore getShard(int shard) { return shards.get(shard); }
+
+    /** @return How movies are assigned to shards. */
+    public ShardKey getKey() { return key; }
+
+    /**
+     * Stops the fan-out threads and closes the pooled connections of SQLite shards. The store must not be used
+     * afterwards.
+     */
+    public void close() {
+        executor.shutdown();
+        for (MovieStore shard : shards) {
+            if (shard instanceof SqliteMovieStore) ((SqliteMovieStore) shard).getDatabase().closeIdleConnections();
+        }
+    }
+
+    // ---------- WRITES ----------
+
+    @Override
+    public boolean insert(MarvelMovie movie) {
+        if (key != ShardKey.PHASE) return onShard(key.shardOf(movie, shards.size()), (i, s) -> s.insert(movie));
+        // Each file only enforces unique titles within itself; under PHASE the title may exist in another shard
+        return withTitles(List.of(movie.getTitle()), () -> {
+            if (locate(movie.getTitle()) >= 0) {
+                System.out.println("Attempted to add duplicate movie: " + movie.getTitle());
+                return false;
+            }
+            return onShard(key.shardOf(movie, shards.size()), (i, s) -> s.insert(movie));
+        });
+    }
+
+    @Override
+    public int insertAll(Collection<MarvelMovie> movies) {
+        if (key != ShardKey.PHASE) return insertParts(movies);
+        // The first movie per title wins, and titles stored under another phase are skipped
+        Map<String, MarvelMovie> unique = new LinkedHashMap<>();
+        for (MarvelMovie m : movies) unique.putIfAbsent(m.getTitle(), m);
+        return withTitles(unique.keySet(), () -> {
+            Map<String, MarvelMovie> existing = findAll(unique.keySet());
+            if (existing.isEmpty() && !unique.isEmpty()) return 0;
+            unique.values().removeIf(m -> existing.get(m.getTitle()) != null);
+            return insertParts(unique.values());
+        });
+    }
+
+    /** Inserts movies into their shards, all shards at once. */
+    private int insertParts(Collection<MarvelMovie> incoming) {
+        List<List<MarvelMovie>> parts = partition(incoming);
+        int inserted = 0;
+        for (Integer count : fanOut(nonEmpty(parts), (i, s) -> s.insertAll(parts.get(i)))) {
+            if (count != null) inserted += count;
+        }
+        return inserted;
+    }
+
+    @Override
+    public MergeResult merge(Collection<MarvelMovie> movies, MergePolicy policy) {
+        // Under PHASE an incoming movie may match a title in another shard, so each title is looked up first
+        if (key == ShardKey.PHASE) {
+            List<String> titles = new ArrayList<>();
+            for (MarvelMovie m : movies) titles.add(m.getTitle());
+            return withTitles(titles, () -> MovieStore.super.merge(movies, policy));
+        }
+
+        List<List<MarvelMovie>> parts = partition(movies);
+        MergeResult total = MergeResult.empty();
+        for (MergeResult result : fanOut(nonEmpty(parts), (i, s) -> s.merge(parts.get(i), policy))) {
+            if (result == null) return null;
+            total = total.plus(result);
+        }
+        return total;
+    }
+
+    @Override
+    public boolean update(String title, String column, Object value) {
+        if (key == ShardKey.PHASE) {
+            List<String> titles = column.equals("title") && value instanceof String ? List.of(title, (String) value) : List.of(title);
+            return withTitles(titles, () -> updateColumn(title, column, value));
+        }
+        return updateColumn(title, column, value);
+    }
+
+    private boolean updateColumn(String title, String column, Object value) {
+        int source = locate(title);
+        if (source < 0) return false;
+        if (column.equals("title") && key == ShardKey.PHASE && value instanceof String
+                && !value.equals(title) && locate((String) value) >= 0) {
+            return false;
+        }
+        int target = targetAfter(source, column, value);
+        if (target == source) return onShard(source, (i, s) -> s.update(title, column, value));
+
+        MarvelMovie current = onShard(source, (i, s) -> s.find(title));
+        if (current == null) return false;
+        MarvelMovie changed = copyOf(current);
+        if (!MovieStore.setColumn(changed, column, value)) return false;
+        changed.setVersion(current.getVersion() + 1);
+        return move(source, target, title, changed, current.getVersion());
+    }
+
+    @Override
+    public VersionedWrite update(String title, long expectedVersion, MarvelMovie values) {
+        if (key == ShardKey.PHASE) {
+            return withTitles(List.of(title, values.getTitle()), () -> updateVersioned(title, expectedVersion, values));
+        }
+        return updateVersioned(title, expectedVersion, values);
+    }
+
+    private VersionedWrite updateVersioned(String title, long expectedVersion, MarvelMovie values) {
+        int source = locate(title);
+        if (source < 0) return VersionedWrite.notFound();
+        int target = key.shardOf(values, shards.size());
+        if (target == source && key == ShardKey.TITLE_HASH) {
+            return onShard(source, (i, s) -> s.update(title, expectedVersion, values));
+        }
+        if (key == ShardKey.PHASE && !values.getTitle().equals(title) && locate(values.getTitle()) >= 0) {
+            return VersionedWrite.failed();
+        }
+        if (target == source) return onShard(source, (i, s) -> s.update(title, expectedVersion, values));
+
+        // Moving to another shard: check the version, then copy and delete the old row only if it is unchanged
+        MarvelMovie current = onShard(source, (i, s) -> s.find(title));
+        if (current == null) return VersionedWrite.notFound();
+        if (current.getVersion() != expectedVersion) return VersionedWrite.conflict(current);
+        MarvelMovie moved = copyOf(values);
+        moved.setVersion(expectedVersion + 1);
+        if (!move(source, target, title, moved, expectedVersion)) {
+            MarvelMovie now = onShard(source, (i, s) -> s.find(title));
+            if (now != null && now.getVersion() != expectedVersion) return VersionedWrite.conflict(now);
+            return VersionedWrite.failed();
+        }
+        MarvelMovie stored = onShard(target, (i, s) -> s.find(moved.getTitle()));
+        return stored == null ? VersionedWrite.failed() : VersionedWrite.applied(stored.getVersion());
+    }
+
+    @Override
+    public boolean delete(String title) {
+        if (key == ShardKey.TITLE_HASH) return onShard(locate(title), (i, s) -> s.delete(title));
+        boolean deleted = false;
+        for (Boolean d : fanOut(allShards, (i, s) -> s.delete(title))) deleted |= Boolean.TRUE.equals(d);
+        return deleted;
+    }
+
+    @Override
+    public VersionedWrite delete(String title, long expectedVersion) {
+        int shard = locate(title);
+        if (shard < 0) return VersionedWrite.notFound();
+        return onShard(shard, (i, s) -> s.delete(title, expectedVersion));
+    }
+
+    @Override
+    public Map<String, Boolean> deleteAll(Collection<String> titles) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(titles));
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (String title : keys) results.put(title, false);
+        if (keys.isEmpty()) return results;
+
+        List<List<String>> parts = partitionTitles(keys);
+        List<Integer> targets = parts == null ? allShards : nonEmpty(parts);
+        List<Map<String, Boolean>> deleted = fanOut(targets, (i, s) -> s.deleteAll(parts == null ? keys : parts.get(i)));
+        for (Map<String, Boolean> part : deleted) {
+            if (part == null || part.isEmpty()) return new LinkedHashMap<>();
+            part.forEach((title, d) -> { if (d) results.put(title, true); });
+        }
+        return results;
+    }
+
+    @Override
+    public void clear() {
+        fanOut(allShards, (i, s) -> {
+            s.clear();
+            return null;
+        });
+    }
+
+    // ---------- READS ----------
+
+    @Override
+    public MarvelMovie find(String title) {
+        if (key == ShardKey.TITLE_HASH) return onShard(locate(title), (i, s) -> s.find(title));
+        for (MarvelMovie m : fanOut(allShards, (i, s) -> s.find(title))) {
+            if (m != null) return m;
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, MarvelMovie> findAll(Collection<String> titles) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(titles));
+        Map<String, MarvelMovie> results = new LinkedHashMap<>();
+        for (String title : keys) results.put(title, null);
+        if (keys.isEmpty()) return results;
+
+        List<List<String>> parts = partitionTitles(keys);
+        List<Integer> targets = parts == null ? allShards : nonEmpty(parts);
+        List<Map<String, MarvelMovie>> found = fanOut(targets, (i, s) -> s.findAll(parts == null ? keys : parts.get(i)));
+        for (Map<String, MarvelMovie> part : found) {
+            if (part == null || part.isEmpty()) return new LinkedHashMap<>();
+            part.forEach((title, m) -> { if (m != null) results.put(title, m); });
+        }
+        return results;
+    }
+
+    /**
+     * Scans every shard on its own thread and merges the ordered streams on the calling thread, which is also the
+     * thread that calls the visitor. Each shard buffers at most {@value #SCAN_BUFFER} rows ahead of the merge.
+     */
+    @Override
+    public long scan(MovieFilter filter, MovieSort sort, RowVisitor visitor) throws IOException {
+        List<Integer> targets = targetsFor(filter);
+        if (targets.size() == 1) return shards.get(targets.get(0)).scan(filter, sort, visitor);
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<BlockingQueue<MarvelMovie>> queues = new ArrayList<>(targets.size());
+        List<Future<Long>> futures = new ArrayList<>(targets.size());
+        for (int shard : targets) {
+            BlockingQueue<MarvelMovie> queue = new ArrayBlockingQueue<>(SCAN_BUFFER);
+            queues.add(queue);
+            futures.add(executor.submit(() -> produce(shards.get(shard), filter, sort, queue, cancelled)));
+        }
+
+        Comparator<MarvelMovie> order = sort.comparator();
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> order.compare(a.movie, b.movie));
+        long visited = 0;
+        try {
+            for (int k = 0; k < queues.size(); k++) {
+                MarvelMovie first = queues.get(k).take();
+                if (first != END) heads.add(new Head(first, k));
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                MarvelMovie m = head.movie;
+                visitor.row(m.getTitle(), m.getReleaseDate(), m.getPhase(), m.getDirector(), m.getRunningTimeMin(), m.getImdbRating());
+                visited++;
+                MarvelMovie next = queues.get(head.queue).take();
+                if (next != END) {
+                    head.movie = next;
+                    heads.add(head);
+                }
+            }
+        } catch (IOException e) {
+            cancel(cancelled, futures);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(cancelled, futures);
+            System.err.println("Sharded scan interrupted");
+            return -1;
+        }
+
+        boolean failed = false;
+        for (Future<Long> f : futures) {
+            Long rows = join(f);
+            if (rows == null || rows < 0) failed = true;
+        }
+        return failed ? -1 : visited;
+    }
+
+    /**
+     * Runs one shard's scan into its queue, ending the stream with {@link #END} unless the scan was cancelled.
+     */
+    private static long produce(MovieStore shard, MovieFilter filter, MovieSort sort, BlockingQueue<MarvelMovie> queue,
+                                AtomicBoolean cancelled) throws IOException {
+        try {
+            return shard.scan(filter, sort, (title, releaseDate, phase, director, runtime, rating) ->
+                    offer(queue, new MarvelMovie(title, releaseDate, phase, director, runtime, rating), cancelled));
+        } finally {
+            offer(queue, END, cancelled);
+        }
+    }
+
+    private static void offer(BlockingQueue<MarvelMovie> queue, MarvelMovie row, AtomicBoolean cancelled) throws IOException {
+        try {
+            while (!queue.offer(row, 10, TimeUnit.MILLISECONDS)) {
+                if (cancelled.get()) throw new InterruptedIOException("Scan cancelled");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Scan interrupted");
+        }
+    }
+
+    /** Stops the producers of a scan that ended early and waits for them to finish. */
+    private static void cancel(AtomicBoolean cancelled, List<Future<Long>> futures) {
+        cancelled.set(true);
+        for (Future<Long> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ignored) {
+                // The producer stopped because of the cancellation
+            }
+        }
+    }
+
+    /**
+     * Reads up to {@code offset + limit} rows from every shard in parallel and merges them in order.
+     */
+    @Override
+    public List<MarvelMovie> page(MovieFilter filter, MovieSort sort, int offset, int limit) {
+        List<Integer> targets = targetsFor(filter);
+        if (targets.size() == 1) return onShard(targets.get(0), (i, s) -> s.page(filter, sort, offset, limit));
+        List<MarvelMovie> page = new ArrayList<>();
+        if (limit <= 0) return page;
+
+        int window = (int) Math.min(Integer.MAX_VALUE, (long) Math.max(0, offset) + limit);
+        List<List<MarvelMovie>> parts = fanOut(targets, (i, s) -> s.page(filter, sort, 0, window));
+        Comparator<MarvelMovie> order = sort.comparator();
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> order.compare(a.movie, b.movie));
+        int[] next = new int[parts.size()];
+        for (int k = 0; k < parts.size(); k++) {
+            if (parts.get(k) != null && !parts.get(k).isEmpty()) heads.add(new Head(parts.get(k).get(0), k));
+        }
+        long skipped = 0;
+        while (!heads.isEmpty() && page.size() < limit) {
+            Head head = heads.poll();
+            if (skipped < offset) skipped++;
+            else page.add(head.movie);
+            List<MarvelMovie> part = parts.get(head.queue);
+            if (++next[head.queue] < part.size()) {
+                head.movie = part.get(next[head.queue]);
+                heads.add(head);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Combines the shards' statistics: counts add up, averages are weighted by count.
+     */
+    @Override
+    public MovieStats aggregate(MovieFilter filter) {
+        long count = 0;
+        double ratingSum = 0, runtimeSum = 0;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (MovieStats stats : fanOut(targetsFor(filter), (i, s) -> s.aggregate(filter))) {
+            if (stats == null || stats.getCount() == 0) continue;
+            count += stats.getCount();
+            ratingSum += stats.getAverageRating() * stats.getCount();
+            runtimeSum += stats.getAverageRuntime() * stats.getCount();
+            min = Math.min(min, stats.getMinRating());
+            max = Math.max(max, stats.getMaxRating());
+        }
+        return count == 0 ? MovieStats.empty() : new MovieStats(count, ratingSum / count, min, max, runtimeSum / count);
+    }
+
+    @Override
+    public boolean ensureReleaseDateIndex() {
+        boolean ok = true;
+        for (MovieStore shard : shards) ok &= shard.ensureReleaseDateIndex();
+        return ok;
+    }
+
+    @Override
+    public boolean verifySchema() {
+        for (MovieStore shard : shards) {
+            if (!shard.verifySchema()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Combines the shards' data versions; -1 if any shard cannot provide one.
+     */
+    @Override
+    public long dataVersion() {
+        long version = 17;
+        for (MovieStore shard : shards) {
+            long v = shard.dataVersion();
+            if (v < 0) return -1;
+            version = version * 31 + v;
+        }
+        return version & Long.MAX_VALUE;
+    }
+
+    @Override
+    public WriteResult.Status takeLastFailure() {
+        WriteResult.Status failure = lastFailure.get();
+        lastFailure.remove();
+        return failure;
+    }
+
+    // ---------- HELPERS ----------
+
+    /**
+     * @return The shard holding the title: computed under {@link ShardKey#TITLE_HASH} (whether or not the title
+     * exists), looked up in every shard under {@link ShardKey#PHASE} (-1 if no shard has it).
+     */
+    private int locate(String title) {
+        int shard = key.shardOfTitle(title, shards.size());
+        if (shard >= 0) return shard;
+        List<Boolean> found = fanOut(allShards, (i, s) -> s.find(title) != null);
+        return found.indexOf(Boolean.TRUE);
+    }
+
+    /** The shard a movie belongs to after one of its columns changes. */
+    private int targetAfter(int source, String column, Object value) {
+        if (!column.equals(key.column())) return source;
+        if (key == ShardKey.TITLE_HASH && value instanceof String) return key.shardOfTitle((String) value, shards.size());
+        if (key == ShardKey.PHASE && value instanceof Integer) return key.shardOfPhase((Integer) value, shards.size());
+        return source;
+    }
+
+    /**
+     * Copies a changed movie into its new shard at the movie's (already incremented) version, then deletes the old
+     * row if it is still at expectedVersion (undoing the copy otherwise).
+     */
+    private boolean move(int source, int target, String title, MarvelMovie changed, long expectedVersion) {
+        if (!onShard(target, (i, s) -> s.insert(changed, changed.getVersion()))) return false;
+        if (onShard(source, (i, s) -> s.delete(title, expectedVersion)).isApplied()) return true;
+        onShard(target, (i, s) -> s.delete(changed.getTitle()));
+        return false;
+    }
+
+    /** The shards a filtered read must visit: only the filter's phase under {@link ShardKey#PHASE}, else all. */
+    private List<Integer> targetsFor(MovieFilter filter) {
+        Integer phase = filter.getPhase();
+        if (key == ShardKey.PHASE && phase != null) return List.of(key.shardOfPhase(phase, shards.size()));
+        return allShards;
+    }
+
+    /** Splits movies by shard, keeping their order within each shard. */
+    private List<List<MarvelMovie>> partition(Collection<MarvelMovie> movies) {
+        List<List<MarvelMovie>> parts = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) parts.add(new ArrayList<>());
+        for (MarvelMovie m : movies) parts.get(key.shardOf(m, shards.size())).add(m);
+        return parts;
+    }
+
+    /** Splits titles by shard, or returns null if the key does not depend on the title (every shard is asked). */
+    private List<List<String>> partitionTitles(List<String> titles) {
+        if (key != ShardKey.TITLE_HASH) return null;
+        List<List<String>> parts = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) parts.add(new ArrayList<>());
+        for (String title : titles) parts.get(key.shardOfTitle(title, shards.size())).add(title);
+        return parts;
+    }
+
+    private static List<Integer> nonEmpty(List<? extends List<?>> parts) {
+        List<Integer> shards = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty()) shards.add(i);
+        }
+        return shards;
+    }
+
+    /**
+     * Runs work while holding the lock stripes of the given titles, taken in stripe order so that two writers
+     * locking overlapping titles cannot deadlock. Locks are reentrant, so the work may call other locking methods.
+     */
+    private <T> T withTitles(Collection<String> titles, Supplier<T> work) {
+        boolean[] stripes = new boolean[titleLocks.length];
+        for (String title : titles) stripes[Math.floorMod(title.hashCode(), titleLocks.length)] = true;
+        int locked = 0;
+        try {
+            for (; locked < stripes.length; locked++) {
+                if (stripes[locked]) titleLocks[locked].lock();
+            }
+            return work.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                if (stripes[i]) titleLocks[i].unlock();
+            }
+        }
+    }
+
+    /** Runs work on one shard on the calling thread and records why it failed, if it did. */
+    private <T> T onShard(int shard, ShardTask<T> task) {
+        MovieStore store = shards.get(shard);
+        T result = task.run(shard, store);
+        lastFailure.set(store.takeLastFailure());
+        return result;
+    }
+
+    /**
+     * Runs work on several shards in parallel (on the calling thread if there is only one) and records the worst
+     * failure among them.
+     * @return The results in the order of the shards; null for a shard whose work threw.
+     */
+    private <T> List<T> fanOut(List<Integer> targets, ShardTask<T> task) {
+        if (targets.size() == 1) return Collections.singletonList(onShard(targets.get(0), task));
+
+        WriteResult.Status[] failures = new WriteResult.Status[targets.size()];
+        List<Future<T>> futures = new ArrayList<>(targets.size());
+        for (int k = 0; k < targets.size(); k++) {
+            int slot = k, shard = targets.get(k);
+            MovieStore store = shards.get(shard);
+            futures.add(executor.submit(() -> {
+                T result = task.run(shard, store);
+                failures[slot] = store.takeLastFailure();
+                return result;
+            }));
+        }
+        List<T> results = new ArrayList<>(targets.size());
+        for (Future<T> f : futures) results.add(join(f));
+
+        WriteResult.Status worst = null;
+        for (WriteResult.Status failure : failures) {
+            if (failure == WriteResult.Status.FAILED || (failure != null && worst == null)) worst = failure;
+        }
+        lastFailure.set(worst);
+        return results;
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted waiting for a shard");
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Shard call failed: " + e.getCause());
+            return null;
+        }
+    }
+
+    private static MarvelMovie copyOf(MarvelMovie m) {
+        return new MarvelMovie(m.getTitle(), m.getReleaseDate(), m.getPhase(), m.getDirector(), m.getRunningTimeMin(), m.getImdbRating());
+    }
+
+    /**
+     * The current row of one shard's stream in a merge.
+     */
+    private static final class Head {
+        MarvelMovie movie;
+        final int queue;
+
+        Head(MarvelMovie movie, int queue) {
+            this.movie = movie;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A k-nearest-neighbour index over movies: a bucketed KD-tree on the numeric attributes (phase, release date, runtime,
+ * rating, each in the units of {@link SimilarityWeights}) plus a per-director list for the categorical attribute.
+ *
+ * <p>A query first scores the movies of the target's own director (they pay no director penalty and are usually the
+ * strongest candidates), then walks the tree nearest side first and skips every subtree whose weighted distance along
+ * the split axis alone already exceeds the k-th best distance found. The numeric distance is a lower bound of the
+ * full distance, so the result is exact for any weights, and because weights only enter at query time they can change
+ * per query.</p>
+ *
+ * <p>The index changes incrementally: inserts descend to a leaf and split it once it doubles its bucket size, and
+ * removals mark the entry dead. Neither rebalances the tree, so {@link #needsRebuild()} reports when dead entries
+ * or growth since the build have degraded it enough that the owner should rebuild it from the store.</p>
+ *
+ * <p>Role in System: Backs {@link MovieManager#similarTo(String, int)}, which builds it on first use and applies every
+ * write made through the manager. Not thread-safe; the manager guards it with a lock.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class SimilarityIndex {
+
+    // Entries per leaf after a build; a leaf splits when it reaches twice this
+    private static final int LEAF_SIZE = 32;
+
+    // Coordinates: phase, release date in years, runtime in tens of minutes, rating
+    private static final int DIMENSIONS = 4;
+
+    private Node root;
+    private final Map<String, Entry> byTitle = new HashMap<>();
+    private final Map<String, List<Entry>> byDirector = new HashMap<>();
+    private final long builtSize;
+    private long inserted;
+    private long removed;
+
+    // The store's data version the contents match (see MovieStore#dataVersion()); -1 if unknown
+    private long dataVersion = -1;
+
+    /**
+     * Builds a balanced index (median splits on the widest axis).
+     * @param movies The movies; titles must be unique. The index keeps the objects, so callers pass copies they no
+     *               longer change.
+     */
+    public SimilarityIndex(List<MarvelMovie> movies) {
+        Entry[] entries = new Entry[movies.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry(movies.get(i));
+            byTitle.put(entries[i].movie.getTitle(), entries[i]);
+            byDirector.computeIfAbsent(entries[i].movie.getDirector(), d -> new ArrayList<>()).add(entries[i]);
+        }
+        this.root = build(entries, 0, entries.length);
+        this.builtSize = entries.length;
+    }
+
+    /** @return The number of movies in the index. */
+    public int size() { return byTitle.size(); }
+
+    /**
+     * @param title A title.
+     * @return true if a movie with that title is in the index.
+     */
+    public boolean contains(String title) { return byTitle.containsKey(title); }
+
+    /**
+     * @param title A title.
+     * @return The indexed movie with that title, or null.
+     */
+    public MarvelMovie get(String title) {
+        Entry e = byTitle.get(title);
+        return e == null ? null : e.movie;
+    }
+
+    /**
+     * Adds a movie, replacing any movie with the same title.
+     * @param movie The movie; the index keeps the object.
+     */
+    public void insert(MarvelMovie movie) {
+        remove(movie.getTitle());
+        Entry entry = new Entry(movie);
+        byTitle.put(movie.getTitle(), entry);
+        byDirector.computeIfAbsent(movie.getDirector(), d -> new ArrayList<>()).add(entry);
+        inserted++;
+
+        Node node = root;
+        while (node.entries == null) {
+            node = entry.coords[node.axis] < node.split ? node.left : node.right;
+        }
+        if (node.count == node.entries.length) node.entries = Arrays.copyOf(node.entries, node.count * 2);
+        node.entries[node.count++] = entry;
+        if (node.count >= 2 * LEAF_SIZE) splitLeaf(node);
+    }
+
+    /**
+     * Removes a movie. Its tree entry is only marked dead until the next rebuild.
+     * @param title The title.
+     * @return true if the movie was in the index.
+     */
+    public boolean remove(String title) {
+        Entry entry = byTitle.remove(title);
+        if (entry == null) return false;
+        entry.dead = true;
+        List<Entry> sameDirector = byDirector.get(entry.movie.getDirector());
+        sameDirector.remove(entry);
+        if (sameDirector.isEmpty()) byDirector.remove(entry.movie.getDirector());
+        removed++;
+        return true;
+    }
+
+    /**
+     * @return true if dead entries exceed a quarter of the live ones, or the index has more than doubled since it
+     * was built, so queries would profit from a rebuild.
+     */
+    public boolean needsRebuild() {
+        return removed * 4 > size() || inserted > Math.max(LEAF_SIZE, builtSize);
+    }
+
+    /**
+     * Finds the movies closest to a target (the target's own title excluded).
+     * @param target The movie to compare against; it need not be in the index.
+     * @param k The number of movies to return.
+     * @param weights The weights of the attributes.
+     * @return Up to k movies, nearest first (ties by title).
+     */
+    public List<MarvelMovie> nearest(MarvelMovie target, int k, SimilarityWeights weights) {
+        if (k <= 0 || size() == 0) return new ArrayList<>();
+        Search search = new Search(new Entry(target), k, weights);
+        for (Entry e : byDirector.getOrDefault(target.getDirector(), Collections.emptyList())) search.offer(e);
+        search.visit(root);
+
+        List<Candidate> best = new ArrayList<>(search.heap);
+        best.sort(Search.ORDER);
+        List<MarvelMovie> result = new ArrayList<>(best.size());
+        for (Candidate c : best) result.add(c.entry.movie);
+        return result;
+    }
+
+    /** @return The store data version the contents were last known to match, or -1. */
+    long getDataVersion() { return dataVersion; }
+
+    void setDataVersion(long version) { dataVersion = version; }
+
+    private static Node build(Entry[] entries, int from, int to) {
+        if (to - from <= LEAF_SIZE) {
+            Node leaf = new Node();
+            leaf.entries = Arrays.copyOf(Arrays.copyOfRange(entries, from, to), Math.max(LEAF_SIZE, to - from));
+            leaf.count = to - from;
+            return leaf;
+        }
+        int axis = widestAxis(entries, from, to);
+        int mid = (from + to) >>> 1;
+        select(entries, from, to - 1, mid, axis);
+        Node node = new Node();
+        node.axis = axis;
+        node.split = entries[mid].coords[axis];
+        node.left = build(entries, from, mid);
+        node.right = build(entries, mid, to);
+        return node;
+    }
+
+    /** Turns an overfull leaf into an internal node with two leaves, unless all its entries coincide. */
+    private static void splitLeaf(Node leaf) {
+        Entry[] live = new Entry[leaf.count];
+        int n = 0;
+        for (int i = 0; i < leaf.count; i++) {
+            if (!leaf.entries[i].dead) live[n++] = leaf.entries[i];
+        }
+        if (n < 2 * LEAF_SIZE) {
+            // Dropping dead entries freed enough room
+            leaf.entries = Arrays.copyOf(live, Math.max(LEAF_SIZE * 2, n));
+            leaf.count = n;
+            return;
+        }
+        if (isPoint(live, n)) {
+            // Identical coordinates cannot be separated; the leaf just grows
+            leaf.entries = Arrays.copyOf(live, n * 2);
+            leaf.count = n;
+            return;
+        }
+        int axis = widestAxis(live, 0, n);
+        int mid = n >>> 1;
+        select(live, 0, n - 1, mid, axis);
+        Node left = build(live, 0, mid), right = build(live, mid, n);
+        leaf.axis = axis;
+        leaf.split = live[mid].coords[axis];
+        leaf.left = left;
+        leaf.right = right;
+        leaf.entries = null;
+        leaf.count = 0;
+    }
+
+    private static boolean isPoint(Entry[] entries, int n) {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            for (int i = 1; i < n; i++) {
+                if (entries[i].coords[d] != entries[0].coords[d]) return false;
+            }
+        }
+        return true;
+    }
+
+    private static int widestAxis(Entry[] entries, int from, int to) {
+        int best = 0;
+        double widest = -1;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, entries[i].coords[d]);
+                max = Math.max(max, entries[i].coords[d]);
+            }
+            if (max - min > widest) {
+                widest = max - min;
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    /** Quickselect: moves the k-th smallest entry on the axis to index k, smaller ones before it, larger ones after. */
+    private static void select(Entry[] a, int lo, int hi, int k, int axis) {
+        while (lo < hi) {
+            double pivot = a[(lo + hi) >>> 1].coords[axis];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i].coords[axis] < pivot) i++;
+                while (a[j].coords[axis] > pivot) j--;
+                if (i <= j) {
+                    Entry tmp = a[i];
+                    a[i++] = a[j];
+                    a[j--] = tmp;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    /**
+     * One k-nearest search: a bounded max-heap of the best candidates so far.
+     */
+    private static final class Search {
+        static final Comparator<Candidate> ORDER =
+                Comparator.<Candidate>comparingDouble(c -> c.distance).thenComparing(c -> c.entry.movie.getTitle());
+
+        final Entry target;
+        final int k;
+        final double[] scale;
+        final double directorPenalty;
+        final PriorityQueue<Candidate> heap;
+
+        Search(Entry target, int k, SimilarityWeights w) {
+            this.target = target;
+            this.k = k;
+            this.scale = new double[]{w.getPhase(), w.getReleaseDate(), w.getRuntime(), w.getRating()};
+            this.directorPenalty = w.getDirector() * w.getDirector();
+            this.heap = new PriorityQueue<>(k + 1, ORDER.reversed());
+        }
+
+        /** The k-th best distance so far, or infinity while fewer than k were found. */
+        double bound() {
+            return heap.size() < k ? Double.POSITIVE_INFINITY : heap.peek().distance;
+        }
+
+        void offer(Entry e) {
+            if (e.dead || e.movie.getTitle().equals(target.movie.getTitle())) return;
+            double d = 0;
+            for (int i = 0; i < DIMENSIONS; i++) {
+                double diff = (e.coords[i] - target.coords[i]) * scale[i];
+                d += diff * diff;
+            }
+            if (!e.movie.getDirector().equals(target.movie.getDirector())) d += directorPenalty;
+            if (d > bound()) return;
+            Candidate c = new Candidate(e, d);
+            if (heap.size() < k) {
+                heap.add(c);
+            } else if (ORDER.compare(c, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(c);
+            }
+        }
+
+        void visit(Node node) {
+            if (node.entries != null) {
+                // The target's director was scored up front
+                for (int i = 0; i < node.count; i++) {
+                    if (!node.entries[i].movie.getDirector().equals(target.movie.getDirector())) offer(node.entries[i]);
+                }
+                return;
+            }
+            double diff = target.coords[node.axis] - node.split;
+            Node near = diff < 0 ? node.left : node.right;
+            Node far = diff < 0 ? node.right : node.left;
+            visit(near);
+            double gap = diff * scale[node.axis];
+            if (gap * gap <= bound()) visit(far);
+        }
+    }
+
+    private static final class Candidate {
+        final Entry entry;
+        final double distance;
+
+        Candidate(Entry entry, double distance) {
+            this.entry = entry;
+            this.distance = distance;
+        }
+    }
+
+    private static final class Entry {
+        final MarvelMovie movie;
+        final double[] coords;
+        boolean dead;
+
+        Entry(MarvelMovie movie) {
+            this.movie = movie;
+            int day = movie.getReleaseEpochDay();
+            this.coords = new double[]{
+                    movie.getPhase(),
+                    (day == IsoDate.INVALID ? 0 : day) / 365.25,
+                    movie.getRunningTimeMin() / 10.0,
+                    movie.getImdbRating()
+            };
+        }
+    }
+
+    /**
+     * An internal node (axis, split, children) or a leaf (entries != null).
+     */
+    private static final class Node {
+        int axis;
+        double split;
+        Node left, right;
+        Entry[] entries;
+        int count;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * How much each movie attribute counts when {@link MovieManager#similarTo(String, int)} measures how alike two movies
+ * are. The distance is Euclidean over weighted differences in natural units: one phase, one year of release date,
+ * ten minutes of runtime and one rating point each count as 1 × their weight, and a different director counts as the
+ * director weight. A weight of 0 ignores the attribute.
+ *
+ * <p>Role in System: Parameter of {@link MovieManager#similarTo(String, int, SimilarityWeights)} and
+ * {@link SimilarityIndex#nearest(MarvelMovie, int, SimilarityWeights)}. Weights are applied at query time, so changing
+ * them never rebuilds the index. Immutable.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class SimilarityWeights {
+    private final double phase;
+    private final double director;
+    private final double releaseDate;
+    private final double runtime;
+    private final double rating;
+
+    /**
+     * Creates a set of weights.
+     * @param phase Weight per phase of difference.
+     * @param director Weight of a different director.
+     * @param releaseDate Weight per year between the release dates.
+     * @param runtime Weight per ten minutes of runtime difference.
+     * @param rating Weight per rating point of difference.
+     */
+    public SimilarityWeights(double phase, double director, double releaseDate, double runtime, double rating) {
+        for (double w : new double[]{phase, director, releaseDate, runtime, rating}) {
+            if (!(w >= 0.0) || Double.isInfinite(w)) throw new IllegalArgumentException("Weights must be finite and non-negative: " + w);
+        }
+        this.phase = phase;
+        this.director = director;
+        this.releaseDate = releaseDate;
+        this.runtime = runtime;
+        this.rating = rating;
+    }
+
+    /**
+     * @return Equal weights of 1 for every attribute.
+     */
+    public static SimilarityWeights defaults() {
+        return new SimilarityWeights(1.0, 1.0, 1.0, 1.0, 1.0);
+    }
+
+    /** @return The weight per phase of difference. */
+    public double getPhase() { return phase; }
+
+    /** @return The weight of a different director. */
+    public double getDirector() { return director; }
+
+    /** @return The weight per year between the release dates. */
+    public double getReleaseDate() { return releaseDate; }
+
+    /** @return The weight per ten minutes of runtime difference. */
+    public double getRuntime() { return runtime; }
+
+    /** @return The weight per rating point of difference. */
+    public double getRating() { return rating; }
+
+    @Override
+    public String toString() {
+        return String.format("phase=%.2f, director=%.2f, releaseDate=%.2f, runtime=%.2f, rating=%.2f",
+                phase, director, releaseDate, runtime, rating);
+    }
+}
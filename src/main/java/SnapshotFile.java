@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only, memory-mapped copy of the catalog stored in a compact binary file, used to show the first screen
+ * without querying the database or creating a {@link MarvelMovie} per row.
+ *
+ * <p>File layout (little-endian): a 64-byte header
+ * ({@code magic, format, rows, dataVersion, directorCount, heapBytes}), then fixed-width columns
+ * {@code int phase[rows], int runtime[rows], int releaseEpochDay[rows], int directorId[rows], double rating[rows]},
+ * then {@code int titleOffsets[rows + 1]} and {@code int directorOffsets[directorCount + 1]} into a UTF-8 string heap.
+ * Row {@code i} of every column belongs to the same movie, in title order.</p>
+ *
+ * <p>Role in System: Startup cache. {@link MovieManager#saveSnapshotFile(Path)} writes it (on demand or on shutdown)
+ * together with the store's {@link MovieStore#dataVersion()}; {@link MovieManager#openSnapshotFile(Path)} maps it
+ * and rejects it when that version no longer matches, so a stale file is simply rebuilt. Opening costs one mmap;
+ * values are decoded only when a row is actually read.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class SnapshotFile {
+
+    private static final long MAGIC = 0x31504E53534D444DL; // "MDMSSNP1" read little-endian
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 64;
+
+    private final MappedByteBuffer buf;
+    private final int rows;
+    private final long dataVersion;
+    private final int phaseAt, runtimeAt, epochDayAt, directorIdAt, ratingAt, titleOffsetsAt, heapAt;
+    private final String[] directorNames;
+
+    private SnapshotFile(MappedByteBuffer buf, int rows, long dataVersion, int directorCount) {
+        this.buf = buf;
+        this.rows = rows;
+        this.dataVersion = dataVersion;
+        this.phaseAt = HEADER_BYTES;
+        this.runtimeAt = phaseAt + 4 * rows;
+        this.epochDayAt = runtimeAt + 4 * rows;
+        this.directorIdAt = epochDayAt + 4 * rows;
+        this.ratingAt = directorIdAt + 4 * rows;
+        this.titleOffsetsAt = ratingAt + 8 * rows;
+        int directorOffsetsAt = titleOffsetsAt + 4 * (rows + 1);
+        this.heapAt = directorOffsetsAt + 4 * (directorCount + 1);
+
+        // Directors are few and shared by many rows, so they are decoded once
+        this.directorNames = new String[directorCount];
+        for (int i = 0; i < directorCount; i++) {
+            directorNames[i] = heapString(buf.getInt(directorOffsetsAt + 4 * i), buf.getInt(directorOffsetsAt + 4 * (i + 1)));
+        }
+    }
+
+    // ---------- WRITE ----------
+
+    /**
+     * Writes a snapshot file. The file is written under a temporary name and then renamed over the target,
+     * so readers never see a partially written file.
+     * @param file The snapshot file to create or replace.
+     * @param snapshot The catalog to store.
+     * @param dataVersion The store's {@link MovieStore#dataVersion()}, read before the catalog was loaded.
+     * @return true if the file was written.
+     */
+    public static boolean write(Path file, CatalogSnapshot snapshot, long dataVersion) {
+        int rows = snapshot.size();
+        int directorCount = snapshot.directorCount();
+        byte[][] directors = new byte[directorCount][];
+        long heapBytes = snapshot.titleBytes();
+        for (int i = 0; i < directorCount; i++) {
+            directors[i] = snapshot.directorName(i).getBytes(StandardCharsets.UTF_8);
+            heapBytes += directors[i].length;
+        }
+        long size = HEADER_BYTES + 24L * rows + 4L * (rows + 1) + 4L * (directorCount + 1) + heapBytes;
+        if (size > Integer.MAX_VALUE) {
+            System.err.println("Catalog too large for a snapshot file (" + size + " bytes)");
+            return false;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                out.order(ByteOrder.LITTLE_ENDIAN);
+                out.putLong(MAGIC).putInt(FORMAT).putInt(rows).putLong(dataVersion).putInt(directorCount).putInt((int) heapBytes);
+                out.position(HEADER_BYTES);
+
+                for (int r = 0; r < rows; r++) out.putInt(snapshot.phase(r));
+                for (int r = 0; r < rows; r++) out.putInt(snapshot.runtime(r));
+                for (int r = 0; r < rows; r++) out.putInt(snapshot.releaseEpochDay(r));
+                for (int r = 0; r < rows; r++) out.putInt(snapshot.directorId(r));
+                for (int r = 0; r < rows; r++) out.putDouble(snapshot.rating(r));
+
+                // Offsets are relative to the heap; titles come first, then directors
+                int heapStart = out.position() + 4 * (rows + 1) + 4 * (directorCount + 1);
+                ByteBuffer heap = out.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(heapStart);
+                for (int r = 0; r < rows; r++) {
+                    out.putInt(heap.position() - heapStart);
+                    snapshot.copyTitleBytes(r, heap);
+                }
+                out.putInt(heap.position() - heapStart);
+                for (int i = 0; i < directorCount; i++) {
+                    out.putInt(heap.position() - heapStart);
+                    heap.put(directors[i]);
+                }
+                out.putInt(heap.position() - heapStart);
+                out.force();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not write snapshot file " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Nothing else to clean up.
+            }
+            return false;
+        }
+    }
+
+    // ---------- OPEN ----------
+
+    /**
+     * Maps a snapshot file if it exists, is well-formed and was written at the expected data version.
+     * @param file The snapshot file.
+     * @param expectedVersion The store's current {@link MovieStore#dataVersion()}; -1 never matches.
+     * @return The mapped snapshot, or null if the file is missing, corrupt or stale.
+     */
+    public static SnapshotFile open(Path file, long expectedVersion) {
+        if (expectedVersion < 0) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) return null;
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buf.getLong(0) != MAGIC || buf.getInt(8) != FORMAT) return null;
+            int rows = buf.getInt(12);
+            long version = buf.getLong(16);
+            int directorCount = buf.getInt(24);
+            long heapBytes = buf.getInt(28) & 0xFFFFFFFFL;
+            long expectedSize = HEADER_BYTES + 24L * rows + 4L * (rows + 1) + 4L * (directorCount + 1) + heapBytes;
+            if (rows < 0 || directorCount < 0 || expectedSize != size) return null;
+            if (version != expectedVersion) return null;
+
+            // Row reads follow these offsets and IDs on the EDT, so a corrupt file is rejected here instead
+            int directorIdAt = HEADER_BYTES + 12 * rows;
+            int titleOffsetsAt = HEADER_BYTES + 24 * rows;
+            int directorOffsetsAt = titleOffsetsAt + 4 * (rows + 1);
+            if (!offsetsInHeap(buf, titleOffsetsAt, rows, heapBytes)
+                    || !offsetsInHeap(buf, directorOffsetsAt, directorCount, heapBytes)
+                    || !idsBelow(buf, directorIdAt, rows, directorCount)) {
+                System.err.println("Ignoring corrupt snapshot file " + file);
+                return null;
+            }
+            return new SnapshotFile(buf, rows, version, directorCount);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable snapshot file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the {@code count + 1} offsets at a position never decrease and stay within the string heap.
+     */
+    private static boolean offsetsInHeap(ByteBuffer buf, int at, int count, long heapBytes) {
+        int previous = 0;
+        for (int i = 0; i <= count; i++) {
+            int offset = buf.getInt(at + 4 * i);
+            if (offset < previous || offset > heapBytes) return false;
+            previous = offset;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if each of the {@code count} IDs at a position lies in {@code [0, limit)}.
+     */
+    private static boolean idsBelow(ByteBuffer buf, int at, int count, int limit) {
+        for (int i = 0; i < count; i++) {
+            int id = buf.getInt(at + 4 * i);
+            if (id < 0 || id >= limit) return false;
+        }
+        return true;
+    }
+
+    // ---------- ROW ACCESS ----------
+
+    /** @return The number of movies in the file. */
+    public int size() { return rows; }
+
+    /** @return The data version the file was written at. */
+    public long getDataVersion() { return dataVersion; }
+
+    /** @param row The row index. @return The movie title. */
+    public String title(int row) {
+        return heapString(buf.getInt(titleOffsetsAt + 4 * row), buf.getInt(titleOffsetsAt + 4 * (row + 1)));
+    }
+
+    /** @param row The row index. @return The release date ({@code YYYY-MM-DD}). */
+    public String releaseDate(int row) { return IsoDate.format(releaseEpochDay(row)); }
+
+    /** @param row The row index. @return The release date as an epoch day. */
+    public int releaseEpochDay(int row) { return buf.getInt(epochDayAt + 4 * row); }
+
+    /** @param row The row index. @return The MCU phase. */
+    public int phase(int row) { return buf.getInt(phaseAt + 4 * row); }
+
+    /** @param row The row index. @return The director's name. */
+    public String director(int row) { return directorNames[buf.getInt(directorIdAt + 4 * row)]; }
+
+    /** @param row The row index. @return The runtime in minutes. */
+    public int runtime(int row) { return buf.getInt(runtimeAt + 4 * row); }
+
+    /** @param row The row index. @return The IMDb rating. */
+    public double rating(int row) { return buf.getDouble(ratingAt + 8 * row); }
+
+    private String heapString(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(heapAt + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,154 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects committed changes to a SQLite file without adding anything to its schema, from two sources:
+ * <ul>
+ *     <li>a commit count that the store's own write methods keep in the header field {@code PRAGMA user_version},
+ *     bumped once per write transaction ({@link #bump(Connection)}). It is stored in the file, so versions stamped on
+ *     files (such as a {@link SnapshotFile}) stay comparable across restarts;</li>
+ *     <li>{@code PRAGMA data_version} on a connection kept open per file that never writes. It changes whenever any
+ *     other connection commits, so writes made by other tools are noticed while the application runs.</li>
+ * </ul>
+ * Unlike the file change counter in the SQLite header (which stops moving in WAL mode) or the size and time of the
+ * {@code -wal} file, neither can miss a commit made while the application runs. Writes made by other tools while
+ * it is not running are only seen if they go through {@link SqliteMovieStore}.
+ *
+ * <p>Role in System: Backs {@link SqliteMovieStore#dataVersion()}; {@link OnlineBackup} moves the count past its old
+ * value after a restore.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+final class SqliteDataVersion {
+
+    // Commits by other connections are counted in the low bits, below the persistent commit count
+    private static final int EXTERNAL_BITS = 24;
+
+    // Per database file: the connection kept open for read(String) and what it saw last, and the external commit
+    // count of a released connection (so the version never goes back when the file is pinned again)
+    private static final Map<String, Pinned> pinned = new ConcurrentHashMap<>();
+    private static final Map<String, Long> released = new ConcurrentHashMap<>();
+
+    private SqliteDataVersion() {
+    }
+
+    private static final class Pinned {
+        final Connection connection;
+        long dataVersion = -1;
+        long commitCount = -1;
+        long external;
+
+        Pinned(Connection connection, long external) {
+            this.connection = connection;
+            this.external = external;
+        }
+    }
+
+    /**
+     * Counts one write transaction. Call it inside the transaction, after the write and before the commit, so the
+     * count and the data change together.
+     * @param con The write connection, with auto-commit off.
+     * @throws SQLException If the count cannot be written.
+     */
+    static void bump(Connection con) throws SQLException {
+        long count = read(con);
+        try (Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("PRAGMA user_version = " + ((count + 1) & Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Moves the commit count past a value read earlier, e.g. after the file's contents were replaced by an older
+     * copy whose count may be lower, so versions stamped before the replacement can never match again.
+     * @param con A connection that may write.
+     * @param past A count read before the replacement.
+     * @throws SQLException If the count cannot be written.
+     */
+    static void advancePast(Connection con, long past) throws SQLException {
+        long next = Math.max(read(con), past) + 1;
+        try (Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("PRAGMA user_version = " + (next & Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * @param con A connection.
+     * @return The commit count stored in the file.
+     * @throws SQLException If the header cannot be read.
+     */
+    static long read(Connection con) throws SQLException {
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Reads the data version of a file: the commit count in the high bits, and the commits of other connections
+     * that did not move it (seen through {@code PRAGMA data_version}) in the low bits.
+     * @param databaseFile The database file.
+     * @return The version, or -1 if the file cannot be read.
+     */
+    static long read(String databaseFile) {
+        if (databaseFile == null) return -1;
+        Pinned pin;
+        try {
+            pin = pinned.computeIfAbsent(databaseFile, file -> {
+                try {
+                    Connection con = DriverManager.getConnection("jdbc:sqlite:" + file);
+                    // Commits made while the file was not pinned cannot be told apart, so assume there was one
+                    Long before = released.remove(file);
+                    return new Pinned(con, before == null ? 0 : before + 1);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            System.err.println("Could not open database for its data version: " + e.getMessage());
+            return -1;
+        }
+        synchronized (pin) {
+            try (Statement stmt = pin.connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT * FROM pragma_data_version, pragma_user_version")) {
+                if (!rs.next()) return -1;
+                long dataVersion = rs.getLong(1);
+                long commitCount = rs.getLong(2);
+                // A commit that left the count alone was made by something other than the store's write methods
+                if (pin.dataVersion >= 0 && dataVersion != pin.dataVersion && commitCount == pin.commitCount) {
+                    pin.external++;
+                }
+                pin.dataVersion = dataVersion;
+                pin.commitCount = commitCount;
+                return (commitCount << EXTERNAL_BITS) + pin.external;
+            } catch (SQLException e) {
+                System.err.println("Could not read data version: " + e.getMessage());
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Closes the connection kept open for a file, e.g. before the file is deleted. The next {@link #read(String)}
+     * opens a new one.
+     * @param databaseFile The database file.
+     */
+    static void release(String databaseFile) {
+        if (databaseFile == null) return;
+        Pinned pin = pinned.remove(databaseFile);
+        if (pin == null) return;
+        synchronized (pin) {
+            released.put(databaseFile, pin.external);
+            try {
+                pin.connection.close();
+            } catch (SQLException e) {
+                System.err.println("Could not close data version connection: " + e.getMessage());
+            }
+        }
+    }
+}
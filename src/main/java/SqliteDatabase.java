@@ -0,0 +1,165 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * One SQLite database file and its two connection lanes: a pool of read-only connections ({@code SQLITE_OPEN_READONLY},
+ * {@code PRAGMA query_only}) and a pool of write connections, the first of which switches the file to WAL journaling
+ * so readers never wait for a writer. All work runs under the retry policy of {@link JDBC}.
+ *
+ * <p>Role in System: {@link JDBC}'s static methods use the default database, whose file is set with
+ * {@link JDBC#configure(String)}; a {@link SqliteMovieStore} created for another instance works against that file
+ * instead, which is how {@link ShardedMovieStore} keeps one file per shard. Safe to use from many threads.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class SqliteDatabase {
+
+    // Pooled connections per lane; SQLite allows one writer at a time, so one write connection is enough by default
+    public static final int DEFAULT_READ_POOL_SIZE = 4;
+    public static final int DEFAULT_WRITE_POOL_SIZE = 1;
+
+    // The SQLite open flag of read-lane connections
+    private static final int SQLITE_OPEN_READONLY = 0x00000001;
+
+    // The shortest time a call waits for a pooled connection, even under a policy without retries
+    private static final long MIN_POOL_WAIT_MILLIS = 5_000;
+
+    private volatile String file;
+    private volatile ConnectionPool readPool = newPool(JDBC.Lane.READ, DEFAULT_READ_POOL_SIZE);
+    private volatile ConnectionPool writePool = newPool(JDBC.Lane.WRITE, DEFAULT_WRITE_POOL_SIZE);
+
+    // The file already switched to WAL journaling, so later write connections skip the pragma
+    private volatile String walFile;
+
+    // The retry policy the pooled connections' busy timeout was set from
+    private volatile RetryPolicy poolPolicy = JDBC.getRetryPolicy();
+
+    /**
+     * Creates a database handle. No connection is opened until the first call.
+     * @param file The path of the SQLite file, or null to set it later.
+     */
+    public SqliteDatabase(String file) {
+        this.file = file;
+    }
+
+    /** @return The path of the SQLite file, or null if none has been set. */
+    public String getFile() { return file; }
+
+    /**
+     * Points the handle at another file; pooled connections to the old file are closed once they are returned.
+     * @param file The path of the SQLite file.
+     */
+    public void setFile(String file) {
+        SqliteDataVersion.release(this.file);
+        this.file = file;
+        closeIdleConnections();
+    }
+
+    /**
+     * Opens a new, unpooled connection of a lane, e.g. for a long-lived connection that caches prepared statements.
+     * The caller closes it with {@link JDBC#closeConnection(Connection)}.
+     * @param lane The lane.
+     * @return The connection.
+     * @throws SQLException If no file is set or the connection fails.
+     */
+    public Connection openConnection(JDBC.Lane lane) throws SQLException {
+        String path = file;
+        if (path == null) throw new SQLException("Database path has not been set");
+        Properties properties = new Properties();
+        properties.setProperty("busy_timeout", String.valueOf(JDBC.getRetryPolicy().getBusyTimeoutMillis()));
+        if (lane == JDBC.Lane.READ) properties.setProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+        // DriverManager will use the loaded driver to establish the connection
+        Connection con = DriverManager.getConnection("jdbc:sqlite:" + path, properties);
+        try (Statement stmt = con.createStatement()) {
+            if (lane == JDBC.Lane.READ) {
+                stmt.execute("PRAGMA query_only = 1");
+            } else if (!path.equals(walFile)) {
+                // Persistent: the file stays in WAL mode for every later connection
+                stmt.execute("PRAGMA journal_mode = WAL");
+                walFile = path;
+            }
+        } catch (SQLException e) {
+            JDBC.closeConnection(con);
+            throw e;
+        }
+        return con;
+    }
+
+    /**
+     * Runs work on a pooled connection of a lane under the retry policy (see {@link JDBC#retry(JDBC.SqlCall)}). A
+     * failed attempt's connection is closed (rolling back its open transaction) before the next attempt, so the work
+     * must build its result from scratch on each attempt. A connection that is returned with auto-commit off is
+     * rolled back to auto-commit, so work must commit what it wants kept.
+     * @param lane The lane; {@link JDBC.Lane#READ} work must not write.
+     * @param work The work.
+     * @param <T> The result type.
+     * @return The work's result.
+     * @throws SQLException The last attempt's exception, if every attempt failed.
+     */
+    public <T> T withConnection(JDBC.Lane lane, JDBC.SqlWork<T> work) throws SQLException {
+        return JDBC.retry(() -> {
+            RetryPolicy policy = JDBC.getRetryPolicy();
+            if (policy != poolPolicy) {
+                // Pooled connections carry the old policy's busy timeout
+                poolPolicy = policy;
+                readPool.invalidate();
+                writePool.invalidate();
+            }
+            ConnectionPool pool = getPool(lane);
+            Connection con = pool.acquire(Math.max(policy.getDeadlineMillis(), MIN_POOL_WAIT_MILLIS));
+            boolean done = false;
+            try {
+                T result = work.run(con);
+                done = true;
+                return result;
+            } finally {
+                pool.release(con, !done);
+            }
+        });
+    }
+
+    /**
+     * Replaces the connection pools of both lanes; connections of the old pools are closed once they are returned.
+     * @param readers The number of read connections that can be in use at once; at least 1.
+     * @param writers The number of write connections that can be in use at once; at least 1. More than one only
+     *                lets writers queue on SQLite's lock (busy timeout) instead of on the pool.
+     */
+    public void setPoolSizes(int readers, int writers) {
+        ConnectionPool oldRead = readPool, oldWrite = writePool;
+        readPool = newPool(JDBC.Lane.READ, readers);
+        writePool = newPool(JDBC.Lane.WRITE, writers);
+        oldRead.invalidate();
+        oldWrite.invalidate();
+    }
+
+    /**
+     * @param lane A lane.
+     * @return The lane's connection pool, e.g. to read its counters.
+     */
+    public ConnectionPool getPool(JDBC.Lane lane) {
+        return lane == JDBC.Lane.READ ? readPool : writePool;
+    }
+
+    /**
+     * Closes the pooled connections of both lanes (borrowed ones once they are returned) and the file's
+     * {@link SqliteDataVersion} connection, e.g. before the file is moved or deleted. Later calls open new connections.
+     */
+    public void closeIdleConnections() {
+        readPool.invalidate();
+        writePool.invalidate();
+        SqliteDataVersion.release(file);
+    }
+
+    private ConnectionPool newPool(JDBC.Lane lane, int size) {
+        return new ConnectionPool(lane.name().toLowerCase(), size, () -> openConnection(lane));
+    }
+
+    @Override
+    public String toString() {
+        return "SqliteDatabase[" + file + "]";
+    }
+}
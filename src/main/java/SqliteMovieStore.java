@@ -0,0 +1,952 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SQLite implementation of {@link MovieStore}, executing SQL against the database configured in {@link JDBC}
+ * (or another {@link SqliteDatabase}). Every operation runs on a pooled connection through
+ * {@link SqliteDatabase#withConnection(JDBC.Lane, JDBC.SqlWork)}, which retries it under the {@link RetryPolicy}
+ * while another connection holds the database lock; after a failure, {@link #takeLastFailure()} tells contention
+ * from other errors. Lookups, scans, pages, aggregates and queries use the read lane; everything that writes,
+ * including the one-time schema upgrades a read may need first, uses the write lane.
+ *
+ * <p>Role in System: Data Access Layer. It is the only class that issues SQL for the movie table;
+ * {@link MovieManager} validates input and delegates here.</p>
+ *
+ * <p>Row versions: an integer {@code version} column (added on first use, existing rows start at 1) is incremented
+ * by every update and merge, so {@link #update(String, long, MarvelMovie)} and {@link #delete(String, long)} can
+ * compare and write in one statement ({@code ... WHERE title = ? AND version = ?}) even when several clients share
+ * the database file.</p>
+ *
+ * <p>Data version: every write method that changes rows counts its transaction in the file's commit count
+ * ({@link SqliteDataVersion#bump(Connection)}, once per transaction, not per row) before committing, and
+ * {@link #dataVersion()} combines that count with {@code PRAGMA data_version}, which also sees commits of other
+ * tools.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public class SqliteMovieStore implements MovieStore {
+
+    // SQL Query Constants
+    private static final String TABLE_NAME = "movies";
+    private static final String COLUMNS = "title, releaseDate, phase, director, runningTimeMin, imdbRating";
+    private static final String EPOCH_DAY_COLUMN = "releaseEpochDay";
+    private static final String EPOCH_DAY_INDEX = "idx_movies_release_epoch_day";
+    private static final String VERSION_COLUMN = "version";
+    // Indexes in the exact order of the ranked sorts, so "top k" reads k index entries instead of sorting the table
+    private static final String[] RANKING_INDEXES = {
+            "idx_movies_rating ON movies (imdbRating DESC, title)",
+            "idx_movies_phase_rating ON movies (phase, imdbRating DESC, title)",
+            "idx_movies_runtime ON movies (runningTimeMin DESC, title)"
+    };
+
+    // Rows fetched per cursor round trip, and rows per JDBC batch for bulk writes
+    private static final int CURSOR_FETCH_SIZE = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    // Per database file: whether the optional releaseEpochDay column exists (absent = not checked yet), which files
+    // are known to have the version column, and which have had the ranking indexes created in this run. Shared
+    // between store instances because it describes the database.
+    private static final Map<String, Boolean> epochDayColumns = new ConcurrentHashMap<>();
+    private static final Set<String> versionColumnFiles = ConcurrentHashMap.newKeySet();
+    private static final Set<String> rankingIndexFiles = ConcurrentHashMap.newKeySet();
+
+    // Batch lookups and deletes: titles per IN list, and the set size above which a temporary table is used instead
+    private static final int IN_LIST_SIZE = 500;
+    private static final int TEMP_TABLE_THRESHOLD = 20_000;
+    private static final String TEMP_TITLES = "temp.batch_titles";
+
+    // Prepared statements reused across typed queries of the same shape
+    private static final int PLAN_CACHE_SIZE = 64;
+
+    // One shared String instance per director name across every movie this store returns
+    private final StringDictionary directorNames = new StringDictionary();
+    private final SqliteDatabase database;
+    private final StatementCache plans;
+
+    /**
+     * Creates a store on the database configured in {@link JDBC} (following later {@link JDBC#configure(String)} calls).
+     */
+    public SqliteMovieStore() {
+        this(JDBC.getDefaultDatabase());
+    }
+
+    /**
+     * Creates a store on a specific database file, e.g. one shard of a {@link ShardedMovieStore}.
+     * @param database The database.
+     */
+    public SqliteMovieStore(SqliteDatabase database) {
+        this.database = database;
+        this.plans = new StatementCache(PLAN_CACHE_SIZE, database);
+    }
+
+    /** @return The database this store works against. */
+    public SqliteDatabase getDatabase() { return database; }
+
+    /**
+     * Forgets what is known about a file's optional columns and indexes, after its contents were replaced (e.g. by
+     * {@link OnlineBackup#restore(Path)}); the next call checks them again.
+     * @param file The database file.
+     */
+    static void forgetSchema(String file) {
+        if (file == null) return;
+        epochDayColumns.remove(file);
+        versionColumnFiles.remove(file);
+        rankingIndexFiles.remove(file);
+    }
+
+    @Override
+    public boolean insert(MarvelMovie movie) {
+        // A duplicate title is resolved by the statement itself (no row changed) rather than by a constraint error
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                prepareSchema(con);
+                boolean withEpochDay = hasEpochDayColumn(con);
+                try (PreparedStatement pstmt = con.prepareStatement(insertSql("INSERT", withEpochDay) + " ON CONFLICT DO NOTHING")) {
+                    bindInsert(pstmt, movie, withEpochDay);
+                    con.setAutoCommit(false);
+                    boolean inserted = pstmt.executeUpdate() > 0;
+                    commit(con, inserted);
+                    if (inserted) return true;
+                    System.out.println("Attempted to add duplicate movie: " + movie.getTitle());
+                    return false;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during insert: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean insert(MarvelMovie movie, long version) {
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                if (!prepareSchema(con)) return false;
+                boolean withEpochDay = hasEpochDayColumn(con);
+                String sql = "INSERT INTO " + TABLE_NAME + " (" + COLUMNS + (withEpochDay ? ", " + EPOCH_DAY_COLUMN : "")
+                        + ", " + VERSION_COLUMN + ") VALUES (?, ?, ?, ?, ?, ?" + (withEpochDay ? ", ?" : "") + ", ?) ON CONFLICT DO NOTHING";
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    bindInsert(pstmt, movie, withEpochDay);
+                    pstmt.setLong(withEpochDay ? 8 : 7, version);
+                    con.setAutoCommit(false);
+                    boolean inserted = pstmt.executeUpdate() > 0;
+                    commit(con, inserted);
+                    if (inserted) return true;
+                    System.out.println("Attempted to add duplicate movie: " + movie.getTitle());
+                    return false;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during versioned insert: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Inserts using one connection, one transaction and JDBC statement batching ({@code INSERT OR IGNORE}).
+     */
+    @Override
+    public int insertAll(Collection<MarvelMovie> movies) {
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                prepareSchema(con);
+                boolean withEpochDay = hasEpochDayColumn(con);
+                int inserted = 0;
+                try (PreparedStatement pstmt = con.prepareStatement(insertSql("INSERT OR IGNORE", withEpochDay))) {
+                    con.setAutoCommit(false);
+                    int pending = 0;
+                    for (MarvelMovie movie : movies) {
+                        bindInsert(pstmt, movie, withEpochDay);
+                        pstmt.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            inserted += countUpdated(pstmt.executeBatch());
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) inserted += countUpdated(pstmt.executeBatch());
+                    commit(con, inserted > 0);
+                    return inserted;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during insertAll: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Merges with one connection, one transaction and a batched upsert
+     * ({@code INSERT ... ON CONFLICT(title) DO NOTHING / DO UPDATE ... WHERE}), so every row costs one unique-index
+     * probe and rows the policy keeps are never written. The row count before and after separates inserts from
+     * updates.
+     */
+    @Override
+    public MergeResult merge(Collection<MarvelMovie> movies, MergePolicy policy) {
+        if (movies.isEmpty()) return MergeResult.empty();
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                boolean withEpochDay = hasEpochDayColumn(con);
+                boolean withVersion = prepareSchema(con);
+                long changed = 0;
+                String upsert = insertSql("INSERT", withEpochDay) + onConflict(policy, withEpochDay, withVersion);
+                try (PreparedStatement pstmt = con.prepareStatement(upsert)) {
+                    con.setAutoCommit(false);
+                    long before = countRows(con);
+                    int pending = 0;
+                    for (MarvelMovie movie : movies) {
+                        bindInsert(pstmt, movie, withEpochDay);
+                        pstmt.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            changed += countUpdated(pstmt.executeBatch());
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) changed += countUpdated(pstmt.executeBatch());
+                    long inserted = countRows(con) - before;
+                    commit(con, changed > 0);
+                    return new MergeResult(inserted, changed - inserted, movies.size() - changed);
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during merge: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean update(String title, String column, Object value) {
+        // Set the value (use instanceof to handle different types)
+        if (!(value instanceof String || value instanceof Integer || value instanceof Double)) return false;
+
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                // A new release date also refreshes the epoch-day column, if enabled
+                boolean withEpochDay = column.equals("releaseDate") && hasEpochDayColumn(con);
+                String sql = "UPDATE " + TABLE_NAME + " SET " + column + " = ?"
+                        + (withEpochDay ? ", " + EPOCH_DAY_COLUMN + " = ?" : "")
+                        + (prepareSchema(con) ? ", " + VERSION_COLUMN + " = " + VERSION_COLUMN + " + 1" : "") + " WHERE title = ?";
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    pstmt.setObject(1, value);
+                    int whereIndex = 2;
+                    if (withEpochDay) {
+                        pstmt.setInt(2, IsoDate.parseEpochDay((String) value));
+                        whereIndex = 3;
+                    }
+                    pstmt.setString(whereIndex, title);
+                    con.setAutoCommit(false);
+                    boolean updated = pstmt.executeUpdate() > 0;
+                    commit(con, updated);
+                    return updated;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during update: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(String title) {
+        String sql = "DELETE FROM " + TABLE_NAME + " WHERE title = ?";
+
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    pstmt.setString(1, title);
+                    con.setAutoCommit(false);
+                    boolean deleted = pstmt.executeUpdate() > 0;
+                    commit(con, deleted);
+                    return deleted;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during delete: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Compares and writes in one {@code UPDATE ... WHERE title = ? AND version = ?}; only when no row matched is the
+     * current row read (in the same transaction) to tell a conflict from a missing title.
+     */
+    @Override
+    public VersionedWrite update(String title, long expectedVersion, MarvelMovie values) {
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                if (!prepareSchema(con)) return VersionedWrite.failed();
+                boolean withEpochDay = hasEpochDayColumn(con);
+                String sql = "UPDATE " + TABLE_NAME + " SET title = ?, releaseDate = ?, phase = ?, director = ?,"
+                        + " runningTimeMin = ?, imdbRating = ?" + (withEpochDay ? ", " + EPOCH_DAY_COLUMN + " = ?" : "")
+                        + ", " + VERSION_COLUMN + " = " + VERSION_COLUMN + " + 1 WHERE title = ? AND " + VERSION_COLUMN + " = ?";
+                con.setAutoCommit(false);
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    bindInsert(pstmt, values, withEpochDay);
+                    int next = withEpochDay ? 8 : 7;
+                    pstmt.setString(next, title);
+                    pstmt.setLong(next + 1, expectedVersion);
+                    if (pstmt.executeUpdate() > 0) {
+                        commit(con, true);
+                        return VersionedWrite.applied(expectedVersion + 1);
+                    }
+                }
+                VersionedWrite rejected = rejection(con, title);
+                con.commit();
+                return rejected;
+            });
+        } catch (SQLException e) {
+            // Includes renaming onto a title that already exists (UNIQUE constraint)
+            System.err.println("SQL Error during versioned update: " + e.getMessage());
+            return VersionedWrite.failed();
+        }
+    }
+
+    @Override
+    public VersionedWrite delete(String title, long expectedVersion) {
+        String sql = "DELETE FROM " + TABLE_NAME + " WHERE title = ? AND " + VERSION_COLUMN + " = ?";
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                if (!prepareSchema(con)) return VersionedWrite.failed();
+                con.setAutoCommit(false);
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    pstmt.setString(1, title);
+                    pstmt.setLong(2, expectedVersion);
+                    if (pstmt.executeUpdate() > 0) {
+                        commit(con, true);
+                        return VersionedWrite.applied(expectedVersion);
+                    }
+                }
+                VersionedWrite rejected = rejection(con, title);
+                con.commit();
+                return rejected;
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during versioned delete: " + e.getMessage());
+            return VersionedWrite.failed();
+        }
+    }
+
+    /**
+     * Explains why a versioned write matched no row: the title is gone, or its version moved on.
+     */
+    private VersionedWrite rejection(Connection con, String title) throws SQLException {
+        try (PreparedStatement pstmt = con.prepareStatement(
+                "SELECT " + COLUMNS + ", " + VERSION_COLUMN + " FROM " + TABLE_NAME + " WHERE title = ?")) {
+            pstmt.setString(1, title);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? VersionedWrite.conflict(readMovie(rs, true)) : VersionedWrite.notFound();
+            }
+        }
+    }
+
+    /**
+     * Looks up all titles with one connection and one read transaction, using chunked {@code IN} lists
+     * (or a temporary table for very large sets).
+     */
+    @Override
+    public Map<String, MarvelMovie> findAll(Collection<String> titles) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(titles));
+        if (keys.isEmpty()) return new LinkedHashMap<>();
+
+        // The temporary table is a write, which the read lane's query_only connections refuse
+        JDBC.Lane lane = keys.size() > TEMP_TABLE_THRESHOLD ? JDBC.Lane.WRITE : JDBC.Lane.READ;
+        try {
+            return database.withConnection(lane, con -> {
+                Map<String, MarvelMovie> results = new LinkedHashMap<>();
+                for (String key : keys) results.put(key, null);
+                boolean withVersion = hasVersionColumn(con);
+                con.setAutoCommit(false);
+                if (keys.size() > TEMP_TABLE_THRESHOLD) loadTempTitles(con, keys);
+                String select = "SELECT " + COLUMNS + (withVersion ? ", " + VERSION_COLUMN : "") + " FROM " + TABLE_NAME;
+                forEachTitleChunk(con, select, keys, pstmt -> {
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            MarvelMovie movie = readVersionedMovie(rs, withVersion);
+                            results.put(movie.getTitle(), movie);
+                        }
+                    }
+                });
+                con.commit();
+                return results;
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during batch find: " + e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Deletes all titles in one transaction: the existing titles are read first (for the per-title result),
+     * then deleted with the same chunked {@code IN} lists or temporary table. On error nothing is deleted.
+     */
+    @Override
+    public Map<String, Boolean> deleteAll(Collection<String> titles) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(titles));
+        if (keys.isEmpty()) return new LinkedHashMap<>();
+
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                Map<String, Boolean> results = new LinkedHashMap<>();
+                for (String key : keys) results.put(key, false);
+                con.setAutoCommit(false);
+                if (keys.size() > TEMP_TABLE_THRESHOLD) loadTempTitles(con, keys);
+                forEachTitleChunk(con, "SELECT title FROM " + TABLE_NAME, keys, pstmt -> {
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) results.put(rs.getString(1), true);
+                    }
+                });
+                forEachTitleChunk(con, "DELETE FROM " + TABLE_NAME, keys, PreparedStatement::executeUpdate);
+                commit(con, results.containsValue(true));
+                return results;
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during batch delete: " + e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            database.withConnection(JDBC.Lane.WRITE, con -> {
+                try (Statement stmt = con.createStatement()) {
+                    con.setAutoCommit(false);
+                    int deleted = stmt.executeUpdate("DELETE FROM " + TABLE_NAME);
+                    commit(con, deleted > 0);
+                    return deleted;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during clear: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public MarvelMovie find(String title) {
+        try {
+            return database.withConnection(JDBC.Lane.READ, con -> {
+                boolean withVersion = hasVersionColumn(con);
+                String sql = "SELECT " + COLUMNS + (withVersion ? ", " + VERSION_COLUMN : "") + " FROM " + TABLE_NAME + " WHERE title = ?";
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    pstmt.setString(1, title);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? readVersionedMovie(rs, withVersion) : null;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during find: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Streams rows from the {@code ResultSet} cursor straight to the visitor; no row is retained. Contention is only
+     * retried until the first row has been delivered, so the visitor never sees a row twice.
+     */
+    @Override
+    public long scan(MovieFilter filter, MovieSort sort, RowVisitor visitor) throws IOException {
+        IOException[] visitorFailure = new IOException[1];
+        try {
+            return database.withConnection(JDBC.Lane.READ, con -> {
+                boolean indexed = hasEpochDayColumn(con);
+                String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + filter.toWhereClause(indexed) + orderBy(sort, indexed);
+                long rows = 0;
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    filter.bind(pstmt, 1, indexed);
+                    pstmt.setFetchSize(CURSOR_FETCH_SIZE);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            visitor.row(rs.getString(1), rs.getString(2), rs.getInt(3),
+                                    directorNames.intern(rs.getString(4)), rs.getInt(5), rs.getDouble(6));
+                            rows++;
+                        }
+                    }
+                } catch (IOException e) {
+                    visitorFailure[0] = e;
+                    throw new SQLException("Visitor failed");
+                } catch (SQLException e) {
+                    // Rows already delivered cannot be taken back, so this is no longer retryable
+                    if (rows > 0) throw new SQLException(e.getMessage() + " (after " + rows + " rows)");
+                    throw e;
+                }
+                return rows;
+            });
+        } catch (SQLException e) {
+            if (visitorFailure[0] != null) throw visitorFailure[0];
+            System.err.println("SQL Error during scan: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public List<MarvelMovie> page(MovieFilter filter, MovieSort sort, int offset, int limit) {
+        try {
+            return database.withConnection(JDBC.Lane.READ, con -> {
+                boolean indexed = hasEpochDayColumn(con);
+                String sql = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + filter.toWhereClause(indexed) + orderBy(sort, indexed)
+                        + " LIMIT ? OFFSET ?";
+                List<MarvelMovie> movies = new ArrayList<>();
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    int next = filter.bind(pstmt, 1, indexed);
+                    pstmt.setInt(next, limit);
+                    pstmt.setInt(next + 1, offset);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) movies.add(readMovie(rs, false));
+                    }
+                }
+                return movies;
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Computes all statistics with one SQL aggregate query.
+     */
+    @Override
+    public MovieStats aggregate(MovieFilter filter) {
+        try {
+            return database.withConnection(JDBC.Lane.READ, con -> {
+                boolean indexed = hasEpochDayColumn(con);
+                String sql = "SELECT COUNT(*), AVG(imdbRating), MIN(imdbRating), MAX(imdbRating), AVG(runningTimeMin) FROM "
+                        + TABLE_NAME + filter.toWhereClause(indexed);
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    filter.bind(pstmt, 1, indexed);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            // getDouble converts SQL NULL (no matching rows) to 0.0
+                            return new MovieStats(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5));
+                        }
+                    }
+                }
+                return MovieStats.empty();
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during aggregate: " + e.getMessage());
+            return MovieStats.empty();
+        }
+    }
+
+    /**
+     * Runs the query's parameterized SQL on a long-lived connection, reusing the prepared statement
+     * of earlier queries with the same shape.
+     */
+    @Override
+    public List<MarvelMovie> query(MovieQuery query) {
+        synchronized (plans) {
+            try {
+                return JDBC.retry(() -> {
+                    Connection con = plans.connection();
+                    if (con == null) throw new SQLException("No connection for queries");
+                    List<MarvelMovie> movies = new ArrayList<>();
+                    try {
+                        boolean indexed = hasEpochDayColumn(con);
+                        PreparedStatement pstmt = plans.prepare("SELECT " + COLUMNS + " FROM " + TABLE_NAME + query.toSql(indexed));
+                        query.bind(pstmt, 1, indexed);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) movies.add(readMovie(rs, false));
+                        }
+                    } catch (SQLException e) {
+                        plans.reset();
+                        throw e;
+                    }
+                    return movies;
+                });
+            } catch (SQLException e) {
+                System.err.println("SQL Error during query: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * @return A {@code hits/misses} summary of the prepared-statement cache used by {@link #query(MovieQuery)}.
+     */
+    public String getPlanCacheStats() {
+        return "prepared statement cache: " + plans.getHits() + " hits, " + plans.getMisses() + " misses";
+    }
+
+    // ---------- RELEASE DATE (EPOCH-DAY COLUMN) ----------
+    /**
+     * Adds the optional integer {@code releaseEpochDay} column (days since 1970-01-01) and an index on it,
+     * then backfills it from the existing {@code releaseDate} strings. Safe to call more than once.
+     * Once enabled, every insert and release-date update keeps the column in sync.
+     *
+     * @return true if the column and index exist after the call, false on SQL error.
+     */
+    @Override
+    public boolean ensureReleaseDateIndex() {
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                try (Statement stmt = con.createStatement()) {
+                    con.setAutoCommit(false);
+                    if (!hasEpochDayColumn(con)) {
+                        stmt.executeUpdate("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + EPOCH_DAY_COLUMN + " INTEGER");
+                    }
+
+                    // Backfill rows written before the column existed (or by other tools)
+                    String select = "SELECT rowid, releaseDate FROM " + TABLE_NAME + " WHERE " + EPOCH_DAY_COLUMN + " IS NULL";
+                    String update = "UPDATE " + TABLE_NAME + " SET " + EPOCH_DAY_COLUMN + " = ? WHERE rowid = ?";
+                    try (PreparedStatement pstmt = con.prepareStatement(update);
+                         ResultSet rs = stmt.executeQuery(select)) {
+                        int pending = 0;
+                        while (rs.next()) {
+                            int day = IsoDate.parseEpochDay(rs.getString(2));
+                            if (day == IsoDate.INVALID) continue;
+                            pstmt.setInt(1, day);
+                            pstmt.setLong(2, rs.getLong(1));
+                            pstmt.addBatch();
+                            if (++pending == BATCH_SIZE) {
+                                pstmt.executeBatch();
+                                pending = 0;
+                            }
+                        }
+                        if (pending > 0) pstmt.executeBatch();
+                    }
+
+                    stmt.executeUpdate("CREATE INDEX IF NOT EXISTS " + EPOCH_DAY_INDEX + " ON " + TABLE_NAME + " (" + EPOCH_DAY_COLUMN + ")");
+                    con.commit();
+                    epochDayColumns.put(database.getFile(), true);
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error enabling release epoch-day index: " + e.getMessage());
+            epochDayColumns.remove(database.getFile());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the movies table if it does not exist yet, e.g. for a new shard file.
+     * @return true if the table exists after the call.
+     */
+    public boolean createTable() {
+        try {
+            return database.withConnection(JDBC.Lane.WRITE, con -> {
+                try (Statement stmt = con.createStatement()) {
+                    stmt.executeUpdate("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                            + "title TEXT UNIQUE NOT NULL, releaseDate TEXT, phase INTEGER, director TEXT, "
+                            + "runningTimeMin INTEGER, imdbRating REAL)");
+                }
+                // Prepared here or by the first write, never by a read
+                prepareSchema(con);
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error creating the movies table: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean verifySchema() {
+        String sql = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?";
+        try {
+            return database.withConnection(JDBC.Lane.READ, con -> {
+                try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+                    pstmt.setString(1, TABLE_NAME);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next();
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("SQL Error during schema check: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public WriteResult.Status takeLastFailure() {
+        return JDBC.takeLastFailure();
+    }
+
+    /**
+     * Reads the {@link SqliteDataVersion} of the file, on a connection of its own: no pooled connection is taken and
+     * nothing is written.
+     */
+    @Override
+    public long dataVersion() {
+        return SqliteDataVersion.read(database.getFile());
+    }
+
+    // ---------- HELPERS ----------
+
+    /**
+     * Checks (once) whether the optional epoch-day column exists on the movies table.
+     */
+    private boolean hasEpochDayColumn(Connection con) {
+        String file = database.getFile();
+        Boolean known = epochDayColumns.get(file);
+        if (known != null) return known;
+
+        boolean found = false;
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + TABLE_NAME + ")")) {
+            while (rs.next()) {
+                if (EPOCH_DAY_COLUMN.equalsIgnoreCase(rs.getString("name"))) found = true;
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error reading table info: " + e.getMessage());
+            return false;
+        }
+        epochDayColumns.put(file, found);
+        return found;
+    }
+
+    /**
+     * Makes sure (once per database file) that the movies table has the version column, adding it if needed. Only
+     * {@link #prepareSchema(Connection)} calls it; lookups use {@link #hasVersionColumn(Connection)}. A failure, e.g.
+     * on a read-only database, is only logged: plain reads and writes still work, and versioned writes report
+     * {@code FAILED}.
+     * @return true if the column exists.
+     */
+    private boolean ensureVersionColumn(Connection con) {
+        try {
+            if (hasVersionColumn(con)) return true;
+            try (Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + VERSION_COLUMN + " INTEGER NOT NULL DEFAULT 1");
+            }
+            versionColumnFiles.add(database.getFile());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("SQL Error adding version column: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Prepares the schema (once per database file and run) for the writes and the ranked reads: the version column
+     * and the ranking indexes. Called on the write lane by {@link #createTable()} and the write methods, so read
+     * methods never change the schema.
+     * @return true if the version column exists.
+     */
+    private boolean prepareSchema(Connection con) {
+        ensureRankingIndexes(con);
+        return ensureVersionColumn(con);
+    }
+
+    /**
+     * Creates (once per run) the indexes that serve the ranked sorts. A failure, e.g. on a read-only database, is
+     * only logged: the ranked queries still work, just with a sort step.
+     */
+    private void ensureRankingIndexes(Connection con) {
+        String file = database.getFile();
+        if (rankingIndexFiles.contains(file)) return;
+        try (Statement stmt = con.createStatement()) {
+            for (String index : RANKING_INDEXES) {
+                stmt.executeUpdate("CREATE INDEX IF NOT EXISTS " + index);
+            }
+            rankingIndexFiles.add(file);
+        } catch (SQLException e) {
+            System.err.println("SQL Error creating ranking indexes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks, without changing anything, whether the movies table has the version column, so read-lane lookups
+     * never alter the table. Only a positive answer is remembered: the first write adds a missing column.
+     * @return true if the column exists.
+     */
+    private boolean hasVersionColumn(Connection con) throws SQLException {
+        String file = database.getFile();
+        if (versionColumnFiles.contains(file)) return true;
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + TABLE_NAME + ")")) {
+            while (rs.next()) {
+                if (VERSION_COLUMN.equalsIgnoreCase(rs.getString("name"))) {
+                    versionColumnFiles.add(file);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Commits a write transaction, first counting it in the data version if it changed any row.
+     */
+    private static void commit(Connection con, boolean changed) throws SQLException {
+        if (changed) SqliteDataVersion.bump(con);
+        con.commit();
+    }
+
+    /**
+     * Work done with a statement whose titles are already bound.
+     */
+    @FunctionalInterface
+    private interface ChunkAction {
+        void run(PreparedStatement pstmt) throws SQLException;
+    }
+
+    /**
+     * Loads the titles into a temporary table, for sets larger than {@link #TEMP_TABLE_THRESHOLD}.
+     */
+    private static void loadTempTitles(Connection con, List<String> titles) throws SQLException {
+        try (Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("CREATE TEMP TABLE IF NOT EXISTS batch_titles (title TEXT PRIMARY KEY)");
+            stmt.executeUpdate("DELETE FROM " + TEMP_TITLES);
+        }
+        try (PreparedStatement insert = con.prepareStatement("INSERT OR IGNORE INTO " + TEMP_TITLES + " (title) VALUES (?)")) {
+            int pending = 0;
+            for (String title : titles) {
+                insert.setString(1, title);
+                insert.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) insert.executeBatch();
+        }
+    }
+
+    /**
+     * Runs {@code sqlPrefix + " WHERE title IN (...)"} over all titles. Up to {@link #TEMP_TABLE_THRESHOLD} titles are
+     * bound in fixed-size {@code IN} lists; the last list repeats its final title to fill the remaining slots, so every
+     * chunk reuses one prepared statement. Larger sets are matched against the temporary table in one statement
+     * ({@link #loadTempTitles(Connection, List)} must have been called on the same connection).
+     */
+    private static void forEachTitleChunk(Connection con, String sqlPrefix, List<String> titles, ChunkAction action)
+            throws SQLException {
+        if (titles.size() > TEMP_TABLE_THRESHOLD) {
+            try (PreparedStatement pstmt = con.prepareStatement(sqlPrefix + " WHERE title IN (SELECT title FROM " + TEMP_TITLES + ")")) {
+                action.run(pstmt);
+            }
+            return;
+        }
+
+        int width = 1;
+        while (width < titles.size() && width < IN_LIST_SIZE) width <<= 1;
+        String placeholders = String.join(", ", Collections.nCopies(width, "?"));
+        try (PreparedStatement pstmt = con.prepareStatement(sqlPrefix + " WHERE title IN (" + placeholders + ")")) {
+            for (int from = 0; from < titles.size(); from += width) {
+                int last = Math.min(titles.size(), from + width) - 1;
+                for (int i = 0; i < width; i++) {
+                    pstmt.setString(i + 1, titles.get(Math.min(from + i, last)));
+                }
+                action.run(pstmt);
+            }
+        }
+    }
+
+    private static String orderBy(MovieSort sort, boolean indexed) {
+        String releaseColumn = indexed ? EPOCH_DAY_COLUMN : "releaseDate";
+        switch (sort) {
+            case RELEASE_DATE: return " ORDER BY " + releaseColumn + " ASC, title ASC";
+            case RATING: return " ORDER BY imdbRating DESC, title ASC";
+            case RUNTIME: return " ORDER BY runningTimeMin DESC, title ASC";
+            case NEWEST: return " ORDER BY " + releaseColumn + " DESC, title ASC";
+            default: return " ORDER BY title ASC";
+        }
+    }
+
+    /**
+     * Builds the INSERT statement, including the epoch-day column when it is enabled.
+     */
+    private static String insertSql(String verb, boolean withEpochDay) {
+        if (withEpochDay) {
+            return verb + " INTO " + TABLE_NAME + " (" + COLUMNS + ", " + EPOCH_DAY_COLUMN + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+        }
+        return verb + " INTO " + TABLE_NAME + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Builds the upsert clause for a merge policy. In {@code DO UPDATE}, {@code excluded} is the incoming row and
+     * the bare table name the stored one; a false {@code WHERE} leaves the stored row untouched.
+     */
+    private static String onConflict(MergePolicy policy, boolean withEpochDay, boolean withVersion) {
+        if (policy == MergePolicy.SKIP) return " ON CONFLICT(title) DO NOTHING";
+
+        String set = " ON CONFLICT(title) DO UPDATE SET releaseDate = excluded.releaseDate, phase = excluded.phase,"
+                + " director = excluded.director, runningTimeMin = excluded.runningTimeMin, imdbRating = excluded.imdbRating"
+                + (withEpochDay ? ", " + EPOCH_DAY_COLUMN + " = excluded." + EPOCH_DAY_COLUMN : "")
+                + (withVersion ? ", " + VERSION_COLUMN + " = " + TABLE_NAME + "." + VERSION_COLUMN + " + 1" : "");
+        switch (policy) {
+            case KEEP_HIGHER_RATING:
+                return set + " WHERE excluded.imdbRating > " + TABLE_NAME + ".imdbRating";
+            case ONLY_IF_CHANGED:
+                return set + " WHERE " + TABLE_NAME + ".releaseDate IS NOT excluded.releaseDate"
+                        + " OR " + TABLE_NAME + ".phase IS NOT excluded.phase"
+                        + " OR " + TABLE_NAME + ".director IS NOT excluded.director"
+                        + " OR " + TABLE_NAME + ".runningTimeMin IS NOT excluded.runningTimeMin"
+                        + " OR " + TABLE_NAME + ".imdbRating IS NOT excluded.imdbRating";
+            default:
+                return set;
+        }
+    }
+
+    private static long countRows(Connection con) throws SQLException {
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + TABLE_NAME)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Binds a movie to a statement built by {@link #insertSql(String, boolean)}.
+     */
+    private static void bindInsert(PreparedStatement pstmt, MarvelMovie movie, boolean withEpochDay) throws SQLException {
+        pstmt.setString(1, movie.getTitle());
+        pstmt.setString(2, movie.getReleaseDate());
+        pstmt.setInt(3, movie.getPhase());
+        pstmt.setString(4, movie.getDirector());
+        pstmt.setInt(5, movie.getRunningTimeMin());
+        pstmt.setDouble(6, movie.getImdbRating());
+        if (withEpochDay) {
+            pstmt.setInt(7, movie.getReleaseEpochDay());
+        }
+    }
+
+    /**
+     * Reads a movie for a lookup whose result may be edited. Without the version column every row is at version 1,
+     * the default the column gets when the first write adds it.
+     */
+    private MarvelMovie readVersionedMovie(ResultSet rs, boolean withVersion) throws SQLException {
+        MarvelMovie movie = readMovie(rs, withVersion);
+        if (!withVersion) movie.setVersion(1);
+        return movie;
+    }
+
+    /**
+     * Reads the current row (selected with {@link #COLUMNS}, plus the version column if withVersion) into a movie object.
+     */
+    private MarvelMovie readMovie(ResultSet rs, boolean withVersion) throws SQLException {
+        MarvelMovie movie = new MarvelMovie(
+                rs.getString("title"),
+                rs.getString("releaseDate"),
+                rs.getInt("phase"),
+                directorNames.intern(rs.getString("director")),
+                rs.getInt("runningTimeMin"),
+                rs.getDouble("imdbRating")
+        );
+        if (withVersion) movie.setVersion(rs.getLong(VERSION_COLUMN));
+        return movie;
+    }
+
+    private static int countUpdated(int[] counts) {
+        int total = 0;
+        for (int c : counts) {
+            if (c > 0) total += c;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,135 @@
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the database side of application startup on background threads, so it overlaps with building the UI.
+ * Started right after the database path is known, it concurrently:
+ * <ul>
+ *     <li>memory-maps the startup {@link SnapshotFile} if it is still current (no driver needed),</li>
+ *     <li>loads the SQLite driver and opens a test connection, then checks the schema,</li>
+ *     <li>loads the first page of movies, unless the snapshot file already provides the first screen.</li>
+ * </ul>
+ *
+ * <p>Role in System: Fast-startup path between {@link IntroScreen} and {@link DMSGui}. Each step records a
+ * {@link StartupTimer} mark. Results are exposed as futures, so callers block only if a step is still running
+ * when they need it.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class StartupLoader {
+
+    /** Rows shown on the first screen while the rest of the catalog loads. */
+    public static final int FIRST_PAGE_ROWS = 200;
+
+    private final MovieManager manager;
+    private final CompletableFuture<SnapshotFile> snapshot;
+    private final CompletableFuture<Boolean> connection;
+    private final CompletableFuture<Boolean> schema;
+    private final CompletableFuture<List<MarvelMovie>> firstPage;
+
+    private StartupLoader(Path snapshotFile) {
+        ExecutorService pool = Executors.newFixedThreadPool(3, new StartupThreads());
+        this.manager = new MovieManager();
+
+        snapshot = CompletableFuture.supplyAsync(() -> {
+            SnapshotFile s = manager.openSnapshotFile(snapshotFile);
+            StartupTimer.mark(s != null ? "snapshot file mapped" : "snapshot file missing or stale");
+            return s;
+        }, pool);
+
+        connection = CompletableFuture.supplyAsync(() -> {
+            try {
+                JDBC.loadDriver();
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("SQLite JDBC Driver not found", e);
+            }
+            StartupTimer.mark("driver loaded");
+            Connection con = JDBC.openConnection();
+            boolean ok = con != null;
+            JDBC.closeConnection(con);
+            StartupTimer.mark("connection tested");
+            return ok;
+        }, pool);
+
+        schema = connection.thenApplyAsync(ok -> {
+            boolean valid = ok && manager.getStore().verifySchema();
+            StartupTimer.mark("schema checked");
+            return valid;
+        }, pool);
+
+        firstPage = snapshot.thenCombineAsync(connection, (mapped, ok) -> {
+            if (mapped != null || !ok) return new ArrayList<MarvelMovie>();
+            List<MarvelMovie> page = manager.getStore().page(MovieFilter.all(), MovieSort.TITLE, 0, FIRST_PAGE_ROWS);
+            StartupTimer.mark("first page loaded");
+            return page;
+        }, pool);
+
+        // The threads exit once every step is done
+        CompletableFuture.allOf(schema, firstPage).whenComplete((v, e) -> pool.shutdown());
+    }
+
+    /**
+     * Starts loading in the background. {@link JDBC#configure(String)} must have been called.
+     * @param dbFile The database file path.
+     * @return The running loader.
+     */
+    public static StartupLoader start(String dbFile) {
+        return new StartupLoader(Path.of(dbFile + ".snapshot"));
+    }
+
+    /** @return The manager the loaded data belongs to, for the main window to reuse. */
+    public MovieManager getManager() { return manager; }
+
+    /** @return Completes with true once the driver is loaded and a test connection succeeded; fails if the driver is missing. */
+    public CompletableFuture<Boolean> connectionReady() { return connection; }
+
+    /** @return Completes with true if the movies table exists. */
+    public CompletableFuture<Boolean> schemaChecked() { return schema; }
+
+    /**
+     * Waits for the snapshot file step.
+     * @return The mapped, current snapshot file, or null if there is none.
+     */
+    public SnapshotFile snapshot() {
+        return snapshot.join();
+    }
+
+    /**
+     * Waits for the first page step. A failure is logged and reported as null, so the caller can fall back to
+     * loading the full catalog instead of showing an empty table.
+     * @return The first {@link #FIRST_PAGE_ROWS} movies in title order (empty if the snapshot file is used or there
+     * is no connection), or null if loading the page failed.
+     */
+    public List<MarvelMovie> firstPage() {
+        try {
+            return firstPage.join();
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            System.err.println("Could not load the first page of movies: " + cause.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Names the background threads and makes them daemons, so they never keep the application alive.
+     */
+    private static final class StartupThreads implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "startup-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
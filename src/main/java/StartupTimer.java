@@ -0,0 +1,83 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records named startup phases with their time since the JVM was launched, so slow phases can be spotted
+ * and the time to the first rendered row can be tracked.
+ *
+ * <p>Role in System: Startup instrumentation used by {@link IntroScreen}, {@link StartupLoader} and {@link DMSGui}.
+ * Marks may be set from any thread; {@link #report()} lists them in the order they happened.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class StartupTimer {
+
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    // Time between process launch and the loading of this class (0 if the launch time is unknown)
+    private static final long LAUNCH_OFFSET_MILLIS = launchOffsetMillis();
+
+    private static final List<String> names = new ArrayList<>();
+    private static final List<Long> millis = new ArrayList<>();
+    private static final List<String> threads = new ArrayList<>();
+
+    /**
+     * Private constructor to prevent instantiation, as this is a utility class.
+     */
+    private StartupTimer() {
+    }
+
+    /**
+     * Records that a phase finished now.
+     * @param phase A short description of the phase.
+     * @return The time since launch in milliseconds.
+     */
+    public static synchronized long mark(String phase) {
+        long now = elapsedMillis();
+        names.add(phase);
+        millis.add(now);
+        threads.add(Thread.currentThread().getName());
+        return now;
+    }
+
+    /**
+     * @return The milliseconds since the JVM was launched.
+     */
+    public static long elapsedMillis() {
+        return LAUNCH_OFFSET_MILLIS + (System.nanoTime() - ORIGIN_NANOS) / 1_000_000;
+    }
+
+    /**
+     * Looks up when a phase was marked.
+     * @param phase The phase description passed to {@link #mark(String)}.
+     * @return The time since launch in milliseconds, or -1 if the phase was not marked.
+     */
+    public static synchronized long millisAt(String phase) {
+        int i = names.indexOf(phase);
+        return i < 0 ? -1 : millis.get(i);
+    }
+
+    /**
+     * @return A table of all marked phases: time since launch, time since the previous mark, phase and thread.
+     */
+    public static synchronized String report() {
+        StringBuilder sb = new StringBuilder("Startup phases (ms since launch):\n");
+        long previous = 0;
+        for (int i = 0; i < names.size(); i++) {
+            long at = millis.get(i);
+            sb.append(String.format("  %6d  (+%5d)  %-32s [%s]%n", at, at - previous, names.get(i), threads.get(i)));
+            previous = at;
+        }
+        return sb.toString();
+    }
+
+    private static long launchOffsetMillis() {
+        try {
+            // JVM uptime is measured from the JVM's own start; the OS process start time can be off by a clock tick or more
+            return ManagementFactory.getRuntimeMXBean().getUptime();
+        } catch (RuntimeException | LinkageError e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A long-lived connection with a bounded, least-recently-used cache of prepared statements keyed by SQL text,
+ * so repeated query shapes skip SQL parsing and planning. SQLite re-prepares a cached statement by itself
+ * if the schema changes (e.g. a new index).
+ *
+ * <p>Role in System: Plan cache behind {@link SqliteMovieStore#query(MovieQuery)}, on a read-lane connection (see
+ * {@link JDBC.Lane}). A SQLite connection must not be used by two threads at once, so callers hold this object's
+ * monitor ({@code synchronized (cache)}) for as long as they use the connection or a statement from it. The
+ * connection is reopened when the configured database file changes.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class StatementCache {
+
+    private final int capacity;
+    private final SqliteDatabase database;
+    private final Map<String, PreparedStatement> statements;
+    private Connection connection;
+    private String databaseFile;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity The maximum number of cached statements.
+     * @param database The database to connect to.
+     */
+    public StatementCache(int capacity, SqliteDatabase database) {
+        this.capacity = capacity;
+        this.database = database;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached connection, opening it (again) if needed. The caller must hold this object's monitor.
+     * @return The connection, or null if it could not be opened.
+     */
+    public Connection connection() {
+        String file = database.getFile();
+        if (connection != null && Objects.equals(file, databaseFile)) return connection;
+        reset();
+        try {
+            connection = database.openConnection(JDBC.Lane.READ);
+        } catch (SQLException e) {
+            System.err.println("Connection Failed: Could not connect to database at " + file + ": " + e.getMessage());
+            connection = null;
+        }
+        databaseFile = file;
+        return connection;
+    }
+
+    /**
+     * Returns a cached statement for the SQL text, preparing and caching it on a miss.
+     * The caller must hold this object's monitor and must have called {@link #connection()}.
+     * @param sql The SQL text.
+     * @return The prepared statement; its parameters may still hold values from the previous use.
+     * @throws SQLException If the statement cannot be prepared.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt != null) {
+            hits++;
+            return pstmt;
+        }
+        misses++;
+        pstmt = connection.prepareStatement(sql);
+        statements.put(sql, pstmt);
+        if (statements.size() > capacity) {
+            Iterator<PreparedStatement> eldest = statements.values().iterator();
+            close(eldest.next());
+            eldest.remove();
+        }
+        return pstmt;
+    }
+
+    /**
+     * Closes every cached statement and the connection, e.g. after an error. The caller must hold this object's monitor.
+     */
+    public void reset() {
+        for (PreparedStatement pstmt : statements.values()) close(pstmt);
+        statements.clear();
+        JDBC.closeConnection(connection);
+        connection = null;
+    }
+
+    /** @return The number of lookups that reused a prepared statement. */
+    public synchronized long getHits() { return hits; }
+
+    /** @return The number of lookups that had to prepare a new statement. */
+    public synchronized long getMisses() { return misses; }
+
+    private static void close(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException ignored) {
+            // The statement is discarded either way.
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A growable dictionary that maps each distinct string to a small, dense {@code int} ID and keeps exactly one
+ * canonical {@code String} instance per value.
+ *
+ * <p>Role in System: Deduplicates low-cardinality text such as director names. The stores ({@link SqliteMovieStore},
+ * {@link LogMovieStore}, {@link InMemoryMovieStore}) pass the directors they read or keep through {@link #intern(String)},
+ * so their movies share one {@code String} per director, and the {@link CatalogSnapshot} builder uses the IDs to
+ * dictionary-encode its director column.</p>
+ *
+ * <p>All methods are synchronized, so one dictionary may be shared between threads.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class StringDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+
+    /**
+     * Returns the ID of a value, adding it to the dictionary if it is not present yet.
+     * @param value The string to encode (must not be null).
+     * @return The value's ID (0-based, assigned in insertion order).
+     */
+    public synchronized int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size] = value;
+        ids.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Looks up the ID of a value without adding it.
+     * @param value The string to look up.
+     * @return The value's ID, or -1 if it is not in the dictionary.
+     */
+    public synchronized int find(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Decodes an ID back to its canonical string.
+     * @param id The ID returned by {@link #idOf(String)}.
+     * @return The canonical string instance.
+     */
+    public synchronized String get(int id) {
+        if (id < 0 || id >= size) throw new IndexOutOfBoundsException("No dictionary entry " + id);
+        return values[id];
+    }
+
+    /**
+     * Returns the canonical instance equal to the given string, registering it if needed.
+     * @param value The string to deduplicate (null is returned unchanged).
+     * @return The shared instance equal to {@code value}.
+     */
+    public synchronized String intern(String value) {
+        if (value == null) return null;
+        int id = idOf(value);
+        return values[id];
+    }
+
+    /**
+     * @return The number of distinct values in the dictionary.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return A copy of all values, indexed by ID.
+     */
+    public synchronized String[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
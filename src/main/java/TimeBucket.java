@@ -0,0 +1,75 @@
+/**
+ * The calendar period a release timeline is bucketed by.
+ *
+ * <p>Role in System: Parameter of {@link ReleaseTimeline#series(TimeBucket, int)}. Buckets are numbered
+ * consecutively (e.g. quarter {@code year * 4 + q}), so a timeline can walk from its first to its last bucket and
+ * compute a bucket's first epoch day without calendar objects.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public enum TimeBucket {
+    /** Calendar years, e.g. {@code 2021}. */
+    YEAR("Year", 3),
+    /** Calendar quarters, e.g. {@code 2021-Q3}. */
+    QUARTER("Quarter", 4),
+    /** Calendar months, e.g. {@code 2021-07}. */
+    MONTH("Month", 12);
+
+    private final String label;
+    private final int defaultWindow;
+
+    TimeBucket(String label, int defaultWindow) {
+        this.label = label;
+        this.defaultWindow = defaultWindow;
+    }
+
+    /**
+     * @return The number of buckets a sliding average spans by default (three years, four quarters, twelve months).
+     */
+    public int getDefaultWindow() {
+        return defaultWindow;
+    }
+
+    /**
+     * @param year The calendar year.
+     * @param month The month (1-12).
+     * @return The consecutive number of the bucket containing that month.
+     */
+    public int indexOf(int year, int month) {
+        switch (this) {
+            case QUARTER: return year * 4 + (month - 1) / 3;
+            case MONTH: return year * 12 + month - 1;
+            default: return year;
+        }
+    }
+
+    /**
+     * @param index A bucket number from {@link #indexOf(int, int)}.
+     * @return The epoch day of the bucket's first day.
+     */
+    public int startEpochDay(int index) {
+        switch (this) {
+            case QUARTER: return IsoDate.epochDay(Math.floorDiv(index, 4), Math.floorMod(index, 4) * 3 + 1, 1);
+            case MONTH: return IsoDate.epochDay(Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1, 1);
+            default: return IsoDate.epochDay(index, 1, 1);
+        }
+    }
+
+    /**
+     * @param index A bucket number from {@link #indexOf(int, int)}.
+     * @return The bucket as text: {@code 2021}, {@code 2021-Q3} or {@code 2021-07}.
+     */
+    public String format(int index) {
+        switch (this) {
+            case QUARTER: return String.format("%04d-Q%d", Math.floorDiv(index, 4), Math.floorMod(index, 4) + 1);
+            case MONTH: return String.format("%04d-%02d", Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1);
+            default: return String.format("%04d", index);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
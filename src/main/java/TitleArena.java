@@ -0,0 +1,98 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only storage for many short strings packed into a single UTF-8 {@code byte[]}, with one {@code int} offset per entry.
+ * Compared to a {@code String[]}, it avoids a {@code String} header plus a separate backing array for every title.
+ *
+ * <p>Role in System: Holds the title column of {@link CatalogSnapshot}. Titles are decoded on demand by {@link #get(int)}.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class TitleArena {
+    private byte[] bytes;
+    private int[] offsets;
+    private int size;
+
+    /**
+     * Creates an arena sized for the expected number of entries.
+     * @param expectedEntries The expected number of strings.
+     * @param expectedBytes The expected total encoded size in bytes.
+     */
+    public TitleArena(int expectedEntries, int expectedBytes) {
+        this.bytes = new byte[Math.max(64, expectedBytes)];
+        this.offsets = new int[Math.max(16, expectedEntries) + 1];
+    }
+
+    /**
+     * Appends a string.
+     * @param value The string to store (null is stored as the empty string).
+     * @return The index of the new entry.
+     */
+    public int add(String value) {
+        byte[] encoded = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int end = offsets[size];
+        if (end + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, end + encoded.length));
+        }
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        System.arraycopy(encoded, 0, bytes, end, encoded.length);
+        offsets[size + 1] = end + encoded.length;
+        return size++;
+    }
+
+    /**
+     * Decodes an entry.
+     * @param index The entry index.
+     * @return A new {@code String} with the stored value.
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("No title " + index);
+        return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The number of stored entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The total encoded size of all entries in bytes.
+     */
+    public int byteLength() {
+        return offsets[size];
+    }
+
+    /**
+     * Copies the UTF-8 bytes of one entry into a buffer, without decoding them.
+     * @param index The entry index.
+     * @param dst The buffer to write into at its current position.
+     */
+    public void copyBytes(int index, ByteBuffer dst) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("No title " + index);
+        dst.put(bytes, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * Shrinks the backing arrays to their used length, once no more entries will be added.
+     * @return This arena.
+     */
+    public TitleArena trim() {
+        bytes = Arrays.copyOf(bytes, offsets[size]);
+        offsets = Arrays.copyOf(offsets, size + 1);
+        return this;
+    }
+
+    /**
+     * @return The approximate heap size of the arena's arrays in bytes.
+     */
+    public long footprintBytes() {
+        return 16L + bytes.length + 16L + 4L * offsets.length;
+    }
+}
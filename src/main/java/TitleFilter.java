@@ -0,0 +1,211 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Bloom filter over movie titles: a fixed bit array plus {@code k} hash positions per title. It answers
+ * "definitely not stored" without touching the database, and "possibly stored" with a configurable
+ * false-positive rate. The bit array is sized for an expected number of titles and the target rate, but never
+ * exceeds a memory budget; a capped filter simply has a higher false-positive rate, which {@link #getFalsePositiveRate()} reports.
+ *
+ * <p>Role in System: Duplicate pre-check behind {@link MovieManager}'s ingest paths and title lookups (see
+ * {@link MovieManager#enableTitleFilter(long, double, long)}). The manager adds every title it writes. Bloom filters
+ * cannot forget a title, so deletes and renames are only counted ({@link #noteRemoved(long)}); the stale bits raise
+ * the false-positive rate until the manager rebuilds the filter from the store ({@link #needsRebuild()}).
+ * The filter also counts how the manager used its answers: exact lookups it avoided, possible duplicates it sent to an
+ * exact check, and how many of those turned out to be false positives.</p>
+ *
+ * <p>Thread-safe: bits are set with atomic updates, so concurrent readers see each title either fully added or not yet.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class TitleFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final long capacity;
+    private final double targetRate;
+
+    // Titles added and titles removed since the filter was built
+    private final LongAdder added = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+
+    // How the manager used the answers
+    private final LongAdder probesSaved = new LongAdder();
+    private final LongAdder exactChecks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    // The store's data version the contents match (see MovieStore#dataVersion()); -1 if unknown. Also when it was
+    // read (System.nanoTime()), and whether the manager has written since, which moves the version without a read
+    private volatile long dataVersion = -1;
+    private volatile long verifiedAt;
+    private volatile boolean unverifiedWrites;
+
+    /**
+     * Creates an empty filter.
+     * @param expectedTitles The number of titles the filter is sized for (at least 1).
+     * @param falsePositiveRate The target false-positive rate at that size, between 0 and 1 (exclusive).
+     * @param maxBytes The memory budget for the bit array in bytes (at least 8).
+     */
+    public TitleFilter(long expectedTitles, double falsePositiveRate, long maxBytes) {
+        if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.capacity = Math.max(1, expectedTitles);
+        this.targetRate = falsePositiveRate;
+
+        // Optimal size m = -n ln(p) / (ln 2)^2, capped by the budget and by the largest array we can allocate
+        double optimal = -capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long maxBits = Math.min(Math.max(64, maxBytes * 8), (long) Integer.MAX_VALUE * 64);
+        long wordCount = (Math.min((long) Math.ceil(optimal), maxBits) + 63) / 64;
+        this.words = new AtomicLongArray((int) Math.max(1, wordCount));
+        this.bits = (long) words.length() * 64;
+        // Optimal hash count k = (m / n) ln 2 for the size actually allocated
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / capacity * Math.log(2))));
+    }
+
+    /**
+     * Adds a title. Adding a title that is already present changes nothing and is not counted again.
+     * @param title The title.
+     * @return true if any bit was newly set (the title was definitely not present before).
+     */
+    public boolean add(String title) {
+        long hash = hash(title);
+        long h1 = hash, h2 = (hash >>> 32) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+        if (changed) added.increment();
+        return changed;
+    }
+
+    /**
+     * Checks a title.
+     * @param title The title.
+     * @return false if the title was definitely never added; true if it possibly was.
+     */
+    public boolean mightContain(String title) {
+        long hash = hash(title);
+        long h1 = hash, h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts titles that left the store (deletes, old titles of renames). Their bits stay set.
+     * @param titles The number of titles removed.
+     */
+    public void noteRemoved(long titles) {
+        if (titles > 0) removed.add(titles);
+    }
+
+    /**
+     * @return true if removed titles or growth past the expected size have made the filter worse than it was sized
+     * for: more than a quarter of the added titles are stale, or more titles were added than expected.
+     */
+    public boolean needsRebuild() {
+        long n = added.sum();
+        return removed.sum() * 4 > n || n > capacity;
+    }
+
+    /** Records that a "definitely new" answer let the caller skip an exact lookup. */
+    public void recordProbeSaved() { probesSaved.increment(); }
+
+    /**
+     * Records the outcome of an exact check after a "possibly stored" answer.
+     * @param found true if the title did exist; false if the answer was a false positive.
+     */
+    public void recordExactCheck(boolean found) {
+        exactChecks.increment();
+        if (!found) falsePositives.increment();
+    }
+
+    /** @return The number of exact lookups avoided because the title was definitely not stored. */
+    public long getProbesSaved() { return probesSaved.sum(); }
+
+    /** @return The number of possible duplicates sent to an exact check. */
+    public long getExactChecks() { return exactChecks.sum(); }
+
+    /** @return The number of exact checks that found no such title. */
+    public long getFalsePositives() { return falsePositives.sum(); }
+
+    /** @return The number of distinct titles added since the filter was built (titles that set no new bit are not counted). */
+    public long getTitleCount() { return added.sum(); }
+
+    /** @return The number of removed titles whose bits are still set. */
+    public long getStaleCount() { return removed.sum(); }
+
+    /** @return The size of the bit array in bytes. */
+    public long getMemoryBytes() { return bits / 8; }
+
+    /** @return The number of hash positions per title. */
+    public int getHashCount() { return hashes; }
+
+    /** @return The configured false-positive rate at the expected size. */
+    public double getTargetFalsePositiveRate() { return targetRate; }
+
+    /**
+     * @return The expected false-positive rate for the titles added so far, {@code (1 - e^(-kn/m))^k}.
+     */
+    public double getFalsePositiveRate() {
+        return Math.pow(1.0 - Math.exp(-(double) hashes * added.sum() / bits), hashes);
+    }
+
+    /** @return The store data version the contents were last known to match, or -1. */
+    long getDataVersion() { return dataVersion; }
+
+    /** @return When the data version was last read from the store ({@link System#nanoTime()}). */
+    long getVerifiedAt() { return verifiedAt; }
+
+    /** @return true if the manager wrote to the store since the data version was read. */
+    boolean hasUnverifiedWrites() { return unverifiedWrites; }
+
+    /** Records a data version just read from the store (or -1 to stop trusting the contents). */
+    void setDataVersion(long version) {
+        dataVersion = version;
+        verifiedAt = System.nanoTime();
+        unverifiedWrites = false;
+    }
+
+    /** Records a write the manager made, whose titles are already in the filter. */
+    void noteWrite() { unverifiedWrites = true; }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, finished with the MurmurHash3 mixer so both halves are well spread.
+     */
+    private static long hash(String title) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < title.length(); i++) {
+            h ^= title.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("titles=%d (stale %d), %d KB, k=%d, fpp=%.4f (target %.4f), probes saved=%d, exact checks=%d, false positives=%d",
+                getTitleCount(), getStaleCount(), getMemoryBytes() / 1024, hashes, getFalsePositiveRate(), targetRate,
+                getProbesSaved(), getExactChecks(), getFalsePositives());
+    }
+}
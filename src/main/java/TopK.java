@@ -0,0 +1,54 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the first {@code k} movies of a stream in a given order, using a bounded heap, so a ranked page
+ * ("top 10 rated") costs O(n log k) time and O(k) memory instead of sorting every row.
+ *
+ * <p>Role in System: Helper for the stores that rank in memory ({@link InMemoryMovieStore}, {@link LogMovieStore})
+ * when no pre-sorted index covers the requested {@link MovieSort}.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class TopK {
+
+    private final Comparator<MarvelMovie> order;
+    private final int k;
+    // Reversed order: the head is the worst movie kept so far, the first to be evicted
+    private final PriorityQueue<MarvelMovie> heap;
+
+    /**
+     * @param order The ranking; the first movies in this order are kept.
+     * @param k The number of movies to keep (0 keeps none).
+     */
+    public TopK(Comparator<MarvelMovie> order, int k) {
+        this.order = order;
+        this.k = Math.max(0, k);
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(this.k, 1024)), order.reversed());
+    }
+
+    /**
+     * Offers a movie; it is kept only if it ranks among the first {@code k} seen so far.
+     * @param movie The movie.
+     */
+    public void offer(MarvelMovie movie) {
+        if (heap.size() < k) {
+            heap.add(movie);
+        } else if (k > 0 && order.compare(movie, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(movie);
+        }
+    }
+
+    /**
+     * @return The kept movies, best first.
+     */
+    public List<MarvelMovie> sorted() {
+        List<MarvelMovie> movies = new ArrayList<>(heap);
+        movies.sort(order);
+        return movies;
+    }
+}
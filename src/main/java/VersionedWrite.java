@@ -0,0 +1,91 @@
+/**
+ * The outcome of a write that was made conditional on the row version the caller read (optimistic concurrency):
+ * either it was applied, or it failed fast because the movie changed or disappeared in the meantime, or the
+ * store failed.
+ *
+ * <p>Role in System: Result type of {@link MovieStore#update(String, long, MarvelMovie)},
+ * {@link MovieStore#delete(String, long)} and the matching {@link MovieManager} methods. A conflict carries the
+ * movie as it is now, so the caller can show it or re-apply its edit to it (see
+ * {@link MovieManager#updateWithRetry(String, int, java.util.function.UnaryOperator)}).</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class VersionedWrite {
+
+    /**
+     * What happened to the write.
+     */
+    public enum Status {
+        /** The version matched and the write was made. */
+        APPLIED,
+        /** The movie was changed by someone else since it was read; nothing was written. */
+        CONFLICT,
+        /** No movie with that title exists (any more). */
+        NOT_FOUND,
+        /** The input was invalid or the store failed. */
+        FAILED
+    }
+
+    private static final VersionedWrite NOT_FOUND = new VersionedWrite(Status.NOT_FOUND, 0, null);
+    private static final VersionedWrite FAILED = new VersionedWrite(Status.FAILED, 0, null);
+
+    private final Status status;
+    private final long version;
+    private final MarvelMovie current;
+
+    private VersionedWrite(Status status, long version, MarvelMovie current) {
+        this.status = status;
+        this.version = version;
+        this.current = current;
+    }
+
+    /**
+     * @param version The movie's version after the write (for a delete: the version that was deleted).
+     * @return An applied write.
+     */
+    public static VersionedWrite applied(long version) {
+        return new VersionedWrite(Status.APPLIED, version, null);
+    }
+
+    /**
+     * @param current The movie as it is now, with its current version.
+     * @return A rejected write.
+     */
+    public static VersionedWrite conflict(MarvelMovie current) {
+        return new VersionedWrite(Status.CONFLICT, current.getVersion(), current);
+    }
+
+    /** @return The result for a title that does not exist. */
+    public static VersionedWrite notFound() {
+        return NOT_FOUND;
+    }
+
+    /** @return The result for invalid input or a store failure. */
+    public static VersionedWrite failed() {
+        return FAILED;
+    }
+
+    /** @return What happened. */
+    public Status getStatus() { return status; }
+
+    /** @return true if the write was made. */
+    public boolean isApplied() { return status == Status.APPLIED; }
+
+    /** @return true if the write was rejected because the movie changed since it was read. */
+    public boolean isConflict() { return status == Status.CONFLICT; }
+
+    /**
+     * @return The new version after an applied update, the deleted version after an applied delete, the current
+     * version on a conflict; 0 otherwise.
+     */
+    public long getVersion() { return version; }
+
+    /** @return On a conflict, the movie as it is now (with its version); otherwise null. */
+    public MarvelMovie getCurrent() { return current; }
+
+    @Override
+    public String toString() {
+        return status + (status == Status.APPLIED || status == Status.CONFLICT ? " (version " + version + ")" : "");
+    }
+}
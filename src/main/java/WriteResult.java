@@ -0,0 +1,63 @@
+/**
+ * The outcome of a write through {@link MovieManager}: done, refused before reaching the store, nothing to change,
+ * or failed, with contention (the database stayed locked through every retry) told apart from other failures so the
+ * caller can offer to try again instead of reporting an error.
+ *
+ * <p>Role in System: Result type of {@link MovieManager#addMovie(MarvelMovie)},
+ * {@link MovieManager#removeMovie(String)} and {@link MovieManager#updateMovieField(MarvelMovie, String, Object)}.
+ * Immutable; one shared instance per status.</p>
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+public final class WriteResult {
+
+    /**
+     * What happened to the write.
+     */
+    public enum Status {
+        /** The write was made. */
+        OK,
+        /** The input failed validation; the store was not called. */
+        INVALID,
+        /** The store had nothing to do: a duplicate title on insert, or no such title on update/delete. */
+        UNCHANGED,
+        /** The database stayed locked by another connection through every retry of the {@link RetryPolicy}. */
+        BUSY,
+        /** The store failed for another reason. */
+        FAILED
+    }
+
+    private static final WriteResult[] RESULTS = new WriteResult[Status.values().length];
+    static {
+        for (Status s : Status.values()) RESULTS[s.ordinal()] = new WriteResult(s);
+    }
+
+    private final Status status;
+
+    private WriteResult(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @param status A status.
+     * @return The result with that status.
+     */
+    public static WriteResult of(Status status) {
+        return RESULTS[status.ordinal()];
+    }
+
+    /** @return What happened. */
+    public Status getStatus() { return status; }
+
+    /** @return true if the write was made. */
+    public boolean isOk() { return status == Status.OK; }
+
+    /** @return true if the write failed only because the database was locked, so trying again later may succeed. */
+    public boolean isBusy() { return status == Status.BUSY; }
+
+    @Override
+    public String toString() {
+        return status.toString();
+    }
+}
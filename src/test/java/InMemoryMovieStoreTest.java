@@ -0,0 +1,15 @@
+import java.nio.file.Path;
+
+/**
+ * Runs the {@link MovieStoreConformanceTest} suite against {@link InMemoryMovieStore}.
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+class InMemoryMovieStoreTest extends MovieStoreConformanceTest {
+
+    @Override
+    protected MovieStore createStore(Path directory) {
+        return new InMemoryMovieStore();
+    }
+}
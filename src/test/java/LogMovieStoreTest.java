@@ -0,0 +1,20 @@
+import java.nio.file.Path;
+
+/**
+ * Runs the {@link MovieStoreConformanceTest} suite against {@link LogMovieStore} on a temporary log file.
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+class LogMovieStoreTest extends MovieStoreConformanceTest {
+
+    @Override
+    protected MovieStore createStore(Path directory) throws Exception {
+        return new LogMovieStore(directory.resolve("movies.log"));
+    }
+
+    @Override
+    protected void closeStore(MovieStore store) throws Exception {
+        ((LogMovieStore) store).close();
+    }
+}
@@ -0,0 +1,270 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The behaviour every {@link MovieStore} engine must share. Each engine has a subclass that opens a fresh store
+ * in a temporary directory; the tests here only go through the {@link MovieStore} interface.
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+abstract class MovieStoreConformanceTest {
+
+    @TempDir
+    Path directory;
+
+    /** The store under test, opened fresh for every test. */
+    protected MovieStore store;
+
+    /**
+     * @param directory An empty temporary directory the store may keep its files in.
+     * @return A new, empty store.
+     * @throws Exception If the store could not be opened.
+     */
+    protected abstract MovieStore createStore(Path directory) throws Exception;
+
+    /**
+     * Releases the store's files and connections; stores without any need not override this.
+     * @param store The store returned by {@link #createStore(Path)}.
+     * @throws Exception If the store could not be closed.
+     */
+    protected void closeStore(MovieStore store) throws Exception {
+    }
+
+    @BeforeEach
+    void open() throws Exception {
+        store = createStore(directory);
+        assertNotNull(store);
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        closeStore(store);
+    }
+
+    protected static MarvelMovie movie(String title, String releaseDate, int phase, int runtime, double rating) {
+        return new MarvelMovie(title, releaseDate, phase, "Director " + title, runtime, rating);
+    }
+
+    private void insertCatalog() {
+        assertEquals(5, store.insertAll(List.of(
+                movie("Iron Man", "2008-05-02", 1, 126, 7.9),
+                movie("Thor", "2011-05-06", 1, 115, 7.0),
+                movie("Ant-Man", "2015-07-17", 2, 117, 7.3),
+                movie("Black Panther", "2018-02-16", 3, 134, 7.3),
+                movie("Eternals", "2021-11-05", 4, 156, 6.3))));
+    }
+
+    private List<String> titles(List<MarvelMovie> movies) {
+        List<String> titles = new ArrayList<>();
+        for (MarvelMovie movie : movies) titles.add(movie.getTitle());
+        return titles;
+    }
+
+    @Test
+    void insertRejectsDuplicateTitle() {
+        assertTrue(store.insert(movie("Iron Man", "2008-05-02", 1, 126, 7.9)));
+        assertFalse(store.insert(movie("Iron Man", "2010-05-07", 1, 124, 6.9)));
+        MarvelMovie found = store.find("Iron Man");
+        assertNotNull(found);
+        assertEquals("2008-05-02", found.getReleaseDate());
+        assertEquals(1, store.aggregate(MovieFilter.all()).getCount());
+    }
+
+    @Test
+    void insertAllSkipsExistingTitles() {
+        assertTrue(store.insert(movie("Thor", "2011-05-06", 1, 115, 7.0)));
+        int inserted = store.insertAll(List.of(
+                movie("Iron Man", "2008-05-02", 1, 126, 7.9),
+                movie("Thor", "2011-05-06", 1, 999, 1.0),
+                movie("Ant-Man", "2015-07-17", 2, 117, 7.3)));
+        assertEquals(2, inserted);
+        assertEquals(3, store.aggregate(MovieFilter.all()).getCount());
+        assertEquals(115, store.find("Thor").getRunningTimeMin());
+    }
+
+    @Test
+    void updateChangesOneColumn() {
+        insertCatalog();
+        assertTrue(store.update("Thor", "imdbRating", 8.1));
+        assertTrue(store.update("Thor", "runningTimeMin", 120));
+        assertEquals(8.1, store.find("Thor").getImdbRating(), 1e-9);
+        assertEquals(120, store.find("Thor").getRunningTimeMin());
+        assertFalse(store.update("Nobody", "imdbRating", 5.0));
+    }
+
+    @Test
+    void updateRenamesTitle() {
+        insertCatalog();
+        assertTrue(store.update("Thor", "title", "Thor: The Dark World"));
+        assertNull(store.find("Thor"));
+        MarvelMovie renamed = store.find("Thor: The Dark World");
+        assertNotNull(renamed);
+        assertEquals(115, renamed.getRunningTimeMin());
+        assertEquals(5, store.aggregate(MovieFilter.all()).getCount());
+    }
+
+    @Test
+    void deleteRemovesOnlyThatTitle() {
+        insertCatalog();
+        assertTrue(store.delete("Thor"));
+        assertFalse(store.delete("Thor"));
+        assertNull(store.find("Thor"));
+        assertNotNull(store.find("Iron Man"));
+        assertEquals(4, store.aggregate(MovieFilter.all()).getCount());
+    }
+
+    @Test
+    void findReturnsStoredValues() {
+        insertCatalog();
+        MarvelMovie found = store.find("Black Panther");
+        assertNotNull(found);
+        assertEquals("2018-02-16", found.getReleaseDate());
+        assertEquals(3, found.getPhase());
+        assertEquals("Director Black Panther", found.getDirector());
+        assertEquals(134, found.getRunningTimeMin());
+        assertEquals(7.3, found.getImdbRating(), 1e-9);
+        assertNull(store.find("Blade"));
+    }
+
+    @Test
+    void scanVisitsRowsInSortOrder() throws Exception {
+        insertCatalog();
+        List<String> visited = new ArrayList<>();
+        long count = store.scan(MovieFilter.all(), MovieSort.TITLE,
+                (title, releaseDate, phase, director, runtime, rating) -> visited.add(title));
+        assertEquals(5, count);
+        assertEquals(List.of("Ant-Man", "Black Panther", "Eternals", "Iron Man", "Thor"), visited);
+
+        visited.clear();
+        store.scan(MovieFilter.all().phase(1), MovieSort.RELEASE_DATE,
+                (title, releaseDate, phase, director, runtime, rating) -> visited.add(title));
+        assertEquals(List.of("Iron Man", "Thor"), visited);
+
+        visited.clear();
+        store.scan(MovieFilter.all(), MovieSort.RATING,
+                (title, releaseDate, phase, director, runtime, rating) -> visited.add(title));
+        // Equal ratings fall back to title order
+        assertEquals(List.of("Iron Man", "Ant-Man", "Black Panther", "Thor", "Eternals"), visited);
+    }
+
+    @Test
+    void pageAppliesOffsetAndLimit() {
+        insertCatalog();
+        assertEquals(List.of("Black Panther", "Eternals"), titles(store.page(MovieFilter.all(), MovieSort.TITLE, 1, 2)));
+        assertEquals(List.of("Thor"), titles(store.page(MovieFilter.all(), MovieSort.TITLE, 4, 10)));
+        assertTrue(store.page(MovieFilter.all(), MovieSort.TITLE, 5, 10).isEmpty());
+        assertEquals(List.of("Eternals", "Black Panther"), titles(store.page(MovieFilter.all(), MovieSort.NEWEST, 0, 2)));
+    }
+
+    @Test
+    void aggregateSummarizesMatchingRows() {
+        insertCatalog();
+        MovieStats all = store.aggregate(MovieFilter.all());
+        assertEquals(5, all.getCount());
+        assertEquals((7.9 + 7.0 + 7.3 + 7.3 + 6.3) / 5, all.getAverageRating(), 1e-9);
+        assertEquals(6.3, all.getMinRating(), 1e-9);
+        assertEquals(7.9, all.getMaxRating(), 1e-9);
+        assertEquals((126 + 115 + 117 + 134 + 156) / 5.0, all.getAverageRuntime(), 1e-9);
+
+        MovieStats phaseOne = store.aggregate(MovieFilter.all().phase(1));
+        assertEquals(2, phaseOne.getCount());
+        assertEquals((7.9 + 7.0) / 2, phaseOne.getAverageRating(), 1e-9);
+
+        assertEquals(0, store.aggregate(MovieFilter.all().phase(9)).getCount());
+    }
+
+    @Test
+    void versionedUpdateRejectsStaleVersion() {
+        insertCatalog();
+        MarvelMovie read = store.find("Thor");
+        MarvelMovie edit = movie("Thor", "2011-05-06", 1, 115, 8.0);
+
+        VersionedWrite first = store.update("Thor", read.getVersion(), edit);
+        assertTrue(first.isApplied());
+        assertEquals(first.getVersion(), store.find("Thor").getVersion());
+
+        VersionedWrite stale = store.update("Thor", read.getVersion(), movie("Thor", "2011-05-06", 1, 115, 5.0));
+        assertTrue(stale.isConflict());
+        assertEquals(8.0, stale.getCurrent().getImdbRating(), 1e-9);
+        assertEquals(8.0, store.find("Thor").getImdbRating(), 1e-9);
+
+        assertEquals(VersionedWrite.Status.NOT_FOUND, store.update("Blade", 1, movie("Blade", "1998-08-21", 0, 120, 7.1)).getStatus());
+    }
+
+    @Test
+    void versionedUpdateCanRename() {
+        insertCatalog();
+        MarvelMovie read = store.find("Thor");
+        VersionedWrite renamed = store.update("Thor", read.getVersion(), movie("Thor: Ragnarok", "2017-11-03", 3, 130, 7.9));
+        assertTrue(renamed.isApplied());
+        assertNull(store.find("Thor"));
+        MarvelMovie found = store.find("Thor: Ragnarok");
+        assertNotNull(found);
+        assertEquals(renamed.getVersion(), found.getVersion());
+        assertEquals(3, found.getPhase());
+
+        // Renaming onto a title that already exists is refused
+        VersionedWrite clash = store.update("Thor: Ragnarok", found.getVersion(), movie("Iron Man", "2017-11-03", 3, 130, 7.9));
+        assertFalse(clash.isApplied());
+        assertNotNull(store.find("Thor: Ragnarok"));
+    }
+
+    @Test
+    void versionedDeleteRejectsStaleVersion() {
+        insertCatalog();
+        MarvelMovie read = store.find("Thor");
+        assertTrue(store.update("Thor", "imdbRating", 8.0));
+
+        VersionedWrite stale = store.delete("Thor", read.getVersion());
+        assertTrue(stale.isConflict());
+        assertNotNull(store.find("Thor"));
+
+        VersionedWrite fresh = store.delete("Thor", store.find("Thor").getVersion());
+        assertTrue(fresh.isApplied());
+        assertNull(store.find("Thor"));
+        assertEquals(VersionedWrite.Status.NOT_FOUND, store.delete("Thor", 1).getStatus());
+    }
+
+    @Test
+    void mergeCountsFollowPolicy() {
+        insertCatalog();
+        List<MarvelMovie> incoming = List.of(
+                movie("Iron Man", "2008-05-02", 1, 126, 8.5),
+                movie("Thor", "2011-05-06", 1, 115, 6.0),
+                movie("Ant-Man", "2015-07-17", 2, 117, 7.3),
+                movie("Blade", "2025-11-07", 6, 120, 7.1));
+
+        assertMerge(1, 0, 3, store.merge(incoming, MergePolicy.SKIP));
+        assertEquals(7.9, store.find("Iron Man").getImdbRating(), 1e-9);
+
+        assertMerge(0, 1, 3, store.merge(incoming, MergePolicy.KEEP_HIGHER_RATING));
+        assertEquals(8.5, store.find("Iron Man").getImdbRating(), 1e-9);
+        assertEquals(7.0, store.find("Thor").getImdbRating(), 1e-9);
+
+        assertMerge(0, 1, 3, store.merge(incoming, MergePolicy.ONLY_IF_CHANGED));
+        assertEquals(6.0, store.find("Thor").getImdbRating(), 1e-9);
+
+        assertMerge(0, 4, 0, store.merge(incoming, MergePolicy.OVERWRITE));
+        assertEquals(6, store.aggregate(MovieFilter.all()).getCount());
+    }
+
+    private static void assertMerge(long inserted, long updated, long skipped, MergeResult result) {
+        assertNotNull(result);
+        assertEquals(inserted, result.getInserted(), "inserted");
+        assertEquals(updated, result.getUpdated(), "updated");
+        assertEquals(skipped, result.getSkipped(), "skipped");
+    }
+}
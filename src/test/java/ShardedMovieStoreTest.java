@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link MovieStoreConformanceTest} suite against a {@link ShardedMovieStore} of four SQLite shards,
+ * placed by title hash so the catalog really spreads over several files, plus the cases where a write moves a movie
+ * between shards.
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+class ShardedMovieStoreTest extends MovieStoreConformanceTest {
+
+    @Override
+    protected MovieStore createStore(Path directory) throws Exception {
+        return ShardedMovieStore.openSqlite(directory, 4, ShardKey.TITLE_HASH);
+    }
+
+    @Override
+    protected void closeStore(MovieStore store) {
+        ((ShardedMovieStore) store).close();
+    }
+
+    private ShardedMovieStore openByPhase() throws Exception {
+        ShardedMovieStore byPhase = ShardedMovieStore.openSqlite(Files.createDirectory(directory.resolve("by-phase")), 4, ShardKey.PHASE);
+        assertNotNull(byPhase);
+        return byPhase;
+    }
+
+    @Test
+    void staleEditAfterPhaseMoveIsConflict() throws Exception {
+        ShardedMovieStore byPhase = openByPhase();
+        try {
+            assertTrue(byPhase.insert(movie("Iron Man", "2008-05-02", 1, 126, 7.9)));
+            MarvelMovie readByX = byPhase.find("Iron Man");
+            MarvelMovie readByY = byPhase.find("Iron Man");
+            assertEquals(1, readByX.getVersion());
+            assertEquals(1, readByY.getVersion());
+
+            // Y changes the phase, which moves the movie to another shard
+            VersionedWrite moved = byPhase.update("Iron Man", readByY.getVersion(), movie("Iron Man", "2008-05-02", 2, 126, 7.9));
+            assertTrue(moved.isApplied());
+            assertEquals(2, moved.getVersion());
+            assertEquals(2, byPhase.find("Iron Man").getVersion());
+
+            // X still holds version 1, whether its edit keeps the old phase or carries the new one
+            VersionedWrite staleOldPhase = byPhase.update("Iron Man", readByX.getVersion(), movie("Iron Man", "2008-05-02", 1, 126, 5.0));
+            assertTrue(staleOldPhase.isConflict());
+            VersionedWrite staleNewPhase = byPhase.update("Iron Man", readByX.getVersion(), movie("Iron Man", "2008-05-02", 2, 126, 5.0));
+            assertTrue(staleNewPhase.isConflict());
+            assertTrue(byPhase.delete("Iron Man", readByX.getVersion()).isConflict());
+            assertEquals(7.9, byPhase.find("Iron Man").getImdbRating(), 1e-9);
+            assertEquals(2, byPhase.find("Iron Man").getPhase());
+        } finally {
+            byPhase.close();
+        }
+    }
+
+    @Test
+    void columnUpdateThatMovesShardsBumpsVersion() throws Exception {
+        ShardedMovieStore byPhase = openByPhase();
+        try {
+            assertTrue(byPhase.insert(movie("Thor", "2011-05-06", 1, 115, 7.0)));
+            long before = byPhase.find("Thor").getVersion();
+            assertTrue(byPhase.update("Thor", "phase", 3));
+            MarvelMovie after = byPhase.find("Thor");
+            assertEquals(3, after.getPhase());
+            assertEquals(before + 1, after.getVersion());
+            assertTrue(byPhase.update("Thor", before, movie("Thor", "2011-05-06", 3, 115, 1.0)).isConflict());
+        } finally {
+            byPhase.close();
+        }
+    }
+
+    @Test
+    void concurrentInsertsOfOneTitleLandInOneShard() throws Exception {
+        ShardedMovieStore byPhase = openByPhase();
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                String title = "Movie " + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int phase = 1; phase <= 8; phase++) {
+                    MarvelMovie candidate = movie(title, "2020-01-01", phase, 120, 7.0);
+                    // Half the writers rename an existing movie onto the same title instead of inserting it
+                    if (phase % 2 == 0) {
+                        String source = title + " (draft " + phase + ")";
+                        assertTrue(byPhase.insert(movie(source, "2020-01-01", phase, 120, 7.0)));
+                        results.add(writers.submit(() -> {
+                            start.await();
+                            return byPhase.update(source, "title", title);
+                        }));
+                    } else {
+                        results.add(writers.submit(() -> {
+                            start.await();
+                            return byPhase.insert(candidate);
+                        }));
+                    }
+                }
+                start.countDown();
+                int succeeded = 0;
+                for (Future<Boolean> result : results) {
+                    if (result.get()) succeeded++;
+                }
+                assertEquals(1, succeeded, title);
+
+                int copies = 0;
+                for (int shard = 0; shard < byPhase.getShardCount(); shard++) {
+                    if (byPhase.getShard(shard).find(title) != null) copies++;
+                }
+                assertEquals(1, copies, title);
+            }
+        } finally {
+            writers.shutdownNow();
+            byPhase.close();
+        }
+    }
+}
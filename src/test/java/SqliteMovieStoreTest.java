@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link MovieStoreConformanceTest} suite against {@link SqliteMovieStore} on a temporary database file.
+ *
+ * @author [Ramirez,Christopher]
+ * @version 1.0
+ */
+class SqliteMovieStoreTest extends MovieStoreConformanceTest {
+
+    private SqliteDatabase database;
+
+    @Override
+    protected MovieStore createStore(Path directory) throws Exception {
+        JDBC.loadDriver();
+        database = new SqliteDatabase(directory.resolve("movies.db").toString());
+        SqliteMovieStore sqlite = new SqliteMovieStore(database);
+        return sqlite.createTable() ? sqlite : null;
+    }
+
+    @Override
+    protected void closeStore(MovieStore store) {
+        database.closeIdleConnections();
+    }
+
+    @Test
+    void dataVersionSeesCommitThatLeavesFilesLookingUnchanged() throws Exception {
+        assertTrue(store.insert(movie("Iron Man", "2008-05-02", 1, 126, 7.9)));
+        assertTrue(store.update("Iron Man", "imdbRating", 7.8));
+        Path file = Path.of(database.getFile());
+
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = other.createStatement()) {
+            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            long version = store.dataVersion();
+            assertTrue(version >= 0);
+            FileTime modified = Files.getLastModifiedTime(file);
+
+            // Another connection commits and checkpoints: the file keeps its size, the WAL is empty again and, on a
+            // file system with coarse timestamps, the modification time does not move either
+            stmt.executeUpdate("UPDATE movies SET imdbRating = 7.0 WHERE title = 'Iron Man'");
+            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            Files.setLastModifiedTime(file, modified);
+
+            assertNotEquals(version, store.dataVersion());
+        }
+    }
+
+    @Test
+    void readsDoNotChangeTheSchemaOfAnOldTable() throws Exception {
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + database.getFile());
+             Statement stmt = other.createStatement()) {
+            stmt.executeUpdate("DROP TABLE movies");
+            stmt.executeUpdate("CREATE TABLE movies (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT UNIQUE NOT NULL, "
+                    + "releaseDate TEXT, phase INTEGER, director TEXT, runningTimeMin INTEGER, imdbRating REAL)");
+            stmt.executeUpdate("INSERT INTO movies (title, releaseDate, phase, director, runningTimeMin, imdbRating) "
+                    + "VALUES ('Thor', '2011-05-06', 1, 'Kenneth Branagh', 115, 7.0)");
+        }
+        SqliteMovieStore.forgetSchema(database.getFile());
+        long before = store.dataVersion();
+
+        MarvelMovie found = store.find("Thor");
+        assertNotNull(found);
+        assertEquals(1, store.findAll(List.of("Thor")).size());
+        assertEquals(1, store.page(MovieFilter.all(), MovieSort.RATING, 0, 10).size());
+        assertEquals(before, store.dataVersion());
+        assertFalse(columnExists("version"));
+        assertFalse(indexExists("idx_movies_rating"));
+
+        // The first versioned write adds the column, and the version read before it still matches
+        assertTrue(store.update("Thor", found.getVersion(), movie("Thor", "2011-05-06", 1, 115, 7.5)).isApplied());
+        assertTrue(columnExists("version"));
+        assertTrue(indexExists("idx_movies_rating"));
+    }
+
+    private boolean indexExists(String index) throws Exception {
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + database.getFile());
+             Statement stmt = other.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = '" + index + "'")) {
+            return rs.next();
+        }
+    }
+
+    private boolean columnExists(String column) throws Exception {
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + database.getFile());
+             Statement stmt = other.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(movies)")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) return true;
+            }
+            return false;
+        }
+    }
+
+    @Test
+    void dataVersionMovesOnChangingWritesAndAddsNoTriggers() throws Exception {
+        long empty = store.dataVersion();
+        assertTrue(store.insert(movie("Iron Man", "2008-05-02", 1, 126, 7.9)));
+        assertTrue(store.update("Iron Man", "imdbRating", 7.8));
+        long written = store.dataVersion();
+        assertNotEquals(empty, written);
+
+        assertFalse(store.update("Nobody", "imdbRating", 5.0));
+        assertFalse(store.delete("Nobody"));
+        assertNotNull(store.find("Iron Man"));
+        assertEquals(1, store.findAll(List.of("Iron Man", "Thor")).values().stream().filter(m -> m != null).count());
+        assertEquals(written, store.dataVersion());
+        assertTrue(store.delete("Iron Man"));
+        assertNotEquals(written, store.dataVersion());
+
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + database.getFile());
+             Statement stmt = other.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger'")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+}